@@ -0,0 +1,122 @@
+package com.example.aireply.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 将 JMH 的 JSON 结果与已提交的基线对比
+ * <p>
+ * 按 基准名 + 参数 匹配，主指标（耗时或吞吐）与 gc.alloc.rate.norm（每次调用分配的字节数）
+ * 任一劣化超过阈值即视为回退，进程以非零状态退出。
+ * 基线缺失的基准只打印结果；基线需在目标机器上生成，追加 --update 参数可用本次结果覆盖基线。
+ * </p>
+ * 用法：BaselineComparator &lt;baseline.json&gt; &lt;result.json&gt; [--threshold=0.10] [--update]
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineComparator <baseline.json> <result.json> [--threshold=0.10] [--update]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double threshold = 0.10;
+        boolean update = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--threshold=")) {
+                threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+            } else if ("--update".equals(args[i])) {
+                update = true;
+            }
+        }
+
+        Map<String, JSONObject> baseline = Files.exists(baselinePath) ? index(baselinePath) : Map.of();
+        Map<String, JSONObject> result = index(resultPath);
+        int regressions = 0;
+        for (Map.Entry<String, JSONObject> entry : result.entrySet()) {
+            regressions += compare(entry.getKey(), baseline.get(entry.getKey()), entry.getValue(), threshold);
+        }
+
+        if (update) {
+            Files.copy(resultPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("基线已更新: " + baselinePath);
+            return;
+        }
+        if (regressions > 0) {
+            System.out.printf("共 %d 项超过 %.0f%% 的回退%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    private static int compare(String key, JSONObject base, JSONObject current, double threshold) {
+        JSONObject primary = current.getJSONObject("primaryMetric");
+        double score = primary.getDoubleValue("score");
+        String unit = primary.getString("scoreUnit");
+        double alloc = allocNorm(current);
+        if (base == null) {
+            System.out.printf("[新增] %s: %.3f %s, %.0f B/op%n", key, score, unit, alloc);
+            return 0;
+        }
+        // 吞吐量越高越好，其余模式均为耗时，越低越好
+        boolean higherIsBetter = "thrpt".equals(current.getString("mode"));
+        double baseScore = base.getJSONObject("primaryMetric").getDoubleValue("score");
+        double scoreChange = change(baseScore, score);
+        boolean slower = higherIsBetter ? scoreChange < -threshold : scoreChange > threshold;
+        double baseAlloc = allocNorm(base);
+        double allocChange = change(baseAlloc, alloc);
+        // 分配量极小时的波动没有意义，低于 16 字节不参与比较
+        boolean allocating = alloc >= 16 && allocChange > threshold;
+
+        String tag = slower || allocating ? "[回退]" : "[正常]";
+        System.out.printf("%s %s: %.3f -> %.3f %s (%+.1f%%), %.0f -> %.0f B/op (%+.1f%%)%n",
+                tag, key, baseScore, score, unit, scoreChange * 100, baseAlloc, alloc, allocChange * 100);
+        return slower || allocating ? 1 : 0;
+    }
+
+    private static double change(double base, double current) {
+        if (Double.isNaN(base) || Double.isNaN(current) || base == 0) {
+            return 0;
+        }
+        return (current - base) / base;
+    }
+
+    private static double allocNorm(JSONObject run) {
+        JSONObject secondary = run.getJSONObject("secondaryMetrics");
+        JSONObject alloc = secondary != null ? secondary.getJSONObject(ALLOC_NORM) : null;
+        return alloc != null ? alloc.getDoubleValue("score") : Double.NaN;
+    }
+
+    private static Map<String, JSONObject> index(Path path) throws IOException {
+        JSONArray runs = JSON.parseArray(Files.readString(path, StandardCharsets.UTF_8));
+        Map<String, JSONObject> indexed = new LinkedHashMap<>();
+        if (runs == null) {
+            return indexed;
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            JSONObject run = runs.getJSONObject(i);
+            JSONObject params = run.getJSONObject("params");
+            String key = run.getString("benchmark");
+            if (params != null && !params.isEmpty()) {
+                key += new TreeMap<>(params);
+            }
+            indexed.put(key, run);
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsStoreConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试共用的固定数据，取值贴近树莓派上的真实运行状态
+ */
+final class BenchmarkFixtures {
+
+    /** 每秒一条、覆盖趋势图两小时窗口的历史容量 */
+    static final int HISTORY_CAPACITY = 8192;
+
+    private BenchmarkFixtures() {
+    }
+
+    static SystemMetrics metrics() {
+        return new SystemMetrics("raspberrypi", "Linux 6.6.31", "aarch64", 0.25, 256, 1024, 25.0,
+                59, 21, 35.6, TimeUnit.DAYS.toMillis(3) + TimeUnit.HOURS.toMillis(4), 48.3,
+                18.2, 7_812.0, 5_120.0, 34.5, 0.42, 125_000.0, 48_000.0, 2_048_000.0, 512_000.0);
+    }
+
+    /**
+     * 仅内存的历史仓库，预先写入截至当前时刻、每秒一条的样本
+     */
+    static MetricsRepository repository(int samples) {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        MetricsRepository repository = new MetricsRepository(HISTORY_CAPACITY, storeConfig);
+        double[] values = new double[MetricField.count()];
+        values[MetricField.USED_HEAP_MB.ordinal()] = 256;
+        values[MetricField.MAX_HEAP_MB.ordinal()] = 1024;
+        values[MetricField.HEAP_USAGE_PERCENT.ordinal()] = 25.0;
+        values[MetricField.DISK_TOTAL_GB.ordinal()] = 59;
+        values[MetricField.DISK_USED_GB.ordinal()] = 21;
+        values[MetricField.DISK_USAGE_PERCENT.ordinal()] = 35.6;
+        values[MetricField.MEMORY_TOTAL_MB.ordinal()] = 7_812.0;
+        values[MetricField.MEMORY_AVAILABLE_MB.ordinal()] = 5_120.0;
+        long start = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(samples);
+        for (int i = 0; i < samples; i++) {
+            values[MetricField.CPU_LOAD.ordinal()] = 0.2 + 0.1 * Math.sin(i / 60.0);
+            values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = 45 + 5 * Math.cos(i / 90.0);
+            repository.append(start + TimeUnit.SECONDS.toMillis(i), values);
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.util.DateTimeUtils;
+import com.example.aireply.util.DurationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时长与时间格式化工具，报表、图表刻度和日志中调用频繁
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatterBenchmark {
+
+    /** 覆盖毫秒、秒、分钟与多天四个量级 */
+    @Param({"125", "59500", "5430000", "273600000"})
+    public long millis;
+
+    private final long epochMillis = 1_939_284_000_000L;
+
+    private final Date date = new Date(epochMillis);
+
+    @Benchmark
+    public String smartDuration() {
+        return DurationUtils.formatSmartDuration(millis);
+    }
+
+    @Benchmark
+    public String hms() {
+        return DurationUtils.formatHMS(millis);
+    }
+
+    @Benchmark
+    public String dayHm() {
+        return DurationUtils.formatDayHm(millis);
+    }
+
+    @Benchmark
+    public String smartLong() {
+        return DurationUtils.formatSmartLong(millis);
+    }
+
+    @Benchmark
+    public String compactEn() {
+        return DurationUtils.formatCompactEn(millis);
+    }
+
+    @Benchmark
+    public String natural() {
+        return DurationUtils.formatNatural(millis);
+    }
+
+    @Benchmark
+    public String fullFromDate() {
+        return DateTimeUtils.formatFull(date);
+    }
+
+    @Benchmark
+    public String timeOnlyFromMillis() {
+        return DateTimeUtils.formatTimeOnly(epochMillis + millis);
+    }
+
+    @Benchmark
+    public String iso() {
+        return DateTimeUtils.formatIso(date);
+    }
+
+    @Benchmark
+    public String relative() {
+        return DateTimeUtils.formatRelative(System.currentTimeMillis() - millis);
+    }
+}
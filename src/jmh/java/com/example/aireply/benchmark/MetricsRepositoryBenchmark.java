@@ -0,0 +1,89 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsSeries;
+import com.example.aireply.component.metrics.store.MetricsWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 历史仓库读写
+ * <p>
+ * 仓库只允许单个采集线程写入，因此竞争场景为一个写线程持续保存、三个读线程同时读取最近窗口和按预算查询，
+ * 对应报表图表、接口查询与采样任务同时运行的情况。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class MetricsRepositoryBenchmark {
+
+    /** 趋势图读取的窗口大小 */
+    private static final int WINDOW = 120;
+
+    private static final long TWO_HOURS = TimeUnit.HOURS.toMillis(2);
+
+    private MetricsRepository repository;
+
+    private SystemMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        repository = BenchmarkFixtures.repository(BenchmarkFixtures.HISTORY_CAPACITY);
+        metrics = BenchmarkFixtures.metrics();
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    public void save() {
+        repository.save(metrics);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedSave() {
+        repository.save(metrics);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public double contendedLatest() {
+        return sum(repository.latest(WINDOW));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public int contendedQuery() {
+        long now = System.currentTimeMillis();
+        MetricsSeries series = repository.query(now - TWO_HOURS, now, 100);
+        return series.size();
+    }
+
+    private static double sum(MetricsWindow window) {
+        double sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.value(MetricField.CPU_LOAD, i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
+import com.example.aireply.component.metrics.visualizer.MetricsChartType;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.impl.CpuLoadTrendVisualizer;
+import com.example.aireply.component.metrics.visualizer.impl.CpuTempTrendVisualizer;
+import com.example.aireply.component.metrics.visualizer.impl.MemoryPieVisualizer;
+import com.example.aireply.component.metrics.visualizer.raster.NativeChartRenderer;
+import com.example.aireply.config.ChartRendererConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各图表的渲染耗时与分配，分别覆盖 XChart 与内置光栅化两种实现
+ * <p>
+ * 直接测量可视化器本身，不经过渲染缓存；历史仓库预先写满两小时的秒级样本。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class MetricsVisualizerBenchmark {
+
+    @Param({"MEMORY_PIE", "CPU_LOAD_TREND", "CPU_TEMP_TREND"})
+    public MetricsChartType type;
+
+    @Param({"XCHART", "NATIVE"})
+    public ChartRenderer renderer;
+
+    private MetricsVisualizer visualizer;
+
+    private MetricsVisualizerContext context;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setUp() {
+        ChartRendererConfig rendererConfig = new ChartRendererConfig();
+        rendererConfig.setDefaultRenderer(renderer);
+        visualizer = switch (type) {
+            case MEMORY_PIE -> new MemoryPieVisualizer();
+            case CPU_LOAD_TREND -> new CpuLoadTrendVisualizer();
+            case CPU_TEMP_TREND -> new CpuTempTrendVisualizer();
+            default -> throw new IllegalArgumentException("不支持的图表类型: " + type);
+        };
+        ReflectionTestUtils.setField(visualizer, "rendererConfig", rendererConfig);
+        ReflectionTestUtils.setField(visualizer, "nativeRenderer", new NativeChartRenderer());
+        context = MetricsVisualizerContext.builder()
+                .currentMetrics(BenchmarkFixtures.metrics())
+                .repository(BenchmarkFixtures.repository((int) TimeUnit.HOURS.toSeconds(2)))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] visualize() {
+        return visualizer.visualize(context);
+    }
+
+    @Benchmark
+    public int visualizeToStream() throws IOException {
+        out.reset();
+        visualizer.visualize(context, out);
+        return out.size();
+    }
+}
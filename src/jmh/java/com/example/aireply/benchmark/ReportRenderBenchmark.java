@@ -0,0 +1,95 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.HtmlTemplateEngine;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每小时报表的正文生成：模板渲染与系统状态文本
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportRenderBenchmark {
+
+    private static final String TEMPLATE = "templates/hourly-report.html";
+
+    private HtmlTemplateEngine templateEngine;
+
+    private SystemMetrics metrics;
+
+    private Map<String, String> variables;
+
+    @Setup
+    public void setUp() {
+        templateEngine = new HtmlTemplateEngine();
+        metrics = BenchmarkFixtures.metrics();
+        variables = new HashMap<>();
+        variables.put("time", "2031-06-15 14:00:00");
+        variables.put("systemStatus", metrics.formatForMail());
+        variables.put("lunarDate", "二〇三一年五月初六");
+        variables.put("week", "星期日");
+        variables.put("animal", "猪");
+        variables.put("constellation", "双子座");
+        variables.put("solarTerm", "芒种");
+        variables.put("festivals", "");
+        variables.put("lunarSeason", "仲夏");
+        variables.put("moonPhase", "蛾眉月");
+        variables.put("currentHour", "未时");
+        variables.put("hourRange", "13:00-14:59");
+        variables.put("liuRen", "速喜");
+        variables.put("liuRenLuck", "吉");
+        variables.put("liuRenElement", "火");
+        variables.put("dayYi", "祭祀 祈福 求嗣 开光 出行");
+        variables.put("dayJi", "动土 破土 安葬");
+        variables.put("hourYi", "赴任 出行 求财");
+        variables.put("hourJi", "词讼");
+        variables.put("pengZu", "甲不开仓财物耗散 子不问卜自惹祸殃");
+        variables.put("wuXing", "海中金");
+        variables.put("baZi", "辛亥 甲午 甲子 辛未");
+        variables.put("hasCamera", "true");
+        variables.put("hasMemoryChart", "true");
+        variables.put("hasCpuLoadTrend", "true");
+        variables.put("hasCpuTempTrend", "true");
+        variables.put("hasUnavailable", "true");
+        variables.put("unavailableSources", "树莓派实时照片");
+        variables.put("stageTimings", "metrics 12ms, tyme 1ms, memoryChart 35ms, cpuLoadTrend 41ms");
+        // 首次渲染包含模板解析，不计入测量
+        templateEngine.render(TEMPLATE, variables);
+    }
+
+    @Benchmark
+    public String renderToString() {
+        return templateEngine.render(TEMPLATE, variables);
+    }
+
+    @Benchmark
+    public StringWriter renderToWriter() throws IOException {
+        StringWriter writer = new StringWriter(16 * 1024);
+        templateEngine.render(TEMPLATE, variables, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public String formatForMail() {
+        return metrics.formatForMail();
+    }
+}
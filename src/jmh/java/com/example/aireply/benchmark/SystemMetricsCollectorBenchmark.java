@@ -0,0 +1,55 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.metrics.SystemMetricsCollector;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.store.MetricField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统指标采集：每次调用都重新读取 /proc、MXBean 与文件系统
+ * <p>
+ * 结果依赖所在平台（Linux 与其他系统走不同的采集实现），只应与同一台机器上的基线比较。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SystemMetricsCollectorBenchmark {
+
+    private SystemMetricsCollector collector;
+
+    private final double[] values = new double[MetricField.count()];
+
+    @Setup
+    public void setUp() throws IOException {
+        collector = new SystemMetricsCollector();
+        // 首次采样解析主机名和根文件系统，不计入测量
+        collector.collect();
+        collector.sample(values);
+    }
+
+    @Benchmark
+    public SystemMetrics collect() {
+        return collector.collect();
+    }
+
+    @Benchmark
+    public long sample() throws IOException {
+        return collector.sample(values);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.aireply.benchmark;
+
+import com.example.aireply.component.tyme.TymeCollector;
+import com.example.aireply.component.tyme.model.TymeInfo;
+import com.example.aireply.config.TymeCacheConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 历法信息采集：同一时辰内的缓存命中，以及逐日推进、缓存始终未命中的冷路径
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TymeCollectorBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2031, 6, 15, 14, 30);
+
+    private TymeCollector collector;
+
+    /** 冷路径当前推进到的天数，缓存容量远小于遍历范围，保证每次都重新计算 */
+    private long coldOffset;
+
+    @Setup
+    public void setUp() {
+        TymeCacheConfig config = new TymeCacheConfig();
+        config.setPrecompute(false);
+        config.setMaxDays(16);
+        collector = new TymeCollector();
+        ReflectionTestUtils.setField(collector, "config", config);
+        collector.init();
+        collector.collect(START);
+    }
+
+    @Benchmark
+    public TymeInfo collectCached() {
+        return collector.collect(START);
+    }
+
+    @Benchmark
+    public TymeInfo collectUncached() {
+        coldOffset = (coldOffset + 1) % 3650;
+        return collector.collect(START.plusDays(coldOffset + 1));
+    }
+}
@@ -42,7 +42,10 @@ public class PageDTO {
 		return Math.min(pageSize, 100);
 	}
 
-	public int offset() {
-		return (getCurrent() - 1) * getPageSize();
+	/**
+	 * 按 long 计算，页码很大时不会溢出为负数
+	 */
+	public long offset() {
+		return (long) (getCurrent() - 1) * getPageSize();
 	}
 }
@@ -0,0 +1,87 @@
+package com.example.aireply.common.web;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于 fastjson2 的 JSON / JSONB 消息转换器
+ * <p>
+ * JSON 由 UTF-8 字节写入器直接生成字节并写入响应流，不经过 char 与 String 中转；写入器的缓冲区取自 fastjson2 的线程缓存，
+ * 请求间复用。客户端声明接受 application/x-jsonb 时输出二进制 JSONB。
+ * 空值照常输出，字段与 Jackson 的默认输出一致。
+ * </p>
+ * @author pengYuJun
+ */
+public class Fastjson2HttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_JSONB = new MediaType("application", "x-jsonb");
+
+    private static final JSONWriter.Feature[] WRITE_FEATURES = {JSONWriter.Feature.WriteNulls};
+
+    public Fastjson2HttpMessageConverter(Class<?>... preRegistered) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_JSONB);
+        setDefaultCharset(StandardCharsets.UTF_8);
+        // 预先生成序列化器，避免首个请求现场反射 / 生成字节码
+        for (Class<?> type : preRegistered) {
+            JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(type);
+            JSONFactory.getDefaultObjectReaderProvider().getObjectReader(type);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // 字符串、字节与资源交给各自的专用转换器
+        return !CharSequence.class.isAssignableFrom(clazz)
+                && clazz != byte[].class
+                && !Resource.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readAllBytes();
+        try {
+            if (APPLICATION_JSONB.isCompatibleWith(inputMessage.getHeaders().getContentType())) {
+                return JSONB.parseObject(body, type);
+            }
+            try (JSONReader reader = JSONReader.of(body)) {
+                return reader.read(type);
+            }
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotReadableException("JSON 解析失败: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            if (APPLICATION_JSONB.isCompatibleWith(outputMessage.getHeaders().getContentType())) {
+                outputMessage.getBody().write(JSONB.toBytes(object, WRITE_FEATURES));
+                return;
+            }
+            try (JSONWriter writer = JSONWriter.ofUTF8(WRITE_FEATURES)) {
+                writer.writeAny(object);
+                writer.flushTo(outputMessage.getBody());
+            }
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotWritableException("JSON 序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -37,7 +37,12 @@ public enum ResponseCode {
 	/**
 	 * 接口不存在
 	 */
-	NOT_FOUND(404, "接口不存在");
+	NOT_FOUND(404, "接口不存在"),
+
+	/**
+	 * 请求过多
+	 */
+	TOO_MANY_REQUESTS(429, "请求过多，请稍后再试");
 
 	private final int code;
 	private final String message;
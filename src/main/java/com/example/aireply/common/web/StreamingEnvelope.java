@@ -0,0 +1,29 @@
+package com.example.aireply.common.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式输出数组数据时的成功响应外壳，字段与 ResponseEntity.success(list) 序列化后一致
+ * data 放在最后，写出 head 后逐个写出数组元素（以逗号分隔），再写出 tail
+ * @author pengYuJun
+ */
+public final class StreamingEnvelope {
+
+    private static final byte[] HEAD = ("{\"code\":" + ResponseCode.SUCCESS.getCode() + ",\"message\":\""
+            + ResponseCode.SUCCESS.getMessage() + "\",\"success\":true,\"data\":[").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] TAIL = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private StreamingEnvelope() {
+    }
+
+    public static void writeHead(OutputStream out) throws IOException {
+        out.write(HEAD);
+    }
+
+    public static void writeTail(OutputStream out) throws IOException {
+        out.write(TAIL);
+    }
+}
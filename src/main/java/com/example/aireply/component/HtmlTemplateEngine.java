@@ -1,49 +1,83 @@
 package com.example.aireply.component;
 
+import com.example.aireply.component.template.CompiledTemplate;
+import com.example.aireply.component.template.TemplateParser;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 模板渲染组件：支持变量替换和简单的 [IF:key] 条件渲染
+ * 模板渲染组件：支持变量替换、可嵌套的 [IF:key] 条件渲染和 [EACH:key] 循环渲染
+ * <p>
+ * 模板首次使用时解析为语法树并缓存，之后每次渲染只做一次线性遍历。
+ * 模板位于文件系统（如开发环境的 target/classes）时按修改时间热加载，位于 jar 内时只加载一次。
+ * </p>
  */
+@Slf4j
 @Component
 public class HtmlTemplateEngine {
 
-    public String render(String templatePath, Map<String, String> variables) {
-        String template = loadTemplate(templatePath);
-
-        // 1. 处理 IF 标签逻辑
-        for (String key : variables.keySet()) {
-            String ifTag = "[IF:" + key + "]";
-            String endTag = "[/IF]";
-            boolean keep = "true".equalsIgnoreCase(variables.get(key));
+    private final Map<String, CachedTemplate> cache = new ConcurrentHashMap<>();
 
-            while (template.contains(ifTag)) {
-                int start = template.indexOf(ifTag);
-                int end = template.indexOf(endTag, start);
-                if (end == -1) break;
+    public String render(String templatePath, Map<String, ?> variables) {
+        return getTemplate(templatePath).render(variables);
+    }
 
-                String content = keep ? template.substring(start + ifTag.length(), end) : "";
-                template = template.substring(0, start) + content + template.substring(end + endTag.length());
-            }
-        }
+    /**
+     * 流式渲染到 Writer，适合大模板或直接写入响应/邮件正文
+     */
+    public void render(String templatePath, Map<String, ?> variables, Writer writer) throws IOException {
+        getTemplate(templatePath).render(variables, writer);
+    }
 
-        // 2. 替换常规变量
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            template = template.replace("${" + entry.getKey() + "}", entry.getValue() == null ? "" : entry.getValue());
+    private CompiledTemplate getTemplate(String path) {
+        CachedTemplate cached = cache.get(path);
+        if (cached != null && !cached.isStale()) {
+            return cached.template;
         }
-        return template;
+        return cache.compute(path, (key, current) ->
+                current != null && !current.isStale() ? current : loadTemplate(key)).template;
     }
 
-    private String loadTemplate(String path) {
-        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(path)) {
-            if (is == null) throw new IllegalStateException("Template not found: " + path);
-            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    private CachedTemplate loadTemplate(String path) {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(path);
+        if (url == null) throw new IllegalStateException("Template not found: " + path);
+        File file = toFile(url);
+        long lastModified = file != null ? file.lastModified() : 0L;
+        try (InputStream is = url.openStream()) {
+            String source = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            log.debug("模板已编译: {}", path);
+            return new CachedTemplate(TemplateParser.parse(path, source), file, lastModified);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to load template", e);
         }
     }
-}
\ No newline at end of file
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).toFile();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record CachedTemplate(CompiledTemplate template, File file, long lastModified) {
+
+        boolean isStale() {
+            return file != null && file.lastModified() != lastModified;
+        }
+    }
+}
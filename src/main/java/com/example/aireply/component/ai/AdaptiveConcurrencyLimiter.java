@@ -0,0 +1,219 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.config.AiLimitConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 模型调用的自适应并发限制（AIMD）
+ * <p>
+ * 每次调用结束提交一个样本：收到 429、超时或首字节延迟超过最小值的若干倍时，并发上限按比例收缩；
+ * 否则在并发接近上限时每个样本加 1/limit，相当于每一轮上限加 1。
+ * 只有流式调用的首字节延迟参与延迟判断：同步调用的耗时包含整段回复的生成时间，随回复长度而非服务负载变化，
+ * 这类样本只提供 429 与超时信号。
+ * 超出上限的请求排队等待，队列已满或等待超过截止时间的请求直接拒绝，服务变慢时排队时间不会无限增长。
+ * </p>
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    @Resource
+    private AiLimitConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    /** 以下字段均由 lock 保护 */
+    private double limit;
+
+    private int inFlight;
+
+    private int queued;
+
+    /** 观察到的最小首字节延迟，每个样本向上漂移 1%，避免服务永久变慢后上限一直收缩 */
+    private double minLatencyNanos = Double.MAX_VALUE;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        limit = config.getInitialLimit();
+    }
+
+    /**
+     * 获取一个调用许可，超过上限时排队；队列已满或排队超时时抛出 {@link ResponseCode#TOO_MANY_REQUESTS}
+     * 返回的许可必须以 success / dropped / ignore 之一结束
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight >= currentLimit()) {
+                if (queued >= config.getMaxQueued()) {
+                    throw reject("排队已满");
+                }
+                queued++;
+                try {
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMs());
+                    while (inFlight >= currentLimit()) {
+                        if (remaining <= 0) {
+                            throw reject("排队超时");
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw reject("排队被中断");
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+            return new Permit(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 因排队已满或超时被拒绝的次数
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 因 429、超时或延迟过高而收缩上限的次数
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private BusinessException reject(String reason) {
+        rejected.increment();
+        log.warn("AI 调用被限流拒绝（{}）：上限 {}，进行中 {}，排队 {}", reason, currentLimit(), inFlight, queued);
+        return new BusinessException(ResponseCode.TOO_MANY_REQUESTS, "AI 服务繁忙，请稍后再试");
+    }
+
+    /**
+     * @param latencyNanos 首字节延迟，未记录时为负数
+     */
+    private void release(long latencyNanos, Sample sample) {
+        lock.lock();
+        try {
+            inFlight--;
+            double previous = limit;
+            if (sample == Sample.DROPPED) {
+                dropped.increment();
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (sample == Sample.SUCCESS) {
+                boolean slow = false;
+                if (latencyNanos >= 0) {
+                    minLatencyNanos = Math.min(minLatencyNanos * 1.01, latencyNanos);
+                    slow = latencyNanos > minLatencyNanos * config.getLatencyTolerance();
+                }
+                if (slow) {
+                    limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+                } else if (inFlight + 1 >= currentLimit() / 2) {
+                    // 并发远低于上限时样本不能说明上限是否足够，不增长
+                    limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+                }
+            }
+            if ((int) previous != currentLimit()) {
+                log.info("AI 并发上限调整: {} -> {}", (int) previous, currentLimit());
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Sample {
+        SUCCESS, DROPPED, IGNORED
+    }
+
+    /**
+     * 一次调用的许可，只有第一次结束调用生效
+     */
+    public final class Permit {
+
+        private final long start;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        /** 流式调用收到响应头的时间，同步调用不记录 */
+        private volatile long latencyNanos = -1;
+
+        private Permit(long start) {
+            this.start = start;
+        }
+
+        /**
+         * 记录首字节延迟作为延迟样本；未调用时 success 只用于判断是否增长上限
+         */
+        public void firstByte() {
+            if (latencyNanos < 0) {
+                latencyNanos = System.nanoTime() - start;
+            }
+        }
+
+        public void success() {
+            finish(Sample.SUCCESS);
+        }
+
+        /**
+         * 服务过载的信号：429、503 或超时
+         */
+        public void dropped() {
+            finish(Sample.DROPPED);
+        }
+
+        /**
+         * 与服务负载无关的结束（调用方取消、参数错误等），只归还许可
+         */
+        public void ignore() {
+            finish(Sample.IGNORED);
+        }
+
+        private void finish(Sample sample) {
+            if (done.compareAndSet(false, true)) {
+                release(latencyNanos, sample);
+            }
+        }
+    }
+}
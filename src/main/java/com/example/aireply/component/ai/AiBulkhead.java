@@ -0,0 +1,60 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.config.AiLimitConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * AI 同步调用的隔离线程池
+ * 同步调用在这里阻塞等待模型，Web 线程立即释放；线程和队列都已占满时立即拒绝，排队超过截止时间的任务不再执行
+ */
+@Slf4j
+@Component
+public class AiBulkhead {
+
+    @Resource
+    private AiLimitConfig config;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ai-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(config.getBulkheadThreads(), config.getBulkheadThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getBulkheadQueue()), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMs());
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() > deadline) {
+                    throw new BusinessException(ResponseCode.TOO_MANY_REQUESTS, "AI 服务繁忙，请稍后再试");
+                }
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("AI 隔离线程池已满：线程 {}，排队 {}", executor.getActiveCount(), executor.getQueue().size());
+            return CompletableFuture.failedFuture(new BusinessException(ResponseCode.TOO_MANY_REQUESTS, "AI 服务繁忙，请稍后再试"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.aireply.component.ai;
+
+import jakarta.annotation.Resource;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 把 {@link AdaptiveConcurrencyLimiter} 接入 OpenAI 客户端
+ * 同步调用（RestClient）在响应返回时提交样本，只提供 429 与超时信号；流式调用（WebClient）以响应头到达时间为延迟样本，整条流结束时才归还许可
+ */
+@Component
+public class ConcurrencyLimitFilter implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    @Resource
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            complete(permit, response.getStatusCode());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            fail(permit, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        // 排队会阻塞，不能占用事件循环线程
+        return Mono.fromCallable(limiter::acquire)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(permit -> next.exchange(request)
+                        .map(response -> {
+                            if (response.statusCode().isError()) {
+                                complete(permit, response.statusCode());
+                                return response;
+                            }
+                            permit.firstByte();
+                            return response.mutate()
+                                    .body(body -> body.doFinally(signal -> {
+                                        switch (signal) {
+                                            case ON_COMPLETE -> permit.success();
+                                            case ON_ERROR -> permit.dropped();
+                                            default -> permit.ignore();
+                                        }
+                                    }))
+                                    .build();
+                        })
+                        .doOnError(e -> fail(permit, e))
+                        .doOnCancel(permit::ignore));
+    }
+
+    private static void complete(AdaptiveConcurrencyLimiter.Permit permit, HttpStatusCode status) {
+        if (isOverloaded(status)) {
+            permit.dropped();
+        } else if (status.isError()) {
+            permit.ignore();
+        } else {
+            permit.success();
+        }
+    }
+
+    /**
+     * 超时说明服务过载，其余异常（连接失败、调用方取消等）与负载无关
+     * JDK 客户端的读取超时有时以 CancellationException 抛出（超时处理取消了进行中的请求），同样视为超时
+     */
+    private static void fail(AdaptiveConcurrencyLimiter.Permit permit, Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException || cause instanceof TimeoutException
+                    || cause instanceof CancellationException) {
+                permit.dropped();
+                return;
+            }
+        }
+        permit.ignore();
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+}
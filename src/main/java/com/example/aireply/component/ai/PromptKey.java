@@ -0,0 +1,75 @@
+package com.example.aireply.component.ai;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 提问的身份：最后一条用户消息为问题，其余消息与模型参数为上下文
+ * 回复缓存与请求合并使用同一规则判断两次提问是否相同
+ */
+public record PromptKey(String context, String question) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** 结尾的标点不影响语义 */
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\p{Punct}。？！，、；：…\\s]+$");
+
+    public static PromptKey of(Prompt prompt) {
+        List<Message> messages = prompt.getInstructions();
+        int questionIndex = messages.size() - 1;
+        while (questionIndex >= 0 && !(messages.get(questionIndex) instanceof UserMessage)) {
+            questionIndex--;
+        }
+        StringBuilder context = new StringBuilder();
+        for (int i = 0; i < messages.size(); i++) {
+            if (i != questionIndex) {
+                Message message = messages.get(i);
+                context.append(message.getMessageType()).append(':').append(message.getText()).append('\n');
+            }
+        }
+        ChatOptions options = prompt.getOptions();
+        if (options != null) {
+            context.append("model=").append(options.getModel())
+                    .append(";temperature=").append(options.getTemperature())
+                    .append(";topP=").append(options.getTopP())
+                    .append(";maxTokens=").append(options.getMaxTokens());
+        }
+        String question = questionIndex >= 0 ? messages.get(questionIndex).getText() : "";
+        return new PromptKey(context.toString(), question);
+    }
+
+    /**
+     * 上下文与规范化后问题的 SHA-256
+     */
+    public String digest() {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest((context + '\u0000' + normalize(question)).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 问题规范化：全角转半角、统一小写、合并空白、去掉结尾标点
+     */
+    static String normalize(String question) {
+        String text = Normalizer.normalize(StringUtils.defaultIfEmpty(question, ""), Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT);
+        text = WHITESPACE.matcher(text.trim()).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(text).replaceAll("");
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.aireply.component.ai;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.aireply.component.ai.model.CachedReply;
+import com.example.aireply.component.ai.model.ReplyCacheStats;
+import com.example.aireply.config.AiReplyCacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 模型回复缓存
+ * <p>
+ * 第一层按 (上下文, 规范化后的问题) 的 SHA-256 精确匹配；可选的第二层在相同上下文的条目中按问题向量的余弦相似度匹配，
+ * 用于措辞略有差异的重复提问。条目按写入时间过期、按数量淘汰，可在停机时落盘、启动时恢复。
+ * </p>
+ */
+@Slf4j
+@Component
+public class ReplyCache {
+
+    @Resource
+    private AiReplyCacheConfig config;
+
+    @Autowired
+    private ObjectProvider<EmbeddingModel> embeddingModelProvider;
+
+    /** 问题向量化函数，未启用语义匹配或没有可用的向量模型时为 null */
+    private Function<String, float[]> embedder;
+
+    private Cache<String, CachedReply> cache;
+
+    private final LongAdder exactHits = new LongAdder();
+
+    private final LongAdder semanticHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder savedLatencyMs = new LongAdder();
+
+    private final LongAdder savedTokens = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        long ttlMs = TimeUnit.MINUTES.toMillis(config.getTtlMinutes());
+        cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfter(new Expiry<String, CachedReply>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedReply reply, long currentTime) {
+                        // 按条目自身的写入时间计算，从磁盘恢复的条目不会因重启而延长有效期
+                        long remainingMs = reply.createdAt() + ttlMs - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedReply reply, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, reply, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedReply reply, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        if (Boolean.TRUE.equals(config.getSemanticEnabled()) && embedder == null) {
+            EmbeddingModel embeddingModel = embeddingModelProvider != null ? embeddingModelProvider.getIfAvailable() : null;
+            if (embeddingModel != null) {
+                embedder = embeddingModel::embed;
+            } else {
+                log.warn("回复缓存已启用语义匹配，但没有可用的向量模型，仅做精确匹配");
+            }
+        }
+        load();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        save();
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /**
+     * 查找缓存的回复，返回的 Lookup 在未命中时用于写入
+     * @param context 问题以外的上下文，不同上下文的回复互不复用
+     */
+    public Lookup lookup(String context, String question) {
+        String key = new PromptKey(context, question).digest();
+        CachedReply reply = cache.getIfPresent(key);
+        if (reply != null) {
+            exactHits.increment();
+            recordSaving(reply);
+            return new Lookup(key, context, null, reply);
+        }
+        float[] embedding = null;
+        if (embedder != null) {
+            embedding = embed(PromptKey.normalize(question));
+            reply = embedding != null ? nearest(context, embedding) : null;
+            if (reply != null) {
+                semanticHits.increment();
+                recordSaving(reply);
+                return new Lookup(key, context, embedding, reply);
+            }
+        }
+        misses.increment();
+        return new Lookup(key, context, embedding, null);
+    }
+
+    /**
+     * 写入一次未命中后得到的回复
+     */
+    public void put(Lookup lookup, String content, long latencyMs, int tokens) {
+        if (StringUtils.isEmpty(content)) {
+            return;
+        }
+        cache.put(lookup.key(), new CachedReply(lookup.key(), lookup.context(), content, lookup.embedding(),
+                latencyMs, tokens, System.currentTimeMillis()));
+    }
+
+    public ReplyCacheStats stats() {
+        long hits = exactHits.sum() + semanticHits.sum();
+        long total = hits + misses.sum();
+        return new ReplyCacheStats(exactHits.sum(), semanticHits.sum(), misses.sum(), total == 0 ? 0 : (double) hits / total,
+                savedLatencyMs.sum(), savedTokens.sum(), cache.estimatedSize());
+    }
+
+    private void recordSaving(CachedReply reply) {
+        savedLatencyMs.add(reply.latencyMs());
+        savedTokens.add(reply.tokens());
+    }
+
+    private float[] embed(String text) {
+        try {
+            return embedder.apply(text);
+        } catch (Exception e) {
+            log.warn("问题向量化失败，跳过语义匹配", e);
+            return null;
+        }
+    }
+
+    /**
+     * 相同上下文中与问题最相似且超过阈值的回复
+     */
+    private CachedReply nearest(String context, float[] embedding) {
+        double threshold = config.getSimilarityThreshold();
+        CachedReply best = null;
+        double bestScore = threshold;
+        for (CachedReply candidate : cache.asMap().values()) {
+            if (candidate.embedding() == null || !candidate.context().equals(context)) {
+                continue;
+            }
+            double score = cosine(embedding, candidate.embedding());
+            if (score >= bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private Path file() {
+        return StringUtils.isBlank(config.getFile()) ? null : Paths.get(config.getFile());
+    }
+
+    private void load() {
+        Path file = file();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            List<CachedReply> replies = JSON.parseArray(Files.readAllBytes(file), CachedReply.class);
+            // 语义匹配关闭时不保留旧向量
+            replies.forEach(reply -> cache.put(reply.key(), embedder != null ? reply
+                    : new CachedReply(reply.key(), reply.context(), reply.content(), null, reply.latencyMs(), reply.tokens(), reply.createdAt())));
+            cache.cleanUp();
+            log.info("回复缓存已恢复: {} 条", cache.estimatedSize());
+        } catch (Exception e) {
+            log.error("回复缓存恢复失败，从空缓存开始", e);
+        }
+    }
+
+    private void save() {
+        Path file = file();
+        if (file == null || cache == null) {
+            return;
+        }
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(file.getFileName() + ".tmp");
+            Files.write(tmp, JSON.toJSONBytes(new ArrayList<>(cache.asMap().values())));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("回复缓存已保存: {} 条", cache.estimatedSize());
+        } catch (IOException e) {
+            log.error("回复缓存保存失败", e);
+        }
+    }
+
+    /**
+     * 一次查找的结果
+     * @param hit 命中的回复，未命中时为 null
+     */
+    public record Lookup(String key, String context, float[] embedding, CachedReply hit) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.aireply.component.ai;
+
+import jakarta.annotation.Resource;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChatClient 回复缓存切面
+ * 命中时不再调用模型；流式调用未命中时照常逐段透传，完整结束后才写入缓存，中途取消或失败的回复不会被缓存
+ */
+@Component
+public class ReplyCacheAdvisor implements CallAdvisor, StreamAdvisor {
+
+    /** 位于最外层，命中时后续切面（合并）与模型调用的并发限制均不执行 */
+    public static final int ORDER = 0;
+
+    @Resource
+    private ReplyCache replyCache;
+
+    @Override
+    public String getName() {
+        return "replyCache";
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        if (!replyCache.isEnabled()) {
+            return chain.nextCall(request);
+        }
+        ReplyCache.Lookup lookup = lookup(request.prompt());
+        if (lookup.hit() != null) {
+            return cachedResponse(request, lookup.hit().content());
+        }
+        long start = System.nanoTime();
+        ChatClientResponse response = chain.nextCall(request);
+        replyCache.put(lookup, textOf(response), elapsedMs(start), tokensOf(response));
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        if (!replyCache.isEnabled()) {
+            return chain.nextStream(request);
+        }
+        return Flux.defer(() -> {
+            ReplyCache.Lookup lookup = lookup(request.prompt());
+            if (lookup.hit() != null) {
+                return Flux.just(cachedResponse(request, lookup.hit().content()));
+            }
+            long start = System.nanoTime();
+            StringBuilder content = new StringBuilder();
+            AtomicInteger tokens = new AtomicInteger();
+            return chain.nextStream(request)
+                    .doOnNext(response -> {
+                        content.append(textOf(response));
+                        // 用量只在部分片段（通常是最后一个）中出现
+                        tokens.accumulateAndGet(tokensOf(response), Math::max);
+                    })
+                    .doOnComplete(() -> replyCache.put(lookup, content.toString(), elapsedMs(start), tokens.get()));
+        });
+    }
+
+    private ReplyCache.Lookup lookup(Prompt prompt) {
+        PromptKey key = PromptKey.of(prompt);
+        return replyCache.lookup(key.context(), key.question());
+    }
+
+    private static ChatClientResponse cachedResponse(ChatClientRequest request, String content) {
+        ChatResponse chatResponse = new ChatResponse(List.of(new Generation(new AssistantMessage(content))));
+        return ChatClientResponse.builder().chatResponse(chatResponse).context(request.context()).build();
+    }
+
+    private static String textOf(ChatClientResponse response) {
+        ChatResponse chatResponse = response.chatResponse();
+        if (chatResponse == null || chatResponse.getResult() == null || chatResponse.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = chatResponse.getResult().getOutput().getText();
+        return text != null ? text : "";
+    }
+
+    private static int tokensOf(ChatClientResponse response) {
+        ChatResponse chatResponse = response.chatResponse();
+        if (chatResponse == null || chatResponse.getMetadata() == null || chatResponse.getMetadata().getUsage() == null) {
+            return 0;
+        }
+        Integer total = chatResponse.getMetadata().getUsage().getTotalTokens();
+        return total != null ? total : 0;
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
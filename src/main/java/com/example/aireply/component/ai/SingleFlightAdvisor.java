@@ -0,0 +1,144 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.config.AiSingleFlightConfig;
+import jakarta.annotation.Resource;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 相同提问的请求合并切面
+ * <p>
+ * 同一时刻相同的提问（按 {@link PromptKey} 判断）只向模型发起一次调用，其余调用等待并共享其结果，失败时所有等待者收到同一个异常。
+ * 流式调用共享同一条上游流，后加入的订阅者先收到已产出的片段再继续接收后续片段；所有订阅者都取消时上游请求随之取消。
+ * 位于回复缓存之后，只有缓存未命中的提问才会被合并。
+ * </p>
+ */
+@Component
+public class SingleFlightAdvisor implements CallAdvisor, StreamAdvisor {
+
+    public static final int ORDER = ReplyCacheAdvisor.ORDER + 100;
+
+    @Resource
+    private AiSingleFlightConfig config;
+
+    private final Map<String, CompletableFuture<ChatClientResponse>> calls = new ConcurrentHashMap<>();
+
+    private final Map<String, Flux<ChatClientResponse>> streams = new ConcurrentHashMap<>();
+
+    /** 被合并（未发起上游调用）的次数 */
+    private final LongAdder coalesced = new LongAdder();
+
+    @Override
+    public String getName() {
+        return "singleFlight";
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return chain.nextCall(request);
+        }
+        String key = PromptKey.of(request.prompt()).digest();
+        CompletableFuture<ChatClientResponse> flight = new CompletableFuture<>();
+        CompletableFuture<ChatClientResponse> existing = calls.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return withContext(await(existing), request);
+        }
+        try {
+            ChatClientResponse response = chain.nextCall(request);
+            flight.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, flight);
+        }
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return chain.nextStream(request);
+        }
+        return Flux.defer(() -> {
+            String key = PromptKey.of(request.prompt()).digest();
+            boolean[] leader = {false};
+            Flux<ChatClientResponse> flight = streams.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return share(k, chain.nextStream(request));
+            });
+            if (!leader[0]) {
+                coalesced.increment();
+            }
+            return flight.map(response -> withContext(response, request));
+        });
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return calls.size() + streams.size();
+    }
+
+    /**
+     * 上游流只订阅一次并缓存已产出的片段，结束、失败或全部订阅者取消时从表中移除
+     */
+    private Flux<ChatClientResponse> share(String key, Flux<ChatClientResponse> upstream) {
+        AtomicReference<Flux<ChatClientResponse>> self = new AtomicReference<>();
+        Flux<ChatClientResponse> shared = upstream
+                .timeout(Duration.ofMillis(config.getTimeoutMs()))
+                .doFinally(signal -> streams.remove(key, self.get()))
+                .replay()
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    private ChatClientResponse await(CompletableFuture<ChatClientResponse> flight) {
+        try {
+            return flight.get(config.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("等待相同提问的回复超过 " + config.getTimeoutMs() + "ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 共享的回复携带各自请求的上下文
+     */
+    private static ChatClientResponse withContext(ChatClientResponse response, ChatClientRequest request) {
+        return ChatClientResponse.builder().chatResponse(response.chatResponse()).context(request.context()).build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.aireply.component.ai.model;
+
+/**
+ * 缓存的模型回复
+ * @param key       精确匹配键
+ * @param context   问题以外的上下文（系统提示词、历史消息、模型参数）的摘要，语义匹配只在相同上下文内进行
+ * @param embedding 问题的向量，未启用语义匹配时为 null
+ * @param latencyMs 原始调用耗时，命中时计入节省的延迟
+ * @param tokens    原始调用消耗的 token 数，未知时为 0
+ * @param createdAt 写入时间（毫秒），用于跨重启计算有效期
+ */
+public record CachedReply(String key, String context, String content, float[] embedding,
+                          long latencyMs, int tokens, long createdAt) {
+}
@@ -0,0 +1,15 @@
+package com.example.aireply.component.ai.model;
+
+/**
+ * 回复缓存统计
+ * @param exactHits      精确命中次数
+ * @param semanticHits   语义命中次数
+ * @param misses         未命中次数
+ * @param hitRate        命中率（含语义命中）
+ * @param savedLatencyMs 命中所节省的模型调用耗时
+ * @param savedTokens    命中所节省的 token 数
+ * @param size           当前缓存条目数
+ */
+public record ReplyCacheStats(long exactHits, long semanticHits, long misses, double hitRate,
+                              long savedLatencyMs, long savedTokens, long size) {
+}
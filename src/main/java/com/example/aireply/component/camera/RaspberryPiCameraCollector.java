@@ -5,8 +5,10 @@ import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -18,10 +20,28 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class RaspberryPiCameraCollector {
 
+    /** 摄像头探测结果的缓存时间，避免每次拍照前都执行一次 --list-cameras */
+    private static final long AVAILABILITY_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private volatile Boolean cameraAvailable;
+
+    private volatile long availabilityCheckedAt;
+
     /**
      * 判断是否为树莓派环境且摄像头可用
      */
     public boolean isCameraAvailable() {
+        Boolean cached = cameraAvailable;
+        if (cached != null && System.currentTimeMillis() - availabilityCheckedAt < AVAILABILITY_TTL_MILLIS) {
+            return cached;
+        }
+        boolean available = probeCamera();
+        cameraAvailable = available;
+        availabilityCheckedAt = System.currentTimeMillis();
+        return available;
+    }
+
+    private boolean probeCamera() {
         if (!isLinux()) {
             return false;
         }
@@ -29,7 +49,10 @@ public class RaspberryPiCameraCollector {
         try {
             // 检查 libcamera 是否能识别到摄像头
             Process process = Runtime.getRuntime().exec("libcamera-still --list-cameras");
-            process.waitFor(5, TimeUnit.SECONDS);
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
             BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             String line;
             while ((line = reader.readLine()) != null) {
@@ -48,12 +71,32 @@ public class RaspberryPiCameraCollector {
      * 采集照片并返回字节数组
      */
     public byte[] capturePhoto() {
+        Path photo = capturePhotoFile();
+        if (photo == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(photo);
+        } catch (IOException e) {
+            log.error("Failed to read captured photo: ", e);
+            return null;
+        } finally {
+            deleteQuietly(photo.toFile());
+        }
+    }
+
+    /**
+     * 采集照片到临时文件，不将图片读入内存
+     * @return JPEG 临时文件路径，由调用方负责删除；不可用或失败时返回 null
+     */
+    public Path capturePhotoFile() {
         if (!isCameraAvailable()) {
             log.info("Raspberry Pi camera is not available, skip capturing.");
             return null;
         }
 
         File tempFile = new File(System.getProperty("java.io.tmpdir"), "rpi_camera_" + UUID.randomUUID() + ".jpg");
+        Process process = null;
         try {
             // 使用 libcamera-still 拍照
             // -t 1000: 等待 1 秒(曝光/对焦)
@@ -63,27 +106,40 @@ public class RaspberryPiCameraCollector {
             String command = String.format("libcamera-still -t 1000 --width 1280 --height 720 -o %s", tempFile.getAbsolutePath());
             log.info("Executing camera command: {}", command);
             
-            Process process = Runtime.getRuntime().exec(command);
+            process = Runtime.getRuntime().exec(command);
             boolean finished = process.waitFor(15, TimeUnit.SECONDS);
             
             if (finished && process.exitValue() == 0 && tempFile.exists()) {
-                byte[] data = Files.readAllBytes(tempFile.toPath());
-                log.info("Photo captured successfully, size: {} bytes", data.length);
-                return data;
+                log.info("Photo captured successfully, size: {} bytes", tempFile.length());
+                return tempFile.toPath();
+            } else if (!finished) {
+                log.error("Camera capture timed out.");
             } else {
-                log.error("Camera capture failed or timed out. Exit value: {}", process.exitValue());
+                log.error("Camera capture failed. Exit value: {}", process.exitValue());
+                // 拍照失败时下次重新探测摄像头
+                cameraAvailable = null;
             }
+        } catch (InterruptedException e) {
+            // 报表截止时间已过，调用方中断了拍照
+            Thread.currentThread().interrupt();
+            log.warn("Camera capture interrupted.");
         } catch (Exception e) {
             log.error("Error during camera capture: ", e);
-        } finally {
-            if (tempFile.exists()) {
-                tempFile.delete();
-            }
         }
+        if (process != null && process.isAlive()) {
+            process.destroyForcibly();
+        }
+        deleteQuietly(tempFile);
         return null;
     }
 
+    private void deleteQuietly(File file) {
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
     private boolean isLinux() {
         return System.getProperty("os.name").toLowerCase().contains("linux");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package com.example.aireply.component.http;
+
+import com.example.aireply.component.http.model.HostMetrics;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 共享 OkHttpClient 的按主机统计
+ * 每次请求创建一个 {@link EventListener} 记录各阶段时间点，请求结束时累加到所属主机。
+ * 主机在首次请求时才出现，导出方通过 {@link #onNewHost} 得知新主机后再按主机注册指标
+ */
+@Component
+public class HttpClientMetrics implements EventListener.Factory {
+
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    private volatile Consumer<String> hostListener = host -> {
+    };
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener(call.request().url().host());
+    }
+
+    /**
+     * 各主机的累计统计
+     */
+    public List<HostMetrics> snapshot() {
+        List<HostMetrics> result = new ArrayList<>(hosts.size());
+        hosts.forEach((host, stats) -> result.add(stats.toMetrics(host)));
+        return result;
+    }
+
+    /**
+     * 单个主机的累计统计，尚无请求时各项为 0
+     */
+    public HostMetrics host(String host) {
+        HostStats stats = hosts.get(host);
+        return stats != null ? stats.toMetrics(host) : new HostStats().toMetrics(host);
+    }
+
+    /**
+     * 注册新主机的回调：已出现的主机立即回调一次，之后每个主机首次请求时回调一次（在请求线程上执行）
+     * 注册与新主机出现同时发生时同一主机可能回调两次，回调需可重复执行
+     */
+    public void onNewHost(Consumer<String> listener) {
+        hostListener = listener;
+        hosts.keySet().forEach(listener);
+    }
+
+    private HostStats stats(String host) {
+        HostStats stats = hosts.get(host);
+        if (stats != null) {
+            return stats;
+        }
+        HostStats created = new HostStats();
+        stats = hosts.putIfAbsent(host, created);
+        if (stats != null) {
+            return stats;
+        }
+        hostListener.accept(host);
+        return created;
+    }
+
+    private static final class HostStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder pooledConnections = new LongAdder();
+        private final LongAdder newConnections = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder dnsNanos = new LongAdder();
+        private final LongAdder connectNanos = new LongAdder();
+        private final LongAdder tlsNanos = new LongAdder();
+        private final LongAdder ttfbNanos = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private HostMetrics toMetrics(String host) {
+            return new HostMetrics(host, calls.sum(), failures.sum(), pooledConnections.sum(), newConnections.sum(),
+                    cacheHits.sum(), millis(dnsNanos), millis(connectNanos), millis(tlsNanos), millis(ttfbNanos), millis(totalNanos));
+        }
+
+        private static long millis(LongAdder nanos) {
+            return nanos.sum() / 1_000_000;
+        }
+    }
+
+    /**
+     * 单次请求的事件监听，OkHttp 保证同一请求的事件按顺序回调
+     */
+    private final class CallListener extends EventListener {
+
+        private final String host;
+
+        private long callStart;
+
+        private long dnsStart;
+
+        private long connectStart = -1;
+
+        private long tlsStart;
+
+        private long requestHeadersStart;
+
+        private CallListener(String host) {
+            this.host = host;
+        }
+
+        private HostStats stats() {
+            return HttpClientMetrics.this.stats(host);
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            stats().calls.increment();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            stats().dnsNanos.add(System.nanoTime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            stats().tlsNanos.add(System.nanoTime() - tlsStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            stats().connectNanos.add(System.nanoTime() - connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // 没有经历 connectStart 说明复用了连接池中的连接
+            if (connectStart < 0) {
+                stats().pooledConnections.increment();
+            } else {
+                stats().newConnections.increment();
+            }
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            stats().ttfbNanos.add(System.nanoTime() - requestHeadersStart);
+        }
+
+        @Override
+        public void cacheHit(Call call, Response cachedResponse) {
+            stats().cacheHits.increment();
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            stats().totalNanos.add(System.nanoTime() - callStart);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            stats().failures.increment();
+            stats().totalNanos.add(System.nanoTime() - callStart);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.aireply.component.http;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * 基于共享 OkHttpClient 的 {@link ClientHttpRequestFactory}，供 RestClient 使用
+ * Spring 自带的 OkHttp3ClientHttpRequestFactory 已弃用并将被移除；这里只做最小的适配：
+ * 请求体先缓冲为字节数组，超时、连接池、缓存与事件统计均沿用传入的客户端
+ */
+public class OkHttpClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final OkHttpClient client;
+
+    public OkHttpClientHttpRequestFactory(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new OkHttpClientHttpRequest(client, uri, httpMethod);
+    }
+
+    private static final class OkHttpClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final OkHttpClient client;
+
+        private final URI uri;
+
+        private final HttpMethod method;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        private OkHttpClientHttpRequest(OkHttpClient client, URI uri, HttpMethod method) {
+            this.client = client;
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            byte[] content = body.toByteArray();
+            okhttp3.MediaType contentType = headers.getContentType() != null
+                    ? okhttp3.MediaType.parse(headers.getContentType().toString()) : null;
+            // OkHttp 要求 POST / PUT / PATCH 必须带请求体，GET / HEAD 不能带
+            boolean requiresBody = method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
+            RequestBody requestBody = content.length > 0 || requiresBody ? RequestBody.create(content, contentType) : null;
+
+            Request.Builder builder = new Request.Builder()
+                    .url(uri.toURL())
+                    .method(method.name(), requestBody);
+            headers.forEach((name, values) -> {
+                // 长度由 OkHttp 按请求体计算
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    values.forEach(value -> builder.addHeader(name, value));
+                }
+            });
+            return new OkHttpClientHttpResponse(client.newCall(builder.build()).execute());
+        }
+    }
+
+    private static final class OkHttpClientHttpResponse implements ClientHttpResponse {
+
+        private final Response response;
+
+        private HttpHeaders headers;
+
+        private OkHttpClientHttpResponse(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.code());
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.message();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders result = new HttpHeaders();
+                response.headers().forEach(header -> result.add(header.getFirst(), header.getSecond()));
+                headers = HttpHeaders.readOnlyHttpHeaders(result);
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            ResponseBody body = response.body();
+            return body != null ? body.byteStream() : InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.aireply.component.http.model;
+
+/**
+ * 单个主机的出站请求统计，耗时为累计值（毫秒），除以对应次数即为平均值
+ * @param calls           请求次数
+ * @param failures        失败次数
+ * @param pooledConnections 复用连接池中已有连接的次数
+ * @param newConnections  新建连接次数
+ * @param cacheHits       命中磁盘缓存、未访问网络的次数
+ * @param dnsMs           DNS 解析累计耗时
+ * @param connectMs       TCP 连接累计耗时（含 TLS）
+ * @param tlsMs           TLS 握手累计耗时
+ * @param ttfbMs          请求头发出到响应头到达的累计耗时
+ * @param totalMs         请求总累计耗时
+ */
+public record HostMetrics(String host, long calls, long failures, long pooledConnections, long newConnections,
+                          long cacheHits, long dnsMs, long connectMs, long tlsMs, long ttfbMs, long totalMs) {
+}
@@ -0,0 +1,342 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsWindow;
+import com.example.aireply.config.MetricsStreamConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实时指标推送：每条新样本编码为一个 Server-Sent Events 帧，所有订阅者共享同一个字节数组
+ * <p>
+ * 每个订阅者有独立的有界队列，入队不阻塞采集线程；队列满时丢弃最早的帧，慢客户端只影响自己。
+ * 队列由少量推送线程轮流写出，同一订阅者同一时刻最多只有一个线程在写。
+ * 单帧写出超过截止时间的订阅者视为已停止读取：断开连接并中断写出线程；
+ * 线程若仍阻塞在套接字上，临时补充一个推送线程，停滞的客户端不会占满推送线程。
+ * </p>
+ */
+@Slf4j
+@Component
+public class MetricsBroadcaster {
+
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    @Resource
+    private MetricsRepository repository;
+
+    @Resource
+    private MetricsStreamConfig config;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * 最近一帧，新订阅者连接后立即收到，无需等待下一次采集
+     */
+    private volatile byte[] lastFrame;
+
+    private ThreadPoolExecutor senders;
+
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory senderFactory = new CustomizableThreadFactory("metrics-stream-");
+        senderFactory.setDaemon(true);
+        senders = (ThreadPoolExecutor) Executors.newFixedThreadPool(config.getSenderThreads(), senderFactory);
+        CustomizableThreadFactory heartbeatFactory = new CustomizableThreadFactory("metrics-stream-heartbeat-");
+        heartbeatFactory.setDaemon(true);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(heartbeatFactory);
+        heartbeat.scheduleAtFixedRate(() -> broadcast(HEARTBEAT),
+                config.getHeartbeatMs(), config.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(1, config.getWriteTimeoutMs() / 2);
+        heartbeat.scheduleWithFixedDelay(this::expireStalledWrites, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    /**
+     * 创建一个 text/event-stream 响应，连接断开、超时或写出失败时自动退订
+     * @return 订阅者数量已达上限时返回 null
+     */
+    public ResponseBodyEmitter subscribe() {
+        EventStreamEmitter emitter = new EventStreamEmitter(config.getTimeoutMs());
+        Subscriber subscriber = subscribe(new FrameSink() {
+            @Override
+            public void write(byte[] frame) throws IOException {
+                emitter.send(frame, MediaType.TEXT_EVENT_STREAM);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        if (subscriber == null) {
+            return null;
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    /**
+     * 订阅帧流
+     * @return 订阅者数量已达上限时返回 null
+     */
+    public Subscriber subscribe(FrameSink sink) {
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            log.debug("实时指标订阅者已达上限 {}，拒绝新连接", config.getMaxSubscribers());
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(sink, config.getQueueSize());
+        subscribers.add(subscriber);
+        byte[] frame = lastFrame;
+        if (frame != null) {
+            subscriber.offer(frame);
+        }
+        return subscriber;
+    }
+
+    /**
+     * 将仓库中最新一条样本推送给所有订阅者，由采集任务在写入仓库后调用
+     */
+    public void publishLatest() {
+        MetricsWindow window = repository.latest(1);
+        if (window.isEmpty()) {
+            return;
+        }
+        byte[] frame = encode(window, window.size() - 1);
+        lastFrame = frame;
+        broadcast(frame);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 因客户端过慢被丢弃的帧数
+     */
+    public long droppedCount() {
+        return droppedFrames.get();
+    }
+
+    private void broadcast(byte[] frame) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    private void expireStalledWrites() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.getWriteTimeoutMs());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.expireIfStalled(deadline);
+        }
+    }
+
+    /**
+     * 调整推送线程数，补充或收回被停滞写出占用的线程
+     */
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 编码为一个完整的 SSE 帧：id 为采集时间戳，data 为按指标 key 展开的 JSON，不可用的指标为 null
+     */
+    static byte[] encode(MetricsWindow window, int index) {
+        long timestamp = window.timestamp(index);
+        StringBuilder sb = new StringBuilder(768);
+        sb.append("id: ").append(timestamp).append("\nevent: metrics\ndata: {\"timestamp\":").append(timestamp);
+        for (MetricField field : MetricField.values()) {
+            double value = window.value(field, index);
+            sb.append(",\"").append(field.getKey()).append("\":");
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                sb.append("null");
+            } else {
+                sb.append(value);
+            }
+        }
+        sb.append("}\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 帧的写出目标
+     */
+    public interface FrameSink {
+
+        void write(byte[] frame) throws IOException;
+
+        void close();
+    }
+
+    /**
+     * 单个订阅者：有界队列加写出状态，队列与状态都由自身的锁保护
+     */
+    public final class Subscriber {
+
+        private final FrameSink sink;
+
+        private final int capacity;
+
+        private final ArrayDeque<byte[]> queue;
+
+        /** 是否已有推送线程负责写出该订阅者的队列 */
+        private boolean draining;
+
+        private boolean closed;
+
+        /** 正在写出的线程及开始时间，不在写出时为 null */
+        private Thread writer;
+
+        private long writeStartNanos;
+
+        /** 写出已超时，写出线程返回时需收回补充的推送线程 */
+        private boolean stalled;
+
+        private Subscriber(FrameSink sink, int capacity) {
+            this.sink = sink;
+            this.capacity = capacity;
+            this.queue = new ArrayDeque<>(capacity);
+        }
+
+        void offer(byte[] frame) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= capacity) {
+                    queue.pollFirst();
+                    droppedFrames.incrementAndGet();
+                }
+                queue.addLast(frame);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    frame = queue.pollFirst();
+                    if (frame == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                synchronized (this) {
+                    writer = Thread.currentThread();
+                    writeStartNanos = System.nanoTime();
+                }
+                try {
+                    sink.write(frame);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("实时指标订阅者写出失败，已断开: {}", e.getMessage());
+                    close();
+                    return;
+                } finally {
+                    boolean expired;
+                    synchronized (this) {
+                        writer = null;
+                        expired = stalled;
+                    }
+                    if (expired) {
+                        // 清除超时检查设置的中断标记，并收回补充的线程
+                        Thread.interrupted();
+                        resizeSenders(-1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 写出开始时间早于 deadline 时断开连接，并中断写出线程
+         */
+        private void expireIfStalled(long deadline) {
+            synchronized (this) {
+                if (writer == null || stalled || writeStartNanos - deadline > 0) {
+                    return;
+                }
+                stalled = true;
+                // 在锁内补充与中断：写出线程返回后才能收回线程、清除中断标记，不会误伤它之后执行的任务
+                resizeSenders(1);
+                writer.interrupt();
+            }
+            log.debug("实时指标订阅者写出超时，已断开");
+            close();
+        }
+
+        /**
+         * 退订并释放连接，可重复调用
+         */
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+            }
+            subscribers.remove(this);
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                log.debug("关闭实时指标连接失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 以 text/event-stream 输出的原始字节流，帧已预先编码，直接写出不再经过 SSE 事件构建
+     */
+    private static class EventStreamEmitter extends ResponseBodyEmitter {
+
+        EventStreamEmitter(Long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        protected void extendResponse(ServerHttpResponse outputMessage) {
+            super.extendResponse(outputMessage);
+            outputMessage.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+    }
+}
@@ -1,48 +1,195 @@
 package com.example.aireply.component.metrics;
 
 import com.example.aireply.component.metrics.model.SystemMetrics;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsRecordVisitor;
+import com.example.aireply.component.metrics.store.MetricsRingBuffer;
+import com.example.aireply.component.metrics.store.MetricsRollups;
+import com.example.aireply.component.metrics.store.MetricsSegmentStore;
+import com.example.aireply.component.metrics.store.MetricsSeries;
+import com.example.aireply.component.metrics.store.MetricsWindow;
+import com.example.aireply.config.MetricsStoreConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.nio.file.Paths;
 
+/**
+ * 监控指标历史仓库
+ * 基于列式环形缓冲区实现：单线程写入、多线程无锁读取，写入与读取均不产生逐样本的对象分配。
+ * 启用持久化后同时写入内存映射分段存储，重启后从中恢复最近的历史；
+ * 每条样本还会增量聚合到多分辨率降采样层，供长时间范围的查询使用。
+ */
+@Slf4j
 @Repository
 public class MetricsRepository {
 
-    // 缓存最近一小时的数据，假设每 5 分钟存一次，保存 12 条左右
-    private final Cache<String, List<SystemMetrics>> historyCache = Caffeine.newBuilder()
-            .expireAfterWrite(2, TimeUnit.HOURS) // 稍微多留一点余地
-            .build();
+    private final MetricsRingBuffer buffer;
 
-    private static final String HISTORY_KEY = "hourly_history";
+    private final MetricsRollups rollups = new MetricsRollups();
+
+    private final MetricsStoreConfig storeConfig;
+
+    /**
+     * 持久化存储，未启用或初始化失败时为 null
+     */
+    private MetricsSegmentStore store;
 
     /**
-     * 添加一条最新的监控数据
+     * 写线程复用的临时数组，仅在 save 中使用
      */
-    public synchronized void save(SystemMetrics metrics) {
-        List<SystemMetrics> history = historyCache.get(HISTORY_KEY, k -> new ArrayList<>());
-        if (history == null) {
+    private final double[] scratch = new double[MetricField.count()];
+
+    public MetricsRepository(@Value("${metrics.history.capacity:4096}") int capacity, MetricsStoreConfig storeConfig) {
+        this.buffer = new MetricsRingBuffer(capacity);
+        this.storeConfig = storeConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!Boolean.TRUE.equals(storeConfig.getEnabled())) {
             return;
         }
-        
-        history.add(metrics);
-        
-        // 保持最近 24 条记录（如果是 5 分钟存一次，2 小时就是 24 条）
-        if (history.size() > 24) {
-            history.remove(0);
+        try {
+            store = new MetricsSegmentStore(Paths.get(storeConfig.getDir()), storeConfig.getRecordsPerSegment(),
+                    storeConfig.getRetentionDays(), storeConfig.getFlushEvery());
+            // 回放降采样层与存储都仍保留的历史，环形缓冲区自然只保留最近的部分
+            long now = System.currentTimeMillis();
+            long replayMillis = Math.min(rollups.retentionMillis(), store.retentionMillis());
+            store.scan(now - replayMillis, now + 1, (timestamp, values) -> {
+                buffer.append(timestamp, values);
+                rollups.append(timestamp, values);
+            });
+            log.info("指标持久化存储已启用: {}，恢复 {} 条历史记录", storeConfig.getDir(), buffer.sequence());
+        } catch (Exception e) {
+            log.error("指标持久化存储初始化失败，仅使用内存缓存", e);
+            store = null;
         }
-        
-        historyCache.put(HISTORY_KEY, history);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    /**
+     * 添加一条最新的监控数据，仅允许单个采集线程调用
+     */
+    public void save(SystemMetrics metrics) {
+        if (metrics == null) {
+            return;
+        }
+        toColumns(metrics, scratch);
+        append(metrics.getCollectTime().getTime(), scratch);
+    }
+
+    /**
+     * 直接追加一条数值样本，供高频采样使用，仅允许单个采集线程调用
+     * @param values 按 {@link MetricField#ordinal()} 排列的指标值，调用方可复用该数组
+     */
+    public void append(long timestamp, double[] values) {
+        buffer.append(timestamp, values);
+        rollups.append(timestamp, values);
+        if (store != null) {
+            store.append(timestamp, values);
+        }
+    }
+
+    /**
+     * 最近 maxSamples 条历史数据的零拷贝视图
+     */
+    public MetricsWindow latest(int maxSamples) {
+        return buffer.latest(maxSamples);
+    }
+
+    /**
+     * 采集时间不早于 fromMillis 的历史数据零拷贝视图
+     */
+    public MetricsWindow since(long fromMillis) {
+        return buffer.since(fromMillis);
+    }
+
+    /**
+     * 按点数预算查询 [fromMillis, toMillis) 区间的序列
+     * 原始样本覆盖该区间且数量不超过预算时直接返回原始数据，否则选择满足预算的最细降采样层
+     * @param maxPoints 期望返回的最大点数
+     */
+    public MetricsSeries query(long fromMillis, long toMillis, int maxPoints) {
+        if (buffer.covers(fromMillis)) {
+            MetricsWindow raw = buffer.range(fromMillis, toMillis);
+            if (raw.size() <= maxPoints) {
+                return raw;
+            }
+        }
+        return rollups.select(fromMillis, toMillis, maxPoints);
+    }
+
+    /**
+     * 顺序遍历 [fromMillis, toMillis) 区间内的历史记录
+     * 启用持久化时从分段存储读取（覆盖保留期内全部数据），否则仅遍历内存缓冲区
+     */
+    public void scan(long fromMillis, long toMillis, MetricsRecordVisitor visitor) {
+        if (store != null) {
+            store.scan(fromMillis, toMillis, visitor);
+            return;
+        }
+        MetricsWindow window = buffer.since(fromMillis);
+        MetricField[] fields = MetricField.values();
+        double[] values = new double[fields.length];
+        for (int i = 0; i < window.size(); i++) {
+            long timestamp = window.timestamp(i);
+            if (timestamp >= toMillis) {
+                break;
+            }
+            for (MetricField field : fields) {
+                values[field.ordinal()] = window.value(field, i);
+            }
+            visitor.visit(timestamp, values);
+        }
+    }
+
+    /**
+     * 数据版本号，每写入一条样本加一
+     */
+    public long sequence() {
+        return buffer.sequence();
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
     }
 
     /**
-     * 获取所有历史数据
+     * 按列写出全部数值指标，不可用的指标为 NaN
      */
-    public List<SystemMetrics> getHistory() {
-        List<SystemMetrics> history = historyCache.getIfPresent(HISTORY_KEY);
-        return history != null ? new ArrayList<>(history) : new ArrayList<>();
+    static void toColumns(SystemMetrics metrics, double[] values) {
+        values[MetricField.CPU_LOAD.ordinal()] = metrics.getCpuLoad();
+        values[MetricField.USED_HEAP_MB.ordinal()] = metrics.getUsedHeapMb();
+        values[MetricField.MAX_HEAP_MB.ordinal()] = metrics.getMaxHeapMb();
+        values[MetricField.HEAP_USAGE_PERCENT.ordinal()] = metrics.getHeapUsagePercent();
+        values[MetricField.DISK_TOTAL_GB.ordinal()] = metrics.getDiskTotalGb();
+        values[MetricField.DISK_USED_GB.ordinal()] = metrics.getDiskUsedGb();
+        values[MetricField.DISK_USAGE_PERCENT.ordinal()] = metrics.getDiskUsagePercent();
+        values[MetricField.UPTIME_MILLIS.ordinal()] = metrics.getUptimeMillis();
+        Double cpuTemp = metrics.getCpuTempCelsius();
+        values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = cpuTemp != null ? cpuTemp : Double.NaN;
+        values[MetricField.SYSTEM_CPU_PERCENT.ordinal()] = metrics.getSystemCpuPercent();
+        values[MetricField.MEMORY_TOTAL_MB.ordinal()] = metrics.getMemoryTotalMb();
+        values[MetricField.MEMORY_AVAILABLE_MB.ordinal()] = metrics.getMemoryAvailableMb();
+        values[MetricField.MEMORY_USAGE_PERCENT.ordinal()] = metrics.getMemoryUsagePercent();
+        values[MetricField.LOAD_AVERAGE.ordinal()] = metrics.getLoadAverage();
+        values[MetricField.NET_RX_BYTES_PER_SEC.ordinal()] = metrics.getNetRxBytesPerSec();
+        values[MetricField.NET_TX_BYTES_PER_SEC.ordinal()] = metrics.getNetTxBytesPerSec();
+        values[MetricField.DISK_READ_BYTES_PER_SEC.ordinal()] = metrics.getDiskReadBytesPerSec();
+        values[MetricField.DISK_WRITE_BYTES_PER_SEC.ordinal()] = metrics.getDiskWriteBytesPerSec();
     }
-}
\ No newline at end of file
+}
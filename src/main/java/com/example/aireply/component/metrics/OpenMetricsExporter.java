@@ -0,0 +1,96 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsWindow;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 以 OpenMetrics 文本格式导出历史仓库中最新一条样本
+ * <p>
+ * 响应体按仓库的数据版本号缓存：每产生一条新样本最多编码一次，之后的抓取直接返回同一个字节数组，
+ * 抓取开销与抓取方数量无关。编码前后都不加锁，并发抓取在版本变化时可能各自编码一次，结果相同。
+ * </p>
+ */
+@Component
+public class OpenMetricsExporter {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final String PREFIX = "system_";
+
+    private static final byte[] EOF = "# EOF\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 各指标的 TYPE / HELP 行与指标名，只随枚举变化，启动时生成一次
+     */
+    private static final String[] HEADERS = new String[MetricField.count()];
+
+    private static final String[] NAMES = new String[MetricField.count()];
+
+    static {
+        for (MetricField field : MetricField.values()) {
+            String name = PREFIX + field.name().toLowerCase();
+            NAMES[field.ordinal()] = name;
+            HEADERS[field.ordinal()] = "# TYPE " + name + " gauge\n# HELP " + name + " " + field.getDescription() + "\n";
+        }
+    }
+
+    @Resource
+    private MetricsRepository repository;
+
+    private volatile Snapshot snapshot = new Snapshot(-1, EOF);
+
+    /**
+     * 当前的抓取响应体，调用方不得修改返回的数组
+     */
+    public byte[] scrape() {
+        long sequence = repository.sequence();
+        Snapshot current = snapshot;
+        if (current.sequence == sequence) {
+            return current.body;
+        }
+        current = new Snapshot(sequence, encode(repository.latest(1)));
+        snapshot = current;
+        return current.body;
+    }
+
+    private static byte[] encode(MetricsWindow window) {
+        if (window.isEmpty()) {
+            return EOF;
+        }
+        int last = window.size() - 1;
+        String timestamp = seconds(window.timestamp(last));
+        StringBuilder sb = new StringBuilder(4096);
+        for (MetricField field : MetricField.values()) {
+            double value = window.value(field, last);
+            // 不可用的指标直接省略，避免抓取端把 NaN 当作有效数据
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            sb.append(HEADERS[field.ordinal()]).append(NAMES[field.ordinal()]).append(' ');
+            // Java 的 Infinity 不是合法的 OpenMetrics 数值，格式要求写作 +Inf / -Inf
+            if (Double.isInfinite(value)) {
+                sb.append(value > 0 ? "+Inf" : "-Inf");
+            } else {
+                sb.append(value);
+            }
+            sb.append(' ').append(timestamp).append('\n');
+        }
+        sb.append("# EOF\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * OpenMetrics 的时间戳以秒为单位，保留毫秒精度
+     */
+    private static String seconds(long millis) {
+        long fraction = millis % 1000;
+        return millis / 1000 + (fraction < 10 ? ".00" : fraction < 100 ? ".0" : ".") + fraction;
+    }
+
+    private record Snapshot(long sequence, byte[] body) {
+    }
+}
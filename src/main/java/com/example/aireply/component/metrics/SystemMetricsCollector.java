@@ -4,7 +4,10 @@ import com.example.aireply.component.metrics.model.SystemMetrics;
 import com.example.aireply.component.metrics.provider.LinuxMetricsProvider;
 import com.example.aireply.component.metrics.provider.MetricsProvider;
 import com.example.aireply.component.metrics.provider.WindowsMetricsProvider;
+import com.example.aireply.component.metrics.store.MetricField;
 import com.sun.management.OperatingSystemMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -16,12 +19,49 @@ import java.nio.file.FileSystems;
 /**
  * 系统指标采集组件
  * 负责采集与可视化逻辑
+ * <p>
+ * 主机名、操作系统、文件存储句柄等不变信息只解析一次；{@link #sample(double[])} 为高频采样提供
+ * 直接写入数值列、不构造 {@link SystemMetrics} 的采集路径。
+ * 差值类指标依赖提供者两次刷新之间的窗口，因此刷新与读取在同一把锁内完成；开启高频采样时
+ * {@link #collect()} 直接复用最近一次采样，不额外刷新，避免截短采样任务的统计窗口。
+ * </p>
  */
+@Slf4j
 @Component
 public class SystemMetricsCollector {
 
+    private static final long MB = 1024 * 1024;
+
+    private static final long GB = 1024 * 1024 * 1024;
+
     private final MetricsProvider provider;
 
+    private final OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final String os = System.getProperty("os.name") + " " + System.getProperty("os.version");
+
+    private final String osArch = System.getProperty("os.arch");
+
+    /**
+     * 主机名首次使用时解析，DNS 可能阻塞数秒，之后不再重复解析
+     */
+    private volatile String hostname;
+
+    private volatile FileStore rootStore;
+
+    /** 是否开启高频采样，未开启时 collect() 每次重新采样 */
+    @Value("${metrics.sampling.enabled:false}")
+    private boolean samplingEnabled;
+
+    /** 高频采样间隔（毫秒） */
+    @Value("${metrics.sampling.interval-ms:1000}")
+    private long samplingIntervalMs;
+
+    /** 最近一次采样的数值与时间戳，由 this 保护 */
+    private final double[] lastValues = new double[MetricField.count()];
+
+    private long lastTimestamp;
+
     public SystemMetricsCollector() {
         String osName = System.getProperty("os.name").toLowerCase();
         if (osName.contains("linux")) {
@@ -33,32 +73,111 @@ public class SystemMetricsCollector {
 
     public SystemMetrics collect() {
         try {
-            String hostname = resolveHostname();
-            String os = System.getProperty("os.name") + " " + System.getProperty("os.version");
-            String osArch = System.getProperty("os.arch");
+            double[] values = new double[MetricField.count()];
+            latestSample(values);
+            double cpuTemp = values[MetricField.CPU_TEMP_CELSIUS.ordinal()];
+            return new SystemMetrics(getHostname(), os, osArch,
+                    values[MetricField.CPU_LOAD.ordinal()],
+                    (long) values[MetricField.USED_HEAP_MB.ordinal()],
+                    (long) values[MetricField.MAX_HEAP_MB.ordinal()],
+                    values[MetricField.HEAP_USAGE_PERCENT.ordinal()],
+                    (long) values[MetricField.DISK_TOTAL_GB.ordinal()],
+                    (long) values[MetricField.DISK_USED_GB.ordinal()],
+                    values[MetricField.DISK_USAGE_PERCENT.ordinal()],
+                    (long) values[MetricField.UPTIME_MILLIS.ordinal()],
+                    Double.isNaN(cpuTemp) ? null : cpuTemp,
+                    values[MetricField.SYSTEM_CPU_PERCENT.ordinal()],
+                    values[MetricField.MEMORY_TOTAL_MB.ordinal()],
+                    values[MetricField.MEMORY_AVAILABLE_MB.ordinal()],
+                    values[MetricField.MEMORY_USAGE_PERCENT.ordinal()],
+                    values[MetricField.LOAD_AVERAGE.ordinal()],
+                    values[MetricField.NET_RX_BYTES_PER_SEC.ordinal()],
+                    values[MetricField.NET_TX_BYTES_PER_SEC.ordinal()],
+                    values[MetricField.DISK_READ_BYTES_PER_SEC.ordinal()],
+                    values[MetricField.DISK_WRITE_BYTES_PER_SEC.ordinal()]);
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-            OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-            double cpuLoad = osBean.getCpuLoad();
+    /**
+     * 各核心 CPU 使用率（%），基于最近两次采样的差值
+     * @return 核心数
+     */
+    public int coreCpuUsage(double[] out) {
+        return provider.getCoreCpuUsage(out);
+    }
 
-            long usedHeap = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-            long maxHeap = Runtime.getRuntime().maxMemory();
-            long usedHeapMb = usedHeap / (1024 * 1024);
-            long maxHeapMb = maxHeap / (1024 * 1024);
-            double heapUsagePercent = maxHeap > 0 ? usedHeap * 100.0 / maxHeap : -1;
+    /**
+     * 所有温度传感器读数（℃），基于最近一次采样
+     * @return 传感器数量
+     */
+    public int thermalZoneTemperatures(double[] out) {
+        return provider.getThermalZoneTemperatures(out);
+    }
 
-            FileStore rootStore = detectRootFileStore();
-            long diskTotalGb = rootStore.getTotalSpace() / (1024 * 1024 * 1024);
-            long diskUsedGb = (rootStore.getTotalSpace() - rootStore.getUnallocatedSpace()) / (1024 * 1024 * 1024);
-            double diskUsagePercent = rootStore.getTotalSpace() > 0 ? (rootStore.getTotalSpace() - rootStore.getUnallocatedSpace()) * 100.0 / rootStore.getTotalSpace() : -1;
+    /**
+     * 开启高频采样且最近一次采样不超过两个采样间隔时复制该次采样，否则重新采样
+     */
+    private synchronized long latestSample(double[] values) throws IOException {
+        if (samplingEnabled && lastTimestamp > 0 && System.currentTimeMillis() - lastTimestamp <= 2 * samplingIntervalMs) {
+            System.arraycopy(lastValues, 0, values, 0, lastValues.length);
+            return lastTimestamp;
+        }
+        return sample(values);
+    }
 
-            // 调用策略类获取差异化指标
-            long uptimeMillis = provider.getSystemUptime();
-            Double cpuTemp = provider.getCpuTemperature();
+    /**
+     * 采集一次数值指标并写入调用方提供的数组
+     * @param values 按 {@link MetricField#ordinal()} 排列，长度至少为 {@link MetricField#count()}，可跨调用复用
+     * @return 采集时间戳（毫秒）
+     */
+    public synchronized long sample(double[] values) throws IOException {
+        long timestamp = System.currentTimeMillis();
+        values[MetricField.CPU_LOAD.ordinal()] = osBean.getCpuLoad();
 
-            return new SystemMetrics(hostname, os, osArch, cpuLoad, usedHeapMb, maxHeapMb, heapUsagePercent, diskTotalGb, diskUsedGb, diskUsagePercent, uptimeMillis, cpuTemp);
-        } catch (Exception e) {
-            return null;
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        long maxHeap = runtime.maxMemory();
+        values[MetricField.USED_HEAP_MB.ordinal()] = usedHeap / MB;
+        values[MetricField.MAX_HEAP_MB.ordinal()] = maxHeap / MB;
+        values[MetricField.HEAP_USAGE_PERCENT.ordinal()] = maxHeap > 0 ? usedHeap * 100.0 / maxHeap : -1;
+
+        FileStore store = getRootStore();
+        long diskTotal = store.getTotalSpace();
+        long diskUsed = diskTotal - store.getUnallocatedSpace();
+        values[MetricField.DISK_TOTAL_GB.ordinal()] = diskTotal / GB;
+        values[MetricField.DISK_USED_GB.ordinal()] = diskUsed / GB;
+        values[MetricField.DISK_USAGE_PERCENT.ordinal()] = diskTotal > 0 ? diskUsed * 100.0 / diskTotal : -1;
+
+        // 调用策略类获取差异化指标
+        values[MetricField.UPTIME_MILLIS.ordinal()] = provider.getSystemUptime();
+
+        provider.refresh();
+        values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = provider.getCpuTemperature();
+        values[MetricField.SYSTEM_CPU_PERCENT.ordinal()] = provider.getSystemCpuUsage();
+        double memTotal = provider.getMemoryTotalMb();
+        double memAvailable = provider.getMemoryAvailableMb();
+        values[MetricField.MEMORY_TOTAL_MB.ordinal()] = memTotal;
+        values[MetricField.MEMORY_AVAILABLE_MB.ordinal()] = memAvailable;
+        values[MetricField.MEMORY_USAGE_PERCENT.ordinal()] = memTotal > 0 ? (memTotal - memAvailable) * 100.0 / memTotal : Double.NaN;
+        values[MetricField.LOAD_AVERAGE.ordinal()] = provider.getLoadAverage();
+        values[MetricField.NET_RX_BYTES_PER_SEC.ordinal()] = provider.getNetworkRxBytesPerSecond();
+        values[MetricField.NET_TX_BYTES_PER_SEC.ordinal()] = provider.getNetworkTxBytesPerSecond();
+        values[MetricField.DISK_READ_BYTES_PER_SEC.ordinal()] = provider.getDiskReadBytesPerSecond();
+        values[MetricField.DISK_WRITE_BYTES_PER_SEC.ordinal()] = provider.getDiskWriteBytesPerSecond();
+        System.arraycopy(values, 0, lastValues, 0, lastValues.length);
+        lastTimestamp = timestamp;
+        return timestamp;
+    }
+
+    private String getHostname() {
+        String name = hostname;
+        if (name == null) {
+            name = resolveHostname();
+            hostname = name;
         }
+        return name;
     }
 
     private String resolveHostname() {
@@ -69,10 +188,19 @@ public class SystemMetricsCollector {
         }
     }
 
+    private FileStore getRootStore() throws IOException {
+        FileStore store = rootStore;
+        if (store == null) {
+            store = detectRootFileStore();
+            rootStore = store;
+        }
+        return store;
+    }
+
     private FileStore detectRootFileStore() throws IOException {
         for (FileStore store : FileSystems.getDefault().getFileStores()) {
             return store;
         }
         throw new IOException("No file store found");
     }
-}
\ No newline at end of file
+}
@@ -23,8 +23,25 @@ public class SystemMetrics {
     private final double diskUsagePercent;
     private final long uptimeMillis;
     private final Double cpuTempCelsius;
+    /** 以下系统级指标不可用时为 NaN */
+    private final double systemCpuPercent;
+    private final double memoryTotalMb;
+    private final double memoryAvailableMb;
+    private final double memoryUsagePercent;
+    private final double loadAverage;
+    private final double netRxBytesPerSec;
+    private final double netTxBytesPerSec;
+    private final double diskReadBytesPerSec;
+    private final double diskWriteBytesPerSec;
 
     public SystemMetrics(String hostname, String os, String osArch, double cpuLoad, long usedHeapMb, long maxHeapMb, double heapUsagePercent, long diskTotalGb, long diskUsedGb, double diskUsagePercent, long uptimeMillis, Double cpuTempCelsius) {
+        this(hostname, os, osArch, cpuLoad, usedHeapMb, maxHeapMb, heapUsagePercent, diskTotalGb, diskUsedGb, diskUsagePercent, uptimeMillis, cpuTempCelsius,
+                Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    public SystemMetrics(String hostname, String os, String osArch, double cpuLoad, long usedHeapMb, long maxHeapMb, double heapUsagePercent, long diskTotalGb, long diskUsedGb, double diskUsagePercent, long uptimeMillis, Double cpuTempCelsius,
+                         double systemCpuPercent, double memoryTotalMb, double memoryAvailableMb, double memoryUsagePercent, double loadAverage,
+                         double netRxBytesPerSec, double netTxBytesPerSec, double diskReadBytesPerSec, double diskWriteBytesPerSec) {
         this.collectTime = new Date();
         this.hostname = hostname;
         this.os = os;
@@ -38,6 +55,15 @@ public class SystemMetrics {
         this.diskUsagePercent = diskUsagePercent;
         this.uptimeMillis = uptimeMillis;
         this.cpuTempCelsius = cpuTempCelsius;
+        this.systemCpuPercent = systemCpuPercent;
+        this.memoryTotalMb = memoryTotalMb;
+        this.memoryAvailableMb = memoryAvailableMb;
+        this.memoryUsagePercent = memoryUsagePercent;
+        this.loadAverage = loadAverage;
+        this.netRxBytesPerSec = netRxBytesPerSec;
+        this.netTxBytesPerSec = netTxBytesPerSec;
+        this.diskReadBytesPerSec = diskReadBytesPerSec;
+        this.diskWriteBytesPerSec = diskWriteBytesPerSec;
     }
 
     public String formatForMail() {
@@ -51,6 +77,17 @@ public class SystemMetrics {
             sb.append("N/A");
         }
         sb.append("\n");
+        if (!Double.isNaN(systemCpuPercent)) {
+            sb.append("整机 CPU: ").append(String.format("%.1f%%", systemCpuPercent));
+            if (!Double.isNaN(loadAverage)) {
+                sb.append(" (负载 ").append(String.format("%.2f", loadAverage)).append(")");
+            }
+            sb.append("\n");
+        }
+        if (memoryTotalMb > 0 && !Double.isNaN(memoryAvailableMb)) {
+            double usedMb = memoryTotalMb - memoryAvailableMb;
+            sb.append("物理内存: ").append(String.format("%.0f MB / %.0f MB (%.1f%%)", usedMb, memoryTotalMb, usedMb * 100 / memoryTotalMb)).append("\n");
+        }
         sb.append("堆内存: ").append(usedHeapMb).append(" MB / ").append(maxHeapMb).append(" MB (").append(String.format("%.1f%%", heapUsagePercent)).append(")").append("\n");
         sb.append("磁盘: ").append(diskUsedGb).append(" GB / ").append(diskTotalGb).append(" GB (").append(String.format("%.1f%%", diskUsagePercent)).append(")").append("\n");
         if (cpuTempCelsius != null) {
@@ -1,33 +1,428 @@
 package com.example.aireply.component.metrics.provider;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
 
+/**
+ * 基于 /proc 与 /sys 的 Linux 指标提供者
+ * 所有文件句柄和缓冲区在构造时打开并复用，解析过程不产生临时对象，可用于亚秒级采样
+ */
+@Slf4j
 public class LinuxMetricsProvider implements MetricsProvider {
-    @Override
-    public long getSystemUptime() {
-        try {
-            Path p = Paths.get("/proc/uptime");
-            if (Files.exists(p)) {
-                String content = Files.readString(p).split("\\s+")[0];
-                return (long) (Double.parseDouble(content) * 1000);
+
+    private static final byte[] CPU = "cpu".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_TOTAL = "MemTotal".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_AVAILABLE = "MemAvailable".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOOPBACK = "lo".getBytes(StandardCharsets.US_ASCII);
+
+    /** diskstats 中扇区大小固定为 512 字节 */
+    private static final int SECTOR_SIZE = 512;
+
+    private final ProcTokenizer tokenizer = new ProcTokenizer();
+
+    /** 单调时钟（纳秒），用于计算两次采集的间隔 */
+    private final LongSupplier nanoClock;
+
+    private final ProcFile uptimeFile;
+    private final ProcFile statFile;
+    private final ProcFile meminfoFile;
+    private final ProcFile loadavgFile;
+    private final ProcFile netDevFile;
+    private final ProcFile diskstatsFile;
+
+    private final ProcFile[] thermalZones;
+
+    /** 用作 CPU 温度的传感器下标，优先选择类型中包含 cpu 的传感器 */
+    private final int cpuThermalIndex;
+
+    /** 物理磁盘的设备名（不含分区以及 loop、dm、md 等虚拟块设备） */
+    private final byte[][] wholeDisks;
+
+    // --- CPU 差值状态：下标 0 为整机，1.. 为各核心 ---
+    private long[] prevTotal = new long[0];
+    private long[] prevIdle = new long[0];
+    private double[] cpuUsage = new double[0];
+    private int coreCount;
+
+    private double memoryTotalMb = Double.NaN;
+    private double memoryAvailableMb = Double.NaN;
+    private double loadAverage = Double.NaN;
+
+    // --- 吞吐差值状态 ---
+    private long prevSampleNanos;
+    private long prevRxBytes = -1;
+    private long prevTxBytes = -1;
+    private long prevReadSectors = -1;
+    private long prevWriteSectors = -1;
+    private double rxRate = Double.NaN;
+    private double txRate = Double.NaN;
+    private double readRate = Double.NaN;
+    private double writeRate = Double.NaN;
+
+    private final double[] thermalReadings;
+
+    public LinuxMetricsProvider() {
+        this(new File("/"), System::nanoTime);
+    }
+
+    /**
+     * @param root procfs 与 sysfs 所在的根目录，测试时可指向伪造的目录树
+     * @param nanoClock 单调时钟（纳秒），测试时可注入
+     */
+    LinuxMetricsProvider(File root, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.uptimeFile = ProcFile.openIfReadable(new File(root, "proc/uptime").getPath(), 64);
+        this.statFile = ProcFile.openIfReadable(new File(root, "proc/stat").getPath(), 4096);
+        this.meminfoFile = ProcFile.openIfReadable(new File(root, "proc/meminfo").getPath(), 4096);
+        this.loadavgFile = ProcFile.openIfReadable(new File(root, "proc/loadavg").getPath(), 128);
+        this.netDevFile = ProcFile.openIfReadable(new File(root, "proc/net/dev").getPath(), 2048);
+        this.diskstatsFile = ProcFile.openIfReadable(new File(root, "proc/diskstats").getPath(), 4096);
+
+        List<ProcFile> zones = new ArrayList<>();
+        int cpuIndex = -1;
+        File[] zoneDirs = new File(root, "sys/class/thermal").listFiles((dir, name) -> name.startsWith("thermal_zone"));
+        if (zoneDirs != null) {
+            // 按编号排序，字典序会把 thermal_zone10 排在 thermal_zone2 之前
+            Arrays.sort(zoneDirs, Comparator.comparingInt(LinuxMetricsProvider::zoneNumber));
+            for (File zoneDir : zoneDirs) {
+                ProcFile temp = ProcFile.openIfReadable(new File(zoneDir, "temp").getPath(), 32);
+                if (temp == null) {
+                    continue;
+                }
+                if (readFirstLine(new File(zoneDir, "type")).toLowerCase().contains("cpu") && cpuIndex < 0) {
+                    cpuIndex = zones.size();
+                }
+                zones.add(temp);
+            }
+        }
+        this.thermalZones = zones.toArray(new ProcFile[0]);
+        this.thermalReadings = new double[thermalZones.length];
+        this.cpuThermalIndex = Math.max(cpuIndex, 0);
+
+        List<byte[]> disks = new ArrayList<>();
+        File[] blockDevices = new File(root, "sys/block").listFiles();
+        if (blockDevices != null) {
+            for (File device : blockDevices) {
+                if (isPhysicalDisk(device)) {
+                    disks.add(device.getName().getBytes(StandardCharsets.US_ASCII));
+                }
             }
-        } catch (Exception ignored) {}
+        }
+        this.wholeDisks = disks.toArray(new byte[0][]);
+    }
+
+    @Override
+    public synchronized long getSystemUptime() {
+        if (uptimeFile != null) {
+            try {
+                double seconds = uptimeFile.tokenize(tokenizer).nextDouble();
+                if (!Double.isNaN(seconds)) {
+                    return (long) (seconds * 1000);
+                }
+            } catch (IOException ignored) {}
+        }
         return ManagementFactory.getRuntimeMXBean().getUptime();
     }
 
     @Override
-    public Double getCpuTemperature() {
-        String path = "/sys/class/thermal/thermal_zone0/temp";
+    public synchronized double getCpuTemperature() {
+        return thermalReadings.length > 0 ? thermalReadings[cpuThermalIndex] : Double.NaN;
+    }
+
+    @Override
+    public synchronized void refresh() {
+        long now = nanoClock.getAsLong();
+        double elapsedSeconds = prevSampleNanos == 0 ? 0 : (now - prevSampleNanos) / 1e9;
+        prevSampleNanos = now;
+        readStat();
+        readMeminfo();
+        readLoadavg();
+        readNetDev(elapsedSeconds);
+        readDiskstats(elapsedSeconds);
+        for (int i = 0; i < thermalZones.length; i++) {
+            thermalReadings[i] = readThermalZone(i);
+        }
+    }
+
+    @Override
+    public synchronized double getSystemCpuUsage() {
+        return cpuUsage.length > 0 ? cpuUsage[0] : Double.NaN;
+    }
+
+    @Override
+    public synchronized int getCoreCpuUsage(double[] out) {
+        int n = Math.min(coreCount, out.length);
+        System.arraycopy(cpuUsage, 1, out, 0, n);
+        return coreCount;
+    }
+
+    @Override
+    public synchronized double getMemoryTotalMb() {
+        return memoryTotalMb;
+    }
+
+    @Override
+    public synchronized double getMemoryAvailableMb() {
+        return memoryAvailableMb;
+    }
+
+    @Override
+    public synchronized double getLoadAverage() {
+        return loadAverage;
+    }
+
+    @Override
+    public synchronized double getNetworkRxBytesPerSecond() {
+        return rxRate;
+    }
+
+    @Override
+    public synchronized double getNetworkTxBytesPerSecond() {
+        return txRate;
+    }
+
+    @Override
+    public synchronized double getDiskReadBytesPerSecond() {
+        return readRate;
+    }
+
+    @Override
+    public synchronized double getDiskWriteBytesPerSecond() {
+        return writeRate;
+    }
+
+    @Override
+    public synchronized int getThermalZoneTemperatures(double[] out) {
+        int n = Math.min(thermalReadings.length, out.length);
+        System.arraycopy(thermalReadings, 0, out, 0, n);
+        return thermalReadings.length;
+    }
+
+    /**
+     * /proc/stat：cpu 行为整机，cpuN 行为各核心；使用率 = 1 - Δidle / Δtotal
+     */
+    private void readStat() {
+        if (statFile == null) {
+            return;
+        }
         try {
-            Path p = Paths.get(path);
-            if (Files.exists(p)) {
-                String content = Files.readString(p).trim();
-                return Double.parseDouble(content) / 1000.0;
+            ProcTokenizer t = statFile.tokenize(tokenizer);
+            int row = 0;
+            while (t.hasMoreLines() && t.lineStartsWith(CPU)) {
+                t.skipToken();
+                long total = 0;
+                long idle = 0;
+                // user nice system idle iowait irq softirq steal（guest 已计入 user，不重复累加）
+                for (int col = 0; col < 8; col++) {
+                    long v = t.nextLong();
+                    if (v < 0) {
+                        break;
+                    }
+                    total += v;
+                    if (col == 3 || col == 4) {
+                        idle += v;
+                    }
+                }
+                ensureCpuCapacity(row + 1);
+                long deltaTotal = total - prevTotal[row];
+                long deltaIdle = idle - prevIdle[row];
+                cpuUsage[row] = prevTotal[row] == 0 || deltaTotal <= 0
+                        ? Double.NaN : (deltaTotal - deltaIdle) * 100.0 / deltaTotal;
+                prevTotal[row] = total;
+                prevIdle[row] = idle;
+                row++;
+                t.nextLine();
             }
-        } catch (Exception ignored) {}
-        return null;
+            coreCount = Math.max(0, row - 1);
+        } catch (IOException e) {
+            log.debug("读取 /proc/stat 失败", e);
+        }
+    }
+
+    private void ensureCpuCapacity(int rows) {
+        if (prevTotal.length < rows) {
+            prevTotal = Arrays.copyOf(prevTotal, rows);
+            prevIdle = Arrays.copyOf(prevIdle, rows);
+            cpuUsage = Arrays.copyOf(cpuUsage, rows);
+        }
+    }
+
+    private void readMeminfo() {
+        if (meminfoFile == null) {
+            return;
+        }
+        try {
+            ProcTokenizer t = meminfoFile.tokenize(tokenizer);
+            int found = 0;
+            while (t.hasMoreLines() && found < 2) {
+                if (t.lineStartsWith(MEM_TOTAL)) {
+                    t.skipToken();
+                    memoryTotalMb = t.nextLong() / 1024.0;
+                    found++;
+                } else if (t.lineStartsWith(MEM_AVAILABLE)) {
+                    t.skipToken();
+                    memoryAvailableMb = t.nextLong() / 1024.0;
+                    found++;
+                }
+                t.nextLine();
+            }
+        } catch (IOException e) {
+            log.debug("读取 /proc/meminfo 失败", e);
+        }
+    }
+
+    private void readLoadavg() {
+        if (loadavgFile == null) {
+            return;
+        }
+        try {
+            loadAverage = loadavgFile.tokenize(tokenizer).nextDouble();
+        } catch (IOException e) {
+            log.debug("读取 /proc/loadavg 失败", e);
+        }
+    }
+
+    /**
+     * /proc/net/dev：前两行为表头，之后每行为 "iface: rxBytes rxPackets ... (8 列) txBytes ..."
+     */
+    private void readNetDev(double elapsedSeconds) {
+        if (netDevFile == null) {
+            return;
+        }
+        try {
+            ProcTokenizer t = netDevFile.tokenize(tokenizer);
+            t.nextLine();
+            t.nextLine();
+            long rx = 0;
+            long tx = 0;
+            while (t.hasMoreLines()) {
+                if (t.tokenEquals(LOOPBACK)) {
+                    t.nextLine();
+                    continue;
+                }
+                rx += Math.max(0, t.nextLong());
+                for (int i = 0; i < 7; i++) {
+                    t.skipToken();
+                }
+                tx += Math.max(0, t.nextLong());
+                t.nextLine();
+            }
+            rxRate = rate(prevRxBytes, rx, elapsedSeconds);
+            txRate = rate(prevTxBytes, tx, elapsedSeconds);
+            prevRxBytes = rx;
+            prevTxBytes = tx;
+        } catch (IOException e) {
+            log.debug("读取 /proc/net/dev 失败", e);
+        }
+    }
+
+    /**
+     * /proc/diskstats："major minor name reads merged sectorsRead msReading writes merged sectorsWritten ..."
+     */
+    private void readDiskstats(double elapsedSeconds) {
+        if (diskstatsFile == null) {
+            return;
+        }
+        try {
+            ProcTokenizer t = diskstatsFile.tokenize(tokenizer);
+            long readSectors = 0;
+            long writeSectors = 0;
+            while (t.hasMoreLines()) {
+                t.skipToken();
+                t.skipToken();
+                int start = t.tokenStart();
+                int len = t.tokenLength();
+                if (isWholeDisk(t, start, len)) {
+                    t.skipToken();
+                    t.skipToken();
+                    readSectors += Math.max(0, t.nextLong());
+                    t.skipToken();
+                    t.skipToken();
+                    t.skipToken();
+                    writeSectors += Math.max(0, t.nextLong());
+                }
+                t.nextLine();
+            }
+            readRate = rate(prevReadSectors, readSectors, elapsedSeconds) * SECTOR_SIZE;
+            writeRate = rate(prevWriteSectors, writeSectors, elapsedSeconds) * SECTOR_SIZE;
+            prevReadSectors = readSectors;
+            prevWriteSectors = writeSectors;
+        } catch (IOException e) {
+            log.debug("读取 /proc/diskstats 失败", e);
+        }
+    }
+
+    private boolean isWholeDisk(ProcTokenizer t, int start, int len) {
+        for (byte[] disk : wholeDisks) {
+            if (disk.length != len) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 0; i < len && match; i++) {
+                match = t.byteAt(start + i) == disk[i];
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double readThermalZone(int index) {
+        try {
+            long milli = thermalZones[index].tokenize(tokenizer).nextLong();
+            return milli < 0 ? Double.NaN : milli / 1000.0;
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double rate(long previous, long current, double elapsedSeconds) {
+        if (previous < 0 || elapsedSeconds <= 0 || current < previous) {
+            return Double.NaN;
+        }
+        return (current - previous) / elapsedSeconds;
+    }
+
+    /**
+     * 只统计有底层硬件的块设备：loop、ram、zram 等没有 device 链接，
+     * dm、md 等叠加在其他磁盘之上的设备在 slaves 中列出下层设备，计入会重复统计同一份 I/O
+     */
+    private static boolean isPhysicalDisk(File device) {
+        if (!new File(device, "device").exists()) {
+            return false;
+        }
+        String[] slaves = new File(device, "slaves").list();
+        return slaves == null || slaves.length == 0;
+    }
+
+    /**
+     * thermal_zoneN 目录名中的编号 N，无法解析时排在最后
+     */
+    private static int zoneNumber(File zoneDir) {
+        try {
+            return Integer.parseInt(zoneDir.getName().substring("thermal_zone".length()));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static String readFirstLine(File file) {
+        try {
+            return Files.readString(Paths.get(file.getPath())).trim();
+        } catch (Exception e) {
+            return "";
+        }
     }
-}
\ No newline at end of file
+}
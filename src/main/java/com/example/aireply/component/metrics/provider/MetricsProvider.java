@@ -2,8 +2,95 @@ package com.example.aireply.component.metrics.provider;
 
 /**
  * 操作系统指标提供者接口
+ * <p>
+ * 系统级指标（CPU、内存、网络、磁盘 I/O 等）需先调用 {@link #refresh()} 采集一次，再通过各 getter 读取；
+ * 基于差值计算的指标（CPU 使用率、吞吐速率）以相邻两次 refresh 的间隔为统计窗口。
+ * 不支持的指标返回 NaN（或 0 个元素）。
+ * </p>
  */
 public interface MetricsProvider {
     long getSystemUptime();
-    Double getCpuTemperature();
-}
\ No newline at end of file
+
+    /**
+     * CPU 温度（℃），基于最近一次 {@link #refresh()}
+     */
+    double getCpuTemperature();
+
+    /**
+     * 采集一次系统级指标
+     */
+    default void refresh() {
+    }
+
+    /**
+     * 整机 CPU 使用率（%）
+     */
+    default double getSystemCpuUsage() {
+        return Double.NaN;
+    }
+
+    /**
+     * 各核心 CPU 使用率（%），写入 out
+     * @return 核心数，out 长度不足时只写入前 out.length 个
+     */
+    default int getCoreCpuUsage(double[] out) {
+        return 0;
+    }
+
+    /**
+     * 物理内存总量（MB）
+     */
+    default double getMemoryTotalMb() {
+        return Double.NaN;
+    }
+
+    /**
+     * 可用物理内存（MB）
+     */
+    default double getMemoryAvailableMb() {
+        return Double.NaN;
+    }
+
+    /**
+     * 1 分钟平均负载
+     */
+    default double getLoadAverage() {
+        return Double.NaN;
+    }
+
+    /**
+     * 网络接收速率（字节/秒，不含回环网卡）
+     */
+    default double getNetworkRxBytesPerSecond() {
+        return Double.NaN;
+    }
+
+    /**
+     * 网络发送速率（字节/秒，不含回环网卡）
+     */
+    default double getNetworkTxBytesPerSecond() {
+        return Double.NaN;
+    }
+
+    /**
+     * 磁盘读取速率（字节/秒）
+     */
+    default double getDiskReadBytesPerSecond() {
+        return Double.NaN;
+    }
+
+    /**
+     * 磁盘写入速率（字节/秒）
+     */
+    default double getDiskWriteBytesPerSecond() {
+        return Double.NaN;
+    }
+
+    /**
+     * 所有温度传感器读数（℃），写入 out
+     * @return 传感器数量，out 长度不足时只写入前 out.length 个
+     */
+    default int getThermalZoneTemperatures(double[] out) {
+        return 0;
+    }
+}
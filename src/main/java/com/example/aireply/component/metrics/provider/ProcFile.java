@@ -0,0 +1,78 @@
+package com.example.aireply.component.metrics.provider;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * 可重复读取的 procfs / sysfs 文件
+ * 文件句柄与读缓冲区长期复用，每次读取通过 seek(0) 让内核重新生成内容，不产生临时对象
+ */
+final class ProcFile implements AutoCloseable {
+
+    private final String path;
+
+    private final RandomAccessFile file;
+
+    private byte[] buffer;
+
+    private int length;
+
+    ProcFile(String path, int initialCapacity) throws IOException {
+        this.path = path;
+        this.file = new RandomAccessFile(path, "r");
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * 打开文件，不存在或无权限时返回 null
+     */
+    static ProcFile openIfReadable(String path, int initialCapacity) {
+        try {
+            return new ProcFile(path, initialCapacity);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 重新读取文件全部内容到缓冲区，缓冲区不足时按需扩容
+     * @return 读取的字节数
+     */
+    int load() throws IOException {
+        file.seek(0);
+        int total = 0;
+        while (true) {
+            if (total == buffer.length) {
+                byte[] larger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, larger, 0, total);
+                buffer = larger;
+            }
+            int n = file.read(buffer, total, buffer.length - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        length = total;
+        return total;
+    }
+
+    /**
+     * 读取内容并重置分词器
+     */
+    ProcTokenizer tokenize(ProcTokenizer tokenizer) throws IOException {
+        load();
+        return tokenizer.reset(buffer, length);
+    }
+
+    String path() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.aireply.component.metrics.provider;
+
+/**
+ * procfs 文本的手写分词器
+ * 直接在字节缓冲区上按空白 / 冒号切分并解析数字，替代 split 与 parseXxx 带来的字符串分配
+ */
+final class ProcTokenizer {
+
+    private byte[] buf;
+
+    private int limit;
+
+    private int pos;
+
+    ProcTokenizer reset(byte[] buf, int limit) {
+        this.buf = buf;
+        this.limit = limit;
+        this.pos = 0;
+        return this;
+    }
+
+    boolean hasMoreLines() {
+        return pos < limit;
+    }
+
+    /**
+     * 跳到下一行开头
+     */
+    void nextLine() {
+        while (pos < limit && buf[pos] != '\n') {
+            pos++;
+        }
+        if (pos < limit) {
+            pos++;
+        }
+    }
+
+    /**
+     * 当前行（跳过行首空白后）是否以指定前缀开头，不移动位置
+     */
+    boolean lineStartsWith(byte[] prefix) {
+        int p = pos;
+        while (p < limit && (buf[p] == ' ' || buf[p] == '\t')) {
+            p++;
+        }
+        if (p + prefix.length > limit) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf[p + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 跳过当前行中的下一个词（以空白或冒号分隔）
+     * @return 行内已无词时返回 false
+     */
+    boolean skipToken() {
+        skipSeparators();
+        if (atLineEnd()) {
+            return false;
+        }
+        while (pos < limit && !isSeparator(buf[pos]) && buf[pos] != '\n') {
+            pos++;
+        }
+        return true;
+    }
+
+    /**
+     * 下一个词与指定字节序列是否完全相同，并跳过该词
+     */
+    boolean tokenEquals(byte[] expected) {
+        skipSeparators();
+        int start = pos;
+        skipToken();
+        int len = pos - start;
+        if (len != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (buf[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 下一个词的起始偏移，配合 {@link #tokenLength()} 在不分配字符串的情况下检查词内容
+     */
+    int tokenStart() {
+        skipSeparators();
+        return pos;
+    }
+
+    /**
+     * 从当前位置到词尾的长度，并跳过该词
+     */
+    int tokenLength() {
+        int start = pos;
+        skipToken();
+        return pos - start;
+    }
+
+    byte byteAt(int offset) {
+        return buf[offset];
+    }
+
+    /**
+     * 解析下一个非负整数，行内无数字时返回 -1
+     */
+    long nextLong() {
+        skipSeparators();
+        if (atLineEnd() || buf[pos] < '0' || buf[pos] > '9') {
+            return -1;
+        }
+        long value = 0;
+        while (pos < limit && buf[pos] >= '0' && buf[pos] <= '9') {
+            value = value * 10 + (buf[pos] - '0');
+            pos++;
+        }
+        // 跳过不属于数字的剩余部分（如单位）
+        while (pos < limit && !isSeparator(buf[pos]) && buf[pos] != '\n') {
+            pos++;
+        }
+        return value;
+    }
+
+    /**
+     * 解析下一个形如 123.45 的非负小数（可带负号），行内无数字时返回 NaN
+     */
+    double nextDouble() {
+        skipSeparators();
+        if (atLineEnd()) {
+            return Double.NaN;
+        }
+        boolean negative = buf[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        long integer = 0;
+        long fraction = 0;
+        long scale = 1;
+        boolean digits = false;
+        while (pos < limit && buf[pos] >= '0' && buf[pos] <= '9') {
+            integer = integer * 10 + (buf[pos] - '0');
+            pos++;
+            digits = true;
+        }
+        if (pos < limit && buf[pos] == '.') {
+            pos++;
+            while (pos < limit && buf[pos] >= '0' && buf[pos] <= '9') {
+                if (scale < 1_000_000_000_000L) {
+                    fraction = fraction * 10 + (buf[pos] - '0');
+                    scale *= 10;
+                }
+                pos++;
+                digits = true;
+            }
+        }
+        while (pos < limit && !isSeparator(buf[pos]) && buf[pos] != '\n') {
+            pos++;
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        double value = integer + (double) fraction / scale;
+        return negative ? -value : value;
+    }
+
+    private boolean atLineEnd() {
+        return pos >= limit || buf[pos] == '\n';
+    }
+
+    private void skipSeparators() {
+        while (pos < limit && isSeparator(buf[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == ':' || b == '\r';
+    }
+}
@@ -9,7 +9,7 @@ public class WindowsMetricsProvider implements MetricsProvider {
     }
 
     @Override
-    public Double getCpuTemperature() {
-        return null;
+    public double getCpuTemperature() {
+        return Double.NaN;
     }
 }
\ No newline at end of file
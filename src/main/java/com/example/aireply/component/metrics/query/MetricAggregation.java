@@ -0,0 +1,40 @@
+package com.example.aireply.component.metrics.query;
+
+import lombok.Getter;
+
+/**
+ * 按时间桶聚合的方式
+ */
+@Getter
+public enum MetricAggregation {
+    AVG("avg", "平均值"),
+    MIN("min", "最小值"),
+    MAX("max", "最大值"),
+    /**
+     * 95 分位，按最近秩法取桶内第 ceil(0.95 * n) 小的样本
+     */
+    P95("p95", "95分位");
+
+    private final String key;
+    private final String description;
+
+    MetricAggregation(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * 根据 key 解析（忽略大小写），找不到返回 null
+     */
+    public static MetricAggregation of(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (MetricAggregation aggregation : values()) {
+            if (aggregation.key.equalsIgnoreCase(key) || aggregation.name().equalsIgnoreCase(key)) {
+                return aggregation;
+            }
+        }
+        return null;
+    }
+}
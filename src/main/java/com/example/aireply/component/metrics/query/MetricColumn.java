@@ -0,0 +1,29 @@
+package com.example.aireply.component.metrics.query;
+
+import com.example.aireply.component.metrics.store.MetricField;
+
+/**
+ * 查询结果中的一列：指标 + 聚合方式，形如 "cpuLoad:p95"，省略聚合方式时为平均值
+ */
+public record MetricColumn(MetricField field, MetricAggregation aggregation) {
+
+    /**
+     * 结果中的列名
+     */
+    public String key() {
+        return field.getKey() + ":" + aggregation.getKey();
+    }
+
+    /**
+     * 解析列定义，无法识别时返回 null
+     */
+    public static MetricColumn parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return null;
+        }
+        int colon = spec.indexOf(':');
+        MetricField field = MetricField.of((colon < 0 ? spec : spec.substring(0, colon)).trim());
+        MetricAggregation aggregation = colon < 0 ? MetricAggregation.AVG : MetricAggregation.of(spec.substring(colon + 1).trim());
+        return field != null && aggregation != null ? new MetricColumn(field, aggregation) : null;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.aireply.component.metrics.query;
+
+import com.example.aireply.component.metrics.store.MetricsRecordVisitor;
+
+import java.util.Arrays;
+
+/**
+ * 按固定步长把历史记录聚合为时间桶，一次顺序遍历完成全部列的计算
+ * <p>
+ * 记录按时间升序到达，桶也按顺序关闭：平均值、最小值、最大值只保留每列的累加器，
+ * 分位数列只缓存当前桶内的样本，内存占用与查询区间长度无关。
+ * 区间内没有样本的桶同样输出（样本数为 0、各列为 NaN），保证第 n 个桶始终对应 from + n * step。
+ * </p>
+ */
+public final class MetricsBucketAggregator implements MetricsRecordVisitor {
+
+    private final long fromMillis;
+
+    private final long stepMillis;
+
+    private final long bucketCount;
+
+    private final MetricColumn[] columns;
+
+    private final int[] ordinals;
+
+    private final double[] sum;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    private final int[] valid;
+
+    /** 分位数列当前桶内的样本，其余列为 null */
+    private final double[][] samples;
+
+    private final double[] results;
+
+    private final BucketSink sink;
+
+    private long current;
+
+    private int records;
+
+    /**
+     * @param fromMillis 第 0 个桶的起始时间
+     * @param bucketCount 输出的桶数，区间外的记录被忽略
+     */
+    public MetricsBucketAggregator(long fromMillis, long stepMillis, long bucketCount, MetricColumn[] columns, BucketSink sink) {
+        this.fromMillis = fromMillis;
+        this.stepMillis = stepMillis;
+        this.bucketCount = bucketCount;
+        this.columns = columns;
+        this.sink = sink;
+        this.ordinals = new int[columns.length];
+        this.sum = new double[columns.length];
+        this.min = new double[columns.length];
+        this.max = new double[columns.length];
+        this.valid = new int[columns.length];
+        this.samples = new double[columns.length][];
+        this.results = new double[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            ordinals[c] = columns[c].field().ordinal();
+            if (columns[c].aggregation() == MetricAggregation.P95) {
+                samples[c] = new double[64];
+            }
+        }
+        reset();
+    }
+
+    @Override
+    public void visit(long timestamp, double[] values) {
+        if (timestamp < fromMillis) {
+            return;
+        }
+        long bucket = (timestamp - fromMillis) / stepMillis;
+        if (bucket >= bucketCount) {
+            return;
+        }
+        if (bucket != current) {
+            advanceTo(bucket);
+        }
+        records++;
+        for (int c = 0; c < ordinals.length; c++) {
+            double value = values[ordinals[c]];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            int n = valid[c]++;
+            sum[c] += value;
+            if (value < min[c]) {
+                min[c] = value;
+            }
+            if (value > max[c]) {
+                max[c] = value;
+            }
+            double[] buffer = samples[c];
+            if (buffer != null) {
+                if (n == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, n * 2);
+                    samples[c] = buffer;
+                }
+                buffer[n] = value;
+            }
+        }
+    }
+
+    /**
+     * 遍历结束后调用，输出最后一个桶以及之后没有样本的桶
+     */
+    public void finish() {
+        advanceTo(bucketCount);
+    }
+
+    public MetricColumn[] columns() {
+        return columns;
+    }
+
+    /**
+     * 依次关闭 current 到 bucket 之前的所有桶
+     */
+    private void advanceTo(long bucket) {
+        while (current < bucket) {
+            emit(current);
+            reset();
+            current++;
+        }
+    }
+
+    private void emit(long bucket) {
+        for (int c = 0; c < columns.length; c++) {
+            int n = valid[c];
+            if (n == 0) {
+                results[c] = Double.NaN;
+                continue;
+            }
+            results[c] = switch (columns[c].aggregation()) {
+                case AVG -> sum[c] / n;
+                case MIN -> min[c];
+                case MAX -> max[c];
+                case P95 -> percentile(samples[c], n, 0.95);
+            };
+        }
+        sink.bucket(fromMillis + bucket * stepMillis, records, results);
+    }
+
+    private void reset() {
+        records = 0;
+        Arrays.fill(sum, 0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        Arrays.fill(valid, 0);
+    }
+
+    private static double percentile(double[] values, int n, double quantile) {
+        Arrays.sort(values, 0, n);
+        int rank = (int) Math.ceil(quantile * n);
+        return values[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * 桶输出回调
+     */
+    @FunctionalInterface
+    public interface BucketSink {
+
+        /**
+         * @param timestamp 桶起始时间
+         * @param records 桶内的记录数
+         * @param results 按列顺序排列的聚合值，没有有效样本的列为 NaN；该数组在多次回调间复用，不要持有引用
+         */
+        void bucket(long timestamp, int records, double[] results);
+    }
+}
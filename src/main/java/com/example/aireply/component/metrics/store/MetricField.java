@@ -0,0 +1,70 @@
+package com.example.aireply.component.metrics.store;
+
+import lombok.Getter;
+
+/**
+ * 历史存储中的数值指标列
+ * 每个枚举值对应环形缓冲区中的一列 double 数据，ordinal 即列下标。
+ * 持久化分段按列顺序存储，新增指标只能追加在末尾
+ */
+@Getter
+public enum MetricField {
+    /**
+     * CPU 负载，取值 0~1，不可用时为负数
+     */
+    CPU_LOAD("cpuLoad", "CPU负载"),
+    USED_HEAP_MB("usedHeapMb", "已用堆内存(MB)"),
+    MAX_HEAP_MB("maxHeapMb", "最大堆内存(MB)"),
+    HEAP_USAGE_PERCENT("heapUsagePercent", "堆内存使用率(%)"),
+    DISK_TOTAL_GB("diskTotalGb", "磁盘总量(GB)"),
+    DISK_USED_GB("diskUsedGb", "磁盘已用(GB)"),
+    DISK_USAGE_PERCENT("diskUsagePercent", "磁盘使用率(%)"),
+    UPTIME_MILLIS("uptimeMillis", "系统运行时长(ms)"),
+    /**
+     * CPU 温度，不可用时为 NaN
+     */
+    CPU_TEMP_CELSIUS("cpuTempCelsius", "CPU温度(℃)"),
+
+    // 以下为系统级指标，仅 Linux 可用，其余平台为 NaN
+    SYSTEM_CPU_PERCENT("systemCpuPercent", "整机CPU使用率(%)"),
+    MEMORY_TOTAL_MB("memoryTotalMb", "物理内存总量(MB)"),
+    MEMORY_AVAILABLE_MB("memoryAvailableMb", "可用物理内存(MB)"),
+    MEMORY_USAGE_PERCENT("memoryUsagePercent", "物理内存使用率(%)"),
+    LOAD_AVERAGE("loadAverage", "1分钟平均负载"),
+    NET_RX_BYTES_PER_SEC("netRxBytesPerSec", "网络接收速率(B/s)"),
+    NET_TX_BYTES_PER_SEC("netTxBytesPerSec", "网络发送速率(B/s)"),
+    DISK_READ_BYTES_PER_SEC("diskReadBytesPerSec", "磁盘读取速率(B/s)"),
+    DISK_WRITE_BYTES_PER_SEC("diskWriteBytesPerSec", "磁盘写入速率(B/s)");
+
+    private static final MetricField[] VALUES = values();
+
+    private final String key;
+    private final String description;
+
+    MetricField(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * 列数量
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * 根据 key 解析指标列（忽略大小写），找不到返回 null
+     */
+    public static MetricField of(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (MetricField field : VALUES) {
+            if (field.key.equalsIgnoreCase(key) || field.name().equalsIgnoreCase(key)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
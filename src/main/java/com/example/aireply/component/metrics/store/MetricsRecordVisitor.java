@@ -0,0 +1,14 @@
+package com.example.aireply.component.metrics.store;
+
+/**
+ * 历史记录遍历回调
+ */
+@FunctionalInterface
+public interface MetricsRecordVisitor {
+
+    /**
+     * @param timestamp 采集时间戳（毫秒）
+     * @param values 按 {@link MetricField#ordinal()} 排列的指标值；该数组会在多次回调间复用，不要持有引用
+     */
+    void visit(long timestamp, double[] values);
+}
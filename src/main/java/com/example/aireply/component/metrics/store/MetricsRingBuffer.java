@@ -0,0 +1,167 @@
+package com.example.aireply.component.metrics.store;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定长、列式存储的指标环形缓冲区
+ * <p>
+ * 时间戳存放在 long[] 中，每个 {@link MetricField} 各占一个 double[]，写入时不产生任何对象分配。
+ * 并发模型为单写多读（类似 seqlock）：写线程先通过 {@link #claimed} 声明将要覆盖的槽位，以 store-store 屏障
+ * 保证声明先于数据可见，再写入数据列，最后通过 {@link #cursor} 以 release 语义发布；
+ * 读线程读取 cursor 后即可无锁访问已发布的数据，读取结束后用 {@link MetricsWindow#isValid()} 按声明序号校验是否被覆盖。
+ * 仅依赖 cursor 校验并不充分：在 ARM 等弱内存序平台上，下一次写入的数据可能先于本次 cursor 的更新被读线程看到。
+ * </p>
+ */
+public class MetricsRingBuffer {
+
+    private final int capacity;
+
+    private final long[] timestamps;
+
+    private final double[][] columns;
+
+    /**
+     * 已发布的样本总数（单调递增），第 n 个样本位于下标 n % capacity
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * 已声明（正在写入或已发布）的样本总数，写入第 n 个样本前置为 n + 1，总是不小于 cursor
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * 最近一次写入的时间戳，仅由写线程访问
+     */
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    public MetricsRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be >= 2");
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.columns = new double[MetricField.count()][capacity];
+    }
+
+    /**
+     * 追加一条样本，仅允许单线程调用；早于上一条样本的记录被丢弃，保证按时间二分查找的前提
+     * @param timestamp 采集时间戳（毫秒）
+     * @param values 按 {@link MetricField#ordinal()} 排列的指标值，调用方可复用该数组
+     * @return 是否写入，时钟回拨导致乱序时返回 false
+     */
+    public boolean append(long timestamp, double[] values) {
+        if (timestamp < lastTimestamp) {
+            return false;
+        }
+        lastTimestamp = timestamp;
+        long seq = cursor.get();
+        int index = (int) (seq % capacity);
+        claimed.setOpaque(seq + 1);
+        // 声明必须先于对槽位的覆盖写入可见
+        VarHandle.storeStoreFence();
+        timestamps[index] = timestamp;
+        for (int f = 0; f < columns.length; f++) {
+            columns[f][index] = values[f];
+        }
+        cursor.lazySet(seq + 1);
+        return true;
+    }
+
+    /**
+     * 最近 maxSamples 条样本的视图
+     */
+    public MetricsWindow latest(int maxSamples) {
+        long published = cursor.get();
+        long start = Math.max(oldestReadable(published), published - Math.max(0, maxSamples));
+        return new MetricsWindow(this, start, (int) (published - start));
+    }
+
+    /**
+     * 采集时间不早于 fromMillis 的样本视图
+     */
+    public MetricsWindow since(long fromMillis) {
+        long published = cursor.get();
+        long start = lowerBound(oldestReadable(published), published, fromMillis);
+        return new MetricsWindow(this, start, (int) (published - start));
+    }
+
+    /**
+     * 采集时间位于 [fromMillis, toMillis) 的样本视图
+     */
+    public MetricsWindow range(long fromMillis, long toMillis) {
+        long published = cursor.get();
+        long start = lowerBound(oldestReadable(published), published, fromMillis);
+        long end = lowerBound(start, published, toMillis);
+        return new MetricsWindow(this, start, (int) (end - start));
+    }
+
+    /**
+     * 缓冲区是否包含 fromMillis 之后的全部样本（尚未覆盖过，或最旧样本不晚于 fromMillis）
+     */
+    public boolean covers(long fromMillis) {
+        long published = cursor.get();
+        long oldest = oldestReadable(published);
+        return oldest == 0 || timestamps[(int) (oldest % capacity)] <= fromMillis;
+    }
+
+    /**
+     * 已发布样本总数（含已被覆盖的），可作为数据版本号使用
+     */
+    public long sequence() {
+        return cursor.get();
+    }
+
+    /**
+     * 当前可读样本数量
+     */
+    public int size() {
+        long published = cursor.get();
+        return (int) (published - oldestReadable(published));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 预留一个槽位给正在写入的样本，保证读者拿到的窗口在获取时刻不会与写线程重叠
+     */
+    private long oldestReadable(long published) {
+        return Math.max(0, published - (capacity - 1));
+    }
+
+    /**
+     * 时间戳按写入顺序单调递增，二分查找 [lo, hi) 中第一个 >= timestamp 的序号
+     */
+    private long lowerBound(long lo, long hi, long timestamp) {
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestamps[(int) (mid % capacity)] < timestamp) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    long timestampAt(long seq) {
+        return timestamps[(int) (seq % capacity)];
+    }
+
+    double valueAt(MetricField field, long seq) {
+        return columns[field.ordinal()][(int) (seq % capacity)];
+    }
+
+    /**
+     * 序号为 seq 的样本在此前的读取期间是否未被覆盖
+     * 读到的数据若来自某次覆盖写入，屏障保证随后读到的声明序号已包含这次写入
+     */
+    boolean isReadable(long seq) {
+        // 确保之前对数据列的普通读不会被重排到声明序号读取之后
+        VarHandle.acquireFence();
+        return seq >= claimed.get() - capacity;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.aireply.component.metrics.store;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单一分辨率的降采样层
+ * <p>
+ * 以定长环形数组保存最近 capacity 个时间桶，每个桶按指标列记录 min/max/sum/last/count。
+ * 写入时增量更新当前桶，单写多读：{@link #cursor} 发布桶数量，{@link #version} 以顺序锁方式
+ * 标记写入区间（奇数表示写入中），读者据此校验读取期间数据是否被修改。
+ * </p>
+ */
+public class MetricsRollupTier {
+
+    private final long resolutionMillis;
+
+    private final int capacity;
+
+    private final long[] starts;
+
+    private final double[][] min;
+
+    private final double[][] max;
+
+    private final double[][] sum;
+
+    private final double[][] last;
+
+    private final int[][] count;
+
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final AtomicLong version = new AtomicLong();
+
+    public MetricsRollupTier(long resolutionMillis, int capacity) {
+        if (resolutionMillis <= 0 || capacity < 2) {
+            throw new IllegalArgumentException("invalid rollup tier: " + resolutionMillis + "ms x " + capacity);
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.capacity = capacity;
+        int fields = MetricField.count();
+        this.starts = new long[capacity];
+        this.min = new double[fields][capacity];
+        this.max = new double[fields][capacity];
+        this.sum = new double[fields][capacity];
+        this.last = new double[fields][capacity];
+        this.count = new int[fields][capacity];
+    }
+
+    /**
+     * 累加一条样本，仅允许单线程调用；早于当前桶的乱序样本会被忽略
+     */
+    public void append(long timestamp, double[] values) {
+        long bucketStart = timestamp - Math.floorMod(timestamp, resolutionMillis);
+        long published = cursor.get();
+        int index;
+        if (published == 0 || bucketStart > starts[(int) ((published - 1) % capacity)]) {
+            index = (int) (published % capacity);
+            version.incrementAndGet();
+            starts[index] = bucketStart;
+            for (int f = 0; f < count.length; f++) {
+                min[f][index] = Double.NaN;
+                max[f][index] = Double.NaN;
+                sum[f][index] = 0;
+                last[f][index] = Double.NaN;
+                count[f][index] = 0;
+            }
+            accumulate(index, values);
+            cursor.lazySet(published + 1);
+        } else if (bucketStart == starts[(int) ((published - 1) % capacity)]) {
+            index = (int) ((published - 1) % capacity);
+            version.incrementAndGet();
+            accumulate(index, values);
+        } else {
+            return;
+        }
+        version.incrementAndGet();
+    }
+
+    private void accumulate(int index, double[] values) {
+        for (int f = 0; f < count.length; f++) {
+            double v = values[f];
+            if (Double.isNaN(v)) {
+                continue;
+            }
+            if (count[f][index]++ == 0) {
+                min[f][index] = v;
+                max[f][index] = v;
+            } else {
+                min[f][index] = Math.min(min[f][index], v);
+                max[f][index] = Math.max(max[f][index], v);
+            }
+            sum[f][index] += v;
+            last[f][index] = v;
+        }
+    }
+
+    /**
+     * 与 [fromMillis, toMillis) 有交集的时间桶视图
+     */
+    public Window range(long fromMillis, long toMillis) {
+        long stamp = stableVersion();
+        long published = cursor.get();
+        long start = lowerBound(oldestReadable(published), published, fromMillis - resolutionMillis + 1);
+        long end = lowerBound(start, published, toMillis);
+        return new Window(start, (int) (end - start), stamp);
+    }
+
+    /**
+     * 该层是否保留了 fromMillis 之后的全部数据
+     */
+    public boolean covers(long fromMillis) {
+        long published = cursor.get();
+        long oldest = oldestReadable(published);
+        return oldest == 0 || starts[(int) (oldest % capacity)] <= fromMillis;
+    }
+
+    /**
+     * [fromMillis, toMillis) 区间在该层需要的桶数
+     */
+    public long bucketsFor(long fromMillis, long toMillis) {
+        return Math.max(0, (toMillis - fromMillis + resolutionMillis - 1) / resolutionMillis);
+    }
+
+    public long resolutionMillis() {
+        return resolutionMillis;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 该层可回溯的最长时间
+     */
+    public long retentionMillis() {
+        return resolutionMillis * (capacity - 1);
+    }
+
+    private long stableVersion() {
+        long stamp = version.get();
+        while ((stamp & 1) != 0) {
+            Thread.onSpinWait();
+            stamp = version.get();
+        }
+        return stamp;
+    }
+
+    private long oldestReadable(long published) {
+        return Math.max(0, published - (capacity - 1));
+    }
+
+    /**
+     * 二分查找 [lo, hi) 中第一个桶起始时间 >= timestamp 的序号
+     */
+    private long lowerBound(long lo, long hi, long timestamp) {
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (starts[(int) (mid % capacity)] < timestamp) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 降采样层上的零拷贝窗口
+     */
+    public final class Window implements MetricsSeries {
+
+        private final long startSeq;
+
+        private final int size;
+
+        private final long stamp;
+
+        private Window(long startSeq, int size, long stamp) {
+            this.startSeq = startSeq;
+            this.size = size;
+            this.stamp = stamp;
+        }
+
+        @Override
+        public long resolutionMillis() {
+            return resolutionMillis;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public long timestamp(int i) {
+            return starts[index(i)];
+        }
+
+        @Override
+        public double value(MetricField field, int i) {
+            int index = index(i);
+            int n = count[field.ordinal()][index];
+            return n == 0 ? Double.NaN : sum[field.ordinal()][index] / n;
+        }
+
+        @Override
+        public double min(MetricField field, int i) {
+            return min[field.ordinal()][index(i)];
+        }
+
+        @Override
+        public double max(MetricField field, int i) {
+            return max[field.ordinal()][index(i)];
+        }
+
+        @Override
+        public double last(MetricField field, int i) {
+            return last[field.ordinal()][index(i)];
+        }
+
+        @Override
+        public int count(MetricField field, int i) {
+            return count[field.ordinal()][index(i)];
+        }
+
+        @Override
+        public boolean isValid() {
+            VarHandle.acquireFence();
+            return version.get() == stamp;
+        }
+
+        private int index(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("index " + i + " out of window size " + size);
+            }
+            return (int) ((startSeq + i) % capacity);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.aireply.component.metrics.store;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多分辨率降采样层集合
+ * 默认维护 1 分钟（1 天）、15 分钟（7 天）、1 小时（90 天）三层，写入时逐层增量聚合
+ */
+public class MetricsRollups {
+
+    private final List<MetricsRollupTier> tiers;
+
+    public MetricsRollups() {
+        this(List.of(
+                new MetricsRollupTier(TimeUnit.MINUTES.toMillis(1), 24 * 60 + 1),
+                new MetricsRollupTier(TimeUnit.MINUTES.toMillis(15), 7 * 24 * 4 + 1),
+                new MetricsRollupTier(TimeUnit.HOURS.toMillis(1), 90 * 24 + 1)));
+    }
+
+    /**
+     * @param tiers 按分辨率从细到粗排列的降采样层
+     */
+    public MetricsRollups(List<MetricsRollupTier> tiers) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("at least one rollup tier is required");
+        }
+        this.tiers = List.copyOf(tiers);
+    }
+
+    /**
+     * 累加一条样本到所有层，仅允许单线程调用
+     */
+    public void append(long timestamp, double[] values) {
+        for (int i = 0; i < tiers.size(); i++) {
+            tiers.get(i).append(timestamp, values);
+        }
+    }
+
+    /**
+     * 选择满足点数预算且覆盖起始时间的最细一层；都不满足时退化为最粗的一层
+     */
+    public MetricsSeries select(long fromMillis, long toMillis, int maxPoints) {
+        for (MetricsRollupTier tier : tiers) {
+            if (tier.bucketsFor(fromMillis, toMillis) <= maxPoints && tier.covers(fromMillis)) {
+                return tier.range(fromMillis, toMillis);
+            }
+        }
+        return tiers.get(tiers.size() - 1).range(fromMillis, toMillis);
+    }
+
+    /**
+     * 最粗一层可回溯的时间，用于启动时决定回放范围
+     */
+    public long retentionMillis() {
+        return tiers.get(tiers.size() - 1).retentionMillis();
+    }
+
+    public List<MetricsRollupTier> getTiers() {
+        return tiers;
+    }
+}
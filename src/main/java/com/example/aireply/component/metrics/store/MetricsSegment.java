@@ -0,0 +1,252 @@
+package com.example.aireply.component.metrics.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * 单个内存映射分段文件
+ * <p>
+ * 文件布局：64 字节文件头 + capacity 条定长记录。
+ * 每条记录为 [timestamp:long][value:double × fieldCount][checksum:long]，
+ * 写入顺序为 数值 → 校验和 → 时间戳 → 文件头计数，崩溃后通过校验和截断不完整的尾部记录。
+ * </p>
+ */
+final class MetricsSegment {
+
+    static final int MAGIC = 0x4D545253;
+
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_FIELD_COUNT = 6;
+    private static final int OFFSET_RECORD_SIZE = 8;
+    private static final int OFFSET_CAPACITY = 12;
+    private static final int OFFSET_COUNT = 16;
+
+    private final Path path;
+
+    private final LocalDate day;
+
+    private final int part;
+
+    private final int fieldCount;
+
+    private final int recordSize;
+
+    private final int capacity;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * 已提交的记录数，由写线程发布、读线程读取
+     */
+    private volatile int count;
+
+    private MetricsSegment(Path path, LocalDate day, int part, int fieldCount, int capacity, MappedByteBuffer buffer, int count) {
+        this.path = path;
+        this.day = day;
+        this.part = part;
+        this.fieldCount = fieldCount;
+        this.recordSize = recordSize(fieldCount);
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    static int recordSize(int fieldCount) {
+        return Long.BYTES + fieldCount * Double.BYTES + Long.BYTES;
+    }
+
+    /**
+     * 新建可写分段
+     */
+    static MetricsSegment create(Path path, LocalDate day, int part, int fieldCount, int capacity) throws IOException {
+        long size = HEADER_SIZE + (long) capacity * recordSize(fieldCount);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+            buffer.putShort(OFFSET_VERSION, VERSION);
+            buffer.putShort(OFFSET_FIELD_COUNT, (short) fieldCount);
+            buffer.putInt(OFFSET_RECORD_SIZE, recordSize(fieldCount));
+            buffer.putInt(OFFSET_CAPACITY, capacity);
+            buffer.putInt(OFFSET_COUNT, 0);
+            return new MetricsSegment(path, day, part, fieldCount, capacity, buffer, 0);
+        }
+    }
+
+    /**
+     * 打开已有分段并恢复尾部
+     * @param writable 是否以可写方式映射（用于继续追加）
+     */
+    static MetricsSegment open(Path path, LocalDate day, int part, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Segment too small: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(OFFSET_MAGIC) != MAGIC || header.getShort(OFFSET_VERSION) != VERSION) {
+                throw new IOException("Unrecognized segment header: " + path);
+            }
+            int fieldCount = header.getShort(OFFSET_FIELD_COUNT);
+            int capacity = header.getInt(OFFSET_CAPACITY);
+            if (header.getInt(OFFSET_RECORD_SIZE) != recordSize(fieldCount) || capacity <= 0) {
+                throw new IOException("Corrupted segment header: " + path);
+            }
+            long size = Math.min(channel.size(), HEADER_SIZE + (long) capacity * recordSize(fieldCount));
+            capacity = (int) ((size - HEADER_SIZE) / recordSize(fieldCount));
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+            MetricsSegment segment = new MetricsSegment(path, day, part, fieldCount, capacity, buffer, 0);
+            segment.count = segment.recover(Math.min(capacity, Math.max(0, header.getInt(OFFSET_COUNT))));
+            if (writable) {
+                buffer.putInt(OFFSET_COUNT, segment.count);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * 以文件头计数为提示定位最后一条有效记录：先向前回退跳过损坏记录，再向后吸收已写入但未计数的记录
+     */
+    private int recover(int hint) {
+        int valid = hint;
+        while (valid > 0 && !isIntact(valid - 1)) {
+            valid--;
+        }
+        while (valid < capacity && isIntact(valid)) {
+            valid++;
+        }
+        return valid;
+    }
+
+    private boolean isIntact(int index) {
+        long timestamp = timestamp(index);
+        if (timestamp <= 0) {
+            return false;
+        }
+        if (index > 0 && timestamp < timestamp(index - 1)) {
+            return false;
+        }
+        long h = seed(timestamp);
+        int base = offset(index) + Long.BYTES;
+        for (int f = 0; f < fieldCount; f++) {
+            h = mix(h, buffer.getLong(base + f * Double.BYTES));
+        }
+        return finish(h) == buffer.getLong(base + fieldCount * Double.BYTES);
+    }
+
+    /**
+     * 追加一条记录，仅允许单线程调用
+     * @return 分段已满时返回 false
+     */
+    boolean append(long timestamp, double[] values) {
+        int index = count;
+        if (index >= capacity) {
+            return false;
+        }
+        int base = offset(index);
+        long h = seed(timestamp);
+        for (int f = 0; f < fieldCount; f++) {
+            double value = f < values.length ? values[f] : Double.NaN;
+            long bits = Double.doubleToRawLongBits(value);
+            buffer.putLong(base + Long.BYTES + f * Double.BYTES, bits);
+            h = mix(h, bits);
+        }
+        buffer.putLong(base + Long.BYTES + fieldCount * Double.BYTES, finish(h));
+        buffer.putLong(base, timestamp);
+        buffer.putInt(OFFSET_COUNT, index + 1);
+        count = index + 1;
+        return true;
+    }
+
+    long timestamp(int index) {
+        return buffer.getLong(offset(index));
+    }
+
+    /**
+     * 读取第 index 条记录的指标值，旧版本分段缺少的列填充 NaN
+     */
+    void read(int index, double[] out) {
+        int base = offset(index) + Long.BYTES;
+        int n = Math.min(fieldCount, out.length);
+        for (int f = 0; f < n; f++) {
+            out[f] = buffer.getDouble(base + f * Double.BYTES);
+        }
+        for (int f = n; f < out.length; f++) {
+            out[f] = Double.NaN;
+        }
+    }
+
+    /**
+     * 第一条时间戳 >= timestamp 的记录下标
+     */
+    int lowerBound(long timestamp, int size) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamp(mid) < timestamp) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    LocalDate day() {
+        return day;
+    }
+
+    int part() {
+        return part;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    private int offset(int index) {
+        return HEADER_SIZE + index * recordSize;
+    }
+
+    private static long seed(long timestamp) {
+        return timestamp * 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long h, long bits) {
+        return Long.rotateLeft(h ^ bits, 27) * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.aireply.component.metrics.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于内存映射文件的持久化指标存储
+ * <p>
+ * 按天滚动分段（metrics-yyyyMMdd-NN.seg），单日写满或列结构变化时在同一天内新开分段；
+ * 只追加写入，单写多读，过期分段按保留天数删除。
+ * 只有当前可写分段常驻映射，已封存的分段在查询时按需映射、用完即释放，内存占用不随保留天数增长。
+ * </p>
+ */
+@Slf4j
+public class MetricsSegmentStore implements Closeable {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("metrics-(\\d{8})-(\\d{2})\\.seg");
+
+    private final Path dir;
+
+    private final int recordsPerSegment;
+
+    private final int retentionDays;
+
+    private final int flushEvery;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private volatile MetricsSegment active;
+
+    /**
+     * 当前可写分段所在自然日的起止时间（毫秒），仅写线程访问，用于避免逐条计算日期
+     */
+    private long activeDayStart;
+
+    private long activeDayEnd;
+
+    private int unflushed;
+
+    private boolean fullWarned;
+
+    public MetricsSegmentStore(Path dir, int recordsPerSegment, int retentionDays, int flushEvery) throws IOException {
+        long maxRecords = (Integer.MAX_VALUE - MetricsSegment.HEADER_SIZE) / MetricsSegment.recordSize(MetricField.count());
+        if (recordsPerSegment <= 0 || recordsPerSegment > maxRecords) {
+            throw new IllegalArgumentException("recordsPerSegment must be in (0, " + maxRecords + "]");
+        }
+        this.dir = dir;
+        this.recordsPerSegment = recordsPerSegment;
+        this.retentionDays = retentionDays;
+        this.flushEvery = Math.max(1, flushEvery);
+        Files.createDirectories(dir);
+        applyRetention(LocalDate.now(zone));
+    }
+
+    /**
+     * 追加一条记录，仅允许单线程调用
+     */
+    public void append(long timestamp, double[] values) {
+        try {
+            MetricsSegment segment = active;
+            if (segment == null || timestamp < activeDayStart || timestamp >= activeDayEnd || segment.isFull()) {
+                segment = roll(toDay(timestamp));
+                if (segment == null) {
+                    return;
+                }
+            }
+            if (segment.count() > 0 && timestamp < segment.timestamp(segment.count() - 1)) {
+                // 时钟回拨时丢弃乱序记录，保证分段内时间戳有序
+                return;
+            }
+            segment.append(timestamp, values);
+            if (++unflushed >= flushEvery) {
+                segment.force();
+                unflushed = 0;
+            }
+        } catch (IOException e) {
+            log.error("写入指标分段失败", e);
+        }
+    }
+
+    /**
+     * 顺序遍历 [fromMillis, toMillis) 区间内的记录
+     */
+    public void scan(long fromMillis, long toMillis, MetricsRecordVisitor visitor) {
+        if (fromMillis >= toMillis) {
+            return;
+        }
+        double[] values = new double[MetricField.count()];
+        MetricsSegment current = active;
+        for (Path path : listSegments(toDay(fromMillis), toDay(toMillis - 1))) {
+            // 一次只映射一个封存分段，遍历结束后即不再引用，由 GC 释放映射
+            MetricsSegment segment = current != null && current.path().equals(path) ? current : openSealed(path);
+            if (segment == null) {
+                continue;
+            }
+            int size = segment.count();
+            for (int i = segment.lowerBound(fromMillis, size); i < size; i++) {
+                long timestamp = segment.timestamp(i);
+                if (timestamp >= toMillis) {
+                    break;
+                }
+                segment.read(i, values);
+                visitor.visit(timestamp, values);
+            }
+        }
+    }
+
+    /**
+     * 保留时长（毫秒），不清理时为 {@link Long#MAX_VALUE}
+     */
+    public long retentionMillis() {
+        return retentionDays > 0 ? TimeUnit.DAYS.toMillis(retentionDays) : Long.MAX_VALUE;
+    }
+
+    @Override
+    public synchronized void close() {
+        MetricsSegment segment = active;
+        if (segment != null) {
+            segment.force();
+            active = null;
+        }
+    }
+
+    /**
+     * 切换到指定日期可追加的分段，必要时新建
+     */
+    private synchronized MetricsSegment roll(LocalDate day) throws IOException {
+        MetricsSegment previous = active;
+        if (previous != null) {
+            previous.force();
+            if (!previous.day().equals(day)) {
+                applyRetention(day);
+            }
+        }
+        unflushed = 0;
+        activeDayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        activeDayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        List<Path> existing = listSegments(day, day);
+        int nextPart = 0;
+        if (!existing.isEmpty()) {
+            Path last = existing.get(existing.size() - 1);
+            nextPart = partOf(last) + 1;
+            if (previous == null || !previous.path().equals(last)) {
+                // 重启后继续写当天最后一个分段
+                try {
+                    MetricsSegment reopened = MetricsSegment.open(last, day, partOf(last), true);
+                    if (!reopened.isFull() && reopened.fieldCount() == MetricField.count()) {
+                        active = reopened;
+                        return reopened;
+                    }
+                } catch (IOException e) {
+                    log.warn("指标分段无法继续写入，将新建分段: {}", last, e);
+                }
+            }
+        }
+
+        if (nextPart > 99) {
+            if (!fullWarned) {
+                log.warn("指标分段数量已达上限，当日后续数据将被丢弃: {}", day);
+                fullWarned = true;
+            }
+            active = null;
+            return null;
+        }
+        fullWarned = false;
+        MetricsSegment created = MetricsSegment.create(dir.resolve(segmentName(day, nextPart)), day, nextPart,
+                MetricField.count(), recordsPerSegment);
+        active = created;
+        return created;
+    }
+
+    /**
+     * 以只读方式映射已封存的分段，不做缓存
+     */
+    private MetricsSegment openSealed(Path path) {
+        try {
+            return MetricsSegment.open(path, dayOf(path), partOf(path), false);
+        } catch (IOException e) {
+            log.warn("跳过无法读取的指标分段: {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * 按日期、分段号升序列出区间内的分段文件
+     */
+    private List<Path> listSegments(LocalDate fromDay, LocalDate toDay) {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "metrics-*.seg")) {
+            for (Path path : stream) {
+                Matcher m = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (!m.matches()) {
+                    continue;
+                }
+                LocalDate day = LocalDate.parse(m.group(1), DAY_FORMATTER);
+                if (!day.isBefore(fromDay) && !day.isAfter(toDay)) {
+                    result.add(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("列出指标分段失败: {}", dir, e);
+        }
+        // 文件名中日期与分段号均为定宽数字，字典序即时间序
+        result.sort(null);
+        return result;
+    }
+
+    private void applyRetention(LocalDate today) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate oldest = today.minusDays(retentionDays);
+        for (Path path : listSegments(LocalDate.MIN, oldest.minusDays(1))) {
+            try {
+                Files.deleteIfExists(path);
+                log.info("删除过期指标分段: {}", path);
+            } catch (IOException e) {
+                log.warn("删除过期指标分段失败: {}", path, e);
+            }
+        }
+    }
+
+    private LocalDate toDay(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static String segmentName(LocalDate day, int part) {
+        return String.format("metrics-%s-%02d.seg", day.format(DAY_FORMATTER), part);
+    }
+
+    private static LocalDate dayOf(Path path) {
+        Matcher m = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return m.matches() ? LocalDate.parse(m.group(1), DAY_FORMATTER) : LocalDate.MIN;
+    }
+
+    private static int partOf(Path path) {
+        Matcher m = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return m.matches() ? Integer.parseInt(m.group(2)) : 0;
+    }
+}
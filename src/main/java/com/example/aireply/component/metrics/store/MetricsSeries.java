@@ -0,0 +1,41 @@
+package com.example.aireply.component.metrics.store;
+
+/**
+ * 按时间升序排列的指标序列视图
+ * 既可以是原始样本（每个点一条记录），也可以是降采样后的聚合桶（每个点一个时间桶）
+ */
+public interface MetricsSeries {
+
+    /**
+     * 每个点代表的时间跨度（毫秒），原始样本为 0
+     */
+    long resolutionMillis();
+
+    int size();
+
+    /**
+     * 第 i 个点的时间戳：原始样本为采集时间，聚合桶为桶起始时间
+     */
+    long timestamp(int i);
+
+    /**
+     * 第 i 个点的代表值：原始样本为采集值，聚合桶为平均值；无有效数据时为 NaN
+     */
+    double value(MetricField field, int i);
+
+    double min(MetricField field, int i);
+
+    double max(MetricField field, int i);
+
+    double last(MetricField field, int i);
+
+    /**
+     * 第 i 个点包含的有效样本数
+     */
+    int count(MetricField field, int i);
+
+    /**
+     * 读取结束后调用，确认读取期间数据未被写线程修改
+     */
+    boolean isValid();
+}
@@ -0,0 +1,88 @@
+package com.example.aireply.component.metrics.store;
+
+/**
+ * 环形缓冲区上的只读窗口视图
+ * <p>
+ * 不复制任何数据，直接读取底层列数组。写线程可能在读取期间覆盖最旧的样本，
+ * 读取完成后应调用 {@link #isValid()} 确认数据未被覆盖，否则重新获取窗口。
+ * </p>
+ */
+public final class MetricsWindow implements MetricsSeries {
+
+    private final MetricsRingBuffer buffer;
+
+    private final long startSeq;
+
+    private final int size;
+
+    MetricsWindow(MetricsRingBuffer buffer, long startSeq, int size) {
+        this.buffer = buffer;
+        this.startSeq = startSeq;
+        this.size = size;
+    }
+
+    @Override
+    public long resolutionMillis() {
+        return 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 第 i 条样本的采集时间戳（毫秒），i 从 0 开始，按时间升序
+     */
+    @Override
+    public long timestamp(int i) {
+        return buffer.timestampAt(startSeq + checkIndex(i));
+    }
+
+    /**
+     * 第 i 条样本的指定指标值
+     */
+    @Override
+    public double value(MetricField field, int i) {
+        return buffer.valueAt(field, startSeq + checkIndex(i));
+    }
+
+    @Override
+    public double min(MetricField field, int i) {
+        return value(field, i);
+    }
+
+    @Override
+    public double max(MetricField field, int i) {
+        return value(field, i);
+    }
+
+    @Override
+    public double last(MetricField field, int i) {
+        return value(field, i);
+    }
+
+    @Override
+    public int count(MetricField field, int i) {
+        return Double.isNaN(value(field, i)) ? 0 : 1;
+    }
+
+    /**
+     * 窗口内数据是否仍然完整（未被写线程覆盖）
+     */
+    @Override
+    public boolean isValid() {
+        return size == 0 || buffer.isReadable(startSeq);
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index " + i + " out of window size " + size);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aireply.component.metrics.visualizer;
+
+import com.example.aireply.config.ChartRendererConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 带渲染缓存的可视化器装饰
+ * 以 (图表类型, 数据指纹, 尺寸, 主题) 为键缓存编码后的图片，数据未变化时直接复用；
+ * 内置渲染器不支持主题，使用它的图表不以主题区分缓存；指纹为 {@link MetricsVisualizer#UNCACHEABLE} 的调用不经过缓存。
+ * 流式输出未命中时仍由被装饰的可视化器直接编码到调用方的输出流，只额外留存一份副本供后续调用复用
+ */
+final class CachingMetricsVisualizer implements MetricsVisualizer {
+
+    private final MetricsVisualizer delegate;
+
+    private final Cache<RenderKey, byte[]> cache;
+
+    private final ChartRendererConfig rendererConfig;
+
+    CachingMetricsVisualizer(MetricsVisualizer delegate, Cache<RenderKey, byte[]> cache, ChartRendererConfig rendererConfig) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.rendererConfig = rendererConfig;
+    }
+
+    @Override
+    public MetricsChartType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public long fingerprint(MetricsVisualizerContext context) {
+        return delegate.fingerprint(context);
+    }
+
+    @Override
+    public byte[] visualize(MetricsVisualizerContext context) {
+        long fingerprint = delegate.fingerprint(context);
+        if (fingerprint == UNCACHEABLE) {
+            return delegate.visualize(context);
+        }
+        // 返回 null（数据不足）时不会写入缓存
+        return cache.get(keyOf(context, fingerprint), key -> delegate.visualize(context));
+    }
+
+    @Override
+    public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
+        long fingerprint = delegate.fingerprint(context);
+        if (fingerprint == UNCACHEABLE) {
+            return delegate.visualize(context, out);
+        }
+        RenderKey key = keyOf(context, fingerprint);
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            out.write(cached);
+            return true;
+        }
+        CapturingOutputStream capturing = new CapturingOutputStream(out);
+        if (!delegate.visualize(context, capturing)) {
+            return false;
+        }
+        cache.put(key, capturing.captured());
+        return true;
+    }
+
+    private RenderKey keyOf(MetricsVisualizerContext context, long fingerprint) {
+        MetricsChartType type = delegate.getType();
+        String theme = rendererConfig.rendererOf(type) == ChartRenderer.NATIVE ? null : context.getTheme();
+        return new RenderKey(type, fingerprint, context.getWidth(), context.getHeight(), theme);
+    }
+
+    record RenderKey(MetricsChartType type, long fingerprint, Integer width, Integer height, String theme) {
+    }
+
+    /**
+     * 写入目标流的同时保留一份副本
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream(16 * 1024);
+
+        CapturingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        byte[] captured() {
+            return copy.toByteArray();
+        }
+    }
+}
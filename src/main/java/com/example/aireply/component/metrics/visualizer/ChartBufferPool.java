@@ -0,0 +1,102 @@
+package com.example.aireply.component.metrics.visualizer;
+
+import jakarta.activation.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 图表编码缓冲区池
+ * <p>
+ * 图表 PNG 直接编码进池化的缓冲区，邮件发送时零拷贝读取，发送完成后归还复用。
+ * 池中最多保留 poolSize 个缓冲区，单个缓冲区超过 maxRetainedBytes 时归还即丢弃，
+ * 因此常驻内存有上界；池耗尽时临时分配新缓冲区，不阻塞调用方。
+ * </p>
+ */
+@Component
+public class ChartBufferPool {
+
+    private final BlockingQueue<Buffer> pool;
+
+    private final int initialBytes;
+
+    private final int maxRetainedBytes;
+
+    public ChartBufferPool(@Value("${report.chart-buffer.pool-size:4}") int poolSize,
+                           @Value("${report.chart-buffer.initial-kb:64}") int initialKb,
+                           @Value("${report.chart-buffer.max-retained-kb:512}") int maxRetainedKb) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.initialBytes = initialKb * 1024;
+        this.maxRetainedBytes = maxRetainedKb * 1024;
+    }
+
+    /**
+     * 获取一个已清空的缓冲区，使用完毕后必须调用 {@link Buffer#release()}
+     */
+    public Buffer acquire() {
+        Buffer buffer = pool.poll();
+        return buffer != null ? buffer : new Buffer(initialBytes);
+    }
+
+    private void release(Buffer buffer) {
+        if (buffer.capacity() > maxRetainedBytes) {
+            return;
+        }
+        buffer.reset();
+        pool.offer(buffer);
+    }
+
+    /**
+     * 可复用的字节缓冲区，内容可直接作为邮件内嵌资源读取
+     */
+    public final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer(int size) {
+            super(size);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * 以当前内容构建 DataSource，读取时不复制底层数组；在 release 之前有效
+         */
+        public DataSource toDataSource(String contentType) {
+            return new DataSource() {
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(buf, 0, count);
+                }
+
+                @Override
+                public OutputStream getOutputStream() {
+                    throw new UnsupportedOperationException("Read-only data source");
+                }
+
+                @Override
+                public String getContentType() {
+                    return contentType;
+                }
+
+                @Override
+                public String getName() {
+                    return null;
+                }
+            };
+        }
+
+        /**
+         * 归还缓冲区，之后不得再读取其内容
+         */
+        public void release() {
+            ChartBufferPool.this.release(this);
+        }
+    }
+}
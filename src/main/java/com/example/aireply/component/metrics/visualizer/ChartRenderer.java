@@ -0,0 +1,15 @@
+package com.example.aireply.component.metrics.visualizer;
+
+/**
+ * 图表渲染实现
+ */
+public enum ChartRenderer {
+    /**
+     * XChart + Java2D，样式完整，首次渲染需初始化 AWT
+     */
+    XCHART,
+    /**
+     * 内置光栅化渲染器，不依赖 AWT，速度快、内存占用低
+     */
+    NATIVE
+}
@@ -1,9 +1,16 @@
 package com.example.aireply.component.metrics.visualizer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * 监控数据可视化接口
  */
 public interface MetricsVisualizer {
+
+    /** 不声明数据指纹的可视化器返回该值，渲染缓存直接跳过 */
+    long UNCACHEABLE = Long.MIN_VALUE;
+
     /** 声明自己属于哪种图表类型 */
     MetricsChartType getType();
 
@@ -12,4 +19,26 @@ public interface MetricsVisualizer {
      * @param context 可视化上下文，包含当前数据、历史数据及环境信息
      */
     byte[] visualize(MetricsVisualizerContext context);
+
+    /**
+     * 数据指纹：指纹相同的两次调用应生成相同的图表，渲染缓存以此判断能否复用已编码的结果
+     * 只应由图表实际绘制的数据构成（如趋势图的历史窗口、饼图用到的当前指标），各图表读取的数据范围不同，
+     * 因此由可视化器自己声明；默认返回 {@link #UNCACHEABLE}，不经过缓存，新增的可视化器应覆盖该方法
+     */
+    default long fingerprint(MetricsVisualizerContext context) {
+        return UNCACHEABLE;
+    }
+
+    /**
+     * 将图表直接编码写入输出流，避免生成中间字节数组
+     * @return 是否生成了图表，数据不足时返回 false 且不写入任何内容
+     */
+    default boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
+        byte[] data = visualize(context);
+        if (data == null) {
+            return false;
+        }
+        out.write(data);
+        return true;
+    }
 }
\ No newline at end of file
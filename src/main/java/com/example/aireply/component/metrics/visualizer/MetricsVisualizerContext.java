@@ -17,8 +17,22 @@ public class MetricsVisualizerContext {
     
     /** 历史数据仓库 */
     private final MetricsRepository repository;
-    
-    // 未来可以轻松添加更多字段，如：
-    // private final Map<String, Object> config;
-    // private final String theme;
+
+
+    /** 图表宽度（像素），为空时使用各图表的默认值 */
+    private final Integer width;
+
+    /** 图表高度（像素），为空时使用各图表的默认值 */
+    private final Integer height;
+
+    /** 图表主题名称（XChart / GGPlot2 / Matlab），为空时使用默认主题 */
+    private final String theme;
+
+    public int widthOr(int defaultWidth) {
+        return width != null ? width : defaultWidth;
+    }
+
+    public int heightOr(int defaultHeight) {
+        return height != null ? height : defaultHeight;
+    }
 }
\ No newline at end of file
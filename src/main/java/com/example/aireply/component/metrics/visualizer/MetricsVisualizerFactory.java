@@ -1,9 +1,15 @@
 package com.example.aireply.component.metrics.visualizer;
 
+import com.example.aireply.config.ChartRendererConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -17,12 +23,40 @@ public class MetricsVisualizerFactory {
     @Resource
     private List<MetricsVisualizer> visualizerList;
 
+    @Resource
+    private ChartRendererConfig rendererConfig;
+
+    /** 是否启用图表渲染缓存 */
+    @Value("${report.chart-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    /** 缓存的编码后图片总大小上限 */
+    @Value("${report.chart-cache.max-kb:4096}")
+    private long cacheMaxKb;
+
+    /** 缓存条目在最后一次访问后的保留时间 */
+    @Value("${report.chart-cache.expire-minutes:120}")
+    private long cacheExpireMinutes;
+
     private final Map<MetricsChartType, MetricsVisualizer> visualizerMap = new ConcurrentHashMap<>();
 
+    private Cache<CachingMetricsVisualizer.RenderKey, byte[]> renderCache;
+
     @PostConstruct
     public void init() {
+        Function<MetricsVisualizer, MetricsVisualizer> decorator = Function.identity();
+        if (cacheEnabled) {
+            // 所有可视化器共用一个按字节数限制的 LRU 缓存
+            renderCache = Caffeine.newBuilder()
+                    .maximumWeight(cacheMaxKb * 1024)
+                    .weigher((CachingMetricsVisualizer.RenderKey key, byte[] value) -> value.length)
+                    .expireAfterAccess(Duration.ofMinutes(cacheExpireMinutes))
+                    .recordStats()
+                    .build();
+            decorator = visualizer -> new CachingMetricsVisualizer(visualizer, renderCache, rendererConfig);
+        }
         visualizerMap.putAll(visualizerList.stream()
-                .collect(Collectors.toMap(MetricsVisualizer::getType, Function.identity())));
+                .collect(Collectors.toMap(MetricsVisualizer::getType, decorator)));
     }
 
     /** 获取所有可用的可视化器 */
@@ -34,4 +68,9 @@ public class MetricsVisualizerFactory {
     public MetricsVisualizer getVisualizer(MetricsChartType type) {
         return visualizerMap.get(type);
     }
-}
\ No newline at end of file
+
+    /** 渲染缓存统计，未启用缓存时返回空统计 */
+    public CacheStats getCacheStats() {
+        return renderCache != null ? renderCache.stats() : CacheStats.empty();
+    }
+}
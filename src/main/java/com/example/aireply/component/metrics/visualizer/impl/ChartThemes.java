@@ -0,0 +1,27 @@
+package com.example.aireply.component.metrics.visualizer.impl;
+
+import org.knowm.xchart.style.Styler;
+
+/**
+ * 图表主题解析
+ */
+final class ChartThemes {
+
+    private ChartThemes() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 按名称（忽略大小写）解析 XChart 主题，未指定或无法识别时使用默认主题
+     */
+    static Styler.ChartTheme resolve(String theme) {
+        if (theme != null) {
+            for (Styler.ChartTheme candidate : Styler.ChartTheme.values()) {
+                if (candidate.name().equalsIgnoreCase(theme)) {
+                    return candidate;
+                }
+            }
+        }
+        return Styler.ChartTheme.XChart;
+    }
+}
@@ -1,47 +1,81 @@
 package com.example.aireply.component.metrics.visualizer.impl;
 
-import com.example.aireply.component.metrics.model.SystemMetrics;
 import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
 import com.example.aireply.component.metrics.visualizer.MetricsChartType;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.raster.NativeChartRenderer;
+import com.example.aireply.config.ChartRendererConfig;
+import com.example.aireply.util.DateTimeUtils;
+import jakarta.annotation.Resource;
 import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 import org.springframework.stereotype.Component;
 
 import java.awt.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class CpuLoadTrendVisualizer implements MetricsVisualizer {
 
+    /** 趋势图展示最近 2 小时的数据 */
+    private static final long TREND_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    @Resource
+    private ChartRendererConfig rendererConfig;
+
+    @Resource
+    private NativeChartRenderer nativeRenderer;
+
     @Override
     public MetricsChartType getType() { return MetricsChartType.CPU_LOAD_TREND; }
 
+    @Override
+    public long fingerprint(MetricsVisualizerContext context) {
+        MetricsRepository repository = context.getRepository();
+        return repository != null ? TrendSeries.fingerprint(repository, System.currentTimeMillis(), TREND_WINDOW_MILLIS) : UNCACHEABLE;
+    }
+
     @Override
     public byte[] visualize(MetricsVisualizerContext context) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try { return visualize(context, out) ? out.toByteArray() : null; }
+        catch (IOException e) { return null; }
+    }
+
+    @Override
+    public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
         MetricsRepository repository = context.getRepository();
-        List<SystemMetrics> history = repository.getHistory();
-        if (history.size() < 2) {
-            return null;
+        TrendSeries series = TrendSeries.load(repository, MetricField.CPU_LOAD,
+                System.currentTimeMillis() - TREND_WINDOW_MILLIS, 100);
+        if (series.size() < 2) {
+            return false;
+        }
+
+        if (rendererConfig.rendererOf(getType()) == ChartRenderer.NATIVE) {
+            nativeRenderer.renderLine(series.x, series.y, context.widthOr(450), context.heightOr(300),
+                    NativeChartRenderer.PALETTE[0], x -> DateTimeUtils.formatTimeOnly((long) x), out);
+        } else {
+            BitmapEncoder.saveBitmap(buildChart(context, series), out, BitmapEncoder.BitmapFormat.PNG);
         }
+        return true;
+    }
 
-        XYChart chart = new XYChartBuilder().width(450).height(300).title("CPU 负载趋势 (%)").build();
+    private XYChart buildChart(MetricsVisualizerContext context, TrendSeries series) {
+        XYChart chart = new XYChartBuilder().width(context.widthOr(450)).height(context.heightOr(300))
+                .theme(ChartThemes.resolve(context.getTheme())).title("CPU 负载趋势 (%)").build();
         chart.getStyler().setChartBackgroundColor(Color.WHITE);
         chart.getStyler().setLegendVisible(false);
         chart.getStyler().setXAxisLabelRotation(45);
+        chart.getStyler().setxAxisTickLabelsFormattingFunction(x -> DateTimeUtils.formatTimeOnly(x.longValue()));
 
-        List<Date> xData = history.stream()
-                .map(SystemMetrics::getCollectTime)
-                .collect(Collectors.toList());
-        List<Double> yData = history.stream().map(m -> m.getCpuLoad() * 100).collect(Collectors.toList());
-        chart.addSeries("CPU Load", xData, yData);
-
-        try { return BitmapEncoder.getBitmapBytes(chart, BitmapEncoder.BitmapFormat.PNG); }
-        catch (IOException e) { return null; }
+        chart.addSeries("CPU Load", series.x, series.y);
+        return chart;
     }
-}
\ No newline at end of file
+}
@@ -1,56 +1,83 @@
 package com.example.aireply.component.metrics.visualizer.impl;
 
-import com.example.aireply.component.metrics.model.SystemMetrics;
 import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
 import com.example.aireply.component.metrics.visualizer.MetricsChartType;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.raster.NativeChartRenderer;
+import com.example.aireply.config.ChartRendererConfig;
+import com.example.aireply.util.DateTimeUtils;
+import jakarta.annotation.Resource;
 import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 import org.springframework.stereotype.Component;
 
 import java.awt.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class CpuTempTrendVisualizer implements MetricsVisualizer {
 
+    /** 趋势图展示最近 2 小时的数据 */
+    private static final long TREND_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(2);
+
+    @Resource
+    private ChartRendererConfig rendererConfig;
+
+    @Resource
+    private NativeChartRenderer nativeRenderer;
+
     @Override
     public MetricsChartType getType() { return MetricsChartType.CPU_TEMP_TREND; }
 
+    @Override
+    public long fingerprint(MetricsVisualizerContext context) {
+        MetricsRepository repository = context.getRepository();
+        return repository != null ? TrendSeries.fingerprint(repository, System.currentTimeMillis(), TREND_WINDOW_MILLIS) : UNCACHEABLE;
+    }
+
     @Override
     public byte[] visualize(MetricsVisualizerContext context) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try { return visualize(context, out) ? out.toByteArray() : null; }
+        catch (IOException e) { return null; }
+    }
+
+    @Override
+    public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
         MetricsRepository repository = context.getRepository();
-        List<SystemMetrics> history = repository.getHistory();
-        
-        List<SystemMetrics> validHistory = history.stream()
-                .filter(m -> m.getCpuTempCelsius() != null)
-                .toList();
-        
-        if (validHistory.size() < 2) {
-            return null;
+        // 温度不可用的样本以 NaN 存储，加载时已被过滤
+        TrendSeries series = TrendSeries.load(repository, MetricField.CPU_TEMP_CELSIUS,
+                System.currentTimeMillis() - TREND_WINDOW_MILLIS, 1);
+        if (series.size() < 2) {
+            return false;
+        }
+
+        if (rendererConfig.rendererOf(getType()) == ChartRenderer.NATIVE) {
+            nativeRenderer.renderLine(series.x, series.y, context.widthOr(450), context.heightOr(300),
+                    NativeChartRenderer.PALETTE[3], x -> DateTimeUtils.formatTimeOnly((long) x), out);
+        } else {
+            BitmapEncoder.saveBitmap(buildChart(context, series), out, BitmapEncoder.BitmapFormat.PNG);
         }
+        return true;
+    }
 
-        XYChart chart = new XYChartBuilder().width(450).height(300).title("CPU 温度趋势 (℃)").build();
+    private XYChart buildChart(MetricsVisualizerContext context, TrendSeries series) {
+        XYChart chart = new XYChartBuilder().width(context.widthOr(450)).height(context.heightOr(300))
+                .theme(ChartThemes.resolve(context.getTheme())).title("CPU 温度趋势 (℃)").build();
         chart.getStyler().setChartBackgroundColor(Color.WHITE);
         chart.getStyler().setLegendVisible(false);
         chart.getStyler().setXAxisLabelRotation(45);
         chart.getStyler().setPlotGridLinesColor(new Color(240, 240, 240));
+        chart.getStyler().setxAxisTickLabelsFormattingFunction(x -> DateTimeUtils.formatTimeOnly(x.longValue()));
 
-        List<Date> xData = validHistory.stream()
-                .map(SystemMetrics::getCollectTime)
-                .collect(Collectors.toList());
-        List<Double> yData = validHistory.stream()
-                .map(SystemMetrics::getCpuTempCelsius)
-                .collect(Collectors.toList());
-
-        chart.addSeries("Temperature", xData, yData);
-
-        try { return BitmapEncoder.getBitmapBytes(chart, BitmapEncoder.BitmapFormat.PNG); }
-        catch (IOException e) { return null; }
+        chart.addSeries("Temperature", series.x, series.y);
+        return chart;
     }
-}
\ No newline at end of file
+}
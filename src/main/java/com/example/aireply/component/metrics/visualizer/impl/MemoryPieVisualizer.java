@@ -1,37 +1,79 @@
 package com.example.aireply.component.metrics.visualizer.impl;
 
 import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
 import com.example.aireply.component.metrics.visualizer.MetricsChartType;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.raster.NativeChartRenderer;
+import com.example.aireply.config.ChartRendererConfig;
+import jakarta.annotation.Resource;
 import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.PieChart;
 import org.knowm.xchart.PieChartBuilder;
 import org.springframework.stereotype.Component;
 
 import java.awt.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * 内存使用饼图可视化器
  */
 @Component
 public class MemoryPieVisualizer implements MetricsVisualizer {
+    @Resource
+    private ChartRendererConfig rendererConfig;
+
+    @Resource
+    private NativeChartRenderer nativeRenderer;
+
     @Override
     public MetricsChartType getType() {
         return MetricsChartType.MEMORY_PIE;
     }
 
+    /**
+     * 饼图只取决于堆内存的已用量与上限
+     */
+    @Override
+    public long fingerprint(MetricsVisualizerContext context) {
+        SystemMetrics metrics = context.getCurrentMetrics();
+        return metrics != null ? 31 * metrics.getUsedHeapMb() + metrics.getMaxHeapMb() : UNCACHEABLE;
+    }
+
     @Override
     public byte[] visualize(MetricsVisualizerContext context) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            return visualize(context, out) ? out.toByteArray() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
         SystemMetrics metrics = context.getCurrentMetrics();
         if (metrics == null) {
-            return null;
+            return false;
         }
 
+        if (rendererConfig.rendererOf(getType()) == ChartRenderer.NATIVE) {
+            // 图例顺序：已用内存、剩余可用
+            double[] values = {metrics.getUsedHeapMb(), Math.max(0, metrics.getMaxHeapMb() - metrics.getUsedHeapMb())};
+            return nativeRenderer.renderPie(values, context.widthOr(400), context.heightOr(300), out);
+        }
+        BitmapEncoder.saveBitmap(buildChart(context, metrics), out, BitmapEncoder.BitmapFormat.PNG);
+        return true;
+    }
+
+    private PieChart buildChart(MetricsVisualizerContext context, SystemMetrics metrics) {
         // 创建饼图
         PieChart chart = new PieChartBuilder()
-                .width(400).height(300)
+                .width(context.widthOr(400)).height(context.heightOr(300))
+                .theme(ChartThemes.resolve(context.getTheme()))
                 .title("JVM 内存使用情况")
                 .build();
         
@@ -42,11 +84,6 @@ public class MemoryPieVisualizer implements MetricsVisualizer {
         
         chart.addSeries("已用内存", metrics.getUsedHeapMb());
         chart.addSeries("剩余可用", Math.max(0, metrics.getMaxHeapMb() - metrics.getUsedHeapMb()));
-        
-        try {
-            return BitmapEncoder.getBitmapBytes(chart, BitmapEncoder.BitmapFormat.PNG);
-        } catch (IOException e) {
-            return null;
-        }
+        return chart;
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.aireply.component.metrics.visualizer.impl;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsSeries;
+
+import java.util.Arrays;
+
+/**
+ * 趋势图数据：直接从历史序列视图读取原始 double 数据，避免装箱
+ * 时间范围较长时由仓库自动选择降采样层，点数不超过 {@link #MAX_POINTS}
+ */
+final class TrendSeries {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /** 450px 宽的图表上，超过该点数已无法分辨 */
+    static final int MAX_POINTS = 300;
+
+    final double[] x;
+
+    final double[] y;
+
+    private TrendSeries(double[] x, double[] y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    int size() {
+        return x.length;
+    }
+
+    /**
+     * 截至 nowMillis、长度为 windowMillis 的趋势窗口的指纹，由历史数据版本号与窗口起点构成，不读取窗口数据：
+     * 窗口起点按单个点的时间跨度（windowMillis / {@link #MAX_POINTS}）取整，有新样本写入或窗口前移一个点时指纹变化，
+     * 其余时候重复渲染直接复用缓存；同一跨度内移出窗口的首个旧样本最多滞后一个点才反映到图上。
+     * 每次指纹变化都会整图重新渲染，不做增量绘制
+     */
+    static long fingerprint(MetricsRepository repository, long nowMillis, long windowMillis) {
+        long pointMillis = Math.max(1, windowMillis / MAX_POINTS);
+        return 31 * repository.sequence() + (nowMillis - windowMillis) / pointMillis;
+    }
+
+    /**
+     * 读取 fromMillis 以来某个指标的趋势，NaN 值会被跳过
+     * @param scale 数值缩放倍数，如 CPU 负载转百分比时为 100
+     */
+    static TrendSeries load(MetricsRepository repository, MetricField field, long fromMillis, double scale) {
+        long toMillis = System.currentTimeMillis() + 1;
+        for (int attempt = 0; ; attempt++) {
+            MetricsSeries window = repository.query(fromMillis, toMillis, MAX_POINTS);
+            double[] x = new double[window.size()];
+            double[] y = new double[window.size()];
+            int n = 0;
+            for (int i = 0; i < window.size(); i++) {
+                double value = window.value(field, i);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                x[n] = window.timestamp(i);
+                y[n] = value * scale;
+                n++;
+            }
+            // 读取期间被写线程覆盖则重试，多次失败时使用已读数据
+            if (window.isValid() || attempt + 1 >= MAX_ATTEMPTS) {
+                return n == x.length ? new TrendSeries(x, y) : new TrendSeries(Arrays.copyOf(x, n), Arrays.copyOf(y, n));
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+/**
+ * 5x7 点阵字体，仅包含坐标轴刻度所需的数字与符号，无需加载系统字体
+ */
+final class BitmapFont {
+
+    static final int WIDTH = 5;
+
+    static final int HEIGHT = 7;
+
+    /** 字符步进宽度，含 1 像素间距 */
+    static final int ADVANCE = WIDTH + 1;
+
+    private static final String CHARS = "0123456789.:-%";
+
+    private static final int[][] GLYPHS = {
+            {0b01110, 0b10001, 0b10011, 0b10101, 0b11001, 0b10001, 0b01110},
+            {0b00100, 0b01100, 0b00100, 0b00100, 0b00100, 0b00100, 0b01110},
+            {0b01110, 0b10001, 0b00001, 0b00010, 0b00100, 0b01000, 0b11111},
+            {0b11111, 0b00010, 0b00100, 0b00010, 0b00001, 0b10001, 0b01110},
+            {0b00010, 0b00110, 0b01010, 0b10010, 0b11111, 0b00010, 0b00010},
+            {0b11111, 0b10000, 0b11110, 0b00001, 0b00001, 0b10001, 0b01110},
+            {0b00110, 0b01000, 0b10000, 0b11110, 0b10001, 0b10001, 0b01110},
+            {0b11111, 0b00001, 0b00010, 0b00100, 0b01000, 0b01000, 0b01000},
+            {0b01110, 0b10001, 0b10001, 0b01110, 0b10001, 0b10001, 0b01110},
+            {0b01110, 0b10001, 0b10001, 0b01111, 0b00001, 0b00010, 0b01100},
+            {0b00000, 0b00000, 0b00000, 0b00000, 0b00000, 0b01100, 0b01100},
+            {0b00000, 0b01100, 0b01100, 0b00000, 0b01100, 0b01100, 0b00000},
+            {0b00000, 0b00000, 0b00000, 0b11111, 0b00000, 0b00000, 0b00000},
+            {0b11000, 0b11001, 0b00010, 0b00100, 0b01000, 0b10011, 0b00011},
+    };
+
+    private static final int[] BLANK = new int[HEIGHT];
+
+    private BitmapFont() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 不支持的字符按空白处理
+     */
+    static int[] glyph(char c) {
+        int index = CHARS.indexOf(c);
+        return index >= 0 ? GLYPHS[index] : BLANK;
+    }
+
+    static int textWidth(String text) {
+        return text.isEmpty() ? 0 : text.length() * ADVANCE - 1;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.DoubleFunction;
+
+/**
+ * 轻量图表渲染器
+ * <p>
+ * 直接在 int[] 像素缓冲区上光栅化并编码为 PNG，不依赖 Java2D/AWT，首次渲染无需初始化图形环境与字体。
+ * 画布、行缓冲与压缩器按线程复用，稳定运行后每张图表几乎不产生额外分配。
+ * 坐标轴刻度使用内置点阵字体，标题等文字由邮件正文展示。
+ * </p>
+ */
+@Component
+public class NativeChartRenderer {
+
+    /** 默认配色，与报表页眉的主色调保持一致 */
+    public static final int[] PALETTE = {0x4E54C8, 0xFFB300, 0x43A047, 0xE53935, 0x8F94FB, 0x26A69A};
+
+    private static final int BACKGROUND = 0xFFFFFF;
+
+    private static final int AXIS = 0x999999;
+
+    private static final int GRID = 0xDDDDDD;
+
+    private static final int LABEL = 0x666666;
+
+    private static final int Y_TICKS = 4;
+
+    private static final int X_TICKS = 4;
+
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * 折线图（带浅色面积填充）
+     * @param x 横坐标，需升序
+     * @param xLabel 横坐标刻度文字
+     */
+    public void renderLine(double[] x, double[] y, int width, int height, int color,
+                           DoubleFunction<String> xLabel, OutputStream out) throws IOException {
+        Workspace workspace = workspaces.get();
+        Raster raster = workspace.raster;
+        raster.reset(width, height, BACKGROUND);
+
+        double xMin = x[0];
+        double xMax = x[x.length - 1] > xMin ? x[x.length - 1] : xMin + 1;
+        double yLow = Double.POSITIVE_INFINITY;
+        double yHigh = Double.NEGATIVE_INFINITY;
+        for (double value : y) {
+            yLow = Math.min(yLow, value);
+            yHigh = Math.max(yHigh, value);
+        }
+        if (yHigh - yLow < 1e-9) {
+            yLow -= 1;
+            yHigh += 1;
+        }
+        double step = niceStep((yHigh - yLow) / Y_TICKS);
+        double yMin = Math.floor(yLow / step) * step;
+        double yMax = Math.ceil(yHigh / step) * step;
+        int decimals = step >= 1 ? 0 : (int) Math.ceil(-Math.log10(step) - 1e-9);
+        int tickCount = (int) Math.round((yMax - yMin) / step);
+
+        int labelWidth = 0;
+        for (int k = 0; k <= tickCount; k++) {
+            double v = yMin + k * step;
+            labelWidth = Math.max(labelWidth, BitmapFont.textWidth(format(v, decimals)));
+        }
+        int left = labelWidth + 10;
+        int right = width - 14;
+        int top = 10;
+        int bottom = height - BitmapFont.HEIGHT - 12;
+        double plotWidth = right - left;
+        double plotHeight = bottom - top;
+
+        // 面积填充
+        int fill = lighten(color, 0.85);
+        for (int i = 0; i + 1 < x.length; i++) {
+            double px0 = left + (x[i] - xMin) / (xMax - xMin) * plotWidth;
+            double px1 = left + (x[i + 1] - xMin) / (xMax - xMin) * plotWidth;
+            double py0 = bottom - (y[i] - yMin) / (yMax - yMin) * plotHeight;
+            double py1 = bottom - (y[i + 1] - yMin) / (yMax - yMin) * plotHeight;
+            for (int px = (int) Math.ceil(px0); px <= (int) Math.floor(px1); px++) {
+                double t = px1 > px0 ? (px - px0) / (px1 - px0) : 0;
+                raster.verticalLine(px, (int) Math.round(py0 + (py1 - py0) * t), bottom, fill);
+            }
+        }
+
+        // 网格与纵轴刻度
+        for (int k = 0; k <= tickCount; k++) {
+            double v = yMin + k * step;
+            int py = (int) Math.round(bottom - (v - yMin) / (yMax - yMin) * plotHeight);
+            for (int px = left; px <= right; px++) {
+                raster.blend(px, py, GRID, 0.6);
+            }
+            String text = format(v, decimals);
+            raster.drawText(text, left - 6 - BitmapFont.textWidth(text), py - BitmapFont.HEIGHT / 2, LABEL);
+        }
+
+        // 横轴刻度
+        for (int i = 0; i < X_TICKS; i++) {
+            double fraction = (double) i / (X_TICKS - 1);
+            int px = (int) Math.round(left + fraction * plotWidth);
+            raster.verticalLine(px, bottom, bottom + 3, AXIS);
+            String text = xLabel.apply(xMin + fraction * (xMax - xMin));
+            int textX = Math.max(0, Math.min(width - BitmapFont.textWidth(text), px - BitmapFont.textWidth(text) / 2));
+            raster.drawText(text, textX, bottom + 6, LABEL);
+        }
+        raster.horizontalLine(left, right, bottom, AXIS);
+        raster.verticalLine(left, top, bottom, AXIS);
+
+        // 折线
+        for (int i = 0; i + 1 < x.length; i++) {
+            raster.drawLine(
+                    left + (x[i] - xMin) / (xMax - xMin) * plotWidth, bottom - (y[i] - yMin) / (yMax - yMin) * plotHeight,
+                    left + (x[i + 1] - xMin) / (xMax - xMin) * plotWidth, bottom - (y[i + 1] - yMin) / (yMax - yMin) * plotHeight,
+                    color, 2);
+        }
+
+        workspace.encoder.encode(raster, out);
+    }
+
+    /**
+     * 饼图，右侧图例为色块与百分比
+     * @return 数值总和不为正时返回 false 且不写入任何内容
+     */
+    public boolean renderPie(double[] values, int width, int height, OutputStream out) throws IOException {
+        double total = 0;
+        for (double value : values) {
+            total += Math.max(0, value);
+        }
+        if (total <= 0) {
+            return false;
+        }
+        Workspace workspace = workspaces.get();
+        Raster raster = workspace.raster;
+        raster.reset(width, height, BACKGROUND);
+
+        double radius = Math.min(height, width * 0.6) / 2 - 12;
+        double cx = radius + 16;
+        double cy = height / 2.0;
+        int legendX = (int) (cx + radius + 24);
+        int legendY = (int) (cy - values.length * 18 / 2.0);
+        double angle = 0;
+        for (int i = 0; i < values.length; i++) {
+            double fraction = Math.max(0, values[i]) / total;
+            double next = i == values.length - 1 ? 2 * Math.PI : angle + fraction * 2 * Math.PI;
+            int color = PALETTE[i % PALETTE.length];
+            raster.fillSector(cx, cy, radius, angle, next, color);
+            angle = next;
+
+            int rowY = legendY + i * 18;
+            raster.fillRect(legendX, rowY, 10, 10, color);
+            raster.drawText(format(fraction * 100, 1) + "%", legendX + 16, rowY + 2, LABEL);
+        }
+
+        workspace.encoder.encode(raster, out);
+        return true;
+    }
+
+    /**
+     * 1、2、5 × 10^n 的刻度间隔
+     */
+    private static double niceStep(double rough) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        double normalized = rough / magnitude;
+        double nice = normalized <= 1 ? 1 : normalized <= 2 ? 2 : normalized <= 5 ? 5 : 10;
+        return nice * magnitude;
+    }
+
+    private static String format(double value, int decimals) {
+        return String.format(Locale.ROOT, "%." + decimals + "f", value);
+    }
+
+    private static int lighten(int rgb, double amount) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        r += (int) ((255 - r) * amount);
+        g += (int) ((255 - g) * amount);
+        b += (int) ((255 - b) * amount);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * 每个线程复用的画布与编码器
+     */
+    private static final class Workspace {
+        private final Raster raster = new Raster();
+        private final PngEncoder encoder = new PngEncoder();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 最小化 PNG 编码器：8 位真彩色、Sub 行过滤，无需 ImageIO/AWT
+ * 行缓冲、压缩缓冲与 Deflater 均在实例内复用，实例非线程安全
+ */
+final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] header = new byte[13];
+
+    private final byte[] word = new byte[4];
+
+    private byte[] row = new byte[0];
+
+    private byte[] compressed = new byte[64 * 1024];
+
+    void encode(Raster raster, OutputStream out) throws IOException {
+        int width = raster.width();
+        int height = raster.height();
+        int[] pixels = raster.pixels();
+
+        out.write(SIGNATURE);
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;  // 位深
+        header[9] = 2;  // 真彩色 RGB
+        header[10] = 0; // deflate
+        header[11] = 0; // 标准过滤
+        header[12] = 0; // 非隔行
+        writeChunk(out, IHDR, header, header.length);
+
+        int stride = width * 3 + 1;
+        if (row.length < stride) {
+            row = new byte[stride];
+        }
+        deflater.reset();
+        int compressedLength = 0;
+        for (int y = 0; y < height; y++) {
+            // Sub 过滤：存储与左侧像素的差值，大面积纯色区域压缩率高
+            row[0] = 1;
+            int previous = 0;
+            int offset = y * width;
+            for (int x = 0, i = 1; x < width; x++, i += 3) {
+                int rgb = pixels[offset + x];
+                row[i] = (byte) (((rgb >> 16) & 0xFF) - ((previous >> 16) & 0xFF));
+                row[i + 1] = (byte) (((rgb >> 8) & 0xFF) - ((previous >> 8) & 0xFF));
+                row[i + 2] = (byte) ((rgb & 0xFF) - (previous & 0xFF));
+                previous = rgb;
+            }
+            deflater.setInput(row, 0, stride);
+            compressedLength = drain(compressedLength);
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            compressedLength = drain(compressedLength);
+        }
+        writeChunk(out, IDAT, compressed, compressedLength);
+        writeChunk(out, IEND, header, 0);
+    }
+
+    /**
+     * 取出已压缩的数据，输出缓冲区不足时扩容
+     * @return 压缩数据的累计长度
+     */
+    private int drain(int length) {
+        while (true) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            int written = deflater.deflate(compressed, length, compressed.length - length);
+            length += written;
+            if (written == 0) {
+                // 输入已耗尽或已全部输出
+                return length;
+            }
+        }
+    }
+
+    private void writeChunk(OutputStream out, byte[] type, byte[] data, int length) throws IOException {
+        putInt(word, 0, length);
+        out.write(word);
+        out.write(type);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        out.write(word);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
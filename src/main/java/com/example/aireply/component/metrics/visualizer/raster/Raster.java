@@ -0,0 +1,183 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+import java.util.Arrays;
+
+/**
+ * RGB 像素画布，像素以 0xRRGGBB 存储在可复用的 int 数组中
+ * 仅提供图表需要的少量图元：矩形、抗锯齿折线、扇形与位图文字
+ */
+final class Raster {
+
+    private int[] pixels = new int[0];
+
+    private int width;
+
+    private int height;
+
+    /**
+     * 重置画布尺寸并以背景色填充，容量足够时复用已有数组
+     */
+    void reset(int width, int height, int background) {
+        int size = width * height;
+        if (pixels.length < size) {
+            pixels = new int[size];
+        }
+        this.width = width;
+        this.height = height;
+        Arrays.fill(pixels, 0, size, background);
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    int[] pixels() {
+        return pixels;
+    }
+
+    void set(int x, int y, int rgb) {
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            pixels[y * width + x] = rgb;
+        }
+    }
+
+    /**
+     * 以 alpha（0~1）将颜色混合到目标像素
+     */
+    void blend(int x, int y, int rgb, double alpha) {
+        if (x < 0 || y < 0 || x >= width || y >= height || alpha <= 0) {
+            return;
+        }
+        int index = y * width + x;
+        if (alpha >= 1) {
+            pixels[index] = rgb;
+            return;
+        }
+        int dst = pixels[index];
+        int r = mix((dst >> 16) & 0xFF, (rgb >> 16) & 0xFF, alpha);
+        int g = mix((dst >> 8) & 0xFF, (rgb >> 8) & 0xFF, alpha);
+        int b = mix(dst & 0xFF, rgb & 0xFF, alpha);
+        pixels[index] = (r << 16) | (g << 8) | b;
+    }
+
+    void fillRect(int x, int y, int w, int h, int rgb) {
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+        for (int row = y0; row < y1; row++) {
+            Arrays.fill(pixels, row * width + x0, row * width + x1, rgb);
+        }
+    }
+
+    void horizontalLine(int x0, int x1, int y, int rgb) {
+        fillRect(x0, y, x1 - x0 + 1, 1, rgb);
+    }
+
+    void verticalLine(int x, int y0, int y1, int rgb) {
+        fillRect(x, y0, 1, y1 - y0 + 1, rgb);
+    }
+
+    /**
+     * 抗锯齿线段（Xiaolin Wu 算法），thickness 大于 1 时沿法线方向叠加
+     */
+    void drawLine(double x0, double y0, double x1, double y1, int rgb, double thickness) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double length = Math.hypot(dx, dy);
+        if (length == 0) {
+            blend((int) Math.round(x0), (int) Math.round(y0), rgb, 1);
+            return;
+        }
+        double nx = -dy / length;
+        double ny = dx / length;
+        double half = (thickness - 1) / 2;
+        for (double offset = -half; offset <= half + 1e-9; offset += 0.5) {
+            wuLine(x0 + nx * offset, y0 + ny * offset, x1 + nx * offset, y1 + ny * offset, rgb);
+        }
+    }
+
+    private void wuLine(double x0, double y0, double x1, double y1, int rgb) {
+        boolean steep = Math.abs(y1 - y0) > Math.abs(x1 - x0);
+        if (steep) {
+            double t = x0; x0 = y0; y0 = t;
+            t = x1; x1 = y1; y1 = t;
+        }
+        if (x0 > x1) {
+            double t = x0; x0 = x1; x1 = t;
+            t = y0; y0 = y1; y1 = t;
+        }
+        double gradient = x1 == x0 ? 1 : (y1 - y0) / (x1 - x0);
+        int start = (int) Math.round(x0);
+        int end = (int) Math.round(x1);
+        double y = y0 + gradient * (start - x0);
+        for (int x = start; x <= end; x++) {
+            int yi = (int) Math.floor(y);
+            double frac = y - yi;
+            if (steep) {
+                blend(yi, x, rgb, 1 - frac);
+                blend(yi + 1, x, rgb, frac);
+            } else {
+                blend(x, yi, rgb, 1 - frac);
+                blend(x, yi + 1, rgb, frac);
+            }
+            y += gradient;
+        }
+    }
+
+    /**
+     * 绘制扇形，角度以正上方为 0、顺时针增加（弧度），边缘按覆盖率抗锯齿
+     */
+    void fillSector(double cx, double cy, double radius, double fromAngle, double toAngle, int rgb) {
+        int x0 = (int) Math.floor(cx - radius - 1);
+        int x1 = (int) Math.ceil(cx + radius + 1);
+        int y0 = (int) Math.floor(cy - radius - 1);
+        int y1 = (int) Math.ceil(cy + radius + 1);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                double px = x + 0.5 - cx;
+                double py = y + 0.5 - cy;
+                double distance = Math.hypot(px, py);
+                double coverage = radius + 0.5 - distance;
+                if (coverage <= 0) {
+                    continue;
+                }
+                double angle = Math.atan2(px, -py);
+                if (angle < 0) {
+                    angle += 2 * Math.PI;
+                }
+                if (angle >= fromAngle && angle < toAngle) {
+                    blend(x, y, rgb, Math.min(1, coverage));
+                }
+            }
+        }
+    }
+
+    /**
+     * 以内置点阵字体绘制文字，返回绘制宽度
+     */
+    int drawText(String text, int x, int y, int rgb) {
+        int cursor = x;
+        for (int i = 0; i < text.length(); i++) {
+            int[] glyph = BitmapFont.glyph(text.charAt(i));
+            for (int row = 0; row < BitmapFont.HEIGHT; row++) {
+                int bits = glyph[row];
+                for (int col = 0; col < BitmapFont.WIDTH; col++) {
+                    if ((bits & (1 << (BitmapFont.WIDTH - 1 - col))) != 0) {
+                        set(cursor + col, y + row, rgb);
+                    }
+                }
+            }
+            cursor += BitmapFont.ADVANCE;
+        }
+        return cursor - x;
+    }
+
+    private static int mix(int dst, int src, double alpha) {
+        return (int) Math.round(dst + (src - dst) * alpha);
+    }
+}
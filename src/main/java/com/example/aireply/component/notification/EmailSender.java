@@ -1,17 +1,29 @@
 package com.example.aireply.component.notification;
 
+import com.example.aireply.component.report.ReportMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @email: pengyujun53@163.com
@@ -34,14 +46,42 @@ public class EmailSender {
     @Value("${mail.manager}")
     private String manageEmail;
 
+    @Resource
+    private MailOutbox mailOutbox;
+
+    @Resource
+    private ReportMetrics reportMetrics;
+
+    @Value("${mail.bug-report.dedup-window-minutes:30}")
+    private long bugReportDedupWindowMinutes;
+
+    /**
+     * 去重窗口内已上报的异常（堆栈摘要 -> 被抑制的重复次数）
+     */
+    private Cache<String, AtomicInteger> recentBugReports;
+
+    @PostConstruct
+    public void init() {
+        recentBugReports = Caffeine.newBuilder()
+                .expireAfterWrite(bugReportDedupWindowMinutes, TimeUnit.MINUTES)
+                .maximumSize(1000)
+                .removalListener((String key, AtomicInteger duplicates, RemovalCause cause) -> {
+                    if (duplicates != null && duplicates.get() > 0) {
+                        log.warn("异常上报去重窗口结束，期间抑制了 {} 次重复上报", duplicates.get());
+                    }
+                })
+                .build();
+    }
+
     public void sendMail(String mailTitle, String context, String to) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(from);
-            message.setTo(to);
-            message.setSubject(mailTitle);
-            message.setText(context);
-            javaMailSender.send(message);
+            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, false, "UTF-8");
+            helper.setFrom(from);
+            helper.setTo(to);
+            helper.setSubject(mailTitle);
+            helper.setText(context, false);
+            dispatch(mimeMessage);
         } catch (Exception e) {
             log.error("邮件发送异常", e);
         }
@@ -55,13 +95,26 @@ public class EmailSender {
             helper.setTo(to);
             helper.setSubject(mailTitle);
             helper.setText(htmlContent, true);
-            javaMailSender.send(mimeMessage);
+            dispatch(mimeMessage);
         } catch (Exception e) {
             log.error("HTML邮件发送异常", e);
         }
     }
 
     public void sendHtmlMailWithImages(String mailTitle, String htmlContent, Map<String, byte[]> inlineImages, String to) {
+        List<InlineImage> images = new ArrayList<>();
+        if (inlineImages != null) {
+            inlineImages.forEach((cid, data) -> images.add(InlineImage.of(cid, data, InlineImage.IMAGE_PNG)));
+        }
+        sendHtmlMailWithInlines(mailTitle, htmlContent, images, to);
+    }
+
+    /**
+     * 发送带内嵌图片的 HTML 邮件
+     * 图片内容在写入发件箱或 SMTP 连接时才从 DataSource 流式读取并编码，堆上不保留整封邮件的副本；
+     * 方法返回后图片即可释放（归还缓冲区、删除临时文件），由调用方负责
+     */
+    public void sendHtmlMailWithInlines(String mailTitle, String htmlContent, Collection<InlineImage> inlineImages, String to) {
         try {
             MimeMessage mimeMessage = javaMailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
@@ -71,12 +124,12 @@ public class EmailSender {
             helper.setText(htmlContent, true);
 
             if (inlineImages != null) {
-                for (Map.Entry<String, byte[]> entry : inlineImages.entrySet()) {
-                    helper.addInline(entry.getKey(), new ByteArrayResource(entry.getValue()), "image/png");
+                for (InlineImage image : inlineImages) {
+                    helper.addInline(image.getContentId(), image.getDataSource());
                 }
             }
 
-            javaMailSender.send(mimeMessage);
+            dispatch(mimeMessage);
         } catch (Exception e) {
             log.error("发送带图片的 HTML 邮件失败", e);
         }
@@ -86,8 +139,34 @@ public class EmailSender {
      * 发送系统异常报告
      */
     public void sendBugReport(Exception e) {
+        String stackTrace = ExceptionUtils.getStackTrace(e);
+        // 相同的异常在去重窗口内只上报一次，避免故障循环刷屏
+        String key = DigestUtils.md5DigestAsHex(stackTrace.getBytes(StandardCharsets.UTF_8));
+        AtomicInteger duplicates = recentBugReports.asMap().putIfAbsent(key, new AtomicInteger());
+        if (duplicates != null) {
+            duplicates.incrementAndGet();
+            return;
+        }
         String title = String.format("%s - 异常上报", appDisplayName);
-        String context = String.format("系统名称：%s\n异常详情：%s", appDisplayName, ExceptionUtils.getStackTrace(e));
+        String context = String.format("系统名称：%s\n异常详情：%s", appDisplayName, stackTrace);
         sendMail(title, context, manageEmail);
     }
+
+    /**
+     * 交给发件箱异步发送；发件箱未启用时同步发送
+     */
+    private void dispatch(MimeMessage mimeMessage) throws MessagingException, IOException {
+        if (mailOutbox.isEnabled()) {
+            mailOutbox.enqueue(mimeMessage);
+        } else {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                javaMailSender.send(mimeMessage);
+                success = true;
+            } finally {
+                reportMetrics.recordSmtp(start, success);
+            }
+        }
+    }
 }
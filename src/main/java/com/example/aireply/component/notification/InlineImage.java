@@ -0,0 +1,80 @@
+package com.example.aireply.component.notification;
+
+import jakarta.activation.DataSource;
+import jakarta.activation.FileDataSource;
+import jakarta.mail.util.ByteArrayDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 邮件内嵌图片
+ * <p>
+ * 内容以 {@link DataSource} 形式提供，发送时由邮件组件直接流式编码写入 SMTP 连接，
+ * 不在堆上组装完整的邮件正文。调用方负责在发送完成后 {@link #close()}，释放缓冲区或删除临时文件。
+ * </p>
+ */
+@Slf4j
+public final class InlineImage implements AutoCloseable {
+
+    public static final String IMAGE_PNG = "image/png";
+
+    public static final String IMAGE_JPEG = "image/jpeg";
+
+    /** 正文中以 cid:contentId 引用 */
+    @Getter
+    private final String contentId;
+
+    @Getter
+    private final DataSource dataSource;
+
+    private final Runnable releaser;
+
+    private InlineImage(String contentId, DataSource dataSource, Runnable releaser) {
+        this.contentId = contentId;
+        this.dataSource = dataSource;
+        this.releaser = releaser;
+    }
+
+    public static InlineImage of(String contentId, byte[] data, String contentType) {
+        return new InlineImage(contentId, new ByteArrayDataSource(data, contentType), () -> { });
+    }
+
+    /**
+     * @param releaser 关闭时执行，用于归还缓冲区等
+     */
+    public static InlineImage of(String contentId, DataSource dataSource, Runnable releaser) {
+        return new InlineImage(contentId, dataSource, releaser);
+    }
+
+    /**
+     * 基于临时文件的内嵌图片，发送时按块读取文件，关闭时删除该文件
+     */
+    public static InlineImage ofTempFile(String contentId, Path file, String contentType) {
+        DataSource dataSource = new FileDataSource(file.toFile()) {
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+        };
+        return new InlineImage(contentId, dataSource, () -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除临时图片失败: {}", file, e);
+            }
+        });
+    }
+
+    public String getContentType() {
+        return dataSource.getContentType();
+    }
+
+    @Override
+    public void close() {
+        releaser.run();
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.aireply.component.notification;
+
+import com.example.aireply.component.report.ReportMetrics;
+import com.example.aireply.config.MailOutboxConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedFileInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 持久化发件箱
+ * <p>
+ * 调用方只需把编码好的邮件写入磁盘目录即返回，SMTP 通信全部由独立的发送线程完成：
+ * 多封邮件复用同一个 Transport 连接批量发送，失败时按指数退避重试，空闲一段时间后关闭连接。
+ * 待发送的邮件以 .eml 文件保存，进程重启或邮件服务中断都不会丢失；
+ * 连接正常但单封邮件反复发送失败（如内容损坏）时移入失败目录，不再阻塞后续邮件。
+ * </p>
+ */
+@Slf4j
+@Component
+public class MailOutbox {
+
+    private static final String EML_SUFFIX = ".eml";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    @Resource
+    private JavaMailSender javaMailSender;
+
+    @Resource
+    private MailOutboxConfig config;
+
+    @Resource
+    private ReportMetrics reportMetrics;
+
+    private final BlockingDeque<Path> queue = new LinkedBlockingDeque<>();
+
+    /**
+     * 文件名序号，保证按入队顺序发送
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 各邮件在连接正常时已失败的次数，不持久化，重启后重新计数
+     */
+    private final Map<Path, Integer> attempts = new ConcurrentHashMap<>();
+
+    private Path dir;
+
+    private Path failedDir;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    /** 仅由发送线程访问 */
+    private Transport transport;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        dir = Paths.get(config.getDir());
+        failedDir = dir.resolve("failed");
+        Files.createDirectories(failedDir);
+
+        long lastSequence = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> pending = new ArrayList<>();
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    // 写入中途退出留下的残缺文件
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(EML_SUFFIX)) {
+                    pending.add(file);
+                    lastSequence = Math.max(lastSequence, parseSequence(name));
+                }
+            }
+            pending.sort(null);
+            queue.addAll(pending);
+        }
+        sequence.set(Math.max(lastSequence, System.currentTimeMillis() * 1000));
+        if (!queue.isEmpty()) {
+            log.info("发件箱恢复 {} 封待发送邮件", queue.size());
+        }
+
+        running = true;
+        worker = new Thread(this::runWorker, "mail-outbox");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /**
+     * 当前积压的邮件数
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * 将邮件编码写入发件箱目录后立即返回
+     * 邮件内容（含内嵌图片）在返回前已全部写入磁盘，调用方随后即可释放相关资源
+     */
+    public void enqueue(MimeMessage message) throws MessagingException, IOException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String name = String.format("%020d", sequence.incrementAndGet());
+        Path tmp = dir.resolve(name + TMP_SUFFIX);
+        Path target = dir.resolve(name + EML_SUFFIX);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            message.writeTo(out);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        queue.offerLast(target);
+
+        while (queue.size() > config.getCapacity()) {
+            Path oldest = queue.pollFirst();
+            if (oldest != null) {
+                attempts.remove(oldest);
+                Files.deleteIfExists(oldest);
+                log.warn("发件箱已满（{} 封），丢弃最早的邮件: {}", config.getCapacity(), oldest.getFileName());
+            }
+        }
+    }
+
+    private void runWorker() {
+        long backoff = config.getInitialBackoffMs();
+        List<Path> batch = new ArrayList<>(config.getBatchSize());
+        while (running) {
+            batch.clear();
+            try {
+                Path first = queue.pollFirst(config.getIdleCloseMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    closeTransport();
+                    continue;
+                }
+                batch.add(first);
+                while (batch.size() < config.getBatchSize()) {
+                    Path next = queue.pollFirst();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                int sent = sendBatch(batch);
+                if (sent == batch.size()) {
+                    backoff = config.getInitialBackoffMs();
+                    continue;
+                }
+                requeue(batch, sent);
+                log.warn("邮件发送失败，{} 封待重试，{}ms 后重试", queue.size(), backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // 已发送的邮件文件已删除，整批放回时由 sendBatch 跳过
+                requeue(batch, 0);
+                log.error("发件箱发送线程异常，{} 封待重试，{}ms 后重试", queue.size(), backoff, e);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoff = Math.min(backoff * 2, config.getMaxBackoffMs());
+        }
+        closeTransport();
+    }
+
+    /**
+     * 未发送的邮件按原顺序放回队首，并断开连接，下次重试时重新建立
+     */
+    private void requeue(List<Path> batch, int from) {
+        for (int i = batch.size() - 1; i >= from; i--) {
+            queue.offerFirst(batch.get(i));
+        }
+        closeTransport();
+    }
+
+    /**
+     * 依次发送一批邮件
+     * @return 成功处理（发送或判定为永久失败）的邮件数，遇到可重试的错误时停止
+     */
+    private int sendBatch(List<Path> batch) {
+        if (javaMailSender instanceof JavaMailSenderImpl sender) {
+            // 先建立连接，连接失败与具体邮件无关，不计入失败次数
+            try {
+                connectedTransport(sender);
+            } catch (MessagingException e) {
+                log.warn("SMTP 连接失败: {}", e.getMessage());
+                return 0;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Path file = batch.get(i);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                send(file);
+                attempts.remove(file);
+                deleteQuietly(file);
+            } catch (SendFailedException e) {
+                if (hasValidUnsent(e)) {
+                    log.warn("邮件发送失败: {}", e.getMessage());
+                    return i;
+                }
+                if (isEmpty(e.getValidSentAddresses())) {
+                    log.error("邮件收件人无效，移入失败目录: {}", file.getFileName(), e);
+                    moveToFailed(file);
+                } else {
+                    // 部分收件人已送达，重试会造成重复投递
+                    log.warn("邮件部分收件人无效: {}", e.getMessage());
+                    deleteQuietly(file);
+                }
+            } catch (MessagingException | MailException e) {
+                int failures = attempts.merge(file, 1, Integer::sum);
+                if (failures < config.getMaxAttempts()) {
+                    log.warn("邮件发送失败（第 {} 次）: {}", failures, e.getMessage());
+                    return i;
+                }
+                log.error("邮件连续 {} 次发送失败，移入失败目录: {}", failures, file.getFileName(), e);
+                moveToFailed(file);
+            } catch (IOException e) {
+                log.error("邮件文件无法读取，移入失败目录: {}", file.getFileName(), e);
+                moveToFailed(file);
+            }
+        }
+        return batch.size();
+    }
+
+    private void send(Path file) throws MessagingException, IOException {
+        // 文件按需分段读取，内嵌图片不会整体载入堆内存
+        SharedFileInputStream in = new SharedFileInputStream(file.toFile());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            if (javaMailSender instanceof JavaMailSenderImpl sender) {
+                MimeMessage message = new MimeMessage(sender.getSession(), in);
+                Address[] recipients = message.getAllRecipients();
+                if (recipients == null || recipients.length == 0) {
+                    throw new SendFailedException("No recipient addresses");
+                }
+                connectedTransport(sender).sendMessage(message, recipients);
+            } else {
+                javaMailSender.send(new MimeMessage(javaMailSender.createMimeMessage().getSession(), in));
+            }
+            success = true;
+        } finally {
+            in.close();
+            reportMetrics.recordSmtp(start, success);
+        }
+    }
+
+    private Transport connectedTransport(JavaMailSenderImpl sender) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        closeTransport();
+        Session session = sender.getSession();
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        Transport newTransport = session.getTransport(protocol);
+        newTransport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        transport = newTransport;
+        return newTransport;
+    }
+
+    private void closeTransport() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("关闭 SMTP 连接失败", e);
+        }
+        transport = null;
+    }
+
+    /**
+     * 仍有有效收件人未送达时可重试；只剩无效地址时重试没有意义
+     */
+    private static boolean hasValidUnsent(SendFailedException e) {
+        return !isEmpty(e.getValidUnsentAddresses());
+    }
+
+    private static boolean isEmpty(Address[] addresses) {
+        return addresses == null || addresses.length == 0;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("删除邮件文件失败: {}", file, e);
+        }
+    }
+
+    private void moveToFailed(Path file) {
+        attempts.remove(file);
+        try {
+            Files.move(file, failedDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("移动失败邮件出错: {}", file, e);
+        }
+    }
+
+    private static long parseSequence(String name) {
+        try {
+            return Long.parseLong(name.substring(0, name.length() - EML_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
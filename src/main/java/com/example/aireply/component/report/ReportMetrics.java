@@ -0,0 +1,97 @@
+package com.example.aireply.component.report;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报表流水线的 Micrometer 指标：各阶段耗时、整份报表耗时、数据源缺失次数与 SMTP 发送耗时
+ * <p>
+ * 计时器带 P50/P95/P99 与直方图桶，按 (名称, 标签) 缓存，记录一次只是一次 Map 查找加一次原子累加，
+ * 不在热路径上重复构建 Meter。
+ * </p>
+ */
+@Component
+public class ReportMetrics {
+
+    public static final String STAGE_TIMER = "report.stage";
+
+    public static final String REPORT_TIMER = "report.watch";
+
+    public static final String UNAVAILABLE_COUNTER = "report.stage.unavailable";
+
+    public static final String SMTP_TIMER = "mail.smtp.send";
+
+    private static final String SUCCESS = "success";
+
+    private static final String FAILURE = "failure";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ReportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录报表某个阶段（指标、历法、各图表、摄像头、渲染、发送）的耗时
+     * @param startNanos 阶段开始时的 {@link System#nanoTime()}
+     */
+    public void recordStage(String stage, long startNanos, boolean success) {
+        timer(STAGE_TIMER, "stage", stage, success).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录整份报表从开始采集到交给邮件发送的耗时
+     */
+    public void recordReport(long startNanos, boolean success) {
+        timer(REPORT_TIMER, null, null, success).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 数据源超时或失败，报表中标记为暂不可用
+     */
+    public void recordUnavailable(String source) {
+        counters.computeIfAbsent(source, key -> Counter.builder(UNAVAILABLE_COUNTER)
+                .description("报表数据源超时或失败次数")
+                .tag("source", key)
+                .register(registry)).increment();
+    }
+
+    /**
+     * 记录一次 SMTP 投递的耗时，含建立连接与写入邮件正文
+     */
+    public void recordSmtp(long startNanos, boolean success) {
+        timer(SMTP_TIMER, null, null, success).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue, boolean success) {
+        String outcome = success ? SUCCESS : FAILURE;
+        String key = name + '|' + tagValue + '|' + outcome;
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(key, k -> {
+            Timer.Builder builder = Timer.builder(name)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(2));
+            if (tagKey != null) {
+                builder.tag(tagKey, tagValue);
+            }
+            return builder.register(registry);
+        });
+    }
+}
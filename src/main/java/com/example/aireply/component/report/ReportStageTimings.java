@@ -0,0 +1,59 @@
+package com.example.aireply.component.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 报表各阶段耗时记录
+ * 各阶段可能在不同线程并行执行，记录过程线程安全
+ */
+public class ReportStageTimings {
+
+    private final long startNanos = System.nanoTime();
+
+    private final Map<String, Long> stageMillis = new ConcurrentHashMap<>();
+
+    private final List<String> unavailable = new ArrayList<>();
+
+    /**
+     * 记录某阶段耗时
+     */
+    public void record(String stage, long startNanos) {
+        stageMillis.put(stage, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * 标记某个数据源未能在截止时间内完成或执行失败
+     */
+    public synchronized void markUnavailable(String source) {
+        unavailable.add(source);
+    }
+
+    public synchronized List<String> getUnavailable() {
+        return new ArrayList<>(unavailable);
+    }
+
+    public Map<String, Long> getStageMillis() {
+        return Map.copyOf(stageMillis);
+    }
+
+    /**
+     * 自创建以来经过的总耗时
+     */
+    public long totalMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 形如 "metrics 12ms · tyme 3ms" 的耗时摘要，按耗时降序
+     */
+    public String summary() {
+        return stageMillis.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(e -> e.getKey() + " " + e.getValue() + "ms")
+                .collect(Collectors.joining(" · "));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.aireply.component.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译模板：解析一次，渲染时单次遍历语法树，耗时与模板长度线性相关
+ */
+public final class CompiledTemplate {
+
+    private final List<TemplateNode> nodes;
+
+    /**
+     * 渲染结果的预估长度：静态文本长度加上变量的预留空间
+     */
+    private final int estimatedLength;
+
+    CompiledTemplate(List<TemplateNode> nodes, int staticLength, int variableCount) {
+        this.nodes = nodes;
+        this.estimatedLength = staticLength + variableCount * 32;
+    }
+
+    public String render(Map<String, ?> variables) {
+        StringBuilder sb = new StringBuilder(estimatedLength);
+        try {
+            render(variables, sb);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 流式渲染到任意输出目标（如 Writer），不构建完整字符串
+     */
+    public void render(Map<String, ?> variables, Appendable out) throws IOException {
+        TemplateNode.Scope scope = new TemplateNode.Scope(variables, null);
+        for (TemplateNode node : nodes) {
+            node.render(scope, out);
+        }
+    }
+}
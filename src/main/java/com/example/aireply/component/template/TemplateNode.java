@@ -0,0 +1,108 @@
+package com.example.aireply.component.template;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模板语法树节点
+ */
+interface TemplateNode {
+
+    void render(Scope scope, Appendable out) throws IOException;
+
+    /**
+     * 静态文本
+     */
+    record Text(String text) implements TemplateNode {
+        @Override
+        public void render(Scope scope, Appendable out) throws IOException {
+            out.append(text);
+        }
+    }
+
+    /**
+     * ${key} 变量；变量不存在时原样输出占位符，值为 null 时输出空串
+     */
+    record Variable(String key, String placeholder) implements TemplateNode {
+        @Override
+        public void render(Scope scope, Appendable out) throws IOException {
+            if (!scope.contains(key)) {
+                out.append(placeholder);
+                return;
+            }
+            Object value = scope.get(key);
+            if (value != null) {
+                out.append(value instanceof CharSequence cs ? cs : String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * [IF:key] ... [/IF]，key 前加 ! 表示取反
+     */
+    record Conditional(String key, boolean negated, List<TemplateNode> children) implements TemplateNode {
+        @Override
+        public void render(Scope scope, Appendable out) throws IOException {
+            if (isTruthy(scope.get(key)) != negated) {
+                for (TemplateNode child : children) {
+                    child.render(scope, out);
+                }
+            }
+        }
+
+        private static boolean isTruthy(Object value) {
+            if (value instanceof Boolean b) {
+                return b;
+            }
+            if (value instanceof Iterable<?> iterable) {
+                return iterable.iterator().hasNext();
+            }
+            return value != null && "true".equalsIgnoreCase(value.toString());
+        }
+    }
+
+    /**
+     * [EACH:key] ... [/EACH]，key 对应的值为 Map 的集合，循环体内优先解析当前元素的字段
+     */
+    record Loop(String key, List<TemplateNode> children) implements TemplateNode {
+        @Override
+        public void render(Scope scope, Appendable out) throws IOException {
+            if (!(scope.get(key) instanceof Iterable<?> items)) {
+                return;
+            }
+            for (Object item : items) {
+                Scope itemScope = item instanceof Map<?, ?> map ? new Scope(map, scope) : scope;
+                for (TemplateNode child : children) {
+                    child.render(itemScope, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * 变量作用域链
+     */
+    final class Scope {
+
+        private final Map<?, ?> variables;
+
+        private final Scope parent;
+
+        Scope(Map<?, ?> variables, Scope parent) {
+            this.variables = variables;
+            this.parent = parent;
+        }
+
+        boolean contains(String key) {
+            return variables.containsKey(key) || (parent != null && parent.contains(key));
+        }
+
+        Object get(String key) {
+            if (variables.containsKey(key)) {
+                return variables.get(key);
+            }
+            return parent != null ? parent.get(key) : null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aireply.component.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 模板解析器
+ * 支持 ${key} 变量、可嵌套的 [IF:key] / [IF:!key] ... [/IF] 条件块和 [EACH:key] ... [/EACH] 循环块
+ */
+public final class TemplateParser {
+
+    private static final String VAR_OPEN = "${";
+    private static final String IF_OPEN = "[IF:";
+    private static final String IF_CLOSE = "[/IF]";
+    private static final String EACH_OPEN = "[EACH:";
+    private static final String EACH_CLOSE = "[/EACH]";
+
+    private TemplateParser() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 单次扫描模板，构建语法树
+     * @param name 模板名称，仅用于错误提示
+     */
+    public static CompiledTemplate parse(String name, String source) {
+        Deque<Block> stack = new ArrayDeque<>();
+        Block root = new Block(null, null, false);
+        stack.push(root);
+        StringBuilder text = new StringBuilder();
+        int staticLength = 0;
+        int variableCount = 0;
+
+        int i = 0;
+        int n = source.length();
+        while (i < n) {
+            char c = source.charAt(i);
+            if (c == '$' && source.startsWith(VAR_OPEN, i)) {
+                int end = source.indexOf('}', i + VAR_OPEN.length());
+                if (end > 0) {
+                    staticLength += flush(text, stack.peek());
+                    String key = source.substring(i + VAR_OPEN.length(), end);
+                    stack.peek().children.add(new TemplateNode.Variable(key, source.substring(i, end + 1)));
+                    variableCount++;
+                    i = end + 1;
+                    continue;
+                }
+            } else if (c == '[') {
+                if (source.startsWith(IF_OPEN, i) || source.startsWith(EACH_OPEN, i)) {
+                    boolean loop = source.startsWith(EACH_OPEN, i);
+                    int keyStart = i + (loop ? EACH_OPEN.length() : IF_OPEN.length());
+                    int end = source.indexOf(']', keyStart);
+                    if (end > 0) {
+                        staticLength += flush(text, stack.peek());
+                        String key = source.substring(keyStart, end).trim();
+                        boolean negated = !loop && key.startsWith("!");
+                        stack.push(new Block(loop ? EACH_CLOSE : IF_CLOSE, negated ? key.substring(1) : key, negated));
+                        i = end + 1;
+                        continue;
+                    }
+                } else if (source.startsWith(IF_CLOSE, i) || source.startsWith(EACH_CLOSE, i)) {
+                    String closeTag = source.startsWith(IF_CLOSE, i) ? IF_CLOSE : EACH_CLOSE;
+                    Block block = stack.peek();
+                    if (closeTag.equals(block.closeTag)) {
+                        staticLength += flush(text, block);
+                        stack.pop();
+                        stack.peek().children.add(block.toNode());
+                        i += closeTag.length();
+                        continue;
+                    }
+                }
+            }
+            text.append(c);
+            i++;
+        }
+        staticLength += flush(text, stack.peek());
+        if (stack.size() > 1) {
+            Block unclosed = stack.peek();
+            throw new IllegalStateException("Unclosed block " + unclosed.key + " (expecting " + unclosed.closeTag + ") in template: " + name);
+        }
+        return new CompiledTemplate(root.children, staticLength, variableCount);
+    }
+
+    private static int flush(StringBuilder text, Block block) {
+        int length = text.length();
+        if (length > 0) {
+            block.children.add(new TemplateNode.Text(text.toString()));
+            text.setLength(0);
+        }
+        return length;
+    }
+
+    private static final class Block {
+        private final String closeTag;
+        private final String key;
+        private final boolean negated;
+        private final List<TemplateNode> children = new ArrayList<>();
+
+        private Block(String closeTag, String key, boolean negated) {
+            this.closeTag = closeTag;
+            this.key = key;
+            this.negated = negated;
+        }
+
+        private TemplateNode toNode() {
+            return EACH_CLOSE.equals(closeTag)
+                    ? new TemplateNode.Loop(key, List.copyOf(children))
+                    : new TemplateNode.Conditional(key, negated, List.copyOf(children));
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package com.example.aireply.component.tyme;
 
+import com.alibaba.fastjson2.JSON;
+import com.example.aireply.component.tyme.model.TymeDayInfo;
+import com.example.aireply.component.tyme.model.TymeHourInfo;
 import com.example.aireply.component.tyme.model.TymeInfo;
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.config.TymeCacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.tyme.culture.ren.MinorRen;
 import com.tyme.sixtycycle.SixtyCycle;
 import com.tyme.solar.SolarDay;
@@ -9,36 +17,126 @@ import com.tyme.lunar.LunarDay;
 import com.tyme.lunar.LunarHour;
 import com.tyme.lunar.LunarMonth;
 import com.tyme.lunar.LunarYear;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 历法数据采集组件
  * 基于 tyme4j 库提取丰富的传统历法信息
+ * <p>
+ * 历法信息只随公历日和时辰变化：按日的部分以日期为键缓存，按时辰的部分以 (日期, 时辰槽位) 为键缓存，
+ * 跨过日期或时辰边界时键自然改变，无需主动失效。可选地在启动时加载预计算的多年历法表，
+ * 表内日期直接从内存读取，不再调用 tyme4j。
+ * </p>
  */
+@Slf4j
 @Component
 public class TymeCollector {
 
+    /**
+     * 每个公历日的时辰槽位数：00:00 起的早子时、丑时至亥时 11 个时辰，以及 23:00 起的晚子时
+     */
+    public static final int SLOTS_PER_DAY = 13;
+
+    @Resource
+    private TymeCacheConfig config;
+
+    private Cache<LocalDate, TymeDayInfo> dayCache;
+
+    private Cache<HourKey, TymeHourInfo> hourCache;
+
+    private Cache<HourKey, TymeInfo> infoCache;
+
+    /**
+     * 预计算表，未启用或尚未加载完成时为空
+     */
+    private volatile Map<LocalDate, TymeTable.Day> table = Map.of();
+
+    @PostConstruct
+    public void init() {
+        dayCache = Caffeine.newBuilder().maximumSize(config.getMaxDays()).build();
+        hourCache = Caffeine.newBuilder().maximumSize((long) config.getMaxDays() * SLOTS_PER_DAY).recordStats().build();
+        infoCache = Caffeine.newBuilder().maximumSize((long) config.getMaxDays() * SLOTS_PER_DAY).build();
+        if (Boolean.TRUE.equals(config.getPrecompute())) {
+            // 预计算多年数据耗时较长，在后台完成，期间按需计算
+            Thread loader = new Thread(this::loadTable, "tyme-precompute");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
     public TymeInfo collect() {
-        LocalDateTime now = LocalDateTime.now();
-        SolarTime solarTime = SolarTime.fromYmdHms(now.getYear(), now.getMonthValue(), now.getDayOfMonth(),
-                now.getHour(), now.getMinute(), now.getSecond());
+        return collect(LocalDateTime.now());
+    }
+
+    /**
+     * 指定时刻的历法信息，同一时辰内的调用返回同一个缓存对象
+     */
+    public TymeInfo collect(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        int slot = slotOf(time.getHour());
+        return infoCache.get(new HourKey(date, slot), key -> assemble(dayInfo(date), hourInfo(date, slot)));
+    }
+
+    /**
+     * 指定日期按日变化的历法信息
+     */
+    public TymeDayInfo dayInfo(LocalDate date) {
+        TymeTable.Day row = table.get(date);
+        if (row != null) {
+            return row.info();
+        }
+        return dayCache.get(date, TymeCollector::computeDay);
+    }
+
+    TymeHourInfo hourInfo(LocalDate date, int slot) {
+        TymeTable.Day row = table.get(date);
+        if (row != null) {
+            return row.hours().get(slot);
+        }
+        return hourCache.get(new HourKey(date, slot), key -> computeHour(key.date(), key.slot()));
+    }
+
+    /**
+     * 时辰缓存的命中统计
+     */
+    CacheStats hourCacheStats() {
+        return hourCache.stats();
+    }
+
+    /**
+     * 小时到时辰槽位：0 点为早子时（0），1-2 点为丑时（1），……，23 点为晚子时（12）
+     */
+    static int slotOf(int hour) {
+        return (hour + 1) / 2;
+    }
+
+    private static TymeDayInfo computeDay(LocalDate date) {
+        // 农历日随公历日确定，取当日正午计算即可
+        SolarTime solarTime = SolarTime.fromYmdHms(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 12, 0, 0);
         SolarDay solarDay = solarTime.getSolarDay();
-        LunarHour lunarHour = solarTime.getLunarHour();
-        LunarDay lunarDay = lunarHour.getLunarDay();
+        LunarDay lunarDay = solarTime.getLunarHour().getLunarDay();
         LunarMonth lunarMonth = lunarDay.getLunarMonth();
         LunarYear lunarYear = lunarMonth.getLunarYear();
 
         // 干支 SixtyCycle
         SixtyCycle sixtyCycle = lunarDay.getSixtyCycle();
 
-        // 获取小六壬 (从时辰获取)
-        MinorRen minorRen = lunarHour.getMinorRen();
-
         // 获取节日聚合 (公历 + 农历)
         List<String> festivalList = new ArrayList<>();
         if (solarDay.getFestival() != null) {
@@ -52,35 +150,128 @@ public class TymeCollector {
                 .distinct()
                 .collect(Collectors.joining(" · "));
 
-        return TymeInfo.builder()
-                .lunarYear(lunarYear.getName())
-                .lunarMonth(lunarMonth.getName())
-                .lunarDay(lunarDay.getName())
-                .lunarSeason(lunarMonth.getSeason().getName())
-                .animal(lunarYear.getSixtyCycle().getEarthBranch().getZodiac().getName())
-                .constellation(solarDay.getConstellation().getName())
-                .moonPhase(lunarDay.getPhase().getName())
-                .solarTerm(solarDay.getTerm() != null ? solarDay.getTerm().getName() : "无")
-
-                .currentHour(lunarHour.getName())
-                .currentHourRange(String.format("%02d:00 - %02d:00",
-                        (now.getHour() / 2 * 2 + 23) % 24, (now.getHour() / 2 * 2 + 1) % 24))
-                .liuRen(minorRen.getName())
-                .liuRenLuck(minorRen.getLuck().getName())
-                .liuRenElement(minorRen.getElement().getName())
-
-                .dayYi(lunarDay.getRecommends().stream().map(Object::toString).collect(Collectors.toList()))
-                .dayJi(lunarDay.getAvoids().stream().map(Object::toString).collect(Collectors.toList()))
-                .hourYi(lunarHour.getRecommends().stream().map(Object::toString).collect(Collectors.toList()))
-                .hourJi(lunarHour.getAvoids().stream().map(Object::toString).collect(Collectors.toList()))
-
+        return new TymeDayInfo(
+                lunarYear.getName(),
+                lunarMonth.getName(),
+                lunarDay.getName(),
+                lunarMonth.getSeason().getName(),
+                lunarYear.getSixtyCycle().getEarthBranch().getZodiac().getName(),
+                solarDay.getConstellation().getName(),
+                lunarDay.getPhase().getName(),
+                solarDay.getTerm() != null ? solarDay.getTerm().getName() : "无",
+                lunarDay.getRecommends().stream().map(Object::toString).toList(),
+                lunarDay.getAvoids().stream().map(Object::toString).toList(),
                 // 彭祖百忌
-                .pengZu(sixtyCycle.getPengZu().getPengZuHeavenStem() + "，" + sixtyCycle.getPengZu().getPengZuEarthBranch())
+                sixtyCycle.getPengZu().getPengZuHeavenStem() + "，" + sixtyCycle.getPengZu().getPengZuEarthBranch(),
                 // 五行：这里取“纳音五行”，更有传统味道
-                .wuXing(sixtyCycle.getEarthBranch().getElement().getName())
-                .baZi(lunarHour.getEightChar().getName())
-                .festivals(festivals.isEmpty() ? "无" : festivals)
-                .week("星期" + solarDay.getWeek().getName())
+                sixtyCycle.getEarthBranch().getElement().getName(),
+                festivals.isEmpty() ? "无" : festivals,
+                "星期" + solarDay.getWeek().getName());
+    }
+
+    private static TymeHourInfo computeHour(LocalDate date, int slot) {
+        // 槽位内任一整点的时辰相同，取槽位的第一个小时
+        int hour = slot == 0 ? 0 : slot * 2 - 1;
+        LunarHour lunarHour = SolarTime.fromYmdHms(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour, 0, 0)
+                .getLunarHour();
+
+        // 获取小六壬 (从时辰获取)
+        MinorRen minorRen = lunarHour.getMinorRen();
+
+        return new TymeHourInfo(
+                lunarHour.getName(),
+                String.format("%02d:00 - %02d:00", (slot * 2 + 23) % 24, (slot * 2 + 1) % 24),
+                minorRen.getName(),
+                minorRen.getLuck().getName(),
+                minorRen.getElement().getName(),
+                lunarHour.getRecommends().stream().map(Object::toString).toList(),
+                lunarHour.getAvoids().stream().map(Object::toString).toList(),
+                lunarHour.getEightChar().getName());
+    }
+
+    private static TymeInfo assemble(TymeDayInfo day, TymeHourInfo hour) {
+        return TymeInfo.builder()
+                .lunarYear(day.lunarYear())
+                .lunarMonth(day.lunarMonth())
+                .lunarDay(day.lunarDay())
+                .lunarSeason(day.lunarSeason())
+                .animal(day.animal())
+                .constellation(day.constellation())
+                .moonPhase(day.moonPhase())
+                .solarTerm(day.solarTerm())
+
+                .currentHour(hour.currentHour())
+                .currentHourRange(hour.currentHourRange())
+                .liuRen(hour.liuRen())
+                .liuRenLuck(hour.liuRenLuck())
+                .liuRenElement(hour.liuRenElement())
+
+                .dayYi(day.dayYi())
+                .dayJi(day.dayJi())
+                .hourYi(hour.hourYi())
+                .hourJi(hour.hourJi())
+
+                .pengZu(day.pengZu())
+                .wuXing(day.wuXing())
+                .baZi(hour.baZi())
+                .festivals(day.festivals())
+                .week(day.week())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * 加载预计算表；文件不存在或年份范围不足时重新生成并保存
+     */
+    private void loadTable() {
+        int fromYear = config.getFromYear() != null ? config.getFromYear() : LocalDate.now().getYear();
+        int toYear = config.getToYear() != null ? config.getToYear() : fromYear + 1;
+        Path file = Paths.get(config.getFile());
+        try {
+            TymeTable loaded = null;
+            if (Files.exists(file)) {
+                loaded = JSON.parseObject(Files.readAllBytes(file), TymeTable.class);
+                if (loaded.fromYear() > fromYear || loaded.toYear() < toYear) {
+                    log.info("历法表 {} 覆盖 {}-{} 年，不满足 {}-{} 年，重新生成", file, loaded.fromYear(), loaded.toYear(), fromYear, toYear);
+                    loaded = null;
+                }
+            }
+            if (loaded == null) {
+                long start = System.currentTimeMillis();
+                loaded = buildTable(fromYear, toYear);
+                saveTable(loaded, file);
+                log.info("历法表已生成: {}-{} 年，耗时 {}ms", fromYear, toYear, System.currentTimeMillis() - start);
+            }
+            Map<LocalDate, TymeTable.Day> index = new HashMap<>(loaded.days().size() * 2);
+            for (TymeTable.Day day : loaded.days()) {
+                index.put(LocalDate.parse(day.date()), day);
+            }
+            table = index;
+            log.info("历法表已加载: {} 天", index.size());
+        } catch (Exception e) {
+            log.error("历法表加载失败，按需计算", e);
+        }
+    }
+
+    private static TymeTable buildTable(int fromYear, int toYear) {
+        List<TymeTable.Day> days = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(fromYear, 1, 1); date.getYear() <= toYear; date = date.plusDays(1)) {
+            List<TymeHourInfo> hours = new ArrayList<>(SLOTS_PER_DAY);
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                hours.add(computeHour(date, slot));
+            }
+            days.add(new TymeTable.Day(date.toString(), computeDay(date), hours));
+        }
+        return new TymeTable(fromYear, toYear, days);
+    }
+
+    private static void saveTable(TymeTable table, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        Files.write(tmp, JSON.toJSONBytes(table));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record HourKey(LocalDate date, int slot) {
+    }
+}
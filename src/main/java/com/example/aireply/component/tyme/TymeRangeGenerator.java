@@ -0,0 +1,102 @@
+package com.example.aireply.component.tyme;
+
+import com.example.aireply.component.tyme.model.TymeHourInfo;
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.config.TymeRangeConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 历法区间生成组件
+ * <p>
+ * 区间按固定天数切块，提交到独立的 ForkJoinPool 并行计算，按日期顺序逐块回调，
+ * 调用方可以边计算边输出，内存中只保留有限个尚未输出的块。
+ * 每天的数据仍经由 {@link TymeCollector} 的缓存与预计算表获取，与单点查询共享结果。
+ * </p>
+ */
+@Component
+public class TymeRangeGenerator {
+
+    @Resource
+    private TymeCollector tymeCollector;
+
+    @Resource
+    private TymeRangeConfig config;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = config.getParallelism() != null ? config.getParallelism() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        pool = new ForkJoinPool(Math.max(1, parallelism), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("tyme-range-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 生成 [from, to] 区间内每天的历法信息
+     * @param hourly 是否包含每天全部时辰，为 false 时 {@link TymeTable.Day#hours()} 为 null
+     * @param sink   按日期顺序接收每个计算完成的块；抛出异常时取消剩余计算
+     */
+    public void generate(LocalDate from, LocalDate to, boolean hourly, Consumer<List<TymeTable.Day>> sink) {
+        int chunkDays = Math.max(1, config.getChunkDays());
+        // 预先提交的块数：保证工作线程不空闲，同时限制尚未输出的结果占用的内存
+        int lookahead = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<List<TymeTable.Day>>> window = new ArrayDeque<>(lookahead);
+        LocalDate next = from;
+        try {
+            while (!next.isAfter(to) || !window.isEmpty()) {
+                while (window.size() < lookahead && !next.isAfter(to)) {
+                    LocalDate start = next;
+                    LocalDate end = minDate(start.plusDays(chunkDays - 1), to);
+                    window.addLast(pool.submit(() -> computeChunk(start, end, hourly)));
+                    next = end.plusDays(1);
+                }
+                sink.accept(window.removeFirst().join());
+            }
+        } finally {
+            window.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private List<TymeTable.Day> computeChunk(LocalDate start, LocalDate end, boolean hourly) {
+        List<TymeTable.Day> days = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            List<TymeHourInfo> hours = null;
+            if (hourly) {
+                hours = new ArrayList<>(TymeCollector.SLOTS_PER_DAY);
+                for (int slot = 0; slot < TymeCollector.SLOTS_PER_DAY; slot++) {
+                    hours.add(tymeCollector.hourInfo(date, slot));
+                }
+            }
+            days.add(new TymeTable.Day(date.toString(), tymeCollector.dayInfo(date), hours));
+        }
+        return days;
+    }
+
+    private static LocalDate minDate(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.aireply.component.tyme.model;
+
+import java.util.List;
+
+/**
+ * 按日变化的历法信息，同一公历日内恒定
+ */
+public record TymeDayInfo(
+        String lunarYear,
+        String lunarMonth,
+        String lunarDay,
+        String lunarSeason,
+        String animal,
+        String constellation,
+        String moonPhase,
+        String solarTerm,
+        List<String> dayYi,
+        List<String> dayJi,
+        String pengZu,
+        String wuXing,
+        String festivals,
+        String week) {
+}
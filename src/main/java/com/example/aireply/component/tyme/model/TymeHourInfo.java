@@ -0,0 +1,17 @@
+package com.example.aireply.component.tyme.model;
+
+import java.util.List;
+
+/**
+ * 按时辰变化的历法信息，同一时辰内恒定
+ */
+public record TymeHourInfo(
+        String currentHour,
+        String currentHourRange,
+        String liuRen,
+        String liuRenLuck,
+        String liuRenElement,
+        List<String> hourYi,
+        List<String> hourJi,
+        String baZi) {
+}
@@ -0,0 +1,17 @@
+package com.example.aireply.component.tyme.model;
+
+import java.util.List;
+
+/**
+ * 预计算历法表，可持久化为 JSON 并在启动时加载
+ * @param days 按日期升序排列
+ */
+public record TymeTable(int fromYear, int toYear, List<Day> days) {
+
+    /**
+     * @param date  公历日期（yyyy-MM-dd）
+     * @param hours 按时辰槽位排列，共 {@code TymeCollector.SLOTS_PER_DAY} 个
+     */
+    public record Day(String date, TymeDayInfo info, List<TymeHourInfo> hours) {
+    }
+}
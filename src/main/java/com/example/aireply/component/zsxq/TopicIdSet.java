@@ -0,0 +1,141 @@
+package com.example.aireply.component.zsxq;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 已回答提问 id 的持久化集合
+ * <p>
+ * 磁盘上是只追加的 8 字节 id 序列，内存中是开放寻址的 long 哈希表，每个 id 约占 16 字节（负载因子 0.5），
+ * 不产生装箱对象。写入中途退出留下的不完整尾部在打开时截断。
+ * </p>
+ */
+public class TopicIdSet implements Closeable {
+
+    /** 0 作为空槽标记，星球的 topic_id 均为正数 */
+    private static final long EMPTY = 0L;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer record = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long[] table = new long[1024];
+
+    private int size;
+
+    public TopicIdSet(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long complete = channel.size() / Long.BYTES * Long.BYTES;
+        if (complete != channel.size()) {
+            channel.truncate(complete);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (position < complete) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            buffer.flip();
+            while (buffer.remaining() >= Long.BYTES) {
+                insert(buffer.getLong());
+            }
+            // 读到半条记录时回退，下一轮从该条开头重读
+            position -= buffer.remaining();
+        }
+        channel.position(complete);
+    }
+
+    public synchronized boolean contains(long id) {
+        long[] slots = table;
+        int mask = slots.length - 1;
+        for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == id) {
+                return true;
+            }
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 加入集合并追加到文件，已存在时忽略
+     */
+    public synchronized void add(long id) throws IOException {
+        if (id == EMPTY || contains(id)) {
+            return;
+        }
+        record.clear();
+        record.putLong(id).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        insert(id);
+    }
+
+    /**
+     * 把已追加的 id 刷到磁盘
+     */
+    public synchronized void flush() throws IOException {
+        channel.force(false);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void insert(long id) {
+        if (id == EMPTY) {
+            return;
+        }
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+            if (table[i] == id) {
+                return;
+            }
+            if (table[i] == EMPTY) {
+                table[i] = id;
+                size++;
+                return;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+        for (long id : old) {
+            if (id != EMPTY) {
+                int i = hash(id) & mask;
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = id;
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.aireply.component.zsxq;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.example.aireply.component.zsxq.model.ZsxqTopic;
+import com.example.aireply.component.zsxq.model.ZsxqTopicPage;
+import com.example.aireply.config.ZsxqConfig;
+import jakarta.annotation.Resource;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 知识星球接口
+ * 拉取待回答的提问（支持 ETag / If-Modified-Since 条件请求与按创建时间翻页）、提交回答
+ */
+@Component
+public class ZsxqClient {
+
+    /** 星球接口的时间格式，如 2024-05-01T12:30:00.000+0800 */
+    public static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    private static final MediaType JSON_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    @Resource
+    private ZsxqConfig config;
+
+    @Resource
+    private OkHttpClient okHttpClient;
+
+    /**
+     * 拉取一页待回答的提问，按创建时间倒序
+     * @param endTime      只返回早于该时间的提问，为 null 时从最新开始
+     * @param etag         上次首页响应的 ETag，为 null 时不发条件请求
+     * @param lastModified 上次首页响应的 Last-Modified
+     */
+    public ZsxqTopicPage fetchUnanswered(String endTime, String etag, String lastModified) throws IOException {
+        HttpUrl.Builder url = HttpUrl.get(config.getBaseUrl()).newBuilder()
+                .addPathSegments("v2/groups").addPathSegment(config.getGroupId()).addPathSegment("topics")
+                .addQueryParameter("scope", "unanswered_questions")
+                .addQueryParameter("count", String.valueOf(config.getPageSize()));
+        if (endTime != null) {
+            url.addQueryParameter("end_time", endTime);
+        }
+        Request.Builder request = baseRequest().url(url.build()).get();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+        try (Response response = okHttpClient.newCall(request.build()).execute()) {
+            if (response.code() == 304) {
+                return new ZsxqTopicPage(List.of(), true, etag, lastModified);
+            }
+            JSONObject data = respData(response, "拉取提问");
+            JSONArray topics = data.getJSONArray("topics");
+            List<ZsxqTopic> result = new ArrayList<>(topics != null ? topics.size() : 0);
+            if (topics != null) {
+                for (int i = 0; i < topics.size(); i++) {
+                    JSONObject topic = topics.getJSONObject(i);
+                    JSONObject question = topic.getJSONObject("question");
+                    String createTime = topic.getString("create_time");
+                    result.add(new ZsxqTopic(topic.getLongValue("topic_id"),
+                            question != null ? question.getString("text") : null,
+                            createTime, OffsetDateTime.parse(createTime, TIME_FORMATTER)));
+                }
+            }
+            return new ZsxqTopicPage(result, false, response.header("ETag"), response.header("Last-Modified"));
+        }
+    }
+
+    /**
+     * 回答提问
+     */
+    public void answer(long topicId, String text) throws IOException {
+        String body = JSON.toJSONString(Map.of("req_data", Map.of(
+                "text", text,
+                "image_ids", List.of(),
+                "silenced", Boolean.TRUE.equals(config.getSilenced()))));
+        HttpUrl url = HttpUrl.get(config.getBaseUrl()).newBuilder()
+                .addPathSegments("v2/topics").addPathSegment(String.valueOf(topicId)).addPathSegment("answer")
+                .build();
+        Request request = baseRequest().url(url).post(RequestBody.create(body, JSON_TYPE)).build();
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            respData(response, "回答提问 " + topicId);
+        }
+    }
+
+    private Request.Builder baseRequest() {
+        return new Request.Builder()
+                .header("cookie", config.getCookie() != null ? config.getCookie() : "")
+                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36");
+    }
+
+    private static JSONObject respData(Response response, String action) throws IOException {
+        ResponseBody body = response.body();
+        String text = body != null ? body.string() : "";
+        if (!response.isSuccessful()) {
+            throw new IOException(action + "失败: HTTP " + response.code() + " " + text);
+        }
+        JSONObject json = JSON.parseObject(text);
+        if (json == null || !json.getBooleanValue("succeeded")) {
+            throw new IOException(action + "失败: " + text);
+        }
+        JSONObject data = json.getJSONObject("resp_data");
+        return data != null ? data : new JSONObject();
+    }
+}
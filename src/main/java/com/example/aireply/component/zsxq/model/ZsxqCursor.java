@@ -0,0 +1,14 @@
+package com.example.aireply.component.zsxq.model;
+
+/**
+ * 轮询游标，持久化在磁盘上
+ * @param createTime    已全部处理完的最新提问的创建时间，更早的提问不再扫描；首次运行时为 null
+ * @param etag          首页的 ETag，用于条件请求
+ * @param lastModified  首页的 Last-Modified，用于条件请求
+ * @param resumeEndTime 积压超过单次翻页上限时，下次轮询从该时间继续向前翻页；没有未完成的扫描时为 null
+ * @param scanTop       未完成的扫描所覆盖的最新提问的创建时间，扫描到达 createTime 后游标前进到此处
+ */
+public record ZsxqCursor(String createTime, String etag, String lastModified, String resumeEndTime, String scanTop) {
+
+    public static final ZsxqCursor EMPTY = new ZsxqCursor(null, null, null, null, null);
+}
@@ -0,0 +1,10 @@
+package com.example.aireply.component.zsxq.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 星球中待回答的提问
+ * @param createTime 原始格式的创建时间，翻页时原样回传
+ */
+public record ZsxqTopic(long topicId, String question, String createTime, OffsetDateTime createdAt) {
+}
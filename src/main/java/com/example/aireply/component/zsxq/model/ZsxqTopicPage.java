@@ -0,0 +1,11 @@
+package com.example.aireply.component.zsxq.model;
+
+import java.util.List;
+
+/**
+ * 一页待回答的提问，按创建时间倒序
+ * @param notModified 服务端以 304 表示自上次请求以来没有变化，此时 topics 为空
+ * @param etag        响应的 ETag，没有时为 null
+ */
+public record ZsxqTopicPage(List<ZsxqTopic> topics, boolean notModified, String etag, String lastModified) {
+}
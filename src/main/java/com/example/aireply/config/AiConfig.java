@@ -1,13 +1,28 @@
 package com.example.aireply.config;
 
+import com.example.aireply.component.ai.ConcurrencyLimitFilter;
+import com.example.aireply.component.ai.ReplyCacheAdvisor;
+import com.example.aireply.component.ai.SingleFlightAdvisor;
+import com.example.aireply.component.http.OkHttpClientHttpRequestFactory;
+import okhttp3.OkHttpClient;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.TransientAiException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class AiConfig {
@@ -21,27 +36,56 @@ public class AiConfig {
     @Value("${spring.ai.openai.chat.options.model}")
     private String model;
 
+    /**
+     * 同步与流式调用都经过自适应并发限制，并设置连接与读取超时
+     * 同步调用走共享的 OkHttpClient（派生出 AI 专用的超时）；WebClient 没有 OkHttp 连接器，流式调用仍使用 JDK HttpClient
+     */
     @Bean
-    public OpenAiApi openAiApi() {
+    public OpenAiApi openAiApi(AiLimitConfig limitConfig, ConcurrencyLimitFilter concurrencyLimitFilter, OkHttpClient okHttpClient) {
+        OkHttpClient aiHttpClient = okHttpClient.newBuilder()
+                .connectTimeout(limitConfig.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(limitConfig.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+        OkHttpClientHttpRequestFactory requestFactory = new OkHttpClientHttpRequestFactory(aiHttpClient);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(limitConfig.getConnectTimeoutMs()))
+                .build();
         return OpenAiApi.builder()
                 .baseUrl(baseUrl)
                 .apiKey(apiKey)
+                .restClientBuilder(RestClient.builder()
+                        .requestFactory(requestFactory)
+                        .requestInterceptor(concurrencyLimitFilter))
+                .webClientBuilder(WebClient.builder()
+                        .clientConnector(new JdkClientHttpConnector(httpClient))
+                        .filter(concurrencyLimitFilter))
                 .build();
     }
 
     @Bean
-    public OpenAiChatModel openAiChatModel(OpenAiApi openAiApi) {
+    public OpenAiChatModel openAiChatModel(OpenAiApi openAiApi, AiLimitConfig limitConfig) {
+        // 默认重试 10 次、退避可达数分钟，服务过载时会把尾延迟放大到不可控
+        RetryTemplate retryTemplate = RetryTemplate.builder()
+                .maxAttempts(limitConfig.getMaxAttempts())
+                .retryOn(TransientAiException.class)
+                .retryOn(ResourceAccessException.class)
+                .exponentialBackoff(Duration.ofMillis(500), 2, Duration.ofSeconds(5))
+                .build();
         return OpenAiChatModel.builder()
                 .openAiApi(openAiApi)
                 .defaultOptions(OpenAiChatOptions.builder()
                         .model(model)
                         .build())
+                .retryTemplate(retryTemplate)
                 .build();
     }
 
     @Bean
     @Primary
-    public ChatClient chatClient(OpenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel).build();
+    public ChatClient chatClient(OpenAiChatModel chatModel, ReplyCacheAdvisor replyCacheAdvisor,
+                                 SingleFlightAdvisor singleFlightAdvisor) {
+        return ChatClient.builder(chatModel)
+                .defaultAdvisors(replyCacheAdvisor, singleFlightAdvisor)
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ai.limit")
+@Data
+public class AiLimitConfig {
+
+    /**
+     * 初始并发上限
+     */
+    private Integer initialLimit = 4;
+
+    /**
+     * 并发上限的下界
+     */
+    private Integer minLimit = 1;
+
+    /**
+     * 并发上限的上界
+     */
+    private Integer maxLimit = 32;
+
+    /**
+     * 超过并发上限时最多排队的请求数，超出立即拒绝
+     */
+    private Integer maxQueued = 32;
+
+    /**
+     * 排队的最长时间，超时的请求被丢弃
+     */
+    private Long queueTimeoutMs = 10000L;
+
+    /**
+     * 收到 429 / 超时或延迟过高时并发上限乘以该系数
+     */
+    private Double backoffRatio = 0.8;
+
+    /**
+     * 延迟超过最小延迟的多少倍视为服务变慢
+     */
+    private Double latencyTolerance = 3.0;
+
+    /**
+     * 同步调用隔离线程数，AI 调用只占用这些线程而不占用 Web 线程
+     */
+    private Integer bulkheadThreads = 8;
+
+    /**
+     * 隔离线程池的排队数
+     */
+    private Integer bulkheadQueue = 16;
+
+    /**
+     * 建立连接超时
+     */
+    private Long connectTimeoutMs = 5000L;
+
+    /**
+     * 同步调用读取响应超时
+     */
+    private Long readTimeoutMs = 120000L;
+
+    /**
+     * 同步调用遇到 429 / 5xx 时的最多尝试次数（含首次）
+     */
+    private Integer maxAttempts = 2;
+}
@@ -0,0 +1,41 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ai.reply-cache")
+@Data
+public class AiReplyCacheConfig {
+
+    /**
+     * 是否启用回复缓存
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 最多缓存的回复数
+     */
+    private Integer maxEntries = 1000;
+
+    /**
+     * 回复写入后的有效期
+     */
+    private Long ttlMinutes = 1440L;
+
+    /**
+     * 是否启用语义相似度匹配（需要可用的向量模型）
+     */
+    private Boolean semanticEnabled = false;
+
+    /**
+     * 语义命中的最小余弦相似度
+     */
+    private Double similarityThreshold = 0.92;
+
+    /**
+     * 持久化文件，为空时不落盘
+     */
+    private String file = "data/ai/reply-cache.json";
+}
@@ -0,0 +1,21 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ai.single-flight")
+@Data
+public class AiSingleFlightConfig {
+
+    /**
+     * 是否合并并发的相同提问
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 同步调用：等待合并结果的最长时间；流式调用：首个片段及相邻片段之间的最长间隔
+     */
+    private Long timeoutMs = 60000L;
+}
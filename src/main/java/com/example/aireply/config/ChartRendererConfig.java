@@ -0,0 +1,30 @@
+package com.example.aireply.config;
+
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
+import com.example.aireply.component.metrics.visualizer.MetricsChartType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "report.chart-renderer")
+@Data
+public class ChartRendererConfig {
+
+    /**
+     * 未单独配置的图表使用的渲染实现
+     */
+    private ChartRenderer defaultRenderer = ChartRenderer.XCHART;
+
+    /**
+     * 按图表类型指定渲染实现
+     */
+    private Map<MetricsChartType, ChartRenderer> types = new EnumMap<>(MetricsChartType.class);
+
+    public ChartRenderer rendererOf(MetricsChartType type) {
+        return types.getOrDefault(type, defaultRenderer);
+    }
+}
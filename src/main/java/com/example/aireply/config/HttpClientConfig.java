@@ -0,0 +1,52 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+@Data
+public class HttpClientConfig {
+
+    /**
+     * 连接池最多保留的空闲连接数
+     */
+    private Integer maxIdleConnections = 16;
+
+    /**
+     * 空闲连接保留时间
+     */
+    private Long keepAliveMs = 300000L;
+
+    /**
+     * 同时执行的异步请求总数上限
+     */
+    private Integer maxRequests = 64;
+
+    /**
+     * 同一主机同时执行的异步请求数上限
+     */
+    private Integer maxRequestsPerHost = 16;
+
+    /**
+     * 是否协商 HTTP/2（TLS ALPN），同一主机的并发请求复用一条连接
+     */
+    private Boolean http2 = true;
+
+    private Long connectTimeoutMs = 5000L;
+
+    private Long readTimeoutMs = 30000L;
+
+    private Long writeTimeoutMs = 30000L;
+
+    /**
+     * GET 响应的磁盘缓存目录（按响应头的缓存策略）
+     */
+    private String cacheDir = "data/http-cache";
+
+    /**
+     * 磁盘缓存上限，0 表示不缓存
+     */
+    private Integer cacheMaxMb = 50;
+}
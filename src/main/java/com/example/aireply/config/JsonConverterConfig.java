@@ -0,0 +1,34 @@
+package com.example.aireply.config;
+
+import com.example.aireply.common.model.dto.IdBatchDTO;
+import com.example.aireply.common.model.dto.IdDTO;
+import com.example.aireply.common.model.dto.PageDTO;
+import com.example.aireply.common.model.vo.PageVO;
+import com.example.aireply.common.web.Fastjson2HttpMessageConverter;
+import com.example.aireply.common.web.ResponseEntity;
+import com.example.aireply.component.ai.model.ReplyCacheStats;
+import com.example.aireply.component.http.model.HostMetrics;
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.model.dto.AiReplyDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 开启 http.json.fastjson2 后由 fastjson2 替代 Jackson 处理接口的 JSON 读写
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.json.fastjson2", havingValue = "true")
+public class JsonConverterConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 排在 Jackson 之前，字符串、字节等类型仍由原有转换器处理
+        converters.add(0, new Fastjson2HttpMessageConverter(
+                ResponseEntity.class, PageVO.class, PageDTO.class, IdDTO.class, IdBatchDTO.class,
+                AiReplyDTO.class, TymeTable.Day.class, ReplyCacheStats.class, HostMetrics.class));
+    }
+}
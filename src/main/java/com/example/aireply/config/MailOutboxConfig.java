@@ -0,0 +1,51 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "mail.outbox")
+@Data
+public class MailOutboxConfig {
+
+    /**
+     * 是否启用异步发件箱，关闭时在调用线程同步发送
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 待发送邮件（.eml）的存放目录
+     */
+    private String dir = "data/outbox";
+
+    /**
+     * 最多积压的邮件数，超出时丢弃最早的邮件
+     */
+    private Integer capacity = 500;
+
+    /**
+     * 单次连接连续发送的最大邮件数
+     */
+    private Integer batchSize = 20;
+
+    /**
+     * 单封邮件的最大发送次数，连接正常但仍连续失败达到该次数后移入失败目录（连接失败不计入）
+     */
+    private Integer maxAttempts = 5;
+
+    /**
+     * 发送失败后的首次重试间隔，之后按指数退避
+     */
+    private Long initialBackoffMs = 5000L;
+
+    /**
+     * 重试间隔上限
+     */
+    private Long maxBackoffMs = 600000L;
+
+    /**
+     * 空闲多久后关闭 SMTP 连接
+     */
+    private Long idleCloseMs = 30000L;
+}
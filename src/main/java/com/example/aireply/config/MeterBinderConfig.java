@@ -0,0 +1,148 @@
+package com.example.aireply.config;
+
+import com.example.aireply.component.ai.AdaptiveConcurrencyLimiter;
+import com.example.aireply.component.ai.ReplyCache;
+import com.example.aireply.component.ai.SingleFlightAdvisor;
+import com.example.aireply.component.http.HttpClientMetrics;
+import com.example.aireply.component.http.model.HostMetrics;
+import com.example.aireply.component.metrics.MetricsBroadcaster;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizerFactory;
+import com.example.aireply.component.notification.MailOutbox;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将各组件已有的状态注册为 Gauge / FunctionCounter
+ * 数值在抓取时才从组件读取，组件本身不感知 Micrometer，也不产生额外开销
+ */
+@Configuration
+public class MeterBinderConfig {
+
+    @Bean
+    public MeterBinder metricsHistoryMeters(MetricsRepository repository) {
+        return registry -> {
+            Gauge.builder("metrics.history.size", repository, MetricsRepository::size)
+                    .description("内存历史缓冲区中的样本数")
+                    .register(registry);
+            Gauge.builder("metrics.history.fill", repository, r -> (double) r.size() / r.capacity())
+                    .description("内存历史缓冲区填充率")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricsStreamMeters(MetricsBroadcaster broadcaster) {
+        return registry -> {
+            Gauge.builder("metrics.stream.subscribers", broadcaster, MetricsBroadcaster::subscriberCount)
+                    .description("实时指标推送的在线订阅者数")
+                    .register(registry);
+            FunctionCounter.builder("metrics.stream.dropped", broadcaster, MetricsBroadcaster::droppedCount)
+                    .description("因客户端过慢被丢弃的推送帧数")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder mailOutboxMeters(MailOutbox mailOutbox) {
+        return registry -> Gauge.builder("mail.outbox.queue", mailOutbox, MailOutbox::size)
+                .description("发件箱中等待发送的邮件数")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder chartCacheMeters(MetricsVisualizerFactory visualizerFactory) {
+        return registry -> {
+            FunctionCounter.builder("report.chart.cache", visualizerFactory, f -> f.getCacheStats().hitCount())
+                    .tag("result", "hit")
+                    .description("图表渲染缓存命中次数")
+                    .register(registry);
+            FunctionCounter.builder("report.chart.cache", visualizerFactory, f -> f.getCacheStats().missCount())
+                    .tag("result", "miss")
+                    .description("图表渲染缓存未命中次数")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 回复缓存的命中与节省情况，命中率由 ai.reply.cache 各 result 计数之比得出
+     */
+    @Bean
+    public MeterBinder replyCacheMeters(ReplyCache replyCache) {
+        return registry -> {
+            FunctionCounter.builder("ai.reply.cache", replyCache, c -> c.stats().exactHits())
+                    .tag("result", "exact")
+                    .register(registry);
+            FunctionCounter.builder("ai.reply.cache", replyCache, c -> c.stats().semanticHits())
+                    .tag("result", "semantic")
+                    .register(registry);
+            FunctionCounter.builder("ai.reply.cache", replyCache, c -> c.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("ai.reply.cache.saved.latency", replyCache, c -> c.stats().savedLatencyMs())
+                    .baseUnit("milliseconds")
+                    .description("缓存命中所节省的模型调用耗时")
+                    .register(registry);
+            FunctionCounter.builder("ai.reply.cache.saved.tokens", replyCache, c -> c.stats().savedTokens())
+                    .baseUnit("tokens")
+                    .description("缓存命中所节省的 token 数")
+                    .register(registry);
+            Gauge.builder("ai.reply.cache.size", replyCache, c -> c.stats().size())
+                    .description("回复缓存当前的条目数")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder aiMeters(AdaptiveConcurrencyLimiter limiter, SingleFlightAdvisor singleFlight) {
+        return registry -> {
+            Gauge.builder("ai.limit.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("模型调用当前的自适应并发上限")
+                    .register(registry);
+            Gauge.builder("ai.limit.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .register(registry);
+            FunctionCounter.builder("ai.limit.rejected", limiter, AdaptiveConcurrencyLimiter::rejectedCount)
+                    .register(registry);
+            FunctionCounter.builder("ai.limit.dropped", limiter, AdaptiveConcurrencyLimiter::droppedCount)
+                    .register(registry);
+            FunctionCounter.builder("ai.single.flight.coalesced", singleFlight, SingleFlightAdvisor::coalescedCount)
+                    .description("与进行中的相同请求合并的次数")
+                    .register(registry);
+            Gauge.builder("ai.single.flight.in.flight", singleFlight, SingleFlightAdvisor::inFlight)
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 出站 HTTP 请求按主机统计，主机首次出现时注册；各阶段耗时为累计毫秒数，除以请求数即为平均值
+     */
+    @Bean
+    public MeterBinder httpClientMeters(HttpClientMetrics httpClientMetrics) {
+        return registry -> httpClientMetrics.onNewHost(host -> {
+            hostCounter(registry, httpClientMetrics, host, "http.client.calls", HostMetrics::calls);
+            hostCounter(registry, httpClientMetrics, host, "http.client.failures", HostMetrics::failures);
+            hostCounter(registry, httpClientMetrics, host, "http.client.connections", HostMetrics::pooledConnections, "type", "pooled");
+            hostCounter(registry, httpClientMetrics, host, "http.client.connections", HostMetrics::newConnections, "type", "new");
+            hostCounter(registry, httpClientMetrics, host, "http.client.cache.hits", HostMetrics::cacheHits);
+            hostCounter(registry, httpClientMetrics, host, "http.client.phase.time", HostMetrics::dnsMs, "phase", "dns");
+            hostCounter(registry, httpClientMetrics, host, "http.client.phase.time", HostMetrics::connectMs, "phase", "connect");
+            hostCounter(registry, httpClientMetrics, host, "http.client.phase.time", HostMetrics::tlsMs, "phase", "tls");
+            hostCounter(registry, httpClientMetrics, host, "http.client.phase.time", HostMetrics::ttfbMs, "phase", "ttfb");
+            hostCounter(registry, httpClientMetrics, host, "http.client.phase.time", HostMetrics::totalMs, "phase", "total");
+        });
+    }
+
+    private static void hostCounter(MeterRegistry registry, HttpClientMetrics metrics, String host, String name,
+                                    ToDoubleFunction<HostMetrics> value, String... tags) {
+        FunctionCounter.builder(name, metrics, m -> value.applyAsDouble(m.host(host)))
+                .tag("host", host)
+                .tags(tags)
+                .register(registry);
+    }
+}
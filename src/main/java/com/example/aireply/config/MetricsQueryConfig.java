@@ -0,0 +1,26 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "metrics.query")
+@Data
+public class MetricsQueryConfig {
+
+    /**
+     * 未指定步长时的默认时间桶步长（毫秒）
+     */
+    private Long defaultStepMs = 60000L;
+
+    /**
+     * 最小步长（毫秒），不应小于采样间隔
+     */
+    private Long minStepMs = 1000L;
+
+    /**
+     * 单次查询最多的时间桶数，流式导出同样受此限制
+     */
+    private Integer maxBuckets = 100000;
+}
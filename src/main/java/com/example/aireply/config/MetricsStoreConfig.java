@@ -0,0 +1,36 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "metrics.store")
+@Data
+public class MetricsStoreConfig {
+
+    /**
+     * 是否启用持久化存储
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 分段文件目录
+     */
+    private String dir = "data/metrics";
+
+    /**
+     * 单个分段的记录容量，默认可容纳每秒一条、一整天的数据
+     */
+    private Integer recordsPerSegment = 86400;
+
+    /**
+     * 保留天数，小于等于 0 表示不清理
+     */
+    private Integer retentionDays = 30;
+
+    /**
+     * 每写入多少条记录刷盘一次
+     */
+    private Integer flushEvery = 60;
+}
@@ -0,0 +1,41 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "metrics.stream")
+@Data
+public class MetricsStreamConfig {
+
+    /**
+     * 同时在线的订阅者上限，超出时拒绝新连接
+     */
+    private Integer maxSubscribers = 256;
+
+    /**
+     * 每个订阅者最多积压的帧数，客户端过慢时丢弃最早的帧
+     */
+    private Integer queueSize = 16;
+
+    /**
+     * 推送线程数，各订阅者的积压帧由这些线程轮流写出
+     */
+    private Integer senderThreads = 4;
+
+    /**
+     * 单帧写出的最长时间（毫秒），超时视为客户端已停止读取，断开连接
+     */
+    private Long writeTimeoutMs = 10000L;
+
+    /**
+     * 心跳间隔（毫秒），防止代理在采集间隔较长时断开空闲连接
+     */
+    private Long heartbeatMs = 15000L;
+
+    /**
+     * 单个连接的最长保持时间（毫秒），到期后由客户端自动重连
+     */
+    private Long timeoutMs = 1800000L;
+}
@@ -0,0 +1,69 @@
+package com.example.aireply.config;
+
+import com.example.aireply.component.http.HttpClientMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全局共享的 OkHttpClient：所有出站 HTTP 调用共用同一个连接池、调度器和磁盘缓存
+ * 需要不同超时的调用方用 newBuilder() 派生，派生的客户端仍共享连接池与调度器
+ */
+@Slf4j
+@Configuration
+public class OkHttpConfig {
+
+    private OkHttpClient client;
+
+    @Bean
+    public OkHttpClient okHttpClient(HttpClientConfig config, HttpClientMetrics metrics) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveMs(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(config.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)
+                .eventListenerFactory(metrics);
+        if (Boolean.TRUE.equals(config.getHttp2())) {
+            builder.protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        } else {
+            builder.protocols(List.of(Protocol.HTTP_1_1));
+        }
+        if (config.getCacheMaxMb() != null && config.getCacheMaxMb() > 0 && StringUtils.isNotBlank(config.getCacheDir())) {
+            builder.cache(new Cache(new File(config.getCacheDir()), config.getCacheMaxMb() * 1024L * 1024L));
+        }
+        client = builder.build();
+        log.info("共享 HTTP 客户端：空闲连接 {}，并发 {}/{} 每主机，HTTP/2 {}，缓存 {}MB",
+                config.getMaxIdleConnections(), config.getMaxRequests(), config.getMaxRequestsPerHost(),
+                config.getHttp2(), config.getCacheMaxMb());
+        return client;
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (client == null) {
+            return;
+        }
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        if (client.cache() != null) {
+            client.cache().close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tyme.cache")
+@Data
+public class TymeCacheConfig {
+
+    /**
+     * 内存中缓存的天数（每天含全部时辰）
+     */
+    private Integer maxDays = 400;
+
+    /**
+     * 是否在启动时加载（或生成）预计算历法表
+     */
+    private Boolean precompute = false;
+
+    /**
+     * 预计算起始年份，为空时取当前年份
+     */
+    private Integer fromYear;
+
+    /**
+     * 预计算结束年份（含），为空时取起始年份的下一年
+     */
+    private Integer toYear;
+
+    /**
+     * 预计算表文件
+     */
+    private String file = "data/tyme/table.json";
+}
@@ -0,0 +1,26 @@
+package com.example.aireply.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tyme.range")
+@Data
+public class TymeRangeConfig {
+
+    /**
+     * 区间计算的并行度，为空时取 CPU 核数
+     */
+    private Integer parallelism;
+
+    /**
+     * 每个计算任务负责的天数
+     */
+    private Integer chunkDays = 16;
+
+    /**
+     * 单次请求允许的最大天数
+     */
+    private Integer maxDays = 3660;
+}
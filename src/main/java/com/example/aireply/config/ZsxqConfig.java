@@ -9,6 +9,16 @@ import org.springframework.context.annotation.Configuration;
 @Data
 public class ZsxqConfig {
 
+    /**
+     * 是否开启星球自动回复
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 接口地址
+     */
+    private String baseUrl = "https://api.zsxq.com";
+
     /**
      * 登录 cookie
      */
@@ -23,4 +33,39 @@ public class ZsxqConfig {
      * 是否提醒提问者
      */
     private Boolean silenced = true;
+
+    /**
+     * 回答时使用的系统提示词，可选
+     */
+    private String system;
+
+    /**
+     * 每页拉取的提问数
+     */
+    private Integer pageSize = 20;
+
+    /**
+     * 单次轮询最多翻页数，首次运行或中断后积压较多时限制单次扫描的深度，未扫描到的部分在后续轮询中继续
+     */
+    private Integer maxPages = 500;
+
+    /**
+     * 同时向模型提问的最大数量
+     */
+    private Integer parallelism = 4;
+
+    /**
+     * 单个提问最多尝试回答的次数，连续失败达到该次数后放弃，游标不再被它阻塞
+     */
+    private Integer maxAttempts = 3;
+
+    /**
+     * 轮询间隔
+     */
+    private Long pollIntervalMs = 60000L;
+
+    /**
+     * 游标与已回答集合的存放目录
+     */
+    private String dir = "data/zsxq";
 }
@@ -0,0 +1,79 @@
+package com.example.aireply.controller;
+
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.common.web.ResponseEntity;
+import com.example.aireply.component.ai.ReplyCache;
+import com.example.aireply.component.ai.model.ReplyCacheStats;
+import com.example.aireply.model.dto.AiReplyDTO;
+import com.example.aireply.service.AiReplyService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AI 回复接口
+ * @author pengYuJun
+ */
+@Slf4j
+@RestController
+@RequestMapping("/ai")
+public class AiReplyController {
+
+    @Resource
+    private AiReplyService aiReplyService;
+
+    @Resource
+    private ReplyCache replyCache;
+
+    /**
+     * 同步回复：异步完成，等待模型期间不占用 Web 线程
+     */
+    @PostMapping("/reply")
+    public CompletableFuture<ResponseEntity<String>> reply(@RequestBody AiReplyDTO dto) {
+        validate(dto);
+        return aiReplyService.reply(dto.getSystem(), dto.getQuestion()).thenApply(content -> ResponseEntity.success(content));
+    }
+
+    /**
+     * 流式回复（SSE）：每个片段一个 message 事件，结束时发送 done 事件，失败时发送 error 事件
+     * 片段逐个写出后才向上游请求下一个，客户端断开时取消上游请求
+     */
+    @PostMapping(value = "/reply/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamReply(@RequestBody AiReplyDTO dto) {
+        validate(dto);
+        return aiReplyService.streamReply(dto.getSystem(), dto.getQuestion())
+                .map(token -> ServerSentEvent.builder(token).event("message").build())
+                .concatWith(Mono.fromSupplier(() -> ServerSentEvent.builder("").event("done").build()))
+                .onErrorResume(e -> {
+                    log.error("AI 流式回复失败", e);
+                    return Mono.just(ServerSentEvent.builder(Objects.toString(e.getMessage(), "")).event("error").build());
+                });
+    }
+
+    /**
+     * 回复缓存命中率、节省的耗时与 token
+     */
+    @GetMapping("/reply/cache/stats")
+    public ResponseEntity<ReplyCacheStats> cacheStats() {
+        return ResponseEntity.success(replyCache.stats());
+    }
+
+    private static void validate(AiReplyDTO dto) {
+        if (dto == null || StringUtils.isBlank(dto.getQuestion())) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "提问内容不能为空");
+        }
+    }
+}
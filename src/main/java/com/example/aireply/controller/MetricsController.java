@@ -0,0 +1,84 @@
+package com.example.aireply.controller;
+
+import com.example.aireply.common.model.vo.PageVO;
+import com.example.aireply.common.web.ResponseEntity;
+import com.example.aireply.common.web.StreamingEnvelope;
+import com.example.aireply.component.metrics.MetricsBroadcaster;
+import com.example.aireply.component.metrics.OpenMetricsExporter;
+import com.example.aireply.model.dto.MetricsQueryDTO;
+import com.example.aireply.model.vo.MetricsBucketVO;
+import com.example.aireply.service.MetricsQueryService;
+import jakarta.annotation.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+
+/**
+ * 系统指标接口
+ */
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    @Resource
+    private OpenMetricsExporter openMetricsExporter;
+
+    @Resource
+    private MetricsBroadcaster metricsBroadcaster;
+
+    @Resource
+    private MetricsQueryService metricsQueryService;
+
+    /**
+     * Prometheus / OpenMetrics 抓取端点，返回最新一条样本
+     */
+    @GetMapping(value = "/scrape", produces = OpenMetricsExporter.CONTENT_TYPE)
+    public byte[] scrape() {
+        return openMetricsExporter.scrape();
+    }
+
+    /**
+     * 实时指标推送（Server-Sent Events），每产生一条新样本推送一个 metrics 事件
+     * 订阅者已达上限时返回 HTTP 429，客户端（如 EventSource）据此退避重连
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public org.springframework.http.ResponseEntity<ResponseBodyEmitter> stream() {
+        ResponseBodyEmitter emitter = metricsBroadcaster.subscribe();
+        if (emitter == null) {
+            return org.springframework.http.ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return org.springframework.http.ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * 历史指标分页查询：按步长聚合为时间桶，每页为若干个桶
+     */
+    @PostMapping("/history")
+    public ResponseEntity<PageVO<MetricsBucketVO>> history(@RequestBody MetricsQueryDTO dto) {
+        return ResponseEntity.success(metricsQueryService.page(dto));
+    }
+
+    /**
+     * 历史指标导出：忽略分页参数，按时间升序输出区间内全部时间桶，响应体与 ResponseEntity 结构一致，边聚合边输出
+     */
+    @PostMapping(value = "/history/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody historyStream(@RequestBody MetricsQueryDTO dto) {
+        MetricsQueryService.MetricsQuery query = metricsQueryService.resolve(dto);
+        return body -> {
+            OutputStream out = new BufferedOutputStream(body);
+            StreamingEnvelope.writeHead(out);
+            metricsQueryService.stream(query, out);
+            StreamingEnvelope.writeTail(out);
+            out.flush();
+        };
+    }
+}
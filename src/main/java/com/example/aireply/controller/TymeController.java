@@ -0,0 +1,79 @@
+package com.example.aireply.controller;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.common.web.StreamingEnvelope;
+import com.example.aireply.component.tyme.TymeRangeGenerator;
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.config.TymeRangeConfig;
+import jakarta.annotation.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 历法查询接口
+ * @author pengYuJun
+ */
+@RestController
+@RequestMapping("/tyme")
+public class TymeController {
+
+    @Resource
+    private TymeRangeGenerator rangeGenerator;
+
+    @Resource
+    private TymeRangeConfig rangeConfig;
+
+    /**
+     * 区间历法：响应体与 ResponseEntity 结构一致，data 为按日期升序的数组，边计算边输出
+     * 在异步线程中写出，不占用 Web 请求线程
+     */
+    @GetMapping(value = "/range", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody range(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(defaultValue = "false") boolean hourly) {
+        if (to.isBefore(from)) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "结束日期不能早于开始日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= rangeConfig.getMaxDays()) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "单次最多查询 " + rangeConfig.getMaxDays() + " 天");
+        }
+        return body -> {
+            OutputStream out = new BufferedOutputStream(body);
+            StreamingEnvelope.writeHead(out);
+            boolean[] first = {true};
+            rangeGenerator.generate(from, to, hourly, days -> {
+                try {
+                    for (TymeTable.Day day : days) {
+                        if (!first[0]) {
+                            out.write(',');
+                        }
+                        first[0] = false;
+                        // 与非流式接口一致，空值（如未请求的 hours）照常输出
+                        out.write(JSON.toJSONBytes(day, JSONWriter.Feature.WriteNulls));
+                    }
+                    // 每块写完即推送给客户端
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            StreamingEnvelope.writeTail(out);
+            out.flush();
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.aireply.model.dto;
+
+import lombok.Data;
+
+/**
+ * AI 回复请求 DTO
+ * @author pengYuJun
+ */
+@Data
+public class AiReplyDTO {
+
+    /**
+     * 提问内容
+     */
+    private String question;
+
+    /**
+     * 系统提示词，可选
+     */
+    private String system;
+}
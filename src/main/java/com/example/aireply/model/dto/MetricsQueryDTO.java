@@ -0,0 +1,35 @@
+package com.example.aireply.model.dto;
+
+import com.example.aireply.common.model.dto.PageDTO;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+/**
+ * 历史指标查询请求，分页以时间桶为单位，按时间排序
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class MetricsQueryDTO extends PageDTO {
+
+    /**
+     * 起始时间（毫秒时间戳，含）
+     */
+    private Long from;
+
+    /**
+     * 结束时间（毫秒时间戳，不含）
+     */
+    private Long to;
+
+    /**
+     * 时间桶步长（毫秒），为空时使用默认步长
+     */
+    private Long stepMs;
+
+    /**
+     * 查询的列，形如 "cpuLoad:avg"、"cpuTempCelsius:p95"，聚合方式可选 avg / min / max / p95，省略时为 avg
+     */
+    private List<String> fields;
+}
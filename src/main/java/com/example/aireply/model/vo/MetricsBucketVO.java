@@ -0,0 +1,31 @@
+package com.example.aireply.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 历史指标查询结果中的一个时间桶
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricsBucketVO {
+
+    /**
+     * 桶起始时间（毫秒时间戳）
+     */
+    private long timestamp;
+
+    /**
+     * 桶内的样本数
+     */
+    private int count;
+
+    /**
+     * 列名（如 cpuLoad:avg）到聚合值，没有有效样本时为 null
+     */
+    private Map<String, Double> values;
+}
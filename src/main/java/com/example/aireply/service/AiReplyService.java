@@ -0,0 +1,79 @@
+package com.example.aireply.service;
+
+import com.example.aireply.component.ai.AiBulkhead;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * AI 回复服务
+ * <p>
+ * 流式回复直接透传模型逐段产出的内容：下游按需请求，消费者取消订阅（客户端断开）时上游请求随之取消，
+ * 用户感知的延迟取决于首个片段到达的时间而非整段回复完成的时间。
+ * 同步回复在隔离线程池中等待模型，不占用 Web 线程。
+ * </p>
+ */
+@Slf4j
+@Service
+public class AiReplyService {
+
+    @Resource
+    private ChatClient chatClient;
+
+    @Resource
+    private AiBulkhead bulkhead;
+
+    /**
+     * 同步回复，模型生成完整内容后完成
+     */
+    public CompletableFuture<String> reply(String system, String question) {
+        return bulkhead.submit(() -> prompt(system, question).call().content());
+    }
+
+    /**
+     * 流式回复，按模型产出的顺序逐段返回
+     */
+    public Flux<String> streamReply(String system, String question) {
+        long start = System.nanoTime();
+        return prompt(system, question).stream().content()
+                .filter(StringUtils::isNotEmpty)
+                .doOnNext(new FirstTokenLogger(start))
+                .doOnCancel(() -> log.info("AI 流式回复被调用方取消，已耗时 {}ms", (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private ChatClient.ChatClientRequestSpec prompt(String system, String question) {
+        ChatClient.ChatClientRequestSpec spec = chatClient.prompt();
+        if (StringUtils.isNotBlank(system)) {
+            spec = spec.system(system);
+        }
+        return spec.user(question);
+    }
+
+    /**
+     * 记录首个片段的到达时间
+     */
+    private static final class FirstTokenLogger implements Consumer<String> {
+
+        private final long start;
+
+        private boolean logged;
+
+        private FirstTokenLogger(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void accept(String token) {
+            if (!logged) {
+                logged = true;
+                log.info("AI 流式回复首个片段耗时 {}ms", (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
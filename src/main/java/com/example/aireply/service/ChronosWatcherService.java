@@ -5,24 +5,49 @@ import com.example.aireply.component.camera.RaspberryPiCameraCollector;
 import com.example.aireply.component.metrics.MetricsRepository;
 import com.example.aireply.component.metrics.SystemMetricsCollector;
 import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.visualizer.ChartBufferPool;
 import com.example.aireply.component.metrics.visualizer.MetricsChartType;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
 import com.example.aireply.component.metrics.visualizer.MetricsVisualizerFactory;
 import com.example.aireply.component.notification.EmailSender;
+import com.example.aireply.component.notification.InlineImage;
+import com.example.aireply.component.report.ReportMetrics;
+import com.example.aireply.component.report.ReportStageTimings;
 import com.example.aireply.component.tyme.TymeCollector;
 import com.example.aireply.component.tyme.model.TymeInfo;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 时空观测服务：规范的业务编排层
+ * <p>
+ * 指标、历法、各图表与摄像头并行采集，每个数据源有独立的截止时间，
+ * 超时或失败的数据源在报表中标记为暂不可用，整体耗时取决于最慢的单个阶段而非各阶段之和。
+ * 图表编码进池化缓冲区、照片保留在临时文件中，发送时流式写入 SMTP 连接，单次报表的堆占用与图片数量和分辨率无关。
+ * </p>
  */
 @Slf4j
 @Service
@@ -34,63 +59,194 @@ public class ChronosWatcherService {
     @Resource private TymeCollector tymeCollector;
     @Resource private RaspberryPiCameraCollector cameraCollector;
     @Resource private HtmlTemplateEngine templateEngine;
+    @Resource private ChartBufferPool chartBufferPool;
+    @Resource private ReportMetrics reportMetrics;
 
     @Value("${mail.manager}")
     private String manageEmail;
 
+    /** 指标与历法采集截止时间 */
+    @Value("${report.deadline.collect-ms:5000}")
+    private long collectDeadlineMs;
+
+    /** 单个图表渲染截止时间 */
+    @Value("${report.deadline.chart-ms:10000}")
+    private long chartDeadlineMs;
+
+    /** 摄像头拍照截止时间（含 1 秒曝光） */
+    @Value("${report.deadline.camera-ms:20000}")
+    private long cameraDeadlineMs;
+
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 报表流水线线程池：采集、历法、摄像头与各图表同时执行
+     */
+    private final ExecutorService pipelineExecutor = Executors.newFixedThreadPool(6, daemonThreadFactory());
+
     public void watch() {
         if (manageEmail == null || manageEmail.isBlank()) {
             return;
         }
 
+        ReportStageTimings timings = new ReportStageTimings();
+        Map<String, InlineImage> images = new LinkedHashMap<>();
+        long reportStart = System.nanoTime();
+        boolean success = false;
         try {
-            // 1. 采集数据
-            SystemMetrics metrics = metricsCollector.collect();
-            TymeInfo tyme = tymeCollector.collect();
+            // 1. 并行发起所有数据源
+            CompletableFuture<SystemMetrics> metricsFuture = stage("metrics", metricsCollector::collect, timings);
+            CompletableFuture<TymeInfo> tymeFuture = stage("tyme", tymeCollector::collect, timings);
+            CompletableFuture<InlineImage> cameraFuture = stage("camera", this::capturePhoto, timings);
+            Map<MetricsChartType, CompletableFuture<InlineImage>> chartFutures = new LinkedHashMap<>();
+            for (MetricsVisualizer visualizer : visualizerFactory.getAllVisualizers()) {
+                chartFutures.put(visualizer.getType(), metricsFuture.thenApplyAsync(
+                        metrics -> timed(visualizer.getType().getCid(), () -> renderChart(visualizer, metrics), timings),
+                        pipelineExecutor));
+            }
 
-            // 2. 采集图表与照片
-            Map<String, byte[]> images = collectImages(metrics);
+            // 2. 按各自截止时间收集结果
+            SystemMetrics metrics = await("metrics", metricsFuture, collectDeadlineMs, timings, null);
+            TymeInfo tyme = await("tyme", tymeFuture, collectDeadlineMs, timings, null);
+            chartFutures.forEach((type, future) -> {
+                InlineImage chart = await(type.getDescription(), future, chartDeadlineMs, timings, InlineImage::close);
+                if (chart != null) {
+                    images.put(type.getCid(), chart);
+                }
+            });
+            InlineImage photo = await(MetricsChartType.RPI_CAMERA.getDescription(), cameraFuture, cameraDeadlineMs, timings, InlineImage::close);
+            if (photo != null) {
+                images.put(MetricsChartType.RPI_CAMERA.getCid(), photo);
+            }
+            // 图片先全部收集，保证失败时也能统一释放
+            if (tyme == null) {
+                throw new IllegalStateException("历法信息采集失败");
+            }
 
             // 3. 构建变量并渲染 HTML
-            Map<String, String> vars = buildVariables(metrics, tyme, images);
-            String html = templateEngine.render("templates/hourly-report.html", vars);
+            Map<String, String> vars = buildVariables(metrics, tyme, images, timings);
+            String html = timed("render", () -> templateEngine.render("templates/hourly-report.html", vars), timings);
 
             // 4. 发送邮件
-            emailSender.sendHtmlMailWithImages("时空守望 · 每小时态势报表", html, images, manageEmail);
-            log.info("Chronos watch report sent successfully.");
+            timed("send", () -> {
+                emailSender.sendHtmlMailWithInlines("时空守望 · 每小时态势报表", html, images.values(), manageEmail);
+                return null;
+            }, timings);
+            success = true;
+            log.info("Chronos watch report sent successfully in {}ms: {}", timings.totalMillis(), timings.summary());
         } catch (Exception e) {
             log.error("Chronos watch failed", e);
             emailSender.sendBugReport(e);
+        } finally {
+            images.values().forEach(InlineImage::close);
+            reportMetrics.recordReport(reportStart, success);
         }
     }
 
-    private Map<String, byte[]> collectImages(SystemMetrics metrics) {
-        Map<String, byte[]> images = new HashMap<>();
-        MetricsVisualizerContext context = MetricsVisualizerContext.builder()
+    @PreDestroy
+    public void destroy() {
+        pipelineExecutor.shutdownNow();
+    }
+
+    private MetricsVisualizerContext context(SystemMetrics metrics) {
+        return MetricsVisualizerContext.builder()
                 .currentMetrics(metrics).repository(metricsRepository).build();
+    }
+
+    /**
+     * 将图表编码进池化缓冲区，缓冲区随 InlineImage 关闭归还
+     */
+    private InlineImage renderChart(MetricsVisualizer visualizer, SystemMetrics metrics) {
+        ChartBufferPool.Buffer buffer = chartBufferPool.acquire();
+        try {
+            if (visualizer.visualize(context(metrics), buffer)) {
+                return InlineImage.of(visualizer.getType().getCid(), buffer.toDataSource(InlineImage.IMAGE_PNG), buffer::release);
+            }
+            buffer.release();
+            return null;
+        } catch (IOException e) {
+            buffer.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    private InlineImage capturePhoto() {
+        Path photo = cameraCollector.capturePhotoFile();
+        return photo != null ? InlineImage.ofTempFile(MetricsChartType.RPI_CAMERA.getCid(), photo, InlineImage.IMAGE_JPEG) : null;
+    }
 
-        visualizerFactory.getAllVisualizers().forEach(v -> {
-            byte[] data = v.visualize(context);
-            if (data != null) {
-                images.put(v.getType().getCid(), data);
+    private <T> CompletableFuture<T> stage(String name, Supplier<T> supplier, ReportStageTimings timings) {
+        Stage<T> stage = new Stage<>();
+        stage.task = pipelineExecutor.submit(() -> {
+            try {
+                stage.complete(timed(name, supplier, timings));
+            } catch (Throwable e) {
+                stage.completeExceptionally(e);
             }
         });
+        return stage;
+    }
 
-        if (cameraCollector.isCameraAvailable()) {
-            byte[] photo = cameraCollector.capturePhoto();
-            if (photo != null) {
-                images.put(MetricsChartType.RPI_CAMERA.getCid(), photo);
+    private <T> T timed(String name, Supplier<T> supplier, ReportStageTimings timings) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = supplier.get();
+            success = true;
+            return result;
+        } finally {
+            timings.record(name, start);
+            reportMetrics.recordStage(name, start, success);
+        }
+    }
+
+    /**
+     * 等待某个数据源完成，超时或失败时标记为不可用并返回 null
+     * 截止时间从报表开始计算，各数据源并行等待，互不累加；超时的独立阶段会被中断，不再占用流水线线程
+     * @param lateResultHandler 超时后仍然产出的结果交由其释放（归还缓冲区、删除临时文件），为 null 时直接取消
+     */
+    private <T> T await(String source, CompletableFuture<T> future, long deadlineMs, ReportStageTimings timings,
+                        Consumer<? super T> lateResultHandler) {
+        long remaining = deadlineMs - timings.totalMillis();
+        try {
+            return future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("报表数据源 [{}] 超过 {}ms 未完成，本次跳过", source, deadlineMs);
+            if (lateResultHandler != null) {
+                future.thenAccept(result -> {
+                    if (result != null) {
+                        lateResultHandler.accept(result);
+                    }
+                });
+            } else {
+                future.cancel(true);
             }
+            if (future instanceof Stage<?> stage) {
+                stage.interrupt();
+            }
+            markUnavailable(source, timings);
+        } catch (ExecutionException e) {
+            log.warn("报表数据源 [{}] 执行失败", source, e.getCause());
+            markUnavailable(source, timings);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markUnavailable(source, timings);
         }
-        return images;
+        return null;
     }
 
-    private Map<String, String> buildVariables(SystemMetrics metrics, TymeInfo tyme, Map<String, byte[]> images) {
+    private void markUnavailable(String source, ReportStageTimings timings) {
+        timings.markUnavailable(source);
+        reportMetrics.recordUnavailable(source);
+    }
+
+    private Map<String, String> buildVariables(SystemMetrics metrics, TymeInfo tyme, Map<String, InlineImage> images, ReportStageTimings timings) {
         Map<String, String> vars = new HashMap<>();
         vars.put("time", LocalDateTime.now().format(FORMATTER));
-        vars.put("systemStatus", metrics.formatForMail());
+        vars.put("systemStatus", metrics != null ? metrics.formatForMail() : "系统指标采集失败");
 
         // 历法相关
         vars.put("lunarDate", tyme.getLunarYear() + tyme.getLunarMonth() + tyme.getLunarDay());
@@ -126,6 +282,30 @@ public class ChronosWatcherService {
         vars.put("hasCpuLoadTrend", String.valueOf(images.containsKey(MetricsChartType.CPU_LOAD_TREND.getCid())));
         vars.put("hasCpuTempTrend", String.valueOf(images.containsKey(MetricsChartType.CPU_TEMP_TREND.getCid())));
 
+        // 超时 / 失败的数据源占位
+        vars.put("hasUnavailable", String.valueOf(!timings.getUnavailable().isEmpty()));
+        vars.put("unavailableSources", String.join("、", timings.getUnavailable()));
+        vars.put("stageTimings", timings.summary());
+
         return vars;
     }
-}
\ No newline at end of file
+
+    /**
+     * 流水线中的独立阶段
+     * CompletableFuture 的 cancel 不会中断正在执行的任务，因此保留线程池返回的 Future，超时后据此中断
+     */
+    private static final class Stage<T> extends CompletableFuture<T> {
+
+        private Future<?> task;
+
+        void interrupt() {
+            task.cancel(true);
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("report-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
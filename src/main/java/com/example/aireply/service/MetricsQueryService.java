@@ -0,0 +1,160 @@
+package com.example.aireply.service;
+
+import com.example.aireply.common.enums.SortOrderEnum;
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.model.vo.PageVO;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.query.MetricColumn;
+import com.example.aireply.component.metrics.query.MetricsBucketAggregator;
+import com.example.aireply.config.MetricsQueryConfig;
+import com.example.aireply.model.dto.MetricsQueryDTO;
+import com.example.aireply.model.vo.MetricsBucketVO;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 历史指标查询：按时间桶聚合，支持分页与流式导出
+ * <p>
+ * 分页以桶为单位，只遍历当前页覆盖的时间区间；桶的位置由 from + n * step 直接算出，翻页开销与页码无关。
+ * </p>
+ */
+@Service
+public class MetricsQueryService {
+
+    @Resource
+    private MetricsRepository repository;
+
+    @Resource
+    private MetricsQueryConfig config;
+
+    /**
+     * 校验请求并解析为查询参数，流式导出应在开始写出响应前调用，以便参数错误按常规错误响应返回
+     */
+    public MetricsQuery resolve(MetricsQueryDTO dto) {
+        if (dto.getFrom() == null || dto.getTo() == null) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "起止时间不能为空");
+        }
+        // 时间戳为非负数时 to - from 不会溢出，桶数与总数不会变成负数
+        if (dto.getFrom() < 0 || dto.getTo() < 0) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "起止时间不能为负数");
+        }
+        if (dto.getTo() <= dto.getFrom()) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "结束时间必须晚于开始时间");
+        }
+        long step = dto.getStepMs() != null ? dto.getStepMs() : config.getDefaultStepMs();
+        if (step < config.getMinStepMs()) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "步长不能小于 " + config.getMinStepMs() + "ms");
+        }
+        if (dto.getFields() == null || dto.getFields().isEmpty()) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "查询列不能为空");
+        }
+        MetricColumn[] columns = new MetricColumn[dto.getFields().size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = MetricColumn.parse(dto.getFields().get(i));
+            if (columns[i] == null) {
+                throw new BusinessException(ResponseCode.PARAMS_ERROR, "无法识别的查询列: " + dto.getFields().get(i));
+            }
+        }
+        long range = dto.getTo() - dto.getFrom();
+        long buckets = range / step + (range % step == 0 ? 0 : 1);
+        if (buckets > config.getMaxBuckets()) {
+            throw new BusinessException(ResponseCode.PARAMS_ERROR, "单次查询最多 " + config.getMaxBuckets() + " 个时间桶，请增大步长或缩短区间");
+        }
+        return new MetricsQuery(dto.getFrom(), dto.getTo(), step, buckets, columns);
+    }
+
+    /**
+     * 分页查询，按 sortOrder 决定时间升序或降序
+     */
+    public PageVO<MetricsBucketVO> page(MetricsQueryDTO dto) {
+        MetricsQuery query = resolve(dto);
+        long total = query.buckets();
+        long offset = dto.offset();
+        if (offset >= total) {
+            return new PageVO<>(List.of(), total);
+        }
+        int count = (int) Math.min(dto.getPageSize(), total - offset);
+        boolean descending = dto.getSortOrder() == SortOrderEnum.DESC;
+        long first = descending ? total - offset - count : offset;
+
+        MetricColumn[] columns = query.columns();
+        List<MetricsBucketVO> records = new ArrayList<>(count);
+        aggregate(query, first, count, (timestamp, samples, results) -> {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (int c = 0; c < columns.length; c++) {
+                values.put(columns[c].key(), Double.isNaN(results[c]) ? null : results[c]);
+            }
+            records.add(new MetricsBucketVO(timestamp, samples, values));
+        });
+        if (descending) {
+            Collections.reverse(records);
+        }
+        return new PageVO<>(records, total);
+    }
+
+    /**
+     * 按时间升序流式写出全部时间桶，格式为 MetricsBucketVO 的 JSON 数组元素（以逗号分隔，不含方括号）
+     * 每个桶关闭时立即编码写出，不在内存中保留结果
+     */
+    public void stream(MetricsQuery query, OutputStream out) {
+        MetricColumn[] columns = query.columns();
+        String[] prefixes = new String[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            prefixes[c] = (c == 0 ? "" : ",") + "\"" + columns[c].key() + "\":";
+        }
+        StringBuilder sb = new StringBuilder(256);
+        boolean[] first = {true};
+        aggregate(query, 0, query.buckets(), (timestamp, samples, results) -> {
+            sb.setLength(0);
+            if (!first[0]) {
+                sb.append(',');
+            }
+            first[0] = false;
+            sb.append("{\"timestamp\":").append(timestamp).append(",\"count\":").append(samples).append(",\"values\":{");
+            for (int c = 0; c < columns.length; c++) {
+                sb.append(prefixes[c]);
+                if (Double.isNaN(results[c])) {
+                    sb.append("null");
+                } else {
+                    sb.append(results[c]);
+                }
+            }
+            sb.append("}}");
+            try {
+                out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 聚合第 firstBucket 个桶起的 count 个桶，只遍历这些桶覆盖的时间区间
+     */
+    private void aggregate(MetricsQuery query, long firstBucket, long count, MetricsBucketAggregator.BucketSink sink) {
+        long from = query.from() + firstBucket * query.step();
+        // 先比较跨度再相加，区间末尾接近 Long.MAX_VALUE 时不会溢出
+        long to = count * query.step() >= query.to() - from ? query.to() : from + count * query.step();
+        MetricsBucketAggregator aggregator = new MetricsBucketAggregator(from, query.step(), count, query.columns(), sink);
+        repository.scan(from, to, aggregator);
+        aggregator.finish();
+    }
+
+    /**
+     * 校验后的查询参数
+     * @param buckets 区间内的时间桶总数，最后一个桶可能不足一个步长
+     */
+    public record MetricsQuery(long from, long to, long step, long buckets, MetricColumn[] columns) {
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.aireply.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.aireply.component.zsxq.TopicIdSet;
+import com.example.aireply.component.zsxq.ZsxqClient;
+import com.example.aireply.component.zsxq.model.ZsxqCursor;
+import com.example.aireply.component.zsxq.model.ZsxqTopic;
+import com.example.aireply.component.zsxq.model.ZsxqTopicPage;
+import com.example.aireply.config.ZsxqConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 知识星球自动回复
+ * <p>
+ * 每次轮询从最新的待回答提问向前翻页，遇到游标（上次已全部处理完的最新提问）即停止，积压再多也不会重复扫描；
+ * 首页带上次的 ETag / Last-Modified 发条件请求，没有新提问时只有一次 304 往返。
+ * 新提问按创建时间从旧到新分批处理：每批并行向模型提问（并行度有上限），再依次提交回答。
+ * 已回答的 id 记入磁盘集合，游标只越过全部成功的前缀，失败的提问在下次轮询时重试而不会重复回答；
+ * 连续失败达到上限的提问被放弃，游标随之越过，不会被个别提问永久卡住。
+ * 积压超过单次翻页上限时游标不动，记下本次翻到的位置，下次轮询从该处继续向前翻页，直到与游标衔接。
+ * </p>
+ */
+@Slf4j
+@Service
+public class ZsxqReplyService {
+
+    private static final String CURSOR_FILE = "cursor.json";
+
+    private static final String ANSWERED_FILE = "answered.ids";
+
+    @Resource
+    private ZsxqConfig config;
+
+    @Resource
+    private ZsxqClient zsxqClient;
+
+    @Resource
+    private ChatClient chatClient;
+
+    private ExecutorService executor;
+
+    private TopicIdSet answered;
+
+    private ZsxqCursor cursor;
+
+    private Path dir;
+
+    /** 各提问连续失败的次数，只在 poll 中访问 */
+    private final Map<Long, Integer> attempts = new HashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        dir = Paths.get(config.getDir());
+        answered = new TopicIdSet(dir.resolve(ANSWERED_FILE));
+        Path cursorFile = dir.resolve(CURSOR_FILE);
+        cursor = Files.exists(cursorFile) ? JSON.parseObject(Files.readAllBytes(cursorFile), ZsxqCursor.class) : ZsxqCursor.EMPTY;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("zsxq-");
+        threadFactory.setDaemon(true);
+        executor = Executors.newFixedThreadPool(config.getParallelism(), threadFactory);
+        log.info("星球自动回复已启用：已回答 {} 条，游标 {}", answered.size(), cursor.createTime());
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (answered != null) {
+            answered.close();
+        }
+    }
+
+    /**
+     * 轮询一次，返回本次回答的提问数；不允许并发调用
+     */
+    public synchronized int poll() throws IOException {
+        if (answered == null) {
+            return 0;
+        }
+        PendingTopics pending = fetchPending();
+        if (pending == null) {
+            return 0;
+        }
+        int answeredCount = 0;
+        boolean allSucceeded = true;
+        String newCursor = cursor.createTime();
+        List<ZsxqTopic> topics = pending.topics();
+        for (int from = 0; from < topics.size(); from += config.getPageSize()) {
+            List<ZsxqTopic> batch = topics.subList(from, Math.min(topics.size(), from + config.getPageSize()));
+            BatchResult result = processBatch(batch);
+            answeredCount += result.answered();
+            if (result.settled() < batch.size()) {
+                allSucceeded = false;
+            }
+            // 扫描未到达游标时，已取到的提问与游标之间还有空缺，游标不能越过
+            if (allSucceeded && pending.resumeEndTime() == null) {
+                newCursor = batch.get(batch.size() - 1).createTime();
+                saveCursor(new ZsxqCursor(newCursor, cursor.etag(), cursor.lastModified(),
+                        cursor.resumeEndTime(), cursor.scanTop()));
+            }
+        }
+        if (pending.resumeEndTime() != null) {
+            log.warn("星球待回答提问超过 {} 页，{} 至 {} 之间的提问留待后续轮询",
+                    config.getMaxPages(), cursor.createTime(), pending.resumeEndTime());
+            // 游标不动，下次从本次最早一页继续向前翻页；有失败时从原位置重新翻页，失败的提问下次重试
+            String resume = allSucceeded ? pending.resumeEndTime() : cursor.resumeEndTime();
+            saveCursor(new ZsxqCursor(cursor.createTime(), null, null, resume,
+                    resume != null ? pending.newestCreateTime() : null));
+        } else {
+            // 其他人回答掉的提问会离开列表，首页最新的提问可能早于游标，游标只前进不后退
+            if (allSucceeded && isAfter(pending.newestCreateTime(), newCursor)) {
+                newCursor = pending.newestCreateTime();
+            }
+            // 有失败时不保存条件请求头，下次轮询必须重新拉取首页
+            saveCursor(allSucceeded
+                    ? new ZsxqCursor(newCursor, pending.etag(), pending.lastModified(), null, null)
+                    : new ZsxqCursor(newCursor, null, null, null, null));
+        }
+        if (answeredCount > 0 || !allSucceeded) {
+            log.info("星球自动回复：新提问 {} 条，回答 {} 条", topics.size(), answeredCount);
+        }
+        return answeredCount;
+    }
+
+    /**
+     * 从最新（或上次未完成扫描的位置）开始向前翻页直到游标，返回按创建时间升序的未回答提问；没有变化时返回 null
+     */
+    private PendingTopics fetchPending() throws IOException {
+        OffsetDateTime stopAt = cursor.createTime() != null
+                ? OffsetDateTime.parse(cursor.createTime(), ZsxqClient.TIME_FORMATTER) : null;
+        boolean resuming = cursor.resumeEndTime() != null;
+        List<ZsxqTopic> topics = new ArrayList<>();
+        String endTime = cursor.resumeEndTime();
+        String etag = null;
+        String lastModified = null;
+        String newest = resuming ? cursor.scanTop() : null;
+        boolean truncated = true;
+        for (int page = 0; page < config.getMaxPages(); page++) {
+            ZsxqTopicPage result = page == 0 && !resuming
+                    ? zsxqClient.fetchUnanswered(null, cursor.etag(), cursor.lastModified())
+                    : zsxqClient.fetchUnanswered(endTime, null, null);
+            if (result.notModified()) {
+                return null;
+            }
+            if (page == 0 && !resuming) {
+                etag = result.etag();
+                lastModified = result.lastModified();
+                newest = result.topics().isEmpty() ? null : result.topics().get(0).createTime();
+            }
+            boolean reachedCursor = false;
+            for (ZsxqTopic topic : result.topics()) {
+                if (stopAt != null && !topic.createdAt().isAfter(stopAt)) {
+                    reachedCursor = true;
+                    break;
+                }
+                if (!answered.contains(topic.topicId())) {
+                    topics.add(topic);
+                }
+            }
+            if (reachedCursor || result.topics().size() < config.getPageSize()) {
+                truncated = false;
+                break;
+            }
+            endTime = result.topics().get(result.topics().size() - 1).createTime();
+        }
+        Collections.reverse(topics);
+        return new PendingTopics(dedupe(topics), newest, etag, lastModified, truncated ? endTime : null);
+    }
+
+    /**
+     * 翻页边界上的提问可能在相邻两页中各出现一次
+     */
+    private static List<ZsxqTopic> dedupe(List<ZsxqTopic> topics) {
+        List<ZsxqTopic> result = new ArrayList<>(topics.size());
+        Set<Long> seen = new HashSet<>();
+        for (ZsxqTopic topic : topics) {
+            if (seen.add(topic.topicId())) {
+                result.add(topic);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并行生成一批回答并依次提交
+     */
+    private BatchResult processBatch(List<ZsxqTopic> batch) throws IOException {
+        List<CompletableFuture<String>> replies = new ArrayList<>(batch.size());
+        for (ZsxqTopic topic : batch) {
+            replies.add(CompletableFuture.supplyAsync(() -> reply(topic), executor));
+        }
+        int succeeded = 0;
+        int abandoned = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            ZsxqTopic topic = batch.get(i);
+            try {
+                String text = replies.get(i).join();
+                if (StringUtils.isBlank(text)) {
+                    log.warn("星球提问 {} 的回答为空，跳过", topic.topicId());
+                    abandoned += giveUp(topic) ? 1 : 0;
+                    continue;
+                }
+                zsxqClient.answer(topic.topicId(), text);
+                answered.add(topic.topicId());
+                attempts.remove(topic.topicId());
+                succeeded++;
+            } catch (Exception e) {
+                log.warn("星球提问 {} 回答失败", topic.topicId(), e);
+                abandoned += giveUp(topic) ? 1 : 0;
+            }
+        }
+        answered.flush();
+        return new BatchResult(succeeded, succeeded + abandoned);
+    }
+
+    /**
+     * 记录一次失败，达到最大尝试次数时放弃该提问
+     */
+    private boolean giveUp(ZsxqTopic topic) {
+        int failures = attempts.merge(topic.topicId(), 1, Integer::sum);
+        if (failures < config.getMaxAttempts()) {
+            return false;
+        }
+        attempts.remove(topic.topicId());
+        log.error("星球提问 {} 已连续失败 {} 次，放弃回答", topic.topicId(), failures);
+        return true;
+    }
+
+    private String reply(ZsxqTopic topic) {
+        ChatClient.ChatClientRequestSpec spec = chatClient.prompt();
+        if (StringUtils.isNotBlank(config.getSystem())) {
+            spec = spec.system(config.getSystem());
+        }
+        return spec.user(StringUtils.defaultString(topic.question())).call().content();
+    }
+
+    private static boolean isAfter(String createTime, String other) {
+        if (createTime == null) {
+            return false;
+        }
+        return other == null || OffsetDateTime.parse(createTime, ZsxqClient.TIME_FORMATTER)
+                .isAfter(OffsetDateTime.parse(other, ZsxqClient.TIME_FORMATTER));
+    }
+
+    private void saveCursor(ZsxqCursor next) throws IOException {
+        cursor = next;
+        Path tmp = dir.resolve(CURSOR_FILE + ".tmp");
+        Files.write(tmp, JSON.toJSONBytes(next));
+        Files.move(tmp, dir.resolve(CURSOR_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param answered 成功回答的提问数
+     * @param settled  已有结果（回答成功或已放弃）的提问数，游标只越过全部有结果的批次
+     */
+    private record BatchResult(int answered, int settled) {
+    }
+
+    /**
+     * @param topics           按创建时间升序、尚未回答的提问
+     * @param newestCreateTime 本轮扫描覆盖的最新提问的创建时间（继续未完成的扫描时沿用其 scanTop）
+     * @param resumeEndTime    翻页达到上限仍未到达游标时，为最后一页最早提问的创建时间；否则为 null
+     */
+    private record PendingTopics(List<ZsxqTopic> topics, String newestCreateTime, String etag, String lastModified,
+                                 String resumeEndTime) {
+    }
+}
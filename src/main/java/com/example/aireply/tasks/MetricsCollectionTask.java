@@ -1,15 +1,21 @@
 package com.example.aireply.tasks;
 
+import com.example.aireply.component.metrics.MetricsBroadcaster;
 import com.example.aireply.component.metrics.model.SystemMetrics;
 import com.example.aireply.component.metrics.SystemMetricsCollector;
 import com.example.aireply.component.metrics.MetricsRepository;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * 定时采集任务，开启高频采样（metrics.sampling.enabled）时由 {@link MetricsSamplingTask} 替代
+ */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "metrics.sampling.enabled", havingValue = "false", matchIfMissing = true)
 public class MetricsCollectionTask {
 
     @Resource
@@ -18,6 +24,9 @@ public class MetricsCollectionTask {
     @Resource
     private MetricsRepository repository;
 
+    @Resource
+    private MetricsBroadcaster broadcaster;
+
     /**
      * 每 5 分钟自动采集一次系统指标并存入本地缓存
      */
@@ -27,6 +36,7 @@ public class MetricsCollectionTask {
             SystemMetrics metrics = collector.collect();
             if (metrics != null) {
                 repository.save(metrics);
+                broadcaster.publishLatest();
                 log.debug("成功采集并保存系统指标");
             }
         } catch (Exception e) {
@@ -0,0 +1,47 @@
+package com.example.aireply.tasks;
+
+import com.example.aireply.component.metrics.MetricsBroadcaster;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.SystemMetricsCollector;
+import com.example.aireply.component.metrics.store.MetricField;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 高频采样任务
+ * 开启 metrics.sampling.enabled 后替代 {@link MetricsCollectionTask}，按固定频率采集并直接写入历史仓库，
+ * 用于捕捉 5 分钟定时采集无法发现的短时 CPU / 温度尖峰
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "metrics.sampling.enabled", havingValue = "true")
+public class MetricsSamplingTask {
+
+    @Resource
+    private SystemMetricsCollector collector;
+
+    @Resource
+    private MetricsRepository repository;
+
+    @Resource
+    private MetricsBroadcaster broadcaster;
+
+    /**
+     * 采样缓冲区，固定频率任务不会并发执行，可安全复用
+     */
+    private final double[] values = new double[MetricField.count()];
+
+    @Scheduled(fixedRateString = "${metrics.sampling.interval-ms:1000}")
+    public void sample() {
+        try {
+            long timestamp = collector.sample(values);
+            repository.append(timestamp, values);
+            broadcaster.publishLatest();
+        } catch (Exception e) {
+            log.error("高频采样失败", e);
+        }
+    }
+}
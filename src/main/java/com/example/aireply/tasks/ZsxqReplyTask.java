@@ -0,0 +1,29 @@
+package com.example.aireply.tasks;
+
+import com.example.aireply.service.ZsxqReplyService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 知识星球自动回复任务，开启 zsxq.enabled 后按固定间隔轮询
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "zsxq.enabled", havingValue = "true")
+public class ZsxqReplyTask {
+
+    @Resource
+    private ZsxqReplyService zsxqReplyService;
+
+    @Scheduled(fixedDelayString = "${zsxq.poll-interval-ms:60000}")
+    public void poll() {
+        try {
+            zsxqReplyService.poll();
+        } catch (Exception e) {
+            log.error("星球自动回复轮询失败", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.aireply.common.web;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONObject;
+import com.example.aireply.common.model.vo.PageVO;
+import com.example.aireply.model.dto.AiReplyDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * fastjson2 消息转换器测试
+ */
+class Fastjson2HttpMessageConverterTests {
+
+    private final Fastjson2HttpMessageConverter converter = new Fastjson2HttpMessageConverter(ResponseEntity.class, PageVO.class);
+
+    @Test
+    void writesTheSameFieldsAsJackson() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(ResponseEntity.page(List.of("a", "b"), 2), MediaType.APPLICATION_JSON, output);
+
+        JSONObject json = JSON.parseObject(output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(0, json.getIntValue("code"));
+        assertEquals("操作成功", json.getString("message"));
+        assertTrue(json.getBooleanValue("success"));
+        assertEquals(2, json.getJSONObject("data").getLongValue("total"));
+        assertEquals(List.of("a", "b"), json.getJSONObject("data").getJSONArray("records").toJavaList(String.class));
+
+        MockHttpOutputMessage empty = new MockHttpOutputMessage();
+        converter.write(ResponseEntity.success(), MediaType.APPLICATION_JSON, empty);
+        // 与 Jackson 一致，空值照常输出
+        assertTrue(empty.getBodyAsString(StandardCharsets.UTF_8).contains("\"data\":null"));
+    }
+
+    @Test
+    void readsRequestBodies() throws IOException {
+        MockHttpInputMessage input = new MockHttpInputMessage("{\"question\":\"今天宜什么\"}".getBytes(StandardCharsets.UTF_8));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        AiReplyDTO dto = (AiReplyDTO) converter.read(AiReplyDTO.class, null, input);
+        assertEquals("今天宜什么", dto.getQuestion());
+    }
+
+    @Test
+    void writesJsonbWhenRequested() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(ResponseEntity.success("ok"), Fastjson2HttpMessageConverter.APPLICATION_JSONB, output);
+        JSONObject json = JSONB.parseObject(output.getBodyAsBytes());
+        assertEquals("ok", json.getString("data"));
+    }
+
+    @Test
+    void leavesStringsToTheStringConverter() {
+        assertFalse(converter.canWrite(String.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(byte[].class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(ResponseEntity.class, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.web.ResponseCode;
+import com.example.aireply.config.AiLimitConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自适应并发限制测试：本地桩服务按路径返回 429 或延迟响应
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    private HttpServer server;
+
+    private AiLimitConfig config;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/busy", exchange -> {
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.createContext("/long", exchange -> {
+            // 长回复：整段生成完才返回，耗时远超短回复但未超时
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                TimeUnit.SECONDS.sleep(2);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException | IOException e) {
+                // 客户端已超时断开
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        config = new AiLimitConfig();
+        config.setInitialLimit(8);
+        config.setQueueTimeoutMs(200L);
+        limiter = new AdaptiveConcurrencyLimiter();
+        ReflectionTestUtils.setField(limiter, "config", config);
+        limiter.init();
+
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+        ReflectionTestUtils.setField(filter, "limiter", limiter);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newHttpClient());
+        requestFactory.setReadTimeout(Duration.ofMillis(300));
+        restClient = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .requestFactory(requestFactory)
+                .requestInterceptor(filter)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void tooManyRequestsShrinkTheLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(Exception.class, () -> restClient.get().uri("/busy").retrieve().toBodilessEntity());
+        }
+        // 8 * 0.8^3 = 4.096
+        assertEquals(4, limiter.getLimit());
+        assertEquals(3, limiter.droppedCount());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void timeoutsShrinkTheLimit() {
+        assertThrows(Exception.class, () -> restClient.get().uri("/slow").retrieve().toBodilessEntity());
+        assertEquals(6, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * 负载不变时，同步调用的耗时随回复长度变化，不应被当作服务变慢
+     */
+    @Test
+    void mixedResponseLengthsAtConstantLoadKeepTheLimit() {
+        for (int i = 0; i < 5; i++) {
+            restClient.get().uri("/ok").retrieve().toBodilessEntity();
+            restClient.get().uri("/long").retrieve().toBodilessEntity();
+        }
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.droppedCount());
+    }
+
+    @Test
+    void onlyFirstByteLatencyCountsForStreams() throws InterruptedException {
+        config.setLatencyTolerance(1000.0);
+        AdaptiveConcurrencyLimiter.Permit quick = limiter.acquire();
+        quick.firstByte();
+        quick.success();
+
+        // 首字节同样快、但流持续时间长：不收缩
+        AdaptiveConcurrencyLimiter.Permit longStream = limiter.acquire();
+        longStream.firstByte();
+        TimeUnit.MILLISECONDS.sleep(50);
+        longStream.success();
+        assertEquals(8, limiter.getLimit());
+
+        // 首字节变慢：收缩
+        AdaptiveConcurrencyLimiter.Permit slowStart = limiter.acquire();
+        TimeUnit.MILLISECONDS.sleep(50);
+        slowStart.firstByte();
+        slowStart.success();
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void saturatedSuccessesGrowTheLimit() {
+        // 本地调用的纳秒级延迟抖动不代表服务变慢
+        config.setLatencyTolerance(Double.MAX_VALUE);
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = limiter.getLimit(); i > 0; i--) {
+                permits.add(limiter.acquire());
+            }
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+        }
+        assertTrue(limiter.getLimit() > 8);
+        restClient.get().uri("/ok").retrieve().toBodilessEntity();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedRequestsAreShedAfterTheDeadline() {
+        config.setMaxQueued(0);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(limiter.acquire());
+        }
+        // 队列长度为 0：立即拒绝
+        BusinessException full = assertThrows(BusinessException.class, limiter::acquire);
+        assertEquals(ResponseCode.TOO_MANY_REQUESTS, full.getCode());
+
+        config.setMaxQueued(1);
+        long start = System.nanoTime();
+        assertThrows(BusinessException.class, limiter::acquire);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        assertEquals(2, limiter.rejectedCount());
+
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::ignore);
+        assertEquals(8, limiter.getLimit());
+    }
+}
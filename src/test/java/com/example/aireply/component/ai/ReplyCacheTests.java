@@ -0,0 +1,110 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.component.ai.model.ReplyCacheStats;
+import com.example.aireply.config.AiReplyCacheConfig;
+import com.example.aireply.config.MeterBinderConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 回复缓存测试：语义层以固定向量表代替向量模型
+ */
+class ReplyCacheTests {
+
+    private static final String CONTEXT = "SYSTEM:你是助手\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void normalizedRepeatsHitExactly() {
+        ReplyCache cache = cache(config(null), null);
+        ReplyCache.Lookup miss = cache.lookup(CONTEXT, "今天适合出行吗？");
+        assertNull(miss.hit());
+        cache.put(miss, "宜出行", 1200, 80);
+
+        ReplyCache.Lookup hit = cache.lookup(CONTEXT, "  今天适合出行吗?  ");
+        assertNotNull(hit.hit());
+        assertEquals("宜出行", hit.hit().content());
+        // 上下文不同的提问不复用
+        assertNull(cache.lookup("SYSTEM:另一个角色\n", "今天适合出行吗？").hit());
+
+        ReplyCacheStats stats = cache.stats();
+        assertEquals(1, stats.exactHits());
+        assertEquals(2, stats.misses());
+        assertEquals(1200, stats.savedLatencyMs());
+        assertEquals(80, stats.savedTokens());
+    }
+
+    @Test
+    void savingsAreExportedAsMeters() {
+        ReplyCache cache = cache(config(null), null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MeterBinderConfig().replyCacheMeters(cache).bindTo(registry);
+
+        cache.put(cache.lookup(CONTEXT, "今天适合出行吗"), "宜出行", 1200, 80);
+        cache.lookup(CONTEXT, "今天适合出行吗");
+        cache.lookup(CONTEXT, "今天适合出行吗");
+
+        assertEquals(2, registry.get("ai.reply.cache").tag("result", "exact").functionCounter().count());
+        assertEquals(2400, registry.get("ai.reply.cache.saved.latency").functionCounter().count());
+        assertEquals(160, registry.get("ai.reply.cache.saved.tokens").functionCounter().count());
+        assertEquals(1, registry.get("ai.reply.cache.size").gauge().value());
+    }
+
+    @Test
+    void similarQuestionsHitSemantically() {
+        Map<String, float[]> vectors = Map.of(
+                "今天适合出行吗", new float[]{1f, 0f, 0f},
+                "今天能出门吗", new float[]{0.98f, 0.2f, 0f},
+                "明天天气如何", new float[]{0f, 0f, 1f});
+        AiReplyCacheConfig config = config(null);
+        config.setSemanticEnabled(true);
+        ReplyCache cache = cache(config, vectors::get);
+
+        cache.put(cache.lookup(CONTEXT, "今天适合出行吗"), "宜出行", 1000, 50);
+
+        ReplyCache.Lookup similar = cache.lookup(CONTEXT, "今天能出门吗");
+        assertNotNull(similar.hit());
+        assertEquals("宜出行", similar.hit().content());
+        assertNull(cache.lookup(CONTEXT, "明天天气如何").hit());
+        assertEquals(1, cache.stats().semanticHits());
+    }
+
+    @Test
+    void entriesSurviveRestart() {
+        String file = dir.resolve("reply-cache.json").toString();
+        ReplyCache first = cache(config(file), null);
+        first.put(first.lookup(CONTEXT, "你好"), "你好呀", 500, 10);
+        first.destroy();
+
+        ReplyCache second = cache(config(file), null);
+        ReplyCache.Lookup hit = second.lookup(CONTEXT, "你好");
+        assertNotNull(hit.hit());
+        assertEquals("你好呀", hit.hit().content());
+    }
+
+    private static AiReplyCacheConfig config(String file) {
+        AiReplyCacheConfig config = new AiReplyCacheConfig();
+        config.setFile(file);
+        return config;
+    }
+
+    private static ReplyCache cache(AiReplyCacheConfig config, Function<String, float[]> embedder) {
+        ReplyCache cache = new ReplyCache();
+        ReflectionTestUtils.setField(cache, "config", config);
+        ReflectionTestUtils.setField(cache, "embedder", embedder);
+        cache.init();
+        return cache;
+    }
+}
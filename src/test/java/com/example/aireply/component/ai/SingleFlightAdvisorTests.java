@@ -0,0 +1,166 @@
+package com.example.aireply.component.ai;
+
+import com.example.aireply.config.AiSingleFlightConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 请求合并测试：模型以可控的桩代替，调用阻塞到测试放行为止
+ */
+class SingleFlightAdvisorTests {
+
+    private static final int CALLERS = 4;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Sinks.Many<ChatResponse> streamSink = Sinks.many().multicast().onBackpressureBuffer();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    private volatile RuntimeException failure;
+
+    private SingleFlightAdvisor advisor;
+
+    private ChatClient chatClient;
+
+    @BeforeEach
+    void setUp() {
+        advisor = new SingleFlightAdvisor();
+        ReflectionTestUtils.setField(advisor, "config", new AiSingleFlightConfig());
+        chatClient = ChatClient.builder(new StubChatModel()).defaultAdvisors(advisor).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneUpstreamCall() throws Exception {
+        List<Future<String>> replies = submitCalls("今天宜什么");
+        awaitWaiters();
+        release.countDown();
+
+        for (Future<String> reply : replies) {
+            assertEquals("宜出行", reply.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(CALLERS - 1, advisor.coalescedCount());
+        assertEquals(0, advisor.inFlight());
+    }
+
+    @Test
+    void failureIsPropagatedToAllWaiters() throws Exception {
+        failure = new IllegalStateException("429");
+        List<Future<String>> replies = submitCalls("今天宜什么");
+        awaitWaiters();
+        release.countDown();
+
+        for (Future<String> reply : replies) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> reply.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, advisor.inFlight());
+    }
+
+    @Test
+    void lateStreamSubscriberReplaysEarlierChunks() throws Exception {
+        List<String> firstTokens = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> first = chatClient.prompt().user("你好").stream().content()
+                .doOnNext(firstTokens::add).then().toFuture();
+        awaitUpstreamCalls(1);
+        streamSink.tryEmitNext(response("你"));
+        await().until(() -> !firstTokens.isEmpty());
+
+        CompletableFuture<List<String>> second = chatClient.prompt().user("你好").stream().content()
+                .collectList().toFuture();
+        await().until(() -> advisor.coalescedCount() == 1);
+        streamSink.tryEmitNext(response("好"));
+        streamSink.tryEmitComplete();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("你", "好"), firstTokens);
+        assertEquals(List.of("你", "好"), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, upstreamCalls.get());
+        await().until(() -> advisor.inFlight() == 0);
+    }
+
+    private List<Future<String>> submitCalls(String question) {
+        List<Future<String>> replies = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            replies.add(executor.submit(() -> chatClient.prompt().user(question).call().content()));
+        }
+        return replies;
+    }
+
+    /**
+     * 等待首个调用进入模型、其余调用进入等待
+     */
+    private void awaitWaiters() {
+        await().until(() -> advisor.coalescedCount() == CALLERS - 1);
+    }
+
+    private void awaitUpstreamCalls(int count) {
+        await().until(() -> upstreamCalls.get() == count);
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private class StubChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            upstreamCalls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return response("宜出行");
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.defer(() -> {
+                upstreamCalls.incrementAndGet();
+                return streamSink.asFlux();
+            });
+        }
+    }
+}
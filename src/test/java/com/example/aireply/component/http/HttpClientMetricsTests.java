@@ -0,0 +1,84 @@
+package com.example.aireply.component.http;
+
+import com.example.aireply.component.http.model.HostMetrics;
+import com.example.aireply.config.MeterBinderConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 出站请求统计测试
+ */
+class HttpClientMetricsTests {
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void secondCallReusesThePooledConnection() throws IOException {
+        HttpClientMetrics metrics = new HttpClientMetrics();
+        callTwice(metrics);
+
+        List<HostMetrics> snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.size());
+        HostMetrics host = snapshot.get(0);
+        assertEquals("127.0.0.1", host.host());
+        assertEquals(2, host.calls());
+        assertEquals(1, host.newConnections());
+        assertEquals(1, host.pooledConnections());
+        assertEquals(0, host.failures());
+    }
+
+    @Test
+    void hostsAreExportedWhenFirstSeen() throws IOException {
+        HttpClientMetrics metrics = new HttpClientMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MeterBinderConfig().httpClientMeters(metrics).bindTo(registry);
+        assertEquals(0, registry.getMeters().size());
+
+        callTwice(metrics);
+
+        assertEquals(2, registry.get("http.client.calls").tag("host", "127.0.0.1").functionCounter().count());
+        assertEquals(1, registry.get("http.client.connections").tags("host", "127.0.0.1", "type", "pooled").functionCounter().count());
+        assertEquals(1, registry.get("http.client.connections").tags("host", "127.0.0.1", "type", "new").functionCounter().count());
+        assertEquals(5, registry.get("http.client.phase.time").tag("host", "127.0.0.1").functionCounters().size());
+    }
+
+    private void callTwice(HttpClientMetrics metrics) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder().eventListenerFactory(metrics).build();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        for (int i = 0; i < 2; i++) {
+            try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+                assertEquals("ok", response.body().string());
+            }
+        }
+    }
+}
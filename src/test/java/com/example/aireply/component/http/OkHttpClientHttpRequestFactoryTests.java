@@ -0,0 +1,79 @@
+package com.example.aireply.component.http;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RestClient 经 OkHttp 请求工厂收发请求
+ */
+class OkHttpClientHttpRequestFactoryTests {
+
+    private HttpServer server;
+
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 原样返回请求方法、Content-Type 与请求体
+        server.createContext("/echo", exchange -> {
+            byte[] body = (exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("Content-Type") + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Echo", "1");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/busy", exchange -> {
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.start();
+        restClient = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .requestFactory(new OkHttpClientHttpRequestFactory(new OkHttpClient()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void getAndPostRoundTrip() {
+        ResponseEntity<String> get = restClient.get().uri("/echo").retrieve().toEntity(String.class);
+        assertEquals(HttpStatus.OK, get.getStatusCode());
+        assertEquals("1", get.getHeaders().getFirst("X-Echo"));
+        assertEquals("GET null ", get.getBody());
+
+        String post = restClient.post().uri("/echo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"q\":\"hi\"}")
+                .retrieve()
+                .body(String.class);
+        assertEquals("POST application/json {\"q\":\"hi\"}", post);
+    }
+
+    @Test
+    void errorStatusIsReported() {
+        HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                () -> restClient.get().uri("/busy").retrieve().toBodilessEntity());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsStoreConfig;
+import com.example.aireply.config.MetricsStreamConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 实时指标推送测试：订阅者以内存桩代替 HTTP 连接
+ */
+class MetricsBroadcasterTests {
+
+    private MetricsRepository repository;
+
+    private MetricsBroadcaster broadcaster;
+
+    private long timestamp = 1_000L;
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        repository = new MetricsRepository(16, storeConfig);
+        MetricsStreamConfig config = new MetricsStreamConfig();
+        config.setMaxSubscribers(2);
+        config.setQueueSize(2);
+        config.setSenderThreads(2);
+        config.setWriteTimeoutMs(200L);
+        broadcaster = new MetricsBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "repository", repository);
+        ReflectionTestUtils.setField(broadcaster, "config", config);
+        broadcaster.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void subscribersShareOneEncodedFrame() {
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        broadcaster.subscribe(first);
+        broadcaster.subscribe(second);
+
+        publish(0.25);
+
+        await().until(() -> first.frames.size() == 1 && second.frames.size() == 1);
+        assertSame(first.frames.get(0), second.frames.get(0));
+        String frame = new String(first.frames.get(0), StandardCharsets.UTF_8);
+        assertTrue(frame.startsWith("id: 1001\nevent: metrics\ndata: {\"timestamp\":1001,\"cpuLoad\":0.25,"), frame);
+        assertTrue(frame.contains("\"cpuTempCelsius\":null"), frame);
+        assertTrue(frame.endsWith("}\n\n"), frame);
+    }
+
+    @Test
+    void slowSubscriberDropsOldestFrames() throws InterruptedException {
+        RecordingSink slow = new RecordingSink();
+        slow.gate = new CountDownLatch(1);
+        broadcaster.subscribe(slow);
+
+        publish(0.1);
+        assertTrue(slow.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            publish(i / 10.0);
+        }
+        slow.gate.countDown();
+
+        await().until(() -> slow.frames.size() == 3);
+        assertEquals(2, broadcaster.droppedCount());
+        List<String> cpuLoads = slow.frames.stream()
+                .map(frame -> new String(frame, StandardCharsets.UTF_8))
+                .map(frame -> frame.substring(frame.indexOf("\"cpuLoad\":") + 10, frame.indexOf(",\"usedHeapMb\"")))
+                .toList();
+        assertEquals(List.of("0.1", "0.4", "0.5"), cpuLoads);
+    }
+
+    @Test
+    void newSubscriberReceivesTheLatestFrame() {
+        publish(0.3);
+
+        RecordingSink late = new RecordingSink();
+        broadcaster.subscribe(late);
+
+        await().until(() -> late.frames.size() == 1);
+    }
+
+    @Test
+    void failedSubscriberIsRemovedAndFreesItsSlot() {
+        RecordingSink broken = new RecordingSink();
+        broken.failure = new IOException("Broken pipe");
+        broadcaster.subscribe(broken);
+        broadcaster.subscribe(new RecordingSink());
+        assertNull(broadcaster.subscribe(new RecordingSink()));
+
+        publish(0.2);
+
+        await().until(() -> broadcaster.subscriberCount() == 1);
+        assertTrue(broken.closed);
+        assertNotNull(broadcaster.subscribe(new RecordingSink()));
+    }
+
+    /**
+     * 两个客户端停止读取、写出永久阻塞（且不响应中断）时占住全部推送线程：
+     * 超时后二者被断开，补充的推送线程继续服务新订阅者
+     */
+    @Test
+    void stalledWritesAreCutOffAndDoNotHoldSenderThreads() {
+        CountDownLatch release = new CountDownLatch(1);
+        StalledSink first = new StalledSink(release);
+        StalledSink second = new StalledSink(release);
+        broadcaster.subscribe(first);
+        broadcaster.subscribe(second);
+
+        publish(0.1);
+
+        await().until(() -> first.closed && second.closed && broadcaster.subscriberCount() == 0);
+        RecordingSink healthy = new RecordingSink();
+        broadcaster.subscribe(healthy);
+        publish(0.2);
+        await().until(() -> healthy.frames.size() >= 1);
+        release.countDown();
+    }
+
+    private void publish(double cpuLoad) {
+        double[] values = new double[MetricField.count()];
+        values[MetricField.CPU_LOAD.ordinal()] = cpuLoad;
+        values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = Double.NaN;
+        repository.append(++timestamp, values);
+        broadcaster.publishLatest();
+    }
+
+    private static class StalledSink implements MetricsBroadcaster.FrameSink {
+
+        private final CountDownLatch release;
+
+        private volatile boolean closed;
+
+        private StalledSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(byte[] frame) {
+            // 模拟阻塞在套接字上的写出：忽略中断，直到测试结束
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // 继续阻塞
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class RecordingSink implements MetricsBroadcaster.FrameSink {
+
+        private final List<byte[]> frames = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+
+        private volatile CountDownLatch gate;
+
+        private volatile IOException failure;
+
+        private volatile boolean closed;
+
+        @Override
+        public void write(byte[] frame) throws IOException {
+            writing.countDown();
+            if (failure != null) {
+                throw failure;
+            }
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            frames.add(frame);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.store.MetricsSegmentStore;
+import com.example.aireply.component.metrics.store.MetricsSeries;
+import com.example.aireply.component.metrics.store.MetricsWindow;
+import com.example.aireply.config.MetricsStoreConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 指标历史仓库测试
+ */
+class MetricsRepositoryTests {
+
+    private MetricsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        repository = new MetricsRepository(16, storeConfig);
+    }
+
+    @Test
+    void savedMetricsRoundTripEveryColumn() {
+        SystemMetrics metrics = new SystemMetrics("pi", "Linux", "aarch64", 0.25, 256, 1024, 25.0,
+                59, 21, 35.6, 3_600_000L, 48.3,
+                18.2, 7_812.0, 5_120.0, 34.5, 0.42, 125_000.0, 48_000.0, 2_048_000.0, 512_000.0);
+        double[] expected = new double[MetricField.count()];
+        expected[MetricField.CPU_LOAD.ordinal()] = 0.25;
+        expected[MetricField.USED_HEAP_MB.ordinal()] = 256;
+        expected[MetricField.MAX_HEAP_MB.ordinal()] = 1024;
+        expected[MetricField.HEAP_USAGE_PERCENT.ordinal()] = 25.0;
+        expected[MetricField.DISK_TOTAL_GB.ordinal()] = 59;
+        expected[MetricField.DISK_USED_GB.ordinal()] = 21;
+        expected[MetricField.DISK_USAGE_PERCENT.ordinal()] = 35.6;
+        expected[MetricField.UPTIME_MILLIS.ordinal()] = 3_600_000L;
+        expected[MetricField.CPU_TEMP_CELSIUS.ordinal()] = 48.3;
+        expected[MetricField.SYSTEM_CPU_PERCENT.ordinal()] = 18.2;
+        expected[MetricField.MEMORY_TOTAL_MB.ordinal()] = 7_812.0;
+        expected[MetricField.MEMORY_AVAILABLE_MB.ordinal()] = 5_120.0;
+        expected[MetricField.MEMORY_USAGE_PERCENT.ordinal()] = 34.5;
+        expected[MetricField.LOAD_AVERAGE.ordinal()] = 0.42;
+        expected[MetricField.NET_RX_BYTES_PER_SEC.ordinal()] = 125_000.0;
+        expected[MetricField.NET_TX_BYTES_PER_SEC.ordinal()] = 48_000.0;
+        expected[MetricField.DISK_READ_BYTES_PER_SEC.ordinal()] = 2_048_000.0;
+        expected[MetricField.DISK_WRITE_BYTES_PER_SEC.ordinal()] = 512_000.0;
+
+        repository.save(metrics);
+
+        MetricsWindow window = repository.latest(1);
+        assertEquals(1, window.size());
+        assertEquals(metrics.getCollectTime().getTime(), window.timestamp(0));
+        for (MetricField field : MetricField.values()) {
+            assertEquals(expected[field.ordinal()], window.value(field, 0), field.getKey());
+        }
+    }
+
+    @Test
+    void unavailableSystemMetricsAreStoredAsNaN() {
+        repository.save(new SystemMetrics("pc", "Windows", "amd64", 0.1, 128, 512, 25.0,
+                100, 50, 50.0, 1000L, null));
+
+        MetricsWindow window = repository.latest(1);
+        assertTrue(Double.isNaN(window.value(MetricField.CPU_TEMP_CELSIUS, 0)));
+        for (int i = MetricField.SYSTEM_CPU_PERCENT.ordinal(); i < MetricField.count(); i++) {
+            MetricField field = MetricField.values()[i];
+            assertTrue(Double.isNaN(window.value(field, 0)), field.getKey());
+        }
+    }
+
+    @Test
+    void rollupsAreReplayedFromTheStoreOnStartup(@TempDir Path dir) throws IOException {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setDir(dir.toString());
+        storeConfig.setFlushEvery(1);
+        long now = System.currentTimeMillis();
+        long from = now - now % 60_000 - 10 * 60_000;
+        double[] values = new double[MetricField.count()];
+        try (MetricsSegmentStore store = new MetricsSegmentStore(dir, storeConfig.getRecordsPerSegment(),
+                storeConfig.getRetentionDays(), storeConfig.getFlushEvery())) {
+            for (int i = 0; i < 300; i++) {
+                values[MetricField.CPU_LOAD.ordinal()] = i;
+                store.append(from + i * 1000L, values);
+            }
+        }
+
+        MetricsRepository restarted = new MetricsRepository(16, storeConfig);
+        restarted.init();
+        try {
+            // 环形缓冲区只恢复最近 15 条，更早的区间由回放后的 1 分钟降采样层提供
+            MetricsSeries series = restarted.query(from, from + 5 * 60_000, 10);
+            assertEquals(60_000, series.resolutionMillis());
+            assertEquals(5, series.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(from + i * 60_000L, series.timestamp(i));
+                assertEquals(60, series.count(MetricField.CPU_LOAD, i));
+                assertEquals(i * 60 + 29.5, series.value(MetricField.CPU_LOAD, i));
+            }
+        } finally {
+            restarted.destroy();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsStoreConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OpenMetrics 导出测试
+ */
+class OpenMetricsExporterTests {
+
+    private MetricsRepository repository;
+
+    private OpenMetricsExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        repository = new MetricsRepository(16, storeConfig);
+        exporter = new OpenMetricsExporter();
+        ReflectionTestUtils.setField(exporter, "repository", repository);
+    }
+
+    @Test
+    void emptyRepositoryExportsOnlyTheTerminator() {
+        assertEquals("# EOF\n", new String(exporter.scrape(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void latestSampleIsExportedWithSecondTimestamps() {
+        repository.append(1_000L, values(0.1));
+        repository.append(1_718_000_000_005L, values(0.25));
+
+        String body = new String(exporter.scrape(), StandardCharsets.UTF_8);
+
+        assertTrue(body.contains("# TYPE system_cpu_load gauge\n"), body);
+        assertTrue(body.contains("system_cpu_load 0.25 1718000000.005\n"), body);
+        assertTrue(body.contains("system_used_heap_mb 256.0 1718000000.005\n"), body);
+        assertFalse(body.contains("system_cpu_temp_celsius"), "NaN 指标不导出");
+        assertTrue(body.endsWith("# EOF\n"), body);
+    }
+
+    @Test
+    void infiniteValuesUseOpenMetricsSpelling() {
+        double[] values = values(Double.POSITIVE_INFINITY);
+        values[MetricField.USED_HEAP_MB.ordinal()] = Double.NEGATIVE_INFINITY;
+        repository.append(1_000L, values);
+
+        String body = new String(exporter.scrape(), StandardCharsets.UTF_8);
+
+        assertTrue(body.contains("system_cpu_load +Inf 1.000\n"), body);
+        assertTrue(body.contains("system_used_heap_mb -Inf 1.000\n"), body);
+        assertFalse(body.contains("Infinity"), body);
+    }
+
+    @Test
+    void bodyIsEncodedOncePerSample() {
+        repository.append(1_000L, values(0.1));
+
+        byte[] first = exporter.scrape();
+        assertSame(first, exporter.scrape());
+
+        repository.append(2_000L, values(0.2));
+        byte[] second = exporter.scrape();
+        assertNotSame(first, second);
+        assertSame(second, exporter.scrape());
+    }
+
+    private static double[] values(double cpuLoad) {
+        double[] values = new double[MetricField.count()];
+        Arrays.fill(values, Double.NaN);
+        values[MetricField.CPU_LOAD.ordinal()] = cpuLoad;
+        values[MetricField.USED_HEAP_MB.ordinal()] = 256;
+        return values;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.aireply.component.metrics;
+
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.store.MetricField;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 系统指标采集测试
+ */
+class SystemMetricsCollectorTests {
+
+    /** 任何指标都不会取到的值，用于发现采样时漏写的列 */
+    private static final double UNWRITTEN = -1.2345e300;
+
+    private final SystemMetricsCollector collector = new SystemMetricsCollector();
+
+    @Test
+    void sampleWritesEveryColumn() throws IOException {
+        double[] values = new double[MetricField.count()];
+        for (int round = 0; round < 2; round++) {
+            Arrays.fill(values, UNWRITTEN);
+
+            collector.sample(values);
+
+            for (MetricField field : MetricField.values()) {
+                assertNotEquals(UNWRITTEN, values[field.ordinal()], field.getKey());
+            }
+        }
+    }
+
+    @Test
+    void collectReusesFreshSampleWhenSamplingIsEnabled() throws IOException, InterruptedException {
+        ReflectionTestUtils.setField(collector, "samplingEnabled", true);
+        ReflectionTestUtils.setField(collector, "samplingIntervalMs", 60_000L);
+        double[] sampled = new double[MetricField.count()];
+        collector.sample(sampled);
+        Thread.sleep(20);
+
+        double[] collected = new double[MetricField.count()];
+        MetricsRepository.toColumns(collector.collect(), collected);
+
+        assertArrayEquals(sampled, collected);
+    }
+
+    @Test
+    void collectSamplesAgainWhenSamplingIsDisabled() throws IOException, InterruptedException {
+        double[] sampled = new double[MetricField.count()];
+        collector.sample(sampled);
+        Thread.sleep(20);
+
+        SystemMetrics metrics = collector.collect();
+
+        assertNotEquals((long) sampled[MetricField.UPTIME_MILLIS.ordinal()], metrics.getUptimeMillis());
+    }
+}
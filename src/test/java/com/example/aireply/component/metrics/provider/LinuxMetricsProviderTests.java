@@ -0,0 +1,148 @@
+package com.example.aireply.component.metrics.provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于伪造 /proc 与 /sys 目录树的 Linux 指标解析测试
+ */
+class LinuxMetricsProviderTests {
+
+    private static final String NET_DEV_HEADER = """
+            Inter-|   Receive                                                |  Transmit
+             face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls carrier compressed
+            """;
+
+    @TempDir
+    Path root;
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("proc/uptime", "3600.50 7000.00\n");
+        write("proc/loadavg", "0.42 0.35 0.30 1/123 4567\n");
+        write("proc/meminfo", """
+                MemTotal:        8000000 kB
+                MemFree:         1000000 kB
+                MemAvailable:    4096000 kB
+                Buffers:          200000 kB
+                """);
+        write("proc/stat", """
+                cpu  100 0 100 700 100 0 0 0 0 0
+                cpu0 50 0 50 350 50 0 0 0 0 0
+                cpu1 50 0 50 350 50 0 0 0 0 0
+                intr 12345 0 0
+                ctxt 67890
+                """);
+        write("proc/net/dev", NET_DEV_HEADER + """
+                    lo:    5000      50    0    0    0     0          0         0     5000      50    0    0    0     0       0          0
+                  eth0:    1000      10    0    0    0     0          0         0     2000      20    0    0    0     0       0          0
+                """);
+        write("proc/diskstats", """
+                   7       0 loop0 10 0 500 0 0 0 0 0 0 0 0
+                   8       0 sda 100 0 2000 30 50 0 4000 60 0 90 90
+                   8       1 sda1 90 0 1800 25 40 0 3600 50 0 75 75
+                 253       0 dm-0 90 0 1800 25 40 0 3600 50 0 75 75
+                """);
+        Files.createDirectories(root.resolve("sys/block/sda/device"));
+        Files.createDirectories(root.resolve("sys/block/loop0"));
+        Files.createDirectories(root.resolve("sys/block/dm-0/device"));
+        Files.createDirectories(root.resolve("sys/block/dm-0/slaves/sda1"));
+        write("sys/class/thermal/thermal_zone0/type", "acpitz\n");
+        write("sys/class/thermal/thermal_zone0/temp", "40000\n");
+        write("sys/class/thermal/thermal_zone1/type", "cpu-thermal\n");
+        write("sys/class/thermal/thermal_zone1/temp", "52500\n");
+    }
+
+    @Test
+    void parsesInstantaneousValues() {
+        LinuxMetricsProvider provider = new LinuxMetricsProvider(root.toFile(), nanos::get);
+        provider.refresh();
+
+        assertEquals(3_600_500L, provider.getSystemUptime());
+        assertEquals(0.42, provider.getLoadAverage(), 1e-12);
+        assertEquals(8_000_000 / 1024.0, provider.getMemoryTotalMb(), 1e-9);
+        assertEquals(4000.0, provider.getMemoryAvailableMb(), 1e-9);
+        assertEquals(52.5, provider.getCpuTemperature());
+        double[] zones = new double[4];
+        assertEquals(2, provider.getThermalZoneTemperatures(zones));
+        assertArrayEquals(new double[]{40.0, 52.5}, new double[]{zones[0], zones[1]});
+        // 差值类指标在第一次采集后尚无统计窗口
+        assertTrue(Double.isNaN(provider.getSystemCpuUsage()));
+        assertTrue(Double.isNaN(provider.getNetworkRxBytesPerSecond()));
+        assertTrue(Double.isNaN(provider.getDiskReadBytesPerSecond()));
+    }
+
+    @Test
+    void computesDeltasBetweenRefreshes() throws IOException {
+        LinuxMetricsProvider provider = new LinuxMetricsProvider(root.toFile(), nanos::get);
+        provider.refresh();
+
+        write("proc/stat", """
+                cpu  200 0 200 1300 300 0 0 0 0 0
+                cpu0 150 0 50 350 50 0 0 0 0 0
+                cpu1 50 0 50 950 250 0 0 0 0 0
+                intr 23456 0 0
+                """);
+        write("proc/net/dev", NET_DEV_HEADER + """
+                    lo:  900000     900    0    0    0     0          0         0   900000     900    0    0    0     0       0          0
+                  eth0:    4000      40    0    0    0     0          0         0     3000      30    0    0    0     0       0          0
+                """);
+        write("proc/diskstats", """
+                   7       0 loop0 10 0 90000 0 0 0 0 0 0 0 0
+                   8       0 sda 150 0 3000 40 90 0 8000 80 0 120 120
+                   8       1 sda1 140 0 2800 35 80 0 7600 70 0 105 105
+                 253       0 dm-0 140 0 2800 35 80 0 7600 70 0 105 105
+                """);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        provider.refresh();
+
+        assertEquals(20.0, provider.getSystemCpuUsage(), 1e-9);
+        double[] cores = new double[2];
+        assertEquals(2, provider.getCoreCpuUsage(cores));
+        assertArrayEquals(new double[]{100.0, 0.0}, cores, 1e-9);
+
+        // 两次采集间隔 2 秒；回环网卡、分区以及 loop、dm 等虚拟块设备不计入
+        assertEquals(3000 / 2.0, provider.getNetworkRxBytesPerSecond(), 1e-9);
+        assertEquals(1000 / 2.0, provider.getNetworkTxBytesPerSecond(), 1e-9);
+        assertEquals(1000 * 512 / 2.0, provider.getDiskReadBytesPerSecond(), 1e-9);
+        assertEquals(4000 * 512 / 2.0, provider.getDiskWriteBytesPerSecond(), 1e-9);
+    }
+
+    @Test
+    void firstCpuZoneWinsAndZonesAreOrderedByNumber() throws IOException {
+        write("sys/class/thermal/thermal_zone0/type", "cpu-thermal\n");
+        write("sys/class/thermal/thermal_zone0/temp", "30000\n");
+        write("sys/class/thermal/thermal_zone1/type", "acpitz\n");
+        write("sys/class/thermal/thermal_zone1/temp", "40000\n");
+        write("sys/class/thermal/thermal_zone2/type", "gpu-thermal\n");
+        write("sys/class/thermal/thermal_zone2/temp", "20000\n");
+        write("sys/class/thermal/thermal_zone10/type", "cpu-big\n");
+        write("sys/class/thermal/thermal_zone10/temp", "60000\n");
+        LinuxMetricsProvider provider = new LinuxMetricsProvider(root.toFile(), nanos::get);
+        provider.refresh();
+
+        assertEquals(30.0, provider.getCpuTemperature());
+        double[] zones = new double[4];
+        assertEquals(4, provider.getThermalZoneTemperatures(zones));
+        assertArrayEquals(new double[]{30.0, 40.0, 20.0, 60.0}, zones);
+    }
+
+    private void write(String relative, String content) throws IOException {
+        Path path = root.resolve(relative);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
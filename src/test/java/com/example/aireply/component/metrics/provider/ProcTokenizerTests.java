@@ -0,0 +1,83 @@
+package com.example.aireply.component.metrics.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * procfs 分词器测试
+ */
+class ProcTokenizerTests {
+
+    private final ProcTokenizer tokenizer = new ProcTokenizer();
+
+    @Test
+    void parsesNumbersWithUnitsAndSeparators() {
+        ProcTokenizer t = tokenize("MemTotal:        8000000 kB\nMemAvailable:4096000 kB\n");
+
+        assertTrue(t.lineStartsWith(bytes("MemTotal")));
+        assertTrue(t.skipToken());
+        assertEquals(8_000_000, t.nextLong());
+        assertTrue(t.skipToken());
+        assertFalse(t.skipToken(), "行尾之后不再有词");
+        assertEquals(-1, t.nextLong());
+        t.nextLine();
+
+        assertTrue(t.tokenEquals(bytes("MemAvailable")));
+        assertEquals(4_096_000, t.nextLong());
+        t.nextLine();
+        assertFalse(t.hasMoreLines());
+    }
+
+    @Test
+    void parsesDecimalsAndRejectsNonNumbers() {
+        ProcTokenizer t = tokenize("0.42 -1.5 3 abc 1/123\r\n");
+
+        assertEquals(0.42, t.nextDouble(), 1e-12);
+        assertEquals(-1.5, t.nextDouble(), 1e-12);
+        assertEquals(3.0, t.nextDouble());
+        assertTrue(Double.isNaN(t.nextDouble()));
+        assertEquals(1, t.nextLong(), "数字之后的非数字部分被跳过");
+        assertTrue(Double.isNaN(t.nextDouble()));
+    }
+
+    @Test
+    void exposesTokenBoundsWithoutAllocating() {
+        ProcTokenizer t = tokenize("   8       0 sda 100\n   8       1 sda1 7\n");
+
+        t.skipToken();
+        t.skipToken();
+        int start = t.tokenStart();
+        assertEquals(3, t.tokenLength());
+        assertEquals('s', t.byteAt(start));
+        assertEquals(100, t.nextLong());
+        t.nextLine();
+
+        assertFalse(t.tokenEquals(bytes("7")));
+        assertTrue(t.tokenEquals(bytes("1")));
+        assertFalse(t.tokenEquals(bytes("sda")));
+        assertEquals(7, t.nextLong());
+    }
+
+    @Test
+    void respectsLimit() {
+        byte[] buf = bytes("12345 678");
+        tokenizer.reset(buf, 3);
+
+        assertEquals(123, tokenizer.nextLong());
+        assertFalse(tokenizer.hasMoreLines());
+    }
+
+    private ProcTokenizer tokenize(String content) {
+        byte[] buf = bytes(content);
+        return tokenizer.reset(buf, buf.length);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
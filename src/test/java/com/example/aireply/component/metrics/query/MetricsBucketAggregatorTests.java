@@ -0,0 +1,94 @@
+package com.example.aireply.component.metrics.query;
+
+import com.example.aireply.component.metrics.store.MetricField;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 时间桶聚合测试
+ */
+class MetricsBucketAggregatorTests {
+
+    private static final MetricColumn[] COLUMNS = {
+            MetricColumn.parse("cpuLoad:avg"),
+            MetricColumn.parse("cpuLoad:min"),
+            MetricColumn.parse("cpuLoad:max"),
+            MetricColumn.parse("cpuLoad:p95"),
+            MetricColumn.parse("cpuTempCelsius")
+    };
+
+    private final List<Long> timestamps = new ArrayList<>();
+
+    private final List<Integer> records = new ArrayList<>();
+
+    private final List<double[]> results = new ArrayList<>();
+
+    @Test
+    void everyColumnIsAggregatedInOnePass() {
+        MetricsBucketAggregator aggregator = aggregator(1_000, 100, 2);
+        for (int i = 1; i <= 20; i++) {
+            aggregator.visit(1_000 + i - 1, values(i, i % 2 == 0 ? Double.NaN : 40 + i));
+        }
+        aggregator.visit(1_150, values(7, 50));
+        aggregator.finish();
+
+        assertEquals(List.of(1_000L, 1_100L), timestamps);
+        assertEquals(List.of(20, 1), records);
+        // 1..20：均值 10.5，最小 1，最大 20，P95 取第 19 小；温度只有奇数样本有效，均值 41..59 -> 50
+        assertArrayEquals(new double[]{10.5, 1, 20, 19, 50}, results.get(0), 1e-9);
+        assertArrayEquals(new double[]{7, 7, 7, 7, 50}, results.get(1), 1e-9);
+    }
+
+    @Test
+    void emptyBucketsAreEmittedInPlace() {
+        MetricsBucketAggregator aggregator = aggregator(0, 10, 4);
+        aggregator.visit(25, values(3, Double.NaN));
+        aggregator.finish();
+
+        assertEquals(List.of(0L, 10L, 20L, 30L), timestamps);
+        assertEquals(List.of(0, 0, 1, 0), records);
+        assertEquals(Double.NaN, results.get(0)[0]);
+        assertEquals(3, results.get(2)[0]);
+        assertEquals(Double.NaN, results.get(2)[4]);
+    }
+
+    @Test
+    void recordsOutsideTheBucketsAreIgnored() {
+        MetricsBucketAggregator aggregator = aggregator(100, 10, 1);
+        aggregator.visit(99, values(1, 1));
+        aggregator.visit(105, values(2, 2));
+        aggregator.visit(110, values(3, 3));
+        aggregator.finish();
+
+        assertEquals(List.of(1), records);
+        assertEquals(2, results.get(0)[0]);
+    }
+
+    @Test
+    void unknownColumnsAreRejected() {
+        assertNull(MetricColumn.parse("cpuLoad:median"));
+        assertNull(MetricColumn.parse("gpuLoad:avg"));
+        assertEquals(MetricAggregation.P95, MetricColumn.parse("CPU_LOAD:P95").aggregation());
+    }
+
+    private MetricsBucketAggregator aggregator(long from, long step, long buckets) {
+        return new MetricsBucketAggregator(from, step, buckets, COLUMNS, (timestamp, count, values) -> {
+            timestamps.add(timestamp);
+            records.add(count);
+            results.add(values.clone());
+        });
+    }
+
+    private static double[] values(double cpuLoad, double cpuTemp) {
+        double[] values = new double[MetricField.count()];
+        values[MetricField.CPU_LOAD.ordinal()] = cpuLoad;
+        values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = cpuTemp;
+        return values;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aireply.component.metrics.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 指标环形缓冲区测试
+ */
+class MetricsRingBufferTests {
+
+    @Test
+    void windowsKeepOneSpareSlot() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(4);
+        double[] values = new double[MetricField.count()];
+        for (int i = 0; i < 10; i++) {
+            values[0] = i;
+            buffer.append(i, values);
+        }
+
+        MetricsWindow window = buffer.latest(10);
+        assertEquals(3, window.size());
+        assertEquals(7, window.timestamp(0));
+        assertEquals(9.0, window.value(MetricField.values()[0], 2));
+        assertTrue(window.isValid());
+
+        buffer.append(10, values);
+        assertTrue(window.isValid(), "仅覆盖预留槽位时窗口仍然有效");
+        buffer.append(11, values);
+        assertFalse(window.isValid());
+    }
+
+    @Test
+    void outOfOrderSamplesAreDropped() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(8);
+        double[] values = new double[MetricField.count()];
+        assertTrue(buffer.append(1000, values));
+        assertTrue(buffer.append(2000, values));
+        assertFalse(buffer.append(1500, values), "时钟回拨的样本应被丢弃");
+        assertTrue(buffer.append(2000, values));
+        assertTrue(buffer.append(3000, values));
+
+        MetricsWindow window = buffer.since(1500);
+        assertEquals(3, window.size());
+        assertEquals(2000, window.timestamp(0));
+        assertEquals(3000, window.timestamp(2));
+        assertEquals(4, buffer.latest(10).size());
+    }
+
+    /**
+     * 写线程持续覆盖一个很小的缓冲区，样本的每一列都等于其时间戳；
+     * 读线程校验通过的窗口中不允许出现被部分覆盖或不连续的样本
+     */
+    @Test
+    void concurrentReadersNeverAcceptTornWindows() throws InterruptedException {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(8);
+        MetricField[] fields = MetricField.values();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong validReads = new AtomicLong();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread(() -> {
+                long[] timestamps = new long[8];
+                double[][] values = new double[8][fields.length];
+                while (running.get() && failure.get() == null) {
+                    MetricsWindow window = buffer.latest(8);
+                    int size = window.size();
+                    for (int i = 0; i < size; i++) {
+                        timestamps[i] = window.timestamp(i);
+                        for (MetricField field : fields) {
+                            values[i][field.ordinal()] = window.value(field, i);
+                        }
+                    }
+                    if (!window.isValid()) {
+                        continue;
+                    }
+                    validReads.incrementAndGet();
+                    for (int i = 0; i < size; i++) {
+                        if (i > 0 && timestamps[i] != timestamps[i - 1] + 1) {
+                            failure.compareAndSet(null, "样本不连续: " + timestamps[i - 1] + " -> " + timestamps[i]);
+                        }
+                        for (MetricField field : fields) {
+                            if (values[i][field.ordinal()] != timestamps[i]) {
+                                failure.compareAndSet(null, "样本 " + timestamps[i] + " 的 " + field.getKey()
+                                        + " 为 " + values[i][field.ordinal()]);
+                            }
+                        }
+                    }
+                }
+            }, "ring-reader-" + r);
+            reader.start();
+            readers.add(reader);
+        }
+
+        double[] row = new double[fields.length];
+        for (long seq = 0; seq < 2_000_000 && failure.get() == null; seq++) {
+            Arrays.fill(row, seq);
+            buffer.append(seq, row);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(validReads.get() > 0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.aireply.component.metrics.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多分辨率降采样层测试
+ */
+class MetricsRollupsTests {
+
+    private static final MetricField FIELD = MetricField.CPU_LOAD;
+
+    private final double[] values = new double[MetricField.count()];
+
+    private void append(MetricsRollupTier tier, long timestamp, double value) {
+        values[FIELD.ordinal()] = value;
+        tier.append(timestamp, values);
+    }
+
+    @Test
+    void samplesAreAggregatedIntoAlignedBuckets() {
+        MetricsRollupTier tier = new MetricsRollupTier(1000, 8);
+        append(tier, 1000, 4);
+        append(tier, 1999, 2);
+        append(tier, 2000, 7);
+        append(tier, 3500, 1);
+
+        MetricsSeries series = tier.range(0, 4000);
+        assertEquals(3, series.size());
+        assertEquals(1000, series.timestamp(0));
+        assertEquals(2, series.count(FIELD, 0));
+        assertEquals(2.0, series.min(FIELD, 0));
+        assertEquals(4.0, series.max(FIELD, 0));
+        assertEquals(3.0, series.value(FIELD, 0));
+        assertEquals(2.0, series.last(FIELD, 0));
+        assertEquals(2000, series.timestamp(1));
+        assertEquals(3000, series.timestamp(2));
+        // 与区间有交集的桶都会返回，区间终点所在的桶不包含
+        assertEquals(List.of(1000L, 2000L), timestamps(tier.range(1500, 3000)));
+    }
+
+    @Test
+    void missingValuesAndLateSamplesAreIgnored() {
+        MetricsRollupTier tier = new MetricsRollupTier(1000, 8);
+        append(tier, 1000, 1);
+        append(tier, 1500, Double.NaN);
+        append(tier, 2000, 5);
+        append(tier, 1800, 100);
+
+        MetricsSeries series = tier.range(0, 3000);
+        assertEquals(2, series.size());
+        assertEquals(1, series.count(FIELD, 0));
+        assertEquals(1.0, series.max(FIELD, 0));
+        assertEquals(5.0, series.max(FIELD, 1));
+    }
+
+    @Test
+    void writesInvalidateWindowsReadBefore() {
+        MetricsRollupTier tier = new MetricsRollupTier(1000, 4);
+        append(tier, 1000, 1);
+        MetricsSeries before = tier.range(0, 2000);
+        assertTrue(before.isValid());
+
+        // 累加到当前桶同样改变了已读取的数据
+        append(tier, 1500, 3);
+        assertFalse(before.isValid());
+
+        MetricsSeries after = tier.range(0, 2000);
+        assertTrue(after.isValid());
+        assertEquals(2.0, after.value(FIELD, 0));
+    }
+
+    @Test
+    void oldBucketsAreOverwrittenAndNoLongerCovered() {
+        MetricsRollupTier tier = new MetricsRollupTier(1000, 4);
+        assertTrue(tier.covers(0), "空层视为覆盖任意时间");
+        for (int i = 0; i < 6; i++) {
+            append(tier, i * 1000L, i);
+        }
+
+        // 保留一个空闲槽位，可读最近 capacity - 1 个桶
+        assertEquals(List.of(3000L, 4000L, 5000L), timestamps(tier.range(0, 6000)));
+        assertFalse(tier.covers(2000));
+        assertTrue(tier.covers(3000));
+        assertEquals(3000, tier.retentionMillis());
+    }
+
+    @Test
+    void finestTierWithinBudgetAndCoverageIsSelected() {
+        MetricsRollupTier seconds = new MetricsRollupTier(1000, 11);
+        MetricsRollupTier tens = new MetricsRollupTier(10_000, 11);
+        MetricsRollups rollups = new MetricsRollups(List.of(seconds, tens));
+        for (int i = 0; i < 60; i++) {
+            values[FIELD.ordinal()] = i;
+            rollups.append(i * 1000L, values);
+        }
+
+        assertEquals(1000, rollups.select(55_000, 60_000, 10).resolutionMillis());
+        // 点数超出预算
+        assertEquals(10_000, rollups.select(40_000, 60_000, 10).resolutionMillis());
+        // 细粒度层已不再保留起始时间之后的全部数据
+        assertEquals(10_000, rollups.select(45_000, 50_000, 10).resolutionMillis());
+        // 都不满足时退化为最粗的一层
+        MetricsSeries coarsest = rollups.select(0, 60_000, 2);
+        assertEquals(10_000, coarsest.resolutionMillis());
+        assertEquals(6, coarsest.size());
+        assertEquals(10, coarsest.count(FIELD, 0));
+        assertEquals(100_000, rollups.retentionMillis());
+    }
+
+    private static List<Long> timestamps(MetricsSeries series) {
+        Long[] result = new Long[series.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = series.timestamp(i);
+        }
+        return List.of(result);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.aireply.component.metrics.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 指标分段崩溃恢复与分段存储测试
+ */
+class MetricsSegmentTests {
+
+    private static final int FIELDS = 3;
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void corruptTailRecordIsTruncated() throws IOException {
+        Path path = writeSegment(3);
+        // 模拟最后一条记录只写了一半：数值已改写但校验和未更新
+        putLong(path, valueOffset(2, 1), Double.doubleToRawLongBits(-1));
+
+        MetricsSegment segment = MetricsSegment.open(path, DAY, 0, true);
+
+        assertEquals(2, segment.count());
+        assertEquals(2, readHeaderCount(path));
+        assertEquals(1001, segment.timestamp(1));
+    }
+
+    @Test
+    void tornRecordWithoutTimestampIsIgnored() throws IOException {
+        Path path = writeSegment(3);
+        // 时间戳最后写入，崩溃在时间戳之前时该位置仍为 0
+        putLong(path, recordOffset(2), 0);
+
+        MetricsSegment segment = MetricsSegment.open(path, DAY, 0, false);
+
+        assertEquals(2, segment.count());
+    }
+
+    @Test
+    void recordsWrittenAfterLastCountUpdateAreRecovered() throws IOException {
+        Path path = writeSegment(3);
+        // 文件头计数落后于已完整写入的记录
+        putInt(path, 16, 1);
+
+        MetricsSegment segment = MetricsSegment.open(path, DAY, 0, false);
+
+        assertEquals(3, segment.count());
+        double[] values = new double[FIELDS];
+        segment.read(2, values);
+        assertEquals(2.0, values[0]);
+    }
+
+    @Test
+    void storeScansSealedSegmentsAndDeletesExpiredOnes() throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        double[] values = new double[MetricField.count()];
+        List<Long> timestamps = new ArrayList<>();
+        try (MetricsSegmentStore store = new MetricsSegmentStore(dir, 16, 2, 1)) {
+            for (int daysAgo : new int[]{4, 1, 0}) {
+                long timestamp = today.minusDays(daysAgo).atStartOfDay(zone).toInstant().toEpochMilli() + 1000;
+                values[0] = daysAgo;
+                store.append(timestamp, values);
+            }
+            store.scan(0, Long.MAX_VALUE, (timestamp, row) -> timestamps.add(timestamp));
+            assertEquals(TimeUnit.DAYS.toMillis(2), store.retentionMillis());
+        }
+
+        assertEquals(2, timestamps.size());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private Path writeSegment(int records) throws IOException {
+        Path path = dir.resolve("metrics-20250101-00.seg");
+        MetricsSegment segment = MetricsSegment.create(path, DAY, 0, FIELDS, 8);
+        double[] values = new double[FIELDS];
+        for (int i = 0; i < records; i++) {
+            values[0] = i;
+            values[1] = i * 10;
+            values[2] = i * 100;
+            segment.append(1000 + i, values);
+        }
+        segment.force();
+        return path;
+    }
+
+    private static int recordOffset(int index) {
+        return MetricsSegment.HEADER_SIZE + index * MetricsSegment.recordSize(FIELDS);
+    }
+
+    private static int valueOffset(int index, int field) {
+        return recordOffset(index) + Long.BYTES + field * Double.BYTES;
+    }
+
+    private static void putLong(Path path, long position, long value) throws IOException {
+        write(path, position, ByteBuffer.allocate(Long.BYTES).putLong(0, value));
+    }
+
+    private static void putInt(Path path, long position, int value) throws IOException {
+        write(path, position, ByteBuffer.allocate(Integer.BYTES).putInt(0, value));
+    }
+
+    private static void write(Path path, long position, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(buffer, position);
+        }
+    }
+
+    private static int readHeaderCount(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(buffer, 16);
+            return buffer.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.aireply.component.metrics.visualizer;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.config.ChartRendererConfig;
+import com.example.aireply.config.MetricsStoreConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 图表渲染缓存测试
+ */
+class CachingMetricsVisualizerTests {
+
+    private static final byte[] IMAGE = {1, 2, 3, 4};
+
+    private Cache<CachingMetricsVisualizer.RenderKey, byte[]> cache;
+
+    private CountingVisualizer delegate;
+
+    private ChartRendererConfig rendererConfig;
+
+    private CachingMetricsVisualizer visualizer;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().build();
+        delegate = new CountingVisualizer();
+        rendererConfig = new ChartRendererConfig();
+        visualizer = new CachingMetricsVisualizer(delegate, cache, rendererConfig);
+    }
+
+    @Test
+    void streamingMissWritesThroughAndLaterCallsHit() throws IOException {
+        delegate.fingerprint = 42;
+        MetricsVisualizerContext context = MetricsVisualizerContext.builder().build();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+
+        assertTrue(visualizer.visualize(context, first));
+        assertArrayEquals(IMAGE, first.toByteArray());
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        assertTrue(visualizer.visualize(context, second));
+        assertArrayEquals(IMAGE, second.toByteArray());
+        assertArrayEquals(IMAGE, visualizer.visualize(context));
+        assertEquals(1, delegate.renders);
+    }
+
+    @Test
+    void dimensionsAndFingerprintArePartOfTheKey() throws IOException {
+        delegate.fingerprint = 1;
+        visualizer.visualize(MetricsVisualizerContext.builder().build(), new ByteArrayOutputStream());
+        visualizer.visualize(MetricsVisualizerContext.builder().width(800).build(), new ByteArrayOutputStream());
+        delegate.fingerprint = 2;
+        visualizer.visualize(MetricsVisualizerContext.builder().build(), new ByteArrayOutputStream());
+
+        assertEquals(3, delegate.renders);
+        assertEquals(3, cache.estimatedSize());
+    }
+
+    @Test
+    void themeIsIgnoredForNativeCharts() throws IOException {
+        delegate.fingerprint = 1;
+        visualizer.visualize(MetricsVisualizerContext.builder().theme("GGPlot2").build(), new ByteArrayOutputStream());
+        visualizer.visualize(MetricsVisualizerContext.builder().theme("Matlab").build(), new ByteArrayOutputStream());
+        assertEquals(2, delegate.renders);
+
+        rendererConfig.getTypes().put(MetricsChartType.CPU_LOAD_TREND, ChartRenderer.NATIVE);
+        visualizer.visualize(MetricsVisualizerContext.builder().theme("GGPlot2").build(), new ByteArrayOutputStream());
+        visualizer.visualize(MetricsVisualizerContext.builder().theme("Matlab").build(), new ByteArrayOutputStream());
+        assertEquals(3, delegate.renders);
+    }
+
+    @Test
+    void uncacheableBypassesTheCache() throws IOException {
+        delegate.fingerprint = MetricsVisualizer.UNCACHEABLE;
+        MetricsVisualizerContext context = MetricsVisualizerContext.builder().build();
+        OutputStream out = new ByteArrayOutputStream();
+
+        visualizer.visualize(context, out);
+        visualizer.visualize(context, out);
+
+        assertSame(out, delegate.lastOut);
+        assertEquals(2, delegate.renders);
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    /**
+     * 渲染缓存只对声明了数据指纹的可视化器生效，新增的可视化器遗漏指纹时在此失败
+     */
+    @Test
+    void everyRegisteredVisualizerIsCacheable() throws ReflectiveOperationException {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        MetricsRepository repository = new MetricsRepository(16, storeConfig);
+        SystemMetrics metrics = new SystemMetrics("pi", "Linux", "aarch64", 0.25, 256, 1024, 25.0,
+                59, 21, 35.6, 3_600_000L, 48.3);
+        repository.save(metrics);
+        MetricsVisualizerContext context = MetricsVisualizerContext.builder()
+                .currentMetrics(metrics)
+                .repository(repository)
+                .build();
+
+        // 与 Spring 注册可视化器 Bean 的方式一致：带 @Component 且实现 MetricsVisualizer
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+        int registered = 0;
+        for (BeanDefinition candidate : scanner.findCandidateComponents(MetricsVisualizer.class.getPackageName())) {
+            Class<?> type = Class.forName(candidate.getBeanClassName());
+            if (!MetricsVisualizer.class.isAssignableFrom(type)) {
+                continue;
+            }
+            MetricsVisualizer visualizer = (MetricsVisualizer) type.getDeclaredConstructor().newInstance();
+            assertNotEquals(MetricsVisualizer.UNCACHEABLE, visualizer.fingerprint(context), type.getName());
+            registered++;
+        }
+        assertTrue(registered > 0);
+    }
+
+    private static class CountingVisualizer implements MetricsVisualizer {
+
+        private long fingerprint;
+
+        private int renders;
+
+        private OutputStream lastOut;
+
+        @Override
+        public MetricsChartType getType() {
+            return MetricsChartType.CPU_LOAD_TREND;
+        }
+
+        @Override
+        public long fingerprint(MetricsVisualizerContext context) {
+            return fingerprint;
+        }
+
+        @Override
+        public byte[] visualize(MetricsVisualizerContext context) {
+            renders++;
+            return IMAGE.clone();
+        }
+
+        @Override
+        public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
+            renders++;
+            lastOut = out;
+            out.write(IMAGE);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.aireply.component.metrics.visualizer.impl;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.component.metrics.visualizer.ChartRenderer;
+import com.example.aireply.component.metrics.visualizer.MetricsChartType;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.raster.NativeChartRenderer;
+import com.example.aireply.config.ChartRendererConfig;
+import com.example.aireply.config.MetricsStoreConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.DoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按 report.chart-renderer 配置选择渲染实现
+ */
+class ChartRendererSelectionTests {
+
+    private ChartRendererConfig rendererConfig;
+
+    private CountingNativeRenderer nativeRenderer;
+
+    private CpuLoadTrendVisualizer visualizer;
+
+    private MetricsVisualizerContext context;
+
+    @BeforeEach
+    void setUp() {
+        rendererConfig = new ChartRendererConfig();
+        nativeRenderer = new CountingNativeRenderer();
+        visualizer = new CpuLoadTrendVisualizer();
+        ReflectionTestUtils.setField(visualizer, "rendererConfig", rendererConfig);
+        ReflectionTestUtils.setField(visualizer, "nativeRenderer", nativeRenderer);
+
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        MetricsRepository repository = new MetricsRepository(16, storeConfig);
+        long now = System.currentTimeMillis();
+        double[] values = new double[MetricField.count()];
+        for (int i = 3; i > 0; i--) {
+            values[MetricField.CPU_LOAD.ordinal()] = 0.1 * i;
+            repository.append(now - i * 60_000L, values);
+        }
+        context = MetricsVisualizerContext.builder().repository(repository).build();
+    }
+
+    @Test
+    void perTypeSettingOverridesTheDefault() {
+        rendererConfig.getTypes().put(MetricsChartType.CPU_TEMP_TREND, ChartRenderer.NATIVE);
+
+        assertEquals(ChartRenderer.XCHART, rendererConfig.rendererOf(MetricsChartType.CPU_LOAD_TREND));
+        assertEquals(ChartRenderer.NATIVE, rendererConfig.rendererOf(MetricsChartType.CPU_TEMP_TREND));
+
+        rendererConfig.setDefaultRenderer(ChartRenderer.NATIVE);
+        rendererConfig.getTypes().put(MetricsChartType.CPU_TEMP_TREND, ChartRenderer.XCHART);
+        assertEquals(ChartRenderer.NATIVE, rendererConfig.rendererOf(MetricsChartType.MEMORY_PIE));
+        assertEquals(ChartRenderer.XCHART, rendererConfig.rendererOf(MetricsChartType.CPU_TEMP_TREND));
+    }
+
+    @Test
+    void visualizerUsesTheConfiguredRenderer() throws IOException {
+        rendererConfig.getTypes().put(MetricsChartType.CPU_LOAD_TREND, ChartRenderer.NATIVE);
+        assertTrue(visualizer.visualize(context, new ByteArrayOutputStream()));
+        assertEquals(1, nativeRenderer.lines);
+
+        rendererConfig.getTypes().put(MetricsChartType.CPU_LOAD_TREND, ChartRenderer.XCHART);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(visualizer.visualize(context, out));
+        assertEquals(1, nativeRenderer.lines);
+        assertTrue(out.size() > 0);
+    }
+
+    private static class CountingNativeRenderer extends NativeChartRenderer {
+
+        private int lines;
+
+        @Override
+        public void renderLine(double[] x, double[] y, int width, int height, int color,
+                               DoubleFunction<String> xLabel, OutputStream out) throws IOException {
+            lines++;
+            super.renderLine(x, y, width, height, color, xLabel, out);
+        }
+    }
+}
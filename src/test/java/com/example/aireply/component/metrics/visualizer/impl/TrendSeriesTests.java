@@ -0,0 +1,63 @@
+package com.example.aireply.component.metrics.visualizer.impl;
+
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsStoreConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 趋势图数据指纹测试
+ */
+class TrendSeriesTests {
+
+    private static final long WINDOW = TimeUnit.HOURS.toMillis(2);
+
+    /** 2 小时窗口下单个点的时间跨度 */
+    private static final long POINT = WINDOW / TrendSeries.MAX_POINTS;
+
+    private static final long NOW = 1_700_000_000_000L / POINT * POINT;
+
+    private MetricsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        repository = new MetricsRepository(16, storeConfig);
+        append(NOW - 60_000);
+    }
+
+    @Test
+    void fingerprintIsStableWhileNothingChanges() {
+        long fingerprint = TrendSeries.fingerprint(repository, NOW, WINDOW);
+
+        assertEquals(fingerprint, TrendSeries.fingerprint(repository, NOW + POINT - 1, WINDOW));
+    }
+
+    @Test
+    void newSampleChangesTheFingerprint() {
+        long fingerprint = TrendSeries.fingerprint(repository, NOW, WINDOW);
+        append(NOW);
+
+        assertNotEquals(fingerprint, TrendSeries.fingerprint(repository, NOW, WINDOW));
+    }
+
+    @Test
+    void windowMovingByOnePointChangesTheFingerprint() {
+        long fingerprint = TrendSeries.fingerprint(repository, NOW, WINDOW);
+
+        assertNotEquals(fingerprint, TrendSeries.fingerprint(repository, NOW + POINT, WINDOW));
+    }
+
+    private void append(long timestamp) {
+        double[] values = new double[MetricField.count()];
+        values[MetricField.CPU_LOAD.ordinal()] = 0.5;
+        repository.append(timestamp, values);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内置渲染器输出可被 ImageIO 解码，尺寸与请求一致且绘制了图形
+ */
+class NativeChartRendererTests {
+
+    private final NativeChartRenderer renderer = new NativeChartRenderer();
+
+    @Test
+    void lineChartHasRequestedSizeAndUsesTheSeriesColor() throws IOException {
+        double[] x = {0, 60_000, 120_000, 180_000};
+        double[] y = {12.5, 40, 33, 80};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        renderer.renderLine(x, y, 450, 300, NativeChartRenderer.PALETTE[0], v -> String.valueOf((long) v / 1000), out);
+
+        BufferedImage image = decode(out);
+        assertEquals(450, image.getWidth());
+        assertEquals(300, image.getHeight());
+        assertTrue(contains(image, NativeChartRenderer.PALETTE[0]));
+    }
+
+    @Test
+    void pieChartHasRequestedSizeAndOneColorPerSlice() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertTrue(renderer.renderPie(new double[]{256, 768}, 400, 240, out));
+
+        BufferedImage image = decode(out);
+        assertEquals(400, image.getWidth());
+        assertEquals(240, image.getHeight());
+        assertTrue(contains(image, NativeChartRenderer.PALETTE[0]));
+        assertTrue(contains(image, NativeChartRenderer.PALETTE[1]));
+    }
+
+    @Test
+    void emptyPieWritesNothing() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertFalse(renderer.renderPie(new double[]{0, 0}, 400, 240, out));
+        assertEquals(0, out.size());
+    }
+
+    private static BufferedImage decode(ByteArrayOutputStream out) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(image);
+        return image;
+    }
+
+    private static boolean contains(BufferedImage image, int rgb) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) & 0xFFFFFF) == rgb) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
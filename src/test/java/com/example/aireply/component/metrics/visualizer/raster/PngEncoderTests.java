@@ -0,0 +1,68 @@
+package com.example.aireply.component.metrics.visualizer.raster;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * PNG 编码结果可被 ImageIO 解码且像素一致
+ */
+class PngEncoderTests {
+
+    private final PngEncoder encoder = new PngEncoder();
+
+    private final Raster raster = new Raster();
+
+    @Test
+    void chartLikeImageRoundTrips() throws IOException {
+        raster.reset(120, 80, 0xFFFFFF);
+        raster.fillRect(10, 10, 50, 30, 0x4E54C8);
+        raster.drawLine(0, 79, 119, 0, 0xE53935, 2);
+        raster.drawText("CPU 42%", 5, 60, 0x333333);
+
+        assertDecodesTo(raster);
+    }
+
+    @Test
+    void noiseLargerThanInitialBufferRoundTrips() throws IOException {
+        // 随机像素几乎不可压缩，压缩结果超过初始 64KB 缓冲区
+        Random random = new Random(42);
+        raster.reset(300, 200, 0);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 300; x++) {
+                raster.set(x, y, random.nextInt(0x1000000));
+            }
+        }
+        assertDecodesTo(raster);
+
+        // 复用同一编码器编码更小的画布
+        raster.reset(7, 3, 0x010203);
+        raster.set(6, 2, 0xFEDCBA);
+        assertDecodesTo(raster);
+    }
+
+    private void assertDecodesTo(Raster expected) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(expected, out);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(image);
+        assertEquals(expected.width(), image.getWidth());
+        assertEquals(expected.height(), image.getHeight());
+        int[] pixels = expected.pixels();
+        for (int y = 0; y < expected.height(); y++) {
+            for (int x = 0; x < expected.width(); x++) {
+                int index = y * expected.width() + x;
+                assertEquals(pixels[index], image.getRGB(x, y) & 0xFFFFFF, "(" + x + ", " + y + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.aireply.component.notification;
+
+import com.example.aireply.component.metrics.visualizer.ChartBufferPool;
+import com.example.aireply.component.report.ReportMetrics;
+import com.example.aireply.config.MailOutboxConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.BodyPart;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 邮件发送测试：内嵌图片来自池化缓冲区，发送返回后缓冲区即可归还复用；异常上报在去重窗口内只发送一次
+ */
+class EmailSenderTests {
+
+    private static final Session SESSION = Session.getInstance(new Properties());
+
+    private static final String CID = "memoryChart";
+
+    private static final byte[] CHART = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+
+    @TempDir
+    Path dir;
+
+    private final InlineCapturingMailSender sender = new InlineCapturingMailSender();
+
+    private final ChartBufferPool pool = new ChartBufferPool(1, 1, 512);
+
+    private final ReportMetrics reportMetrics = new ReportMetrics(new SimpleMeterRegistry());
+
+    private MailOutbox outbox;
+
+    private EmailSender emailSender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MailOutboxConfig config = new MailOutboxConfig();
+        config.setDir(dir.toString());
+        config.setInitialBackoffMs(10L);
+        config.setIdleCloseMs(50L);
+        outbox = new MailOutbox();
+        ReflectionTestUtils.setField(outbox, "javaMailSender", sender);
+        ReflectionTestUtils.setField(outbox, "config", config);
+        ReflectionTestUtils.setField(outbox, "reportMetrics", reportMetrics);
+        outbox.init();
+
+        emailSender = new EmailSender();
+        ReflectionTestUtils.setField(emailSender, "javaMailSender", sender);
+        ReflectionTestUtils.setField(emailSender, "from", "report@example.com");
+        ReflectionTestUtils.setField(emailSender, "appDisplayName", "AI-Reply");
+        ReflectionTestUtils.setField(emailSender, "manageEmail", "manager@example.com");
+        ReflectionTestUtils.setField(emailSender, "mailOutbox", outbox);
+        ReflectionTestUtils.setField(emailSender, "reportMetrics", reportMetrics);
+        ReflectionTestUtils.setField(emailSender, "bugReportDedupWindowMinutes", 30L);
+        emailSender.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sender.deliver.countDown();
+        outbox.destroy();
+    }
+
+    @Test
+    void pooledBufferIsReleasedOnceSendReturns() throws InterruptedException {
+        ChartBufferPool.Buffer buffer = pool.acquire();
+        buffer.writeBytes(CHART);
+
+        try (InlineImage image = InlineImage.of(CID, buffer.toDataSource(InlineImage.IMAGE_PNG), buffer::release)) {
+            emailSender.sendHtmlMailWithInlines("报表", "<img src=\"cid:" + CID + "\"/>", List.of(image), "manager@example.com");
+        }
+
+        // 缓冲区已归还并被下一张图表覆盖，投递时仍应读到发送时的内容
+        ChartBufferPool.Buffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        reused.writeBytes(new byte[CHART.length]);
+        sender.deliver.countDown();
+
+        byte[] delivered = sender.inlines.poll(10, TimeUnit.SECONDS);
+        assertNotNull(delivered);
+        assertArrayEquals(CHART, delivered);
+    }
+
+    @Test
+    void repeatedBugReportIsSentOnceWithinTheDedupWindow() {
+        MailOutboxConfig directConfig = new MailOutboxConfig();
+        directConfig.setEnabled(false);
+        MailOutbox direct = new MailOutbox();
+        ReflectionTestUtils.setField(direct, "config", directConfig);
+        ReflectionTestUtils.setField(emailSender, "mailOutbox", direct);
+        sender.deliver.countDown();
+
+        // 同一处抛出的异常堆栈相同，视为重复
+        for (int i = 0; i < 3; i++) {
+            emailSender.sendBugReport(new IllegalStateException("camera offline"));
+        }
+        emailSender.sendBugReport(new IllegalArgumentException("template missing"));
+
+        assertEquals(List.of("AI-Reply - 异常上报", "AI-Reply - 异常上报"), List.copyOf(sender.subjects));
+    }
+
+    /**
+     * 投递前等待放行，记录主题并在投递时读出内嵌图片内容
+     */
+    private static class InlineCapturingMailSender implements JavaMailSender {
+
+        private final CountDownLatch deliver = new CountDownLatch(1);
+
+        private final LinkedBlockingQueue<byte[]> inlines = new LinkedBlockingQueue<>();
+
+        private final LinkedBlockingQueue<String> subjects = new LinkedBlockingQueue<>();
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return new MimeMessage(SESSION);
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            try {
+                deliver.await();
+                for (MimeMessage message : mimeMessages) {
+                    subjects.add(message.getSubject());
+                    byte[] inline = inline(message);
+                    if (inline != null) {
+                        inlines.add(inline);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("投递被中断");
+            } catch (MessagingException | IOException e) {
+                throw new MailSendException("无法读取内嵌图片", e);
+            }
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static byte[] inline(Part part) throws MessagingException, IOException {
+            if (part instanceof MimeBodyPart bodyPart && ("<" + CID + ">").equals(bodyPart.getContentID())) {
+                try (InputStream in = bodyPart.getInputStream()) {
+                    return in.readAllBytes();
+                }
+            }
+            if (part.getContent() instanceof Multipart multipart) {
+                for (int i = 0; i < multipart.getCount(); i++) {
+                    BodyPart child = multipart.getBodyPart(i);
+                    byte[] found = inline(child);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
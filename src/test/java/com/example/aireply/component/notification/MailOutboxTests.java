@@ -0,0 +1,209 @@
+package com.example.aireply.component.notification;
+
+import com.example.aireply.component.report.ReportMetrics;
+import com.example.aireply.config.MailOutboxConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 持久化发件箱的重启恢复与重试测试
+ */
+class MailOutboxTests {
+
+    private static final Session SESSION = Session.getInstance(new Properties());
+
+    @TempDir
+    Path dir;
+
+    private final RecordingMailSender sender = new RecordingMailSender();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MailOutboxConfig config = new MailOutboxConfig();
+
+    private MailOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        config.setDir(dir.toString());
+        config.setInitialBackoffMs(10L);
+        config.setMaxBackoffMs(40L);
+        config.setIdleCloseMs(50L);
+        outbox = new MailOutbox();
+        ReflectionTestUtils.setField(outbox, "javaMailSender", sender);
+        ReflectionTestUtils.setField(outbox, "config", config);
+        ReflectionTestUtils.setField(outbox, "reportMetrics", new ReportMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        outbox.destroy();
+    }
+
+    @Test
+    void pendingMailIsRecoveredInOrderAfterRestart() throws Exception {
+        writeEml("00000000000000000002.eml", "second");
+        writeEml("00000000000000000001.eml", "first");
+        Files.writeString(dir.resolve("00000000000000000003.tmp"), "Subject: torn");
+
+        outbox.init();
+
+        assertFalse(Files.exists(dir.resolve("00000000000000000003.tmp")), "残缺的临时文件在启动时删除");
+        await().until(() -> sender.subjects.size() == 2);
+        assertEquals(List.of("first", "second"), sender.subjects);
+        await().until(() -> emlCount() == 0);
+
+        outbox.enqueue(message("third"));
+        await().until(() -> sender.subjects.size() == 3);
+        assertEquals("third", sender.subjects.get(2));
+    }
+
+    @Test
+    void mailFailingEveryAttemptIsMovedAsideAndUnblocksTheQueue() throws Exception {
+        config.setMaxAttempts(3);
+        sender.rejectedSubject = "poison";
+        outbox.init();
+
+        outbox.enqueue(message("poison"));
+        outbox.enqueue(message("next"));
+        await().until(() -> sender.subjects.size() == 1);
+
+        assertEquals(List.of("next"), sender.subjects);
+        assertEquals(4, sender.attempts.get());
+        await().until(() -> emlCount() == 0);
+        try (Stream<Path> failed = Files.list(dir.resolve("failed"))) {
+            assertEquals(1, failed.count());
+        }
+    }
+
+    @Test
+    void failedSendIsRetriedUntilDelivered() throws Exception {
+        sender.failures.set(2);
+        outbox.init();
+
+        outbox.enqueue(message("retry"));
+        await().until(() -> sender.subjects.size() == 1);
+
+        assertEquals(List.of("retry"), sender.subjects);
+        assertEquals(3, sender.attempts.get());
+        await().until(() -> emlCount() == 0);
+        assertEquals(0, outbox.size());
+        assertEquals(2, meterRegistry.get(ReportMetrics.SMTP_TIMER).tag("outcome", "failure").timer().count());
+        assertEquals(1, meterRegistry.get(ReportMetrics.SMTP_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void unexpectedErrorRequeuesTheBatch() throws Exception {
+        sender.crashes.set(1);
+        outbox.init();
+
+        outbox.enqueue(message("crash"));
+        await().until(() -> sender.subjects.size() == 1);
+
+        assertEquals(List.of("crash"), sender.subjects);
+        assertEquals(2, sender.attempts.get());
+        await().until(() -> emlCount() == 0);
+        assertEquals(0, outbox.size());
+    }
+
+    private void writeEml(String name, String subject) throws MessagingException, IOException {
+        try (OutputStream out = Files.newOutputStream(dir.resolve(name))) {
+            message(subject).writeTo(out);
+        }
+    }
+
+    private static MimeMessage message(String subject) throws MessagingException {
+        MimeMessage message = new MimeMessage(SESSION);
+        message.setRecipients(MimeMessage.RecipientType.TO, "to@example.com");
+        message.setSubject(subject);
+        message.setText(subject);
+        return message;
+    }
+
+    private long emlCount() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".eml")).count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 记录送达主题的发送器，可配置前若干次发送失败
+     */
+    private static class RecordingMailSender implements JavaMailSender {
+
+        private final List<String> subjects = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        /** 前若干次发送抛出非邮件异常 */
+        private final AtomicInteger crashes = new AtomicInteger();
+
+        /** 该主题的邮件每次发送都失败 */
+        private volatile String rejectedSubject;
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return new MimeMessage(SESSION);
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            for (MimeMessage message : mimeMessages) {
+                attempts.incrementAndGet();
+                if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new MailSendException("SMTP 服务不可用");
+                }
+                if (crashes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new IllegalStateException("模拟发送线程异常");
+                }
+                try {
+                    if (message.getSubject().equals(rejectedSubject)) {
+                        throw new MailSendException("邮件内容无法发送");
+                    }
+                    subjects.add(message.getSubject());
+                } catch (MessagingException e) {
+                    throw new MailSendException("无法读取主题", e);
+                }
+            }
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.aireply.component.template;
+
+import com.example.aireply.component.HtmlTemplateEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 预编译模板与原字符串替换实现的一致性测试
+ */
+class TemplateParserTests {
+
+    private static final String REPORT = "templates/hourly-report.html";
+
+    private static final List<String> FLAGS = List.of(
+            "hasCamera", "hasUnavailable", "hasMemoryChart", "hasCpuLoadTrend", "hasCpuTempTrend");
+
+    @Test
+    void reportMatchesLegacyEngineForEveryFlagCombination() throws IOException {
+        String source = load(REPORT);
+        CompiledTemplate compiled = TemplateParser.parse(REPORT, source);
+        HtmlTemplateEngine engine = new HtmlTemplateEngine();
+
+        for (int mask = 0; mask < 1 << FLAGS.size(); mask++) {
+            Map<String, String> vars = reportVariables();
+            for (int f = 0; f < FLAGS.size(); f++) {
+                vars.put(FLAGS.get(f), String.valueOf((mask & 1 << f) != 0));
+            }
+            String expected = legacyRender(source, vars);
+
+            assertEquals(expected, compiled.render(vars), "flags=" + Integer.toBinaryString(mask));
+            assertEquals(expected, engine.render(REPORT, vars));
+            StringWriter writer = new StringWriter();
+            engine.render(REPORT, vars, writer);
+            assertEquals(expected, writer.toString());
+        }
+    }
+
+    @Test
+    void missingAndNullVariablesMatchLegacyEngine() throws IOException {
+        String source = load(REPORT);
+        Map<String, String> vars = reportVariables();
+        FLAGS.forEach(flag -> vars.put(flag, "true"));
+        vars.remove("festivals");
+        vars.put("pengZu", null);
+
+        assertEquals(legacyRender(source, vars), TemplateParser.parse(REPORT, source).render(vars));
+    }
+
+    /**
+     * 改造前 HtmlTemplateEngine 的实现：逐个变量展开 [IF:key] 块，再逐个替换 ${key}
+     */
+    private static String legacyRender(String template, Map<String, String> variables) {
+        for (String key : variables.keySet()) {
+            String ifTag = "[IF:" + key + "]";
+            String endTag = "[/IF]";
+            boolean keep = "true".equalsIgnoreCase(variables.get(key));
+
+            while (template.contains(ifTag)) {
+                int start = template.indexOf(ifTag);
+                int end = template.indexOf(endTag, start);
+                if (end == -1) break;
+
+                String content = keep ? template.substring(start + ifTag.length(), end) : "";
+                template = template.substring(0, start) + content + template.substring(end + endTag.length());
+            }
+        }
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            template = template.replace("${" + entry.getKey() + "}", entry.getValue() == null ? "" : entry.getValue());
+        }
+        return template;
+    }
+
+    private static String load(String path) throws IOException {
+        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(path)) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> reportVariables() {
+        Map<String, String> vars = new HashMap<>();
+        vars.put("time", "2024-06-01 12:00:00");
+        vars.put("systemStatus", "主机: pi | CPU 负载: 25.00% | 堆内存: 256/1024 MB (25.0%)\n<磁盘> 21/59 GB & 温度 48.3℃");
+        vars.put("lunarDate", "甲辰年四月廿五");
+        vars.put("week", "星期六");
+        vars.put("animal", "龙");
+        vars.put("constellation", "双子座");
+        vars.put("solarTerm", "小满");
+        vars.put("festivals", "国际儿童节");
+        vars.put("lunarSeason", "孟夏");
+        vars.put("moonPhase", "残月");
+        vars.put("currentHour", "午时");
+        vars.put("hourRange", "11:00-13:00");
+        vars.put("liuRen", "速喜");
+        vars.put("liuRenLuck", "吉");
+        vars.put("liuRenElement", "火");
+        vars.put("dayYi", "祭祀 祈福 求嗣 开光 出行 解除 伐木 拆卸 修造 动土");
+        vars.put("dayJi", "嫁娶 安葬 破土");
+        vars.put("hourYi", "祈福 求嗣 出行");
+        vars.put("hourJi", "诉讼");
+        vars.put("pengZu", "甲不开仓财物耗散 辰不哭泣必主重丧");
+        vars.put("wuXing", "覆灯火");
+        vars.put("baZi", "甲辰 己巳 壬申 丙午");
+        vars.put("unavailableSources", "摄像头、CPU 温度趋势图");
+        vars.put("stageTimings", "metrics=12ms tyme=3ms memory=45ms cpuLoad=80ms cpuTemp=78ms render=1ms");
+        return vars;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.aireply.component.tyme;
+
+import com.example.aireply.component.tyme.model.TymeHourInfo;
+import com.example.aireply.config.TymeCacheConfig;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 历法缓存测试
+ */
+class TymeCollectorTests {
+
+    private static final LocalDate DATE = LocalDate.of(2031, 6, 15);
+
+    private TymeCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        TymeCacheConfig config = new TymeCacheConfig();
+        config.setPrecompute(false);
+        collector = collector(config);
+    }
+
+    @Test
+    void hoursMapToShichenSlots() {
+        assertEquals(0, TymeCollector.slotOf(0));
+        assertEquals(1, TymeCollector.slotOf(1));
+        assertEquals(1, TymeCollector.slotOf(2));
+        assertEquals(11, TymeCollector.slotOf(22));
+        assertEquals(12, TymeCollector.slotOf(23));
+
+        assertEquals("23:00 - 01:00", collector.hourInfo(DATE, TymeCollector.slotOf(0)).currentHourRange());
+        assertEquals("01:00 - 03:00", collector.hourInfo(DATE, TymeCollector.slotOf(1)).currentHourRange());
+        assertEquals("21:00 - 23:00", collector.hourInfo(DATE, TymeCollector.slotOf(22)).currentHourRange());
+        assertEquals("23:00 - 01:00", collector.hourInfo(DATE, TymeCollector.slotOf(23)).currentHourRange());
+    }
+
+    /**
+     * 生成的历法表落盘后，下次启动直接加载，内容与按需计算一致
+     */
+    @Test
+    void precomputedTableSurvivesRestart(@TempDir Path dir) {
+        TymeCacheConfig config = new TymeCacheConfig();
+        config.setPrecompute(false);
+        config.setFromYear(DATE.getYear());
+        config.setToYear(DATE.getYear());
+        config.setFile(dir.resolve("table.json").toString());
+
+        TymeCollector first = collector(config);
+        ReflectionTestUtils.invokeMethod(first, "loadTable");
+        assertTrue(Files.exists(dir.resolve("table.json")));
+
+        TymeCollector restarted = collector(config);
+        ReflectionTestUtils.invokeMethod(restarted, "loadTable");
+
+        assertEquals(collector.dayInfo(DATE), restarted.dayInfo(DATE));
+        for (int slot = 0; slot < TymeCollector.SLOTS_PER_DAY; slot++) {
+            assertEquals(collector.hourInfo(DATE, slot), restarted.hourInfo(DATE, slot));
+        }
+        // 表内日期不经过按需计算的缓存
+        assertEquals(0, restarted.hourCacheStats().requestCount());
+    }
+
+    @Test
+    void hourInfoOutsideTableIsComputedOnce() {
+        TymeHourInfo first = collector.hourInfo(DATE, 3);
+        TymeHourInfo second = collector.hourInfo(DATE, 3);
+        TymeHourInfo otherSlot = collector.hourInfo(DATE, 4);
+
+        assertSame(first, second);
+        assertNotSame(first, otherSlot);
+        CacheStats stats = collector.hourCacheStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+    }
+
+    private static TymeCollector collector(TymeCacheConfig config) {
+        TymeCollector collector = new TymeCollector();
+        ReflectionTestUtils.setField(collector, "config", config);
+        collector.init();
+        return collector;
+    }
+}
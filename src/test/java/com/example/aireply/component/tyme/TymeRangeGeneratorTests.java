@@ -0,0 +1,90 @@
+package com.example.aireply.component.tyme;
+
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.config.TymeCacheConfig;
+import com.example.aireply.config.TymeRangeConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 历法区间生成测试
+ */
+class TymeRangeGeneratorTests {
+
+    private static final LocalDate FROM = LocalDate.of(2031, 1, 25);
+
+    private static final LocalDate TO = LocalDate.of(2031, 3, 3);
+
+    private TymeCollector collector;
+
+    private TymeRangeGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        TymeCacheConfig cacheConfig = new TymeCacheConfig();
+        cacheConfig.setPrecompute(false);
+        collector = new TymeCollector();
+        ReflectionTestUtils.setField(collector, "config", cacheConfig);
+        collector.init();
+
+        TymeRangeConfig rangeConfig = new TymeRangeConfig();
+        rangeConfig.setParallelism(3);
+        rangeConfig.setChunkDays(5);
+        generator = new TymeRangeGenerator();
+        ReflectionTestUtils.setField(generator, "tymeCollector", collector);
+        ReflectionTestUtils.setField(generator, "config", rangeConfig);
+        generator.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.destroy();
+    }
+
+    @Test
+    void daysArriveInOrderAndShareTheCache() {
+        List<TymeTable.Day> days = new ArrayList<>();
+        generator.generate(FROM, TO, true, days::addAll);
+
+        assertEquals(ChronoUnit.DAYS.between(FROM, TO) + 1, days.size());
+        LocalDate expected = FROM;
+        for (TymeTable.Day day : days) {
+            assertEquals(expected.toString(), day.date());
+            assertSame(collector.dayInfo(expected), day.info());
+            assertEquals(TymeCollector.SLOTS_PER_DAY, day.hours().size());
+            assertSame(collector.hourInfo(expected, 5), day.hours().get(5));
+            expected = expected.plusDays(1);
+        }
+    }
+
+    @Test
+    void hoursAreOmittedUnlessRequested() {
+        List<TymeTable.Day> days = new ArrayList<>();
+        generator.generate(FROM, FROM, false, days::addAll);
+
+        assertEquals(1, days.size());
+        assertNull(days.get(0).hours());
+    }
+
+    @Test
+    void sinkFailureStopsGeneration() {
+        List<List<TymeTable.Day>> chunks = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> generator.generate(FROM, TO, false, chunk -> {
+            chunks.add(chunk);
+            throw new IllegalStateException("client gone");
+        }));
+        assertEquals(1, chunks.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.aireply.component.zsxq;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 已回答集合测试
+ */
+class TopicIdSetTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void idsSurviveReopenAndGrowth() throws IOException {
+        Path file = dir.resolve("answered.ids");
+        try (TopicIdSet set = new TopicIdSet(file)) {
+            for (long id = 1; id <= 5_000; id++) {
+                set.add(id * 7919);
+            }
+            set.add(7919);
+            set.flush();
+            assertEquals(5_000, set.size());
+        }
+        assertEquals(5_000L * Long.BYTES, Files.size(file));
+
+        try (TopicIdSet set = new TopicIdSet(file)) {
+            assertEquals(5_000, set.size());
+            assertTrue(set.contains(7919L * 4_321));
+            assertFalse(set.contains(7920));
+        }
+    }
+
+    @Test
+    void partialTrailingRecordIsDropped() throws IOException {
+        Path file = dir.resolve("answered.ids");
+        try (TopicIdSet set = new TopicIdSet(file)) {
+            set.add(42);
+        }
+        Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (TopicIdSet set = new TopicIdSet(file)) {
+            assertEquals(1, set.size());
+            set.add(43);
+        }
+        assertEquals(2L * Long.BYTES, Files.size(file));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.aireply.controller;
+
+import com.example.aireply.common.web.ResponseEntity;
+import com.example.aireply.component.metrics.MetricsBroadcaster;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsQueryConfig;
+import com.example.aireply.config.MetricsStoreConfig;
+import com.example.aireply.config.MetricsStreamConfig;
+import com.example.aireply.service.MetricsQueryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 指标接口测试：经 MockMvc 发出真实的 HTTP 请求，校验状态码与响应体
+ */
+class MetricsControllerTests {
+
+    private MetricsBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void streamIsRejectedWith429WhenSubscribersAreFull() throws Exception {
+        MockMvc mockMvc = mockMvc(0);
+
+        mockMvc.perform(get("/metrics/stream"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void streamStartsWhenASlotIsFree() throws Exception {
+        MockMvc mockMvc = mockMvc(1);
+
+        mockMvc.perform(get("/metrics/stream"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void historyStreamHasTheSameFieldsAsResponseEntity() throws Exception {
+        MockMvc mockMvc = mockMvc(1);
+        String body = "{\"from\":1000,\"to\":4000,\"stepMs\":1000,\"fields\":[\"cpuLoad\"]}";
+
+        MvcResult result = mockMvc.perform(post("/metrics/history/stream").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String json = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode streamed = mapper.readTree(json);
+        JsonNode expected = mapper.valueToTree(ResponseEntity.success(List.of()));
+        Set<String> streamedFields = new HashSet<>();
+        streamed.fieldNames().forEachRemaining(streamedFields::add);
+        Set<String> expectedFields = new HashSet<>();
+        expected.fieldNames().forEachRemaining(expectedFields::add);
+        assertEquals(expectedFields, streamedFields);
+        assertTrue(streamed.get("success").asBoolean());
+        assertEquals(expected.get("code"), streamed.get("code"));
+        assertEquals(3, streamed.get("data").size());
+    }
+
+    private MockMvc mockMvc(int maxSubscribers) {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        MetricsStreamConfig config = new MetricsStreamConfig();
+        config.setMaxSubscribers(maxSubscribers);
+        MetricsRepository repository = new MetricsRepository(16, storeConfig);
+        double[] values = new double[MetricField.count()];
+        for (int second = 1; second <= 3; second++) {
+            values[MetricField.CPU_LOAD.ordinal()] = second;
+            repository.append(second * 1000L, values);
+        }
+        broadcaster = new MetricsBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "repository", repository);
+        ReflectionTestUtils.setField(broadcaster, "config", config);
+        broadcaster.init();
+        MetricsQueryService queryService = new MetricsQueryService();
+        ReflectionTestUtils.setField(queryService, "repository", repository);
+        ReflectionTestUtils.setField(queryService, "config", new MetricsQueryConfig());
+        MetricsController controller = new MetricsController();
+        ReflectionTestUtils.setField(controller, "metricsBroadcaster", broadcaster);
+        ReflectionTestUtils.setField(controller, "metricsQueryService", queryService);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+}
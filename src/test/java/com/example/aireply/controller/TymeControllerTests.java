@@ -0,0 +1,105 @@
+package com.example.aireply.controller;
+
+import com.example.aireply.common.web.ResponseEntity;
+import com.example.aireply.component.tyme.TymeCollector;
+import com.example.aireply.component.tyme.TymeRangeGenerator;
+import com.example.aireply.component.tyme.model.TymeTable;
+import com.example.aireply.config.TymeCacheConfig;
+import com.example.aireply.config.TymeRangeConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 历法接口测试：流式输出与常规 ResponseEntity 序列化的结构一致
+ */
+class TymeControllerTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private TymeRangeGenerator generator;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TymeCacheConfig cacheConfig = new TymeCacheConfig();
+        cacheConfig.setPrecompute(false);
+        TymeCollector collector = new TymeCollector();
+        ReflectionTestUtils.setField(collector, "config", cacheConfig);
+        collector.init();
+
+        TymeRangeConfig rangeConfig = new TymeRangeConfig();
+        rangeConfig.setParallelism(2);
+        generator = new TymeRangeGenerator();
+        ReflectionTestUtils.setField(generator, "tymeCollector", collector);
+        ReflectionTestUtils.setField(generator, "config", rangeConfig);
+        generator.init();
+
+        TymeController controller = new TymeController();
+        ReflectionTestUtils.setField(controller, "rangeGenerator", generator);
+        ReflectionTestUtils.setField(controller, "rangeConfig", rangeConfig);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.destroy();
+    }
+
+    @Test
+    void rangeHasTheSameFieldsAsResponseEntity() throws Exception {
+        JsonNode streamed = range("2031-01-25", "2031-01-27");
+
+        JsonNode expected = mapper.valueToTree(ResponseEntity.success(List.of()));
+        assertEquals(fieldNames(expected), fieldNames(streamed));
+        assertTrue(streamed.get("success").asBoolean());
+        assertEquals(3, streamed.get("data").size());
+    }
+
+    @Test
+    void omittedHoursAreWrittenAsNull() throws Exception {
+        JsonNode day = range("2031-01-25", "2031-01-25").get("data").get(0);
+
+        List<TymeTable.Day> days = new ArrayList<>();
+        generator.generate(LocalDate.of(2031, 1, 25), LocalDate.of(2031, 1, 25), false, days::addAll);
+        assertEquals(fieldNames(mapper.valueToTree(days.get(0))), fieldNames(day));
+        assertTrue(day.get("hours").isNull());
+    }
+
+    private JsonNode range(String from, String to) throws Exception {
+        MvcResult result = mockMvc.perform(get("/tyme/range").param("from", from).param("to", to))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String json = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return mapper.readTree(json);
+    }
+
+    private static Set<String> fieldNames(JsonNode node) {
+        Set<String> names = new HashSet<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
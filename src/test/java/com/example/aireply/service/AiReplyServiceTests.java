@@ -0,0 +1,105 @@
+package com.example.aireply.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * AI 回复测试：本地启动一个兼容 OpenAI 接口的桩服务，按 SSE 格式逐段返回
+ */
+class AiReplyServiceTests {
+
+    private static final List<String> TOKENS = List.of("时空", "守望", "者", "。");
+
+    private HttpServer server;
+
+    private final AiReplyService service = new AiReplyService();
+
+    /** 桩服务在发送最后一个片段前等待该信号 */
+    private final CountDownLatch releaseLast = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .apiKey("test")
+                .build();
+        OpenAiChatModel model = OpenAiChatModel.builder()
+                .openAiApi(api)
+                .defaultOptions(OpenAiChatOptions.builder().model("stub").build())
+                .build();
+        ReflectionTestUtils.setField(service, "chatClient", ChatClient.builder(model).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseLast.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void tokensArriveBeforeCompletionFinishes() {
+        // 最后一个片段被阻塞时，前面的片段已经可以消费；
+        // OpenAiChatModel 为合并用量信息会预读一个片段，因此只有倒数第二个之前的片段能先到达
+        List<String> first = service.streamReply(null, "你好").take(TOKENS.size() - 2).collectList().block(Duration.ofSeconds(10));
+        assertEquals(TOKENS.subList(0, TOKENS.size() - 2), first);
+    }
+
+    @Test
+    void fullStreamIsForwardedInOrder() {
+        releaseLast.countDown();
+        List<String> tokens = service.streamReply("你是助手", "你好").collectList().block(Duration.ofSeconds(10));
+        assertEquals(TOKENS, tokens);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < TOKENS.size(); i++) {
+                if (i == TOKENS.size() - 1) {
+                    releaseLast.await(10, TimeUnit.SECONDS);
+                }
+                writeEvent(out, chunk(TOKENS.get(i), null));
+            }
+            writeEvent(out, chunk("", "stop"));
+            writeEvent(out, "[DONE]");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String chunk(String content, String finishReason) {
+        return "{\"id\":\"stub\",\"object\":\"chat.completion.chunk\",\"created\":1,\"model\":\"stub\",\"choices\":[{\"index\":0,"
+                + "\"delta\":{\"role\":\"assistant\",\"content\":\"" + content + "\"},\"finish_reason\":"
+                + (finishReason == null ? "null" : "\"" + finishReason + "\"") + "}]}";
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
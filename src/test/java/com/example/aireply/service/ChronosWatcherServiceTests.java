@@ -0,0 +1,321 @@
+package com.example.aireply.service;
+
+import com.example.aireply.component.HtmlTemplateEngine;
+import com.example.aireply.component.camera.RaspberryPiCameraCollector;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.SystemMetricsCollector;
+import com.example.aireply.component.metrics.model.SystemMetrics;
+import com.example.aireply.component.metrics.visualizer.ChartBufferPool;
+import com.example.aireply.component.metrics.visualizer.MetricsChartType;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizer;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizerContext;
+import com.example.aireply.component.metrics.visualizer.MetricsVisualizerFactory;
+import com.example.aireply.component.notification.EmailSender;
+import com.example.aireply.component.notification.InlineImage;
+import com.example.aireply.component.report.ReportMetrics;
+import com.example.aireply.component.tyme.TymeCollector;
+import com.example.aireply.component.tyme.model.TymeInfo;
+import com.example.aireply.config.MetricsStoreConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 报表流水线测试：各数据源以桩代替，按需超时或失败，不访问摄像头、邮件服务或网络
+ */
+class ChronosWatcherServiceTests {
+
+    private static final long DEADLINE_MS = 1_000;
+
+    private static final long SLOW_MS = 3_000;
+
+    @TempDir
+    Path photoDir;
+
+    private final ChronosWatcherService service = new ChronosWatcherService();
+
+    private final RecordingEmailSender emailSender = new RecordingEmailSender();
+
+    private final StubTymeCollector tymeCollector = new StubTymeCollector();
+
+    private final StubCameraCollector cameraCollector = new StubCameraCollector();
+
+    private final BufferCapturingVisualizer fastChart = new BufferCapturingVisualizer(MetricsChartType.MEMORY_PIE, 0);
+
+    private final BufferCapturingVisualizer slowChart = new BufferCapturingVisualizer(MetricsChartType.CPU_LOAD_TREND, SLOW_MS);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+
+        MetricsVisualizerFactory visualizerFactory = new MetricsVisualizerFactory();
+        ReflectionTestUtils.setField(visualizerFactory, "visualizerList", List.of(fastChart, slowChart, new FailingVisualizer()));
+        visualizerFactory.init();
+
+        ReflectionTestUtils.setField(service, "emailSender", emailSender);
+        ReflectionTestUtils.setField(service, "metricsCollector", new StubMetricsCollector());
+        ReflectionTestUtils.setField(service, "visualizerFactory", visualizerFactory);
+        ReflectionTestUtils.setField(service, "metricsRepository", new MetricsRepository(8, storeConfig));
+        ReflectionTestUtils.setField(service, "tymeCollector", tymeCollector);
+        ReflectionTestUtils.setField(service, "cameraCollector", cameraCollector);
+        ReflectionTestUtils.setField(service, "templateEngine", new HtmlTemplateEngine());
+        ReflectionTestUtils.setField(service, "chartBufferPool", new ChartBufferPool(4, 1, 512));
+        ReflectionTestUtils.setField(service, "reportMetrics", new ReportMetrics(meterRegistry));
+        ReflectionTestUtils.setField(service, "manageEmail", "manager@example.com");
+        ReflectionTestUtils.setField(service, "collectDeadlineMs", DEADLINE_MS);
+        ReflectionTestUtils.setField(service, "chartDeadlineMs", DEADLINE_MS);
+        ReflectionTestUtils.setField(service, "cameraDeadlineMs", DEADLINE_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void slowSourcesAreSkippedWithinTheirDeadlines() {
+        cameraCollector.delayMs = SLOW_MS;
+
+        long start = System.nanoTime();
+        service.watch();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs < SLOW_MS, "report waited " + elapsedMs + "ms for sources past their deadline");
+        assertEquals(List.of(MetricsChartType.MEMORY_PIE.getCid()), emailSender.sentContentIds);
+        assertTrue(emailSender.bugReports.isEmpty());
+    }
+
+    @Test
+    void unavailableSourcesArePlaceholdedInTheReport() {
+        cameraCollector.delayMs = SLOW_MS;
+
+        service.watch();
+
+        String html = emailSender.sentHtml.get(0);
+        assertTrue(html.contains("暂不可用"), html);
+        for (MetricsChartType type : List.of(MetricsChartType.CPU_LOAD_TREND, MetricsChartType.CPU_TEMP_TREND, MetricsChartType.RPI_CAMERA)) {
+            assertTrue(html.contains(type.getDescription()), type.getDescription());
+        }
+        assertTrue(html.contains("cid:" + MetricsChartType.MEMORY_PIE.getCid()), html);
+        assertFalse(html.contains("cid:" + MetricsChartType.CPU_LOAD_TREND.getCid()), html);
+    }
+
+    @Test
+    void stagesAndUnavailableSourcesAreMetered() {
+        cameraCollector.delayMs = SLOW_MS;
+
+        service.watch();
+
+        for (String stage : List.of("metrics", "tyme", MetricsChartType.MEMORY_PIE.getCid(), "render", "send")) {
+            assertEquals(1, meterRegistry.get(ReportMetrics.STAGE_TIMER).tags("stage", stage, "outcome", "success").timer().count(), stage);
+        }
+        assertEquals(1, meterRegistry.get(ReportMetrics.STAGE_TIMER)
+                .tags("stage", MetricsChartType.CPU_TEMP_TREND.getCid(), "outcome", "failure").timer().count());
+        for (MetricsChartType type : List.of(MetricsChartType.CPU_LOAD_TREND, MetricsChartType.CPU_TEMP_TREND, MetricsChartType.RPI_CAMERA)) {
+            assertEquals(1.0, meterRegistry.get(ReportMetrics.UNAVAILABLE_COUNTER).tag("source", type.getDescription()).counter().count(),
+                    type.getDescription());
+        }
+        assertEquals(1, meterRegistry.get(ReportMetrics.REPORT_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void lateResultsAreReleasedWhenTheyArrive() throws InterruptedException {
+        cameraCollector.delayMs = SLOW_MS;
+
+        service.watch();
+
+        // 发送后立即释放按时到达的图表；超时的图表与照片在产出后才释放
+        assertEquals(0, fastChart.buffer.size());
+        assertTrue(slowChart.written.await(5, TimeUnit.SECONDS));
+        await().until(() -> slowChart.buffer.size() == 0);
+        assertTrue(cameraCollector.captured.await(5, TimeUnit.SECONDS));
+        await().until(() -> !Files.exists(cameraCollector.photo));
+    }
+
+    @Test
+    void hungCaptureIsInterruptedAtItsDeadline() throws InterruptedException {
+        cameraCollector.hang = true;
+
+        service.watch();
+
+        assertEquals(List.of(MetricsChartType.MEMORY_PIE.getCid()), emailSender.sentContentIds);
+        assertTrue(cameraCollector.interrupted.await(5, TimeUnit.SECONDS), "camera thread was not interrupted");
+    }
+
+    @Test
+    void missingCalendarFailsTheReportAndReleasesImages() {
+        tymeCollector.delayMs = SLOW_MS;
+
+        service.watch();
+
+        assertTrue(emailSender.sentContentIds.isEmpty());
+        assertEquals(1, emailSender.bugReports.size());
+        assertInstanceOf(IllegalStateException.class, emailSender.bugReports.get(0));
+        assertEquals(1, meterRegistry.get(ReportMetrics.REPORT_TIMER).tag("outcome", "failure").timer().count());
+        assertEquals(0, fastChart.buffer.size());
+        assertFalse(Files.exists(cameraCollector.photo));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录发送内容的邮件组件，发送时读取内嵌图片标识（之后图片即被释放）
+     */
+    private static class RecordingEmailSender extends EmailSender {
+
+        private final List<String> sentHtml = new CopyOnWriteArrayList<>();
+
+        private final List<String> sentContentIds = new CopyOnWriteArrayList<>();
+
+        private final List<Exception> bugReports = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void sendHtmlMailWithInlines(String mailTitle, String htmlContent, Collection<InlineImage> inlineImages, String to) {
+            sentHtml.add(htmlContent);
+            inlineImages.forEach(image -> sentContentIds.add(image.getContentId()));
+        }
+
+        @Override
+        public void sendBugReport(Exception e) {
+            bugReports.add(e);
+        }
+    }
+
+    private static class StubMetricsCollector extends SystemMetricsCollector {
+
+        @Override
+        public SystemMetrics collect() {
+            return new SystemMetrics("host", "Linux", "aarch64", 0.25, 128, 512, 25.0, 32, 8, 25.0, 60_000, 45.0);
+        }
+    }
+
+    private static class StubTymeCollector extends TymeCollector {
+
+        private volatile long delayMs;
+
+        @Override
+        public TymeInfo collect() {
+            sleep(delayMs);
+            return TymeInfo.builder()
+                    .lunarYear("甲辰年").lunarMonth("丙寅月").lunarDay("壬申日")
+                    .dayYi(List.of()).dayJi(List.of()).hourYi(List.of()).hourJi(List.of())
+                    .build();
+        }
+    }
+
+    /**
+     * 按需延迟后在临时目录生成照片；hang 时一直阻塞到被中断，模拟卡死的拍照进程
+     */
+    private class StubCameraCollector extends RaspberryPiCameraCollector {
+
+        private volatile long delayMs;
+
+        private volatile boolean hang;
+
+        private final CountDownLatch captured = new CountDownLatch(1);
+
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        private volatile Path photo;
+
+        @Override
+        public Path capturePhotoFile() {
+            if (hang) {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }
+            sleep(delayMs);
+            try {
+                photo = Files.write(photoDir.resolve("photo.jpg"), new byte[]{1, 2, 3});
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            captured.countDown();
+            return photo;
+        }
+    }
+
+    /**
+     * 记录写入的池化缓冲区，缓冲区归还时会被清空
+     */
+    private static class BufferCapturingVisualizer implements MetricsVisualizer {
+
+        private final MetricsChartType type;
+
+        private final long delayMs;
+
+        private final CountDownLatch written = new CountDownLatch(1);
+
+        private volatile ByteArrayOutputStream buffer;
+
+        BufferCapturingVisualizer(MetricsChartType type, long delayMs) {
+            this.type = type;
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public MetricsChartType getType() {
+            return type;
+        }
+
+        @Override
+        public byte[] visualize(MetricsVisualizerContext context) {
+            return new byte[]{1, 2, 3};
+        }
+
+        @Override
+        public boolean visualize(MetricsVisualizerContext context, OutputStream out) throws IOException {
+            sleep(delayMs);
+            buffer = (ByteArrayOutputStream) out;
+            out.write(visualize(context));
+            written.countDown();
+            return true;
+        }
+    }
+
+    private static class FailingVisualizer implements MetricsVisualizer {
+
+        @Override
+        public MetricsChartType getType() {
+            return MetricsChartType.CPU_TEMP_TREND;
+        }
+
+        @Override
+        public byte[] visualize(MetricsVisualizerContext context) {
+            throw new IllegalStateException("chart failed");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.aireply.service;
+
+import com.example.aireply.common.enums.SortOrderEnum;
+import com.example.aireply.common.exception.BusinessException;
+import com.example.aireply.common.model.vo.PageVO;
+import com.example.aireply.component.metrics.MetricsRepository;
+import com.example.aireply.component.metrics.store.MetricField;
+import com.example.aireply.config.MetricsQueryConfig;
+import com.example.aireply.config.MetricsStoreConfig;
+import com.example.aireply.model.dto.MetricsQueryDTO;
+import com.example.aireply.model.vo.MetricsBucketVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 历史指标查询测试：每秒一条样本，CPU 负载等于秒数
+ */
+class MetricsQueryServiceTests {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    private final MetricsQueryService service = new MetricsQueryService();
+
+    @BeforeEach
+    void setUp() {
+        MetricsStoreConfig storeConfig = new MetricsStoreConfig();
+        storeConfig.setEnabled(false);
+        MetricsRepository repository = new MetricsRepository(128, storeConfig);
+        double[] values = new double[MetricField.count()];
+        for (int second = 0; second < 60; second++) {
+            values[MetricField.CPU_LOAD.ordinal()] = second;
+            values[MetricField.CPU_TEMP_CELSIUS.ordinal()] = Double.NaN;
+            repository.append(BASE + second * 1000L, values);
+        }
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "config", new MetricsQueryConfig());
+    }
+
+    @Test
+    void pagesAreCountedInBuckets() {
+        // 区间 65 秒、步长 10 秒 -> 7 个桶，最后一个桶没有样本
+        MetricsQueryDTO dto = query(0, 65_000, 10_000, "cpuLoad:avg", "cpuLoad:max", "cpuTempCelsius:p95");
+        dto.setCurrent(2);
+        dto.setPageSize(3);
+
+        PageVO<MetricsBucketVO> page = service.page(dto);
+
+        assertEquals(7, page.getTotal());
+        assertEquals(List.of(BASE + 30_000, BASE + 40_000, BASE + 50_000),
+                page.getRecords().stream().map(MetricsBucketVO::getTimestamp).toList());
+        MetricsBucketVO first = page.getRecords().get(0);
+        assertEquals(10, first.getCount());
+        assertEquals(34.5, first.getValues().get("cpuLoad:avg"));
+        assertEquals(39.0, first.getValues().get("cpuLoad:max"));
+        assertNull(first.getValues().get("cpuTempCelsius:p95"));
+    }
+
+    @Test
+    void descendingPagesStartFromTheLatestBucket() {
+        MetricsQueryDTO dto = query(0, 65_000, 10_000, "cpuLoad:min");
+        dto.setPageSize(2);
+        dto.setSortOrder(SortOrderEnum.DESC);
+
+        List<MetricsBucketVO> records = service.page(dto).getRecords();
+
+        assertEquals(List.of(BASE + 60_000, BASE + 50_000), records.stream().map(MetricsBucketVO::getTimestamp).toList());
+        assertEquals(0, records.get(0).getCount());
+        assertNull(records.get(0).getValues().get("cpuLoad:min"));
+        assertEquals(50.0, records.get(1).getValues().get("cpuLoad:min"));
+    }
+
+    @Test
+    void hugePageNumbersReturnAnEmptyPage() {
+        MetricsQueryDTO dto = query(0, 65_000, 10_000, "cpuLoad:avg");
+        dto.setCurrent(Integer.MAX_VALUE);
+        dto.setPageSize(100);
+
+        PageVO<MetricsBucketVO> page = service.page(dto);
+
+        assertEquals(7, page.getTotal());
+        assertEquals(List.of(), page.getRecords());
+    }
+
+    @Test
+    void streamWritesEveryBucketInOrder() {
+        MetricsQueryDTO dto = query(0, 30_000, 15_000, "cpuLoad:p95");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.stream(service.resolve(dto), out);
+
+        assertEquals("{\"timestamp\":" + BASE + ",\"count\":15,\"values\":{\"cpuLoad:p95\":14.0}},"
+                        + "{\"timestamp\":" + (BASE + 15_000) + ",\"count\":15,\"values\":{\"cpuLoad:p95\":29.0}}",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        assertThrows(BusinessException.class, () -> service.resolve(query(10_000, 10_000, 1_000, "cpuLoad")));
+        assertThrows(BusinessException.class, () -> service.resolve(query(0, 60_000, 10, "cpuLoad")));
+        assertThrows(BusinessException.class, () -> service.resolve(query(0, 60_000, 1_000, "cpuLoad:median")));
+        assertThrows(BusinessException.class, () -> service.resolve(query(0, 365L * 24 * 3600 * 1000, 1_000, "cpuLoad")));
+    }
+
+    @Test
+    void overflowingRangesAreRejected() {
+        // Long.MAX_VALUE - Long.MIN_VALUE 溢出为负数，曾通过桶数检查并返回负的总数
+        MetricsQueryDTO dto = query(0, 0, 1_000, "cpuLoad");
+        dto.setFrom(Long.MIN_VALUE);
+        dto.setTo(Long.MAX_VALUE);
+        assertThrows(BusinessException.class, () -> service.page(dto));
+
+        dto.setFrom(-1_000L);
+        dto.setTo(1_000L);
+        assertThrows(BusinessException.class, () -> service.resolve(dto));
+    }
+
+    @Test
+    void rangesEndingNearLongMaxStayInRange() {
+        double[] values = new double[MetricField.count()];
+        MetricsRepository repository = (MetricsRepository) ReflectionTestUtils.getField(service, "repository");
+        repository.append(Long.MAX_VALUE - 1_000, values);
+        MetricsQueryDTO dto = query(0, 0, 1_000, "cpuLoad");
+        dto.setFrom(Long.MAX_VALUE - 2_500);
+        dto.setTo(Long.MAX_VALUE);
+
+        PageVO<MetricsBucketVO> page = service.page(dto);
+
+        assertEquals(3, page.getTotal());
+        assertEquals(List.of(0, 1, 0), page.getRecords().stream().map(MetricsBucketVO::getCount).toList());
+    }
+
+    private static MetricsQueryDTO query(long fromOffset, long toOffset, long stepMs, String... fields) {
+        MetricsQueryDTO dto = new MetricsQueryDTO();
+        dto.setFrom(BASE + fromOffset);
+        dto.setTo(BASE + toOffset);
+        dto.setStepMs(stepMs);
+        dto.setFields(List.of(fields));
+        return dto;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.aireply.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.example.aireply.component.zsxq.ZsxqClient;
+import com.example.aireply.config.ZsxqConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 星球自动回复测试：本地模拟星球接口（翻页、ETag、回答），模型以桩代替
+ */
+class ZsxqReplyServiceTests {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2026, 1, 1, 8, 0, 0, 0, ZoneOffset.ofHours(8));
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+
+    /** 模拟星球中待回答的提问，按创建时间升序 */
+    private final List<MockTopic> unanswered = new CopyOnWriteArrayList<>();
+
+    private final Map<Long, String> answers = new ConcurrentHashMap<>();
+
+    /** 回答时返回失败的提问 */
+    private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger topicRequests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private final AtomicInteger modelCalls = new AtomicInteger();
+
+    private long nextId = 1000;
+
+    private ZsxqConfig config;
+
+    private final OkHttpClient okHttpClient = new OkHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v2/groups/g1/topics", this::handleTopics);
+        server.createContext("/v2/topics/", this::handleAnswer);
+        server.start();
+
+        config = new ZsxqConfig();
+        config.setEnabled(true);
+        config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        config.setGroupId("g1");
+        config.setCookie("zsxq_access_token=test");
+        config.setPageSize(20);
+        config.setParallelism(3);
+        config.setDir(dir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void backlogIsAnsweredOnceAndNotRescanned() throws IOException {
+        addTopics(45);
+        ZsxqReplyService service = newService();
+
+        assertEquals(45, service.poll());
+        assertEquals(45, answers.size());
+        assertEquals(3, topicRequests.get());
+        assertEquals(45, modelCalls.get());
+
+        // 回答后列表已变化，再读一次首页记下新的 ETag；之后没有新提问时条件请求返回 304
+        assertEquals(0, service.poll());
+        assertEquals(0, service.poll());
+        assertEquals(1, notModified.get());
+
+        // 新提问只需要读首页
+        addTopics(2);
+        topicRequests.set(0);
+        assertEquals(2, service.poll());
+        assertEquals(1, topicRequests.get());
+        assertEquals(47, modelCalls.get());
+        service.destroy();
+    }
+
+    @Test
+    void failedAnswersAreRetriedWithoutDuplicates() throws IOException {
+        addTopics(30);
+        long broken = unanswered.get(5).id();
+        failing.add(broken);
+        ZsxqReplyService service = newService();
+
+        assertEquals(29, service.poll());
+
+        failing.clear();
+        assertEquals(1, service.poll());
+        assertEquals(30, answers.size());
+        service.destroy();
+
+        // 重启后从磁盘恢复游标与已回答集合
+        addTopics(1);
+        ZsxqReplyService restarted = newService();
+        assertEquals(1, restarted.poll());
+        assertEquals(31, answers.size());
+        restarted.destroy();
+    }
+
+    @Test
+    void topicThatKeepsFailingIsAbandonedAndUnblocksTheCursor() throws IOException {
+        config.setMaxAttempts(2);
+        addTopics(30);
+        failing.add(unanswered.get(5).id());
+        ZsxqReplyService service = newService();
+
+        assertEquals(29, service.poll());
+        // 第二次失败后放弃，游标越过该提问
+        assertEquals(0, service.poll());
+
+        addTopics(1);
+        topicRequests.set(0);
+        modelCalls.set(0);
+        assertEquals(1, service.poll());
+        assertEquals(1, topicRequests.get());
+        assertEquals(1, modelCalls.get());
+        assertEquals(30, answers.size());
+        service.destroy();
+    }
+
+    @Test
+    void backlogBeyondMaxPagesIsResumedInsteadOfSkipped() throws IOException {
+        config.setMaxPages(1);
+        addTopics(5);
+        ZsxqReplyService service = newService();
+        assertEquals(5, service.poll());
+
+        // 中断期间积压 45 条，单次轮询只能翻 1 页（20 条）
+        addTopics(45);
+        assertEquals(20, service.poll());
+        assertEquals(20, service.poll());
+        assertEquals(5, service.poll());
+        assertEquals(50, answers.size());
+        assertTrue(unanswered.isEmpty());
+
+        // 衔接后游标回到最新，新提问只需要读首页
+        addTopics(1);
+        topicRequests.set(0);
+        assertEquals(1, service.poll());
+        assertEquals(1, topicRequests.get());
+        service.destroy();
+    }
+
+    private ZsxqReplyService newService() throws IOException {
+        ZsxqClient client = new ZsxqClient();
+        ReflectionTestUtils.setField(client, "config", config);
+        ReflectionTestUtils.setField(client, "okHttpClient", okHttpClient);
+        ZsxqReplyService service = new ZsxqReplyService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "zsxqClient", client);
+        ReflectionTestUtils.setField(service, "chatClient", ChatClient.builder(new EchoChatModel()).build());
+        service.init();
+        return service;
+    }
+
+    private void addTopics(int count) {
+        for (int i = 0; i < count; i++) {
+            long id = nextId++;
+            unanswered.add(new MockTopic(id, "问题" + id, START.plusMinutes(id)));
+        }
+    }
+
+    private String etag() {
+        return "\"" + unanswered.size() + "-" + (unanswered.isEmpty() ? 0 : unanswered.get(unanswered.size() - 1).id()) + "\"";
+    }
+
+    private void handleTopics(HttpExchange exchange) throws IOException {
+        topicRequests.incrementAndGet();
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        String etag = etag();
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        int count = Integer.parseInt(query.get("count"));
+        OffsetDateTime endTime = query.containsKey("end_time")
+                ? OffsetDateTime.parse(query.get("end_time"), ZsxqClient.TIME_FORMATTER) : null;
+        List<Map<String, Object>> topics = new ArrayList<>();
+        for (int i = unanswered.size() - 1; i >= 0 && topics.size() < count; i--) {
+            MockTopic topic = unanswered.get(i);
+            // 与真实接口一致：end_time 本身也包含在结果中
+            if (endTime == null || !topic.createdAt().isAfter(endTime)) {
+                topics.add(Map.of("topic_id", topic.id(), "type", "q&a",
+                        "question", Map.of("text", topic.question()),
+                        "create_time", ZsxqClient.TIME_FORMATTER.format(topic.createdAt())));
+            }
+        }
+        exchange.getResponseHeaders().add("ETag", etag);
+        respond(exchange, Map.of("succeeded", true, "resp_data", Map.of("topics", topics)));
+    }
+
+    private void handleAnswer(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        long id = Long.parseLong(path.split("/")[3]);
+        JSONObject body = JSON.parseObject(exchange.getRequestBody().readAllBytes());
+        if (failing.contains(id)) {
+            respond(exchange, Map.of("succeeded", false, "code", 1059));
+            return;
+        }
+        if (answers.putIfAbsent(id, body.getJSONObject("req_data").getString("text")) != null) {
+            throw new IllegalStateException("重复回答 " + id);
+        }
+        unanswered.removeIf(topic -> topic.id() == id);
+        respond(exchange, Map.of("succeeded", true, "resp_data", Map.of()));
+    }
+
+    private static void respond(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = JSON.toJSONBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                String[] kv = pair.split("=", 2);
+                query.put(kv[0], URLDecoder.decode(kv[1], StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private record MockTopic(long id, String question, OffsetDateTime createdAt) {
+    }
+
+    private class EchoChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            modelCalls.incrementAndGet();
+            String question = prompt.getUserMessage().getText();
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("回答：" + question))));
+        }
+    }
+}